@@ -14,7 +14,7 @@ import lombok.extern.slf4j.Slf4j;
  * DB in a single transaction, <code>write-around</code> which writes data
  * immediately into the DB instead of the cache, <code>write-behind</code>
  * which writes data into the cache initially whilst the data is only
- * written into the DB when the cache is full, and <code>cache-aside</code>
+ * written into the DB later, in batches, and <code>cache-aside</code>
  * which pushes the responsibility of keeping the data synchronized in both
  * data sources to the application itself. The <code>read-through</code>
  * strategy is also included in the mentioned four strategies --
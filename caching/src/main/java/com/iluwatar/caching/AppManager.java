@@ -24,6 +24,7 @@
 package com.iluwatar.caching;
 
 import com.iluwatar.caching.database.DbManager;
+import com.iluwatar.caching.eviction.EvictionPolicyType;
 
 import java.util.Optional;
 
@@ -51,6 +52,10 @@ public class AppManager {
    * Cache Store.
    */
   private final CacheStore cacheStore;
+  /**
+   * Whether the shutdown hook closing the cache store is registered.
+   */
+  private boolean shutdownHookRegistered;
 
   /**
    * Constructor.
@@ -78,12 +83,33 @@ public class AppManager {
    */
   public void initCachingPolicy(final CachingPolicy policy) {
     cachingPolicy = policy;
-    if (cachingPolicy == CachingPolicy.BEHIND) {
-      Runtime.getRuntime().addShutdownHook(new Thread(cacheStore::flushCache));
+    if (cachingPolicy == CachingPolicy.BEHIND && !shutdownHookRegistered) {
+      Runtime.getRuntime().addShutdownHook(new Thread(cacheStore::close));
+      shutdownHookRegistered = true;
     }
     cacheStore.clearCache();
   }
 
+  /**
+   * Initialize cache capacity, keeping the current eviction policy.
+   *
+   * @param capacity int
+   */
+  public void initCacheCapacity(final int capacity) {
+    cacheStore.initCapacity(capacity);
+  }
+
+  /**
+   * Initialize cache capacity and eviction policy.
+   *
+   * @param capacity       int
+   * @param evictionPolicy is a {@link EvictionPolicyType}
+   */
+  public void initCacheCapacity(final int capacity,
+                                final EvictionPolicyType evictionPolicy) {
+    cacheStore.initCapacity(capacity, evictionPolicy);
+  }
+
   /**
    * Find user account.
    *
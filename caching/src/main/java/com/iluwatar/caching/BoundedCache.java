@@ -0,0 +1,182 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import com.iluwatar.caching.eviction.EvictionPolicy;
+import com.iluwatar.caching.eviction.EvictionPolicyType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single-threaded cache of user accounts with a pluggable eviction policy.
+ * The hash table holds the data; the {@link EvictionPolicy} tracks the user
+ * ids and decides which one has to go when the cache is full.
+ */
+@Slf4j
+public class BoundedCache {
+  /**
+   * Type of the eviction policy.
+   */
+  private final EvictionPolicyType policyType;
+  /**
+   * Eviction policy.
+   */
+  private EvictionPolicy policy;
+  /**
+   * Cache {@link HashMap}.
+   */
+  private final Map<String, UserAccount> cache = new HashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param cap        int
+   * @param policyType {@link EvictionPolicyType}
+   */
+  public BoundedCache(final int cap, final EvictionPolicyType policyType) {
+    this.policyType = policyType;
+    this.policy = policyType.create(cap);
+  }
+
+  /**
+   * Get user account.
+   *
+   * @param userId String
+   * @return {@link UserAccount}, or null if not cached
+   */
+  public UserAccount get(final String userId) {
+    var userAccount = cache.get(userId);
+    if (userAccount != null) {
+      policy.recordAccess(userId);
+    }
+    return userAccount;
+  }
+
+  /**
+   * Set user account.
+   *
+   * @param userId      {@link String}
+   * @param userAccount {@link UserAccount}
+   * @return the user account evicted to make room, which may be
+   *     {@code userAccount} itself if the policy did not admit it, or null
+   */
+  public UserAccount set(final String userId, final UserAccount userAccount) {
+    if (cache.put(userId, userAccount) != null) {
+      policy.recordAccess(userId);
+      return null;
+    }
+    var victim = policy.recordInsertion(userId);
+    if (victim == null) {
+      return null;
+    }
+    LOGGER.info("# Cache is FULL! Removing {} from cache...", victim);
+    return cache.remove(victim);
+  }
+
+  /**
+   * Check if Cache contains the userId.
+   *
+   * @param userId {@link String}
+   * @return boolean
+   */
+  public boolean contains(final String userId) {
+    return cache.containsKey(userId);
+  }
+
+  /**
+   * Invalidate cache for user.
+   *
+   * @param userId {@link String}
+   */
+  public void invalidate(final String userId) {
+    if (cache.remove(userId) != null) {
+      LOGGER.info("# {} has been updated! "
+              + "Removing older version from cache...", userId);
+      policy.recordRemoval(userId);
+    }
+  }
+
+  /**
+   * Check if the cache is full.
+   *
+   * @return boolean
+   */
+  public boolean isFull() {
+    return cache.size() >= policy.getCapacity();
+  }
+
+  /**
+   * Clear cache.
+   */
+  public void clear() {
+    cache.clear();
+    policy.clear();
+  }
+
+  /**
+   * Returns cache data in list form, the entries the policy would evict
+   * last first.
+   *
+   * @return {@link List}
+   */
+  public List<UserAccount> getCacheDataInListForm() {
+    var listOfCacheData = new ArrayList<UserAccount>(cache.size());
+    for (var userId : policy.keys()) {
+      listOfCacheData.add(cache.get(userId));
+    }
+    return listOfCacheData;
+  }
+
+  /**
+   * Get the type of the eviction policy.
+   *
+   * @return {@link EvictionPolicyType}
+   */
+  public EvictionPolicyType getPolicyType() {
+    return policyType;
+  }
+
+  /**
+   * Set cache capacity. Shrinking the cache clears it, as
+   * {@link LruCache#setCapacity(int)} does; growing it replays the cached
+   * user ids into a fresh policy, least valuable first.
+   *
+   * @param newCapacity int
+   */
+  public void setCapacity(final int newCapacity) {
+    var shrinking = newCapacity < policy.getCapacity();
+    var userIds = policy.keys();
+    policy = policyType.create(newCapacity);
+    if (shrinking) {
+      cache.clear();
+      return;
+    }
+    Collections.reverse(userIds);
+    userIds.forEach(policy::recordInsertion);
+  }
+}
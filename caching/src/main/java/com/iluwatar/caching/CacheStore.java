@@ -24,6 +24,7 @@
 package com.iluwatar.caching;
 
 import com.iluwatar.caching.database.DbManager;
+import com.iluwatar.caching.eviction.EvictionPolicyType;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -41,13 +42,17 @@ public class CacheStore {
   private static final int CAPACITY = 3;
 
   /**
-   * Lru cache see {@link LruCache}.
+   * Thread-safe cache see {@link SegmentedCache}.
    */
-  private LruCache cache;
+  private volatile SegmentedCache cache;
   /**
    * DbManager.
    */
   private final DbManager dbManager;
+  /**
+   * Background writer of the write-behind policy.
+   */
+  private final WriteBehindFlusher flusher;
 
   /**
    * Cache Store.
@@ -55,16 +60,27 @@ public class CacheStore {
    */
   public CacheStore(final DbManager dataBaseManager) {
     this.dbManager = dataBaseManager;
+    this.flusher = new WriteBehindFlusher(dataBaseManager);
     initCapacity(CAPACITY);
   }
 
   /**
-   * Init cache capacity.
+   * Init cache capacity, keeping the current eviction policy.
    * @param capacity int
    */
   public void initCapacity(final int capacity) {
-    if (cache == null) {
-      cache = new LruCache(capacity);
+    initCapacity(capacity, cache == null ? EvictionPolicyType.LRU : cache.getPolicyType());
+  }
+
+  /**
+   * Init cache capacity and eviction policy. Switching to another eviction
+   * policy starts with an empty cache.
+   * @param capacity int
+   * @param evictionPolicy {@link EvictionPolicyType}
+   */
+  public void initCapacity(final int capacity, final EvictionPolicyType evictionPolicy) {
+    if (cache == null || cache.getPolicyType() != evictionPolicy) {
+      cache = new SegmentedCache(capacity, evictionPolicy);
     } else {
       cache.setCapacity(capacity);
     }
@@ -76,14 +92,7 @@ public class CacheStore {
    * @return {@link UserAccount}
    */
   public UserAccount readThrough(final String userId) {
-    if (cache.contains(userId)) {
-      LOGGER.info("# Found in Cache!");
-      return cache.get(userId);
-    }
-    LOGGER.info("# Not found in cache! Go to DB!!");
-    UserAccount userAccount = dbManager.readFromDb(userId);
-    cache.set(userId, userAccount);
-    return userAccount;
+    return cache.getOrLoad(userId, dbManager::readFromDb);
   }
 
   /**
@@ -120,32 +129,37 @@ public class CacheStore {
    * @return {@link UserAccount}
    */
   public UserAccount readThroughWithWriteBackPolicy(final String userId) {
-    if (cache.contains(userId)) {
-      LOGGER.info("# Found in cache!");
-      return cache.get(userId);
-    }
-    LOGGER.info("# Not found in Cache!");
-    UserAccount userAccount = dbManager.readFromDb(userId);
-    if (cache.isFull()) {
-      LOGGER.info("# Cache is FULL! Writing LRU data to DB...");
-      UserAccount toBeWrittenToDb = cache.getLruData();
-      dbManager.upsertDb(toBeWrittenToDb);
-    }
-    cache.set(userId, userAccount);
-    return userAccount;
+    return cache.getOrLoad(userId, this::readPendingOrFromDb);
   }
 
   /**
-   * Set user account.
+   * Set user account. The account is only marked dirty; the write-behind
+   * flusher persists it in a later batch, so evicting it from the cache
+   * needs no DB write of its own.
    * @param userAccount {@link UserAccount}
    */
   public void writeBehind(final UserAccount userAccount) {
-    if (cache.isFull() && !cache.contains(userAccount.getUserId())) {
-      LOGGER.info("# Cache is FULL! Writing LRU data to DB...");
-      UserAccount toBeWrittenToDb = cache.getLruData();
-      dbManager.upsertDb(toBeWrittenToDb);
-    }
     cache.set(userAccount.getUserId(), userAccount);
+    flusher.markDirty(userAccount);
+  }
+
+  /**
+   * Reads a user account that missed the cache, preferring a version still
+   * waiting for the write-behind flusher over the stale one in the DB.
+   * @param userId {@link String}
+   * @return {@link UserAccount}
+   */
+  private UserAccount readPendingOrFromDb(final String userId) {
+    return Optional.ofNullable(flusher.getPending(userId))
+        .orElseGet(() -> dbManager.readFromDb(userId));
+  }
+
+  /**
+   * Write-behind flush metrics.
+   * @return {@link WriteBehindMetrics}
+   */
+  public WriteBehindMetrics getWriteBehindMetrics() {
+    return flusher.getMetrics();
   }
 
   /**
@@ -158,15 +172,25 @@ public class CacheStore {
   }
 
   /**
-   * Writes remaining content in the cache into the DB.
+   * Writes the remaining dirty content of the cache into the DB. The cache
+   * keeps accepting writes.
    */
   public void flushCache() {
     LOGGER.info("# flushCache...");
-    Optional.ofNullable(cache)
-        .map(LruCache::getCacheDataInListForm)
-        .orElse(List.of())
-        .forEach(dbManager::updateDb);
-    dbManager.disconnect();
+    flusher.flush();
+  }
+
+  /**
+   * Writes the remaining dirty content of the cache into the DB, stops the
+   * write-behind flusher and disconnects from the DB.
+   */
+  public void close() {
+    LOGGER.info("# close...");
+    try {
+      flusher.close();
+    } finally {
+      dbManager.disconnect();
+    }
   }
 
   /**
@@ -175,7 +199,7 @@ public class CacheStore {
    */
   public String print() {
     return Optional.ofNullable(cache)
-        .map(LruCache::getCacheDataInListForm)
+        .map(SegmentedCache::getCacheDataInListForm)
         .orElse(List.of())
         .stream()
         .map(userAccount -> userAccount.toString() + "\n")
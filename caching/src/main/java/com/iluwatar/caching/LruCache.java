@@ -106,8 +106,8 @@ public class LruCache {
    * @return {@link UserAccount}
    */
   public UserAccount get(final String userId) {
-    if (cache.containsKey(userId)) {
-      var node = cache.get(userId);
+    var node = cache.get(userId);
+    if (node != null) {
       remove(node);
       setHead(node);
       return node.userAccount;
@@ -0,0 +1,389 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import com.iluwatar.caching.eviction.EvictionPolicyType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Thread-safe cache built from a fixed number of independently locked
+ * segments. Every segment is a {@link BoundedCache} with its own eviction
+ * policy, so a user id is only ever contended with the user ids that hash to
+ * the same segment. Eviction decisions are taken within a segment, which
+ * makes the cache as a whole an approximation of its policy. Small caches
+ * get a single segment and therefore follow the policy exactly; with the
+ * default LRU policy they behave like a plain {@link LruCache}.
+ *
+ * <p>The number of segments is fixed when the cache is created. Changing the
+ * capacity afterwards redistributes it over the existing segments.
+ */
+@Slf4j
+public class SegmentedCache {
+  /**
+   * Default maximum number of segments.
+   */
+  static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+  /**
+   * Smallest capacity a segment is allowed to have when the cache is split.
+   */
+  static final int MIN_SEGMENT_CAPACITY = 16;
+
+  /**
+   * Segments of the cache.
+   */
+  private final Segment[] segments;
+  /**
+   * Mask applied to the spread hash of a user id to pick its segment.
+   */
+  private final int segmentMask;
+  /**
+   * Type of the eviction policy of every segment.
+   */
+  private final EvictionPolicyType policyType;
+  /**
+   * Total capacity of the cache.
+   */
+  private volatile int capacity;
+
+  /**
+   * Static class Segment.
+   */
+  private static final class Segment {
+    /**
+     * Guards every access to the segment's cache.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Hash table and eviction policy of the segment.
+     */
+    private final BoundedCache cache;
+
+    /**
+     * Segment definition.
+     *
+     * @param cap        int
+     * @param policyType {@link EvictionPolicyType}
+     */
+    Segment(final int cap, final EvictionPolicyType policyType) {
+      this.cache = new BoundedCache(cap, policyType);
+    }
+  }
+
+  /**
+   * Constructor of an LRU cache.
+   *
+   * @param cap int
+   */
+  public SegmentedCache(final int cap) {
+    this(cap, EvictionPolicyType.LRU);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param cap        int
+   * @param policyType {@link EvictionPolicyType}
+   */
+  public SegmentedCache(final int cap, final EvictionPolicyType policyType) {
+    this(cap, policyType, DEFAULT_CONCURRENCY_LEVEL);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param cap              total capacity
+   * @param policyType       {@link EvictionPolicyType}
+   * @param concurrencyLevel maximum number of segments
+   */
+  public SegmentedCache(final int cap, final EvictionPolicyType policyType,
+                        final int concurrencyLevel) {
+    if (cap <= 0 || concurrencyLevel <= 0) {
+      throw new IllegalArgumentException(
+          "Capacity and concurrency level must be positive");
+    }
+    var count = 1;
+    while (count * 2 <= concurrencyLevel
+        && cap / (count * 2) >= MIN_SEGMENT_CAPACITY) {
+      count *= 2;
+    }
+    this.capacity = cap;
+    this.policyType = policyType;
+    this.segmentMask = count - 1;
+    this.segments = new Segment[count];
+    for (var i = 0; i < count; i++) {
+      segments[i] = new Segment(segmentCapacity(cap, i), policyType);
+    }
+  }
+
+  /**
+   * Get user account.
+   *
+   * @param userId String
+   * @return {@link UserAccount}, or null if not cached
+   */
+  public UserAccount get(final String userId) {
+    var segment = segmentFor(userId);
+    segment.lock.lock();
+    try {
+      return segment.cache.get(userId);
+    } finally {
+      segment.lock.unlock();
+    }
+  }
+
+  /**
+   * Get user account, loading and caching it on a miss.
+   *
+   * @param userId String
+   * @param loader reads the user account from the backing store
+   * @return {@link UserAccount}
+   */
+  public UserAccount getOrLoad(final String userId,
+                               final Function<String, UserAccount> loader) {
+    return getOrLoad(userId, loader, evicted -> { });
+  }
+
+  /**
+   * Get user account, loading and caching it on a miss. A hit costs a single
+   * lookup under the segment lock. The loader runs without holding the lock
+   * so a slow backing store does not block the rest of the segment; if
+   * another thread caches the same user id meanwhile, its value wins.
+   *
+   * @param userId          String
+   * @param loader          reads the user account from the backing store
+   * @param evictionHandler receives the entry evicted to make room, if any
+   * @return {@link UserAccount}
+   */
+  public UserAccount getOrLoad(final String userId,
+                               final Function<String, UserAccount> loader,
+                               final Consumer<UserAccount> evictionHandler) {
+    var segment = segmentFor(userId);
+    segment.lock.lock();
+    try {
+      var cached = segment.cache.get(userId);
+      if (cached != null) {
+        LOGGER.debug("# Found in cache!");
+        return cached;
+      }
+    } finally {
+      segment.lock.unlock();
+    }
+    LOGGER.debug("# Not found in cache! Go to DB!!");
+    var loaded = loader.apply(userId);
+    if (loaded == null) {
+      return null;
+    }
+    segment.lock.lock();
+    try {
+      var cached = segment.cache.get(userId);
+      if (cached != null) {
+        return cached;
+      }
+      put(segment, userId, loaded, evictionHandler);
+      return loaded;
+    } finally {
+      segment.lock.unlock();
+    }
+  }
+
+  /**
+   * Set user account.
+   *
+   * @param userId      {@link String}
+   * @param userAccount {@link UserAccount}
+   */
+  public void set(final String userId, final UserAccount userAccount) {
+    set(userId, userAccount, evicted -> { });
+  }
+
+  /**
+   * Set user account. The eviction handler runs while the segment is still
+   * locked, so the evicted entry cannot be re-read from the backing store
+   * before the handler has dealt with it.
+   *
+   * @param userId          {@link String}
+   * @param userAccount     {@link UserAccount}
+   * @param evictionHandler receives the entry evicted to make room, if any
+   */
+  public void set(final String userId, final UserAccount userAccount,
+                  final Consumer<UserAccount> evictionHandler) {
+    var segment = segmentFor(userId);
+    segment.lock.lock();
+    try {
+      put(segment, userId, userAccount, evictionHandler);
+    } finally {
+      segment.lock.unlock();
+    }
+  }
+
+  /**
+   * Check if Cache contains the userId.
+   *
+   * @param userId {@link String}
+   * @return boolean
+   */
+  public boolean contains(final String userId) {
+    var segment = segmentFor(userId);
+    segment.lock.lock();
+    try {
+      return segment.cache.contains(userId);
+    } finally {
+      segment.lock.unlock();
+    }
+  }
+
+  /**
+   * Invalidate cache for user.
+   *
+   * @param userId {@link String}
+   */
+  public void invalidate(final String userId) {
+    var segment = segmentFor(userId);
+    segment.lock.lock();
+    try {
+      segment.cache.invalidate(userId);
+    } finally {
+      segment.lock.unlock();
+    }
+  }
+
+  /**
+   * Clear cache.
+   */
+  public void clear() {
+    for (var segment : segments) {
+      segment.lock.lock();
+      try {
+        segment.cache.clear();
+      } finally {
+        segment.lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Returns cache data in list form, in the order of the policy within each
+   * segment.
+   *
+   * @return {@link List}
+   */
+  public List<UserAccount> getCacheDataInListForm() {
+    var listOfCacheData = new ArrayList<UserAccount>();
+    for (var segment : segments) {
+      segment.lock.lock();
+      try {
+        listOfCacheData.addAll(segment.cache.getCacheDataInListForm());
+      } finally {
+        segment.lock.unlock();
+      }
+    }
+    return listOfCacheData;
+  }
+
+  /**
+   * Set cache capacity. Like {@link LruCache#setCapacity(int)}, shrinking
+   * the cache clears it.
+   *
+   * @param newCapacity int
+   */
+  public void setCapacity(final int newCapacity) {
+    if (newCapacity < segments.length) {
+      throw new IllegalArgumentException(
+          "Capacity must be at least the number of segments");
+    }
+    for (var i = 0; i < segments.length; i++) {
+      var segment = segments[i];
+      segment.lock.lock();
+      try {
+        segment.cache.setCapacity(segmentCapacity(newCapacity, i));
+      } finally {
+        segment.lock.unlock();
+      }
+    }
+    this.capacity = newCapacity;
+  }
+
+  /**
+   * Get cache capacity.
+   *
+   * @return int
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Get the type of the eviction policy.
+   *
+   * @return {@link EvictionPolicyType}
+   */
+  public EvictionPolicyType getPolicyType() {
+    return policyType;
+  }
+
+  /**
+   * Get number of segments.
+   *
+   * @return int
+   */
+  public int getSegmentCount() {
+    return segments.length;
+  }
+
+  /**
+   * Insert into a locked segment, handing the evicted entry, if any, to the
+   * eviction handler.
+   */
+  private static void put(final Segment segment, final String userId,
+                          final UserAccount userAccount,
+                          final Consumer<UserAccount> evictionHandler) {
+    var evicted = segment.cache.set(userId, userAccount);
+    if (evicted != null) {
+      evictionHandler.accept(evicted);
+    }
+  }
+
+  /**
+   * Capacity of the segment at the given index. The remainder of the
+   * division goes to the first segments.
+   */
+  private int segmentCapacity(final int total, final int index) {
+    var count = segmentMask + 1;
+    return total / count + (index < total % count ? 1 : 0);
+  }
+
+  /**
+   * Pick the segment of a user id. The hash is spread so that the high bits
+   * take part in the selection as well.
+   */
+  private Segment segmentFor(final String userId) {
+    var h = userId.hashCode();
+    return segments[(h ^ (h >>> 16)) & segmentMask];
+  }
+}
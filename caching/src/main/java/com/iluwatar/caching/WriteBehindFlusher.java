@@ -0,0 +1,455 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import com.iluwatar.caching.database.DbManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Background writer for the write-behind policy. Dirty user accounts are
+ * collected in insertion order; a second write of the same user id replaces
+ * the pending one, so a burst of updates costs a single DB write per user.
+ * A daemon thread hands the dirty entries to {@link DbManager#upsertBatch}
+ * once {@code maxBatchSize} entries are pending or the oldest one has waited
+ * {@code maxDelayMillis}, whichever comes first. Writers block when
+ * {@code highWaterMark} entries are pending, so a DB that cannot keep up
+ * slows the writers down instead of growing the dirty set without bound.
+ * A failed batch is retried after a growing backoff. While a caller waits
+ * in {@link #flush()} or {@link #close()}, the dirty entries are given up
+ * after {@code FLUSH_ATTEMPTS} failed batches in a row, and the caller
+ * gets an exception naming them.
+ */
+@Slf4j
+public class WriteBehindFlusher implements AutoCloseable {
+  /**
+   * Default largest batch handed to the DB.
+   */
+  static final int DEFAULT_MAX_BATCH_SIZE = 100;
+  /**
+   * Default longest time a dirty entry waits for its batch.
+   */
+  static final long DEFAULT_MAX_DELAY_MILLIS = 100;
+  /**
+   * Default number of pending entries at which writers block.
+   */
+  static final int DEFAULT_HIGH_WATER_MARK = 1_000;
+  /**
+   * Number of failed batches in a row after which a flush or close gives up.
+   */
+  static final int FLUSH_ATTEMPTS = 3;
+  /**
+   * Wait before retrying after the first failed batch, doubled on every
+   * further failure.
+   */
+  static final long RETRY_BACKOFF_MILLIS = 10;
+  /**
+   * Longest wait before retrying a failed batch.
+   */
+  static final long MAX_RETRY_BACKOFF_MILLIS = 1_000;
+
+  /**
+   * DbManager.
+   */
+  private final DbManager dbManager;
+  /**
+   * Largest batch handed to the DB.
+   */
+  private final int maxBatchSize;
+  /**
+   * Longest time a dirty entry waits for its batch.
+   */
+  private final long maxDelayNanos;
+  /**
+   * Number of pending entries at which writers block.
+   */
+  private final int highWaterMark;
+  /**
+   * Flush metrics.
+   */
+  private final WriteBehindMetrics metrics = new WriteBehindMetrics();
+
+  /**
+   * Guards every field below.
+   */
+  private final ReentrantLock lock = new ReentrantLock();
+  /**
+   * Signalled when the flush thread has work to do.
+   */
+  private final Condition flushNeeded = lock.newCondition();
+  /**
+   * Signalled when entries leave the dirty set or a batch completes.
+   */
+  private final Condition progress = lock.newCondition();
+  /**
+   * Entries waiting to be written, oldest first.
+   */
+  private final Map<String, UserAccount> dirty = new LinkedHashMap<>();
+  /**
+   * Entries of the batch currently being written.
+   */
+  private final Map<String, UserAccount> inFlight = new HashMap<>();
+  /**
+   * Time the oldest dirty entry was added.
+   */
+  private long oldestDirtyNanos;
+  /**
+   * Number of callers waiting for {@link #flush()}.
+   */
+  private int flushRequests;
+  /**
+   * Background flush thread, started with the first write.
+   */
+  private Thread flushThread;
+  /**
+   * Whether {@link #close()} has been called.
+   */
+  private boolean closed;
+  /**
+   * Number of batches that failed in a row.
+   */
+  private int failedAttempts;
+  /**
+   * Time before which a failed batch is not retried.
+   */
+  private long retryAtNanos;
+  /**
+   * Number of times dirty entries were given up.
+   */
+  private int giveUps;
+  /**
+   * User ids of the entries given up last.
+   */
+  private List<String> lostUserIds = List.of();
+
+  /**
+   * Constructor with default batch size, delay and high-water mark.
+   *
+   * @param dataBaseManager {@link DbManager}
+   */
+  public WriteBehindFlusher(final DbManager dataBaseManager) {
+    this(dataBaseManager, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_DELAY_MILLIS,
+        DEFAULT_HIGH_WATER_MARK);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param dataBaseManager {@link DbManager}
+   * @param maxBatchSize    largest batch handed to the DB
+   * @param maxDelayMillis  longest time a dirty entry waits for its batch
+   * @param highWaterMark   number of pending entries at which writers block
+   */
+  public WriteBehindFlusher(final DbManager dataBaseManager, final int maxBatchSize,
+                            final long maxDelayMillis, final int highWaterMark) {
+    if (maxBatchSize <= 0 || maxDelayMillis < 0 || highWaterMark < maxBatchSize) {
+      throw new IllegalArgumentException("Invalid write-behind batch settings");
+    }
+    this.dbManager = dataBaseManager;
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+    this.highWaterMark = highWaterMark;
+  }
+
+  /**
+   * Mark a user account as dirty. Blocks while the dirty set is at its
+   * high-water mark, unless the user id is already pending.
+   *
+   * @param userAccount {@link UserAccount}
+   */
+  public void markDirty(final UserAccount userAccount) {
+    var userId = userAccount.getUserId();
+    lock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("Write-behind flusher is closed");
+      }
+      startIfNeeded();
+      if (!dirty.containsKey(userId) && dirty.size() >= highWaterMark) {
+        metrics.recordBackpressureWait();
+        flushNeeded.signal();
+        while (!dirty.containsKey(userId) && dirty.size() >= highWaterMark) {
+          progress.await();
+        }
+      }
+      if (dirty.isEmpty()) {
+        oldestDirtyNanos = System.nanoTime();
+      }
+      if (dirty.put(userId, userAccount) != null) {
+        metrics.recordFoldedWrite();
+      }
+      if (dirty.size() == 1 || dirty.size() >= maxBatchSize) {
+        flushNeeded.signal();
+      }
+    } catch (InterruptedException e) {
+      // keep the write rather than lose it; the caller sees the interrupt
+      Thread.currentThread().interrupt();
+      dirty.put(userId, userAccount);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get the pending, not yet persisted, version of a user account. Reads
+   * that miss the cache must consult this first, otherwise they would load
+   * a stale version from the DB.
+   *
+   * @param userId {@link String}
+   * @return {@link UserAccount}, or null if nothing is pending
+   */
+  public UserAccount getPending(final String userId) {
+    lock.lock();
+    try {
+      var pending = dirty.get(userId);
+      return pending != null ? pending : inFlight.get(userId);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get number of entries waiting to be written.
+   *
+   * @return int
+   */
+  public int getDirtyCount() {
+    lock.lock();
+    try {
+      return dirty.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get flush metrics.
+   *
+   * @return {@link WriteBehindMetrics}
+   */
+  public WriteBehindMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Write every pending entry without waiting for the batch delay, and
+   * block until they are persisted.
+   *
+   * @throws IllegalStateException if some entries could not be written
+   */
+  public void flush() {
+    lock.lock();
+    try {
+      if (flushThread == null) {
+        return;
+      }
+      var giveUpsBefore = giveUps;
+      flushRequests++;
+      flushNeeded.signal();
+      try {
+        while (!(dirty.isEmpty() && inFlight.isEmpty()) && flushThread.isAlive()) {
+          progress.await();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        flushRequests--;
+      }
+      checkNothingLost(giveUpsBefore);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Write every pending entry and stop the flush thread. Further writes
+   * are rejected.
+   *
+   * @throws IllegalStateException if some entries could not be written
+   */
+  @Override
+  public void close() {
+    Thread thread;
+    int giveUpsBefore;
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      giveUpsBefore = giveUps;
+      closed = true;
+      thread = flushThread;
+      flushNeeded.signal();
+    } finally {
+      lock.unlock();
+    }
+    if (thread != null) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    LOGGER.info("# Write-behind flusher closed: {}", metrics);
+    lock.lock();
+    try {
+      checkNothingLost(giveUpsBefore);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Throw if dirty entries were given up since the caller started waiting.
+   * Must be called with the lock held.
+   */
+  private void checkNothingLost(final int giveUpsBefore) {
+    if (giveUps != giveUpsBefore) {
+      throw new IllegalStateException("Could not write " + lostUserIds.size()
+          + " dirty entries to the DB: " + lostUserIds);
+    }
+  }
+
+  /**
+   * Start the flush thread. Must be called with the lock held.
+   */
+  private void startIfNeeded() {
+    if (flushThread == null) {
+      flushThread = new Thread(this::runFlushLoop, "write-behind-flusher");
+      flushThread.setDaemon(true);
+      flushThread.start();
+    }
+  }
+
+  /**
+   * Body of the flush thread: wait until a batch is due, take it out of the
+   * dirty set, write it without holding the lock and start over. Exits once
+   * closed and drained.
+   */
+  private void runFlushLoop() {
+    while (true) {
+      List<UserAccount> batch;
+      lock.lock();
+      try {
+        while (dirty.isEmpty()) {
+          if (closed) {
+            return;
+          }
+          flushNeeded.await();
+        }
+        var remaining = oldestDirtyNanos + maxDelayNanos - System.nanoTime();
+        while (remaining > 0 && dirty.size() < maxBatchSize
+            && flushRequests == 0 && !closed) {
+          remaining = flushNeeded.awaitNanos(remaining);
+        }
+        // give a failing DB some time, even when a flush is waiting
+        var backoff = retryAtNanos - System.nanoTime();
+        while (backoff > 0) {
+          backoff = flushNeeded.awaitNanos(backoff);
+        }
+        batch = takeBatch();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        LOGGER.error("# Write-behind flusher interrupted with {} dirty entries",
+            getDirtyCount());
+        return;
+      } finally {
+        lock.unlock();
+      }
+      write(batch);
+    }
+  }
+
+  /**
+   * Move up to {@code maxBatchSize} of the oldest dirty entries to the
+   * in-flight set. Must be called with the lock held.
+   */
+  private List<UserAccount> takeBatch() {
+    var batch = new ArrayList<UserAccount>(Math.min(dirty.size(), maxBatchSize));
+    var iterator = dirty.values().iterator();
+    while (iterator.hasNext() && batch.size() < maxBatchSize) {
+      var userAccount = iterator.next();
+      iterator.remove();
+      inFlight.put(userAccount.getUserId(), userAccount);
+      batch.add(userAccount);
+    }
+    // the age of the remaining entries is unknown, so start their clock now
+    oldestDirtyNanos = System.nanoTime();
+    progress.signalAll();
+    return batch;
+  }
+
+  /**
+   * Write a batch to the DB. A failed batch goes back to the dirty set,
+   * unless a newer version of an entry has been written in the meantime,
+   * to be retried after a backoff; while a flush or close waits, all dirty
+   * entries are given up after {@code FLUSH_ATTEMPTS} failed batches in a
+   * row.
+   */
+  private void write(final List<UserAccount> batch) {
+    var start = System.nanoTime();
+    var succeeded = false;
+    try {
+      dbManager.upsertBatch(batch);
+      succeeded = true;
+      metrics.recordFlush(batch.size(), System.nanoTime() - start);
+      LOGGER.debug("# Wrote {} dirty entries to DB", batch.size());
+    } catch (RuntimeException e) {
+      LOGGER.error("# Write-behind batch of {} entries failed", batch.size(), e);
+    } finally {
+      lock.lock();
+      try {
+        for (var userAccount : batch) {
+          inFlight.remove(userAccount.getUserId(), userAccount);
+          if (!succeeded) {
+            dirty.putIfAbsent(userAccount.getUserId(), userAccount);
+          }
+        }
+        if (succeeded) {
+          failedAttempts = 0;
+        } else if (++failedAttempts >= FLUSH_ATTEMPTS && (closed || flushRequests > 0)) {
+          lostUserIds = List.copyOf(dirty.keySet());
+          dirty.clear();
+          giveUps++;
+          failedAttempts = 0;
+          LOGGER.error("# Write-behind flusher gave up {} dirty entries", lostUserIds.size());
+        } else {
+          var backoff = Math.min(RETRY_BACKOFF_MILLIS << Math.min(failedAttempts - 1, 20),
+              MAX_RETRY_BACKOFF_MILLIS);
+          retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
+        }
+        progress.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing the work of a {@link WriteBehindFlusher}: how many
+ * batches were written, how large they were, how long the DB took to accept
+ * them, how many writes were folded into an already dirty entry and how often
+ * writers had to wait for the flusher to catch up.
+ */
+public class WriteBehindMetrics {
+  /**
+   * Number of batches written.
+   */
+  private final LongAdder batches = new LongAdder();
+  /**
+   * Number of entries written.
+   */
+  private final LongAdder entries = new LongAdder();
+  /**
+   * Writes that replaced a pending write of the same user.
+   */
+  private final LongAdder foldedWrites = new LongAdder();
+  /**
+   * Writers that blocked on the high-water mark.
+   */
+  private final LongAdder backpressureWaits = new LongAdder();
+  /**
+   * Sum of the flush latencies in nanoseconds.
+   */
+  private final LongAdder totalFlushNanos = new LongAdder();
+  /**
+   * Largest flush latency in nanoseconds.
+   */
+  private final LongAccumulator maxFlushNanos = new LongAccumulator(Math::max, 0);
+  /**
+   * Largest batch written.
+   */
+  private final LongAccumulator maxBatchSize = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Record a batch that has been written.
+   *
+   * @param batchSize    number of entries in the batch
+   * @param elapsedNanos time the DB took to write the batch
+   */
+  void recordFlush(final int batchSize, final long elapsedNanos) {
+    batches.increment();
+    entries.add(batchSize);
+    totalFlushNanos.add(elapsedNanos);
+    maxFlushNanos.accumulate(elapsedNanos);
+    maxBatchSize.accumulate(batchSize);
+  }
+
+  /**
+   * Record a write folded into a pending one.
+   */
+  void recordFoldedWrite() {
+    foldedWrites.increment();
+  }
+
+  /**
+   * Record a writer blocked on the high-water mark.
+   */
+  void recordBackpressureWait() {
+    backpressureWaits.increment();
+  }
+
+  /**
+   * Get number of batches written.
+   *
+   * @return long
+   */
+  public long getBatchCount() {
+    return batches.sum();
+  }
+
+  /**
+   * Get number of entries written.
+   *
+   * @return long
+   */
+  public long getFlushedEntryCount() {
+    return entries.sum();
+  }
+
+  /**
+   * Get number of writes folded into a pending write of the same user.
+   *
+   * @return long
+   */
+  public long getFoldedWriteCount() {
+    return foldedWrites.sum();
+  }
+
+  /**
+   * Get number of times a writer blocked on the high-water mark.
+   *
+   * @return long
+   */
+  public long getBackpressureWaitCount() {
+    return backpressureWaits.sum();
+  }
+
+  /**
+   * Get average batch size.
+   *
+   * @return double
+   */
+  public double getAverageBatchSize() {
+    var count = batches.sum();
+    return count == 0 ? 0 : (double) entries.sum() / count;
+  }
+
+  /**
+   * Get largest batch size.
+   *
+   * @return long
+   */
+  public long getMaxBatchSize() {
+    return maxBatchSize.get();
+  }
+
+  /**
+   * Get average flush latency.
+   *
+   * @return latency in milliseconds
+   */
+  public double getAverageFlushLatencyMillis() {
+    var count = batches.sum();
+    return count == 0 ? 0 : toMillis(totalFlushNanos.sum()) / count;
+  }
+
+  /**
+   * Get largest flush latency.
+   *
+   * @return latency in milliseconds
+   */
+  public double getMaxFlushLatencyMillis() {
+    return toMillis(maxFlushNanos.get());
+  }
+
+  @Override
+  public String toString() {
+    return String.format("batches=%d, entries=%d, folded=%d, backpressureWaits=%d, "
+            + "avgBatch=%.1f, maxBatch=%d, avgFlushMs=%.3f, maxFlushMs=%.3f",
+        getBatchCount(), getFlushedEntryCount(), getFoldedWriteCount(),
+        getBackpressureWaitCount(), getAverageBatchSize(), getMaxBatchSize(),
+        getAverageFlushLatencyMillis(), getMaxFlushLatencyMillis());
+  }
+
+  private static double toMillis(final long nanos) {
+    return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
@@ -1,6 +1,7 @@
 package com.iluwatar.caching.database;
 
 import com.iluwatar.caching.UserAccount;
+import java.util.List;
 
 /**
  * <p>DBManager handles the communication with the underlying data store i.e.
@@ -49,4 +50,12 @@ public interface DbManager {
    * @return {@link UserAccount}
    */
   UserAccount upsertDb(UserAccount userAccount);
+
+  /**
+   * Update records or Insert the ones that do not exist, in a single round
+   * trip to the DB where the engine supports it.
+   *
+   * @param userAccounts {@link List} of {@link UserAccount}
+   */
+  void upsertBatch(List<UserAccount> userAccounts);
 }
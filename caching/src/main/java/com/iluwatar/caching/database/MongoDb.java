@@ -12,8 +12,11 @@ import com.mongodb.MongoClientOptions;
 import com.mongodb.MongoCredential;
 import com.mongodb.ServerAddress;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.UpdateOptions;
 import java.util.List;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 
@@ -111,18 +114,46 @@ public class MongoDb implements DbManager {
    */
   @Override
   public UserAccount upsertDb(final UserAccount userAccount) {
-    String userId = userAccount.getUserId();
-    String userName = userAccount.getUserName();
-    String additionalInfo = userAccount.getAdditionalInfo();
     db.getCollection(CachingConstants.USER_ACCOUNT).updateOne(
-            new Document(USER_ID, userId),
-            new Document("$set",
-                    new Document(USER_ID, userId)
-                            .append(USER_NAME, userName)
-                            .append(ADD_INFO, additionalInfo)
-            ),
+            new Document(USER_ID, userAccount.getUserId()),
+            upsertDocument(userAccount),
             new UpdateOptions().upsert(true)
     );
     return userAccount;
   }
+
+  /**
+   * Upsert all records with one unordered bulk write.
+   *
+   * @param userAccounts {@link List} of {@link UserAccount}
+   */
+  @Override
+  public void upsertBatch(final List<UserAccount> userAccounts) {
+    if (userAccounts.isEmpty()) {
+      return;
+    }
+    var upsert = new UpdateOptions().upsert(true);
+    var requests = userAccounts.stream()
+            .map(userAccount -> new UpdateOneModel<Document>(
+                    new Document(USER_ID, userAccount.getUserId()),
+                    upsertDocument(userAccount),
+                    upsert))
+            .collect(Collectors.toList());
+    db.getCollection(CachingConstants.USER_ACCOUNT)
+            .bulkWrite(requests, new BulkWriteOptions().ordered(false));
+  }
+
+  /**
+   * Build the $set document that upserts a user account.
+   *
+   * @param userAccount {@link UserAccount}
+   * @return {@link Document}
+   */
+  private static Document upsertDocument(final UserAccount userAccount) {
+    return new Document("$set",
+            new Document(USER_ID, userAccount.getUserId())
+                    .append(USER_NAME, userAccount.getUserName())
+                    .append(ADD_INFO, userAccount.getAdditionalInfo())
+    );
+  }
 }
@@ -2,8 +2,9 @@ package com.iluwatar.caching.database;
 
 import com.iluwatar.caching.UserAccount;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation of DatabaseManager.
@@ -16,11 +17,12 @@ public class VirtualDb implements DbManager {
   private Map<String, UserAccount> db;
 
   /**
-   * Creates new HashMap.
+   * Creates new ConcurrentHashMap, as the write-behind flusher updates the
+   * DB from its own thread.
    */
   @Override
   public void connect() {
-    db = new HashMap<>();
+    db = new ConcurrentHashMap<>();
   }
 
   @Override
@@ -36,10 +38,7 @@ public class VirtualDb implements DbManager {
    */
   @Override
   public UserAccount readFromDb(final String userId) {
-    if (db.containsKey(userId)) {
-      return db.get(userId);
-    }
-    return null;
+    return db.get(userId);
   }
 
   /**
@@ -75,4 +74,14 @@ public class VirtualDb implements DbManager {
   public UserAccount upsertDb(final UserAccount userAccount) {
     return updateDb(userAccount);
   }
+
+  /**
+   * Update or insert every record of the batch.
+   *
+   * @param userAccounts {@link List} of {@link UserAccount}
+   */
+  @Override
+  public void upsertBatch(final List<UserAccount> userAccounts) {
+    userAccounts.forEach(this::writeToDb);
+  }
 }
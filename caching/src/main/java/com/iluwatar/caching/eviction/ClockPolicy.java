@@ -0,0 +1,171 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching.eviction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CLOCK eviction, an approximation of LRU that makes a hit as cheap as
+ * setting a bit. The keys sit in a fixed circular array with one reference
+ * bit each. To find a victim the hand sweeps the array, clearing the bits it
+ * passes, and evicts the first key whose bit was already clear; keys hit
+ * since the last sweep therefore get a second chance.
+ */
+public class ClockPolicy implements EvictionPolicy {
+  /**
+   * Keys by slot, null for a free slot.
+   */
+  private final String[] slots;
+  /**
+   * Reference bit of every slot.
+   */
+  private final boolean[] referenced;
+  /**
+   * Slot of every key held.
+   */
+  private final Map<String, Integer> index = new HashMap<>();
+  /**
+   * Slots freed by removals.
+   */
+  private final Deque<Integer> freeSlots = new ArrayDeque<>();
+  /**
+   * Number of slots never used so far.
+   */
+  private int unused;
+  /**
+   * Position of the clock hand.
+   */
+  private int hand;
+
+  /**
+   * Constructor.
+   *
+   * @param cap int
+   */
+  public ClockPolicy(final int cap) {
+    if (cap <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.slots = new String[cap];
+    this.referenced = new boolean[cap];
+    this.unused = cap;
+  }
+
+  @Override
+  public void recordAccess(final String key) {
+    var slot = index.get(key);
+    if (slot != null) {
+      referenced[slot] = true;
+    }
+  }
+
+  @Override
+  public String recordInsertion(final String key) {
+    if (unused > 0) {
+      place(key, slots.length - unused--);
+      return null;
+    }
+    if (!freeSlots.isEmpty()) {
+      place(key, freeSlots.pop());
+      return null;
+    }
+    while (referenced[hand]) {
+      referenced[hand] = false;
+      hand = (hand + 1) % slots.length;
+    }
+    var victim = slots[hand];
+    index.remove(victim);
+    place(key, hand);
+    hand = (hand + 1) % slots.length;
+    return victim;
+  }
+
+  @Override
+  public void recordRemoval(final String key) {
+    var slot = index.remove(key);
+    if (slot != null) {
+      slots[slot] = null;
+      referenced[slot] = false;
+      freeSlots.push(slot);
+    }
+  }
+
+  @Override
+  public boolean contains(final String key) {
+    return index.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return index.size();
+  }
+
+  @Override
+  public int getCapacity() {
+    return slots.length;
+  }
+
+  /**
+   * Get the keys held. Keys with their reference bit set come first; within
+   * each group the keys furthest ahead of the hand, which the hand reaches
+   * last, come first.
+   *
+   * @return {@link List}
+   */
+  @Override
+  public List<String> keys() {
+    var hot = new ArrayList<String>();
+    var cold = new ArrayList<String>();
+    for (var i = slots.length; i > 0; i--) {
+      var slot = (hand + i - 1) % slots.length;
+      if (slots[slot] != null) {
+        (referenced[slot] ? hot : cold).add(slots[slot]);
+      }
+    }
+    hot.addAll(cold);
+    return hot;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(slots, null);
+    Arrays.fill(referenced, false);
+    index.clear();
+    freeSlots.clear();
+    unused = slots.length;
+    hand = 0;
+  }
+
+  private void place(final String key, final int slot) {
+    slots[slot] = key;
+    referenced[slot] = false;
+    index.put(key, slot);
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching.eviction;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch estimating how often a key has been seen recently, in a
+ * fixed amount of memory. Every key maps to one small counter in each of
+ * four rows; the estimate is the smallest of them, so collisions can only
+ * inflate it. Counters saturate at 15 and are all halved once the number of
+ * recorded events reaches ten times the sampled capacity, so the sketch
+ * forgets old popularity and follows shifts of the working set.
+ */
+public class CountMinSketch {
+  /**
+   * Number of rows.
+   */
+  private static final int DEPTH = 4;
+  /**
+   * Largest value of a counter.
+   */
+  private static final int MAX_COUNT = 15;
+  /**
+   * Events per unit of capacity between two halvings.
+   */
+  private static final int SAMPLE_FACTOR = 10;
+  /**
+   * Seeds of the per-row hash functions.
+   */
+  private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+
+  /**
+   * Counters, one row per hash function.
+   */
+  private final byte[][] table;
+  /**
+   * Mask selecting a column from a hash.
+   */
+  private final int mask;
+  /**
+   * Number of events between two halvings.
+   */
+  private final int sampleSize;
+  /**
+   * Events recorded since the last halving.
+   */
+  private int additions;
+
+  /**
+   * Constructor.
+   *
+   * @param capacity number of distinct keys the sketch should tell apart
+   */
+  public CountMinSketch(final int capacity) {
+    // four counters per row for every key the cache can hold keep collisions rare
+    var width = Integer.highestOneBit(Math.max(capacity, 8) - 1) << 3;
+    this.table = new byte[DEPTH][width];
+    this.mask = width - 1;
+    this.sampleSize = Math.max(capacity, 1) * SAMPLE_FACTOR;
+  }
+
+  /**
+   * Record an occurrence of a key.
+   *
+   * @param key {@link String}
+   */
+  public void increment(final String key) {
+    var hash = spread(key.hashCode());
+    var added = false;
+    for (var i = 0; i < DEPTH; i++) {
+      var column = column(hash, i);
+      if (table[i][column] < MAX_COUNT) {
+        table[i][column]++;
+        added = true;
+      }
+    }
+    if (added && ++additions >= sampleSize) {
+      halve();
+    }
+  }
+
+  /**
+   * Estimate how often a key has been seen recently.
+   *
+   * @param key {@link String}
+   * @return estimated frequency, at most 15
+   */
+  public int frequency(final String key) {
+    var hash = spread(key.hashCode());
+    var frequency = MAX_COUNT;
+    for (var i = 0; i < DEPTH; i++) {
+      frequency = Math.min(frequency, table[i][column(hash, i)]);
+    }
+    return frequency;
+  }
+
+  /**
+   * Forget everything.
+   */
+  public void clear() {
+    for (var row : table) {
+      Arrays.fill(row, (byte) 0);
+    }
+    additions = 0;
+  }
+
+  private void halve() {
+    for (var row : table) {
+      for (var i = 0; i < row.length; i++) {
+        row[i] = (byte) (row[i] >>> 1);
+      }
+    }
+    additions /= 2;
+  }
+
+  private int column(final int hash, final int row) {
+    var h = (hash + SEEDS[row]) * SEEDS[row];
+    h += h >>> 32;
+    return (int) h & mask;
+  }
+
+  private static int spread(final int hash) {
+    var h = hash * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching.eviction;
+
+import java.util.List;
+
+/**
+ * Service provider interface of the cache's eviction policies. A policy only
+ * tracks keys; the cache that owns it stores the values, tells the policy
+ * about every hit, insertion and removal, and drops whatever key the policy
+ * hands back as evicted. Implementations are not thread-safe, the owning
+ * cache serializes the calls.
+ */
+public interface EvictionPolicy {
+  /**
+   * Record a hit on a key held by the policy.
+   *
+   * @param key {@link String}
+   */
+  void recordAccess(String key);
+
+  /**
+   * Record a key that is not held by the policy yet.
+   *
+   * @param key {@link String}
+   * @return the key evicted to make room, which may be {@code key} itself
+   *     if the policy refuses to admit it, or null if nothing was evicted
+   */
+  String recordInsertion(String key);
+
+  /**
+   * Record the removal of a key by the cache.
+   *
+   * @param key {@link String}
+   */
+  void recordRemoval(String key);
+
+  /**
+   * Check if the policy holds the key.
+   *
+   * @param key {@link String}
+   * @return boolean
+   */
+  boolean contains(String key);
+
+  /**
+   * Get the number of keys held.
+   *
+   * @return int
+   */
+  int size();
+
+  /**
+   * Get the maximum number of keys held.
+   *
+   * @return int
+   */
+  int getCapacity();
+
+  /**
+   * Get the keys held, the ones the policy would evict last first.
+   *
+   * @return {@link List}
+   */
+  List<String> keys();
+
+  /**
+   * Forget every key.
+   */
+  void clear();
+}
@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching.eviction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Trace-driven simulator comparing the hit ratios of the eviction policies.
+ * A trace is a sequence of user ids, as requested from the cache; the
+ * simulator replays it against every {@link EvictionPolicyType} with the same
+ * capacity, counting a hit whenever the policy still holds the requested id.
+ *
+ * <p>Run it with a trace file, one user id per line, and a capacity:
+ * 'java ... HitRatioSimulator trace.txt 1000'. Without arguments it replays a
+ * synthetic trace of Zipf-distributed requests interrupted by scans, which
+ * shows how much a plain LRU cache suffers from scan pollution.
+ */
+@Slf4j
+public final class HitRatioSimulator {
+  /**
+   * Capacity used when none is given.
+   */
+  private static final int DEFAULT_CAPACITY = 1_000;
+
+  private HitRatioSimulator() {
+  }
+
+  /**
+   * Program entry point.
+   *
+   * @param args optional trace file and capacity
+   */
+  public static void main(final String[] args) {
+    var capacity = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CAPACITY;
+    Supplier<Stream<String>> trace;
+    if (args.length > 0) {
+      var path = Path.of(args[0]);
+      trace = () -> readTrace(path);
+    } else {
+      var synthetic = syntheticTrace(100_000, 500_000, 20_000, 5_000, 42);
+      trace = synthetic::stream;
+    }
+    for (var type : EvictionPolicyType.values()) {
+      try (var keys = trace.get()) {
+        var hitRatio = simulate(type.create(capacity), keys);
+        LOGGER.info("{}: hit ratio {}", type, String.format("%.2f%%", hitRatio * 100));
+      }
+    }
+  }
+
+  /**
+   * Replay a trace against a policy.
+   *
+   * @param policy {@link EvictionPolicy}
+   * @param trace  requested user ids
+   * @return share of the requests that were hits
+   */
+  public static double simulate(final EvictionPolicy policy, final Stream<String> trace) {
+    var requests = 0L;
+    var hits = 0L;
+    for (var iterator = trace.iterator(); iterator.hasNext(); ) {
+      var key = iterator.next();
+      requests++;
+      if (policy.contains(key)) {
+        hits++;
+        policy.recordAccess(key);
+      } else {
+        policy.recordInsertion(key);
+      }
+    }
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+
+  /**
+   * Generate a trace of Zipf-distributed requests over {@code keySpace}
+   * user ids, interrupted every {@code scanInterval} requests by a scan of
+   * {@code scanLength} user ids that are never requested again.
+   *
+   * @param keySpace     number of distinct popular user ids
+   * @param length       number of Zipf-distributed requests
+   * @param scanInterval requests between two scans
+   * @param scanLength   length of a scan
+   * @param seed         random seed
+   * @return {@link List} of user ids
+   */
+  public static List<String> syntheticTrace(final int keySpace, final int length,
+                                            final int scanInterval, final int scanLength,
+                                            final long seed) {
+    var cumulative = new double[keySpace];
+    var sum = 0.0;
+    for (var i = 0; i < keySpace; i++) {
+      sum += 1.0 / (i + 1);
+      cumulative[i] = sum;
+    }
+    var random = new Random(seed);
+    var trace = new ArrayList<String>(length + length / scanInterval * scanLength);
+    var scanned = 0;
+    for (var i = 0; i < length; i++) {
+      if (i > 0 && i % scanInterval == 0) {
+        for (var j = 0; j < scanLength; j++) {
+          trace.add("scan-" + scanned++);
+        }
+      }
+      var rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+      trace.add("user-" + (rank < 0 ? -rank - 1 : rank));
+    }
+    return trace;
+  }
+
+  private static Stream<String> readTrace(final Path path) {
+    try {
+      return Files.lines(path).map(String::trim).filter(line -> !line.isEmpty());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
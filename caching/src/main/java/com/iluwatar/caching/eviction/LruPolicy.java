@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching.eviction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Least-recently-used eviction. The keys are kept in an access-ordered
+ * {@link LinkedHashMap}, so the eldest entry is always the LRU key.
+ */
+public class LruPolicy implements EvictionPolicy {
+  /**
+   * Maximum number of keys.
+   */
+  private final int capacity;
+  /**
+   * Keys in access order, LRU first.
+   */
+  private final LinkedHashMap<String, Boolean> order =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Constructor.
+   *
+   * @param cap int
+   */
+  public LruPolicy(final int cap) {
+    if (cap <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.capacity = cap;
+  }
+
+  @Override
+  public void recordAccess(final String key) {
+    order.get(key);
+  }
+
+  @Override
+  public String recordInsertion(final String key) {
+    order.put(key, Boolean.TRUE);
+    if (order.size() <= capacity) {
+      return null;
+    }
+    var victim = order.keySet().iterator().next();
+    order.remove(victim);
+    return victim;
+  }
+
+  @Override
+  public void recordRemoval(final String key) {
+    order.remove(key);
+  }
+
+  @Override
+  public boolean contains(final String key) {
+    return order.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return order.size();
+  }
+
+  @Override
+  public int getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public List<String> keys() {
+    var keys = new ArrayList<>(order.keySet());
+    Collections.reverse(keys);
+    return keys;
+  }
+
+  @Override
+  public void clear() {
+    order.clear();
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching.eviction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Segmented LRU eviction. New keys enter a probationary segment and are
+ * promoted to a protected segment on their second hit; keys overflowing the
+ * protected segment are demoted back to probation. Victims are taken from
+ * the LRU end of probation, so a key seen only once, like the keys of a
+ * scan, cannot push out keys that have proven to be reused.
+ */
+public class SegmentedLruPolicy implements EvictionPolicy {
+  /**
+   * Share of the capacity given to the protected segment, in percent.
+   */
+  static final int PROTECTED_PERCENTAGE = 80;
+
+  /**
+   * Maximum number of keys.
+   */
+  private final int capacity;
+  /**
+   * Maximum number of keys in the protected segment.
+   */
+  private final int protectedCapacity;
+  /**
+   * Keys seen once since they entered, LRU first.
+   */
+  private final LinkedHashMap<String, Boolean> probation =
+      new LinkedHashMap<>(16, 0.75f, true);
+  /**
+   * Keys hit while on probation, LRU first.
+   */
+  private final LinkedHashMap<String, Boolean> protectedKeys =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Constructor.
+   *
+   * @param cap int
+   */
+  public SegmentedLruPolicy(final int cap) {
+    if (cap <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.capacity = cap;
+    this.protectedCapacity = cap * PROTECTED_PERCENTAGE / 100;
+  }
+
+  @Override
+  public void recordAccess(final String key) {
+    if (protectedKeys.get(key) != null || probation.get(key) == null
+        || protectedCapacity == 0) {
+      return;
+    }
+    probation.remove(key);
+    protectedKeys.put(key, Boolean.TRUE);
+    if (protectedKeys.size() > protectedCapacity) {
+      var demoted = protectedKeys.keySet().iterator().next();
+      protectedKeys.remove(demoted);
+      probation.put(demoted, Boolean.TRUE);
+    }
+  }
+
+  @Override
+  public String recordInsertion(final String key) {
+    probation.put(key, Boolean.TRUE);
+    if (size() <= capacity) {
+      return null;
+    }
+    var victim = peekVictim();
+    recordRemoval(victim);
+    return victim;
+  }
+
+  /**
+   * Get the key that would be evicted next, without evicting it.
+   *
+   * @return {@link String}, or null if empty
+   */
+  String peekVictim() {
+    if (!probation.isEmpty()) {
+      return probation.keySet().iterator().next();
+    }
+    if (!protectedKeys.isEmpty()) {
+      return protectedKeys.keySet().iterator().next();
+    }
+    return null;
+  }
+
+  @Override
+  public void recordRemoval(final String key) {
+    if (probation.remove(key) == null) {
+      protectedKeys.remove(key);
+    }
+  }
+
+  @Override
+  public boolean contains(final String key) {
+    return probation.containsKey(key) || protectedKeys.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return probation.size() + protectedKeys.size();
+  }
+
+  @Override
+  public int getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public List<String> keys() {
+    var keys = new ArrayList<String>(size());
+    keys.addAll(probation.keySet());
+    keys.addAll(protectedKeys.keySet());
+    Collections.reverse(keys);
+    return keys;
+  }
+
+  @Override
+  public void clear() {
+    probation.clear();
+    protectedKeys.clear();
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching.eviction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * W-TinyLFU eviction. New keys enter a small LRU admission window (1% of
+ * the capacity). A key falling out of the window only gets into the main
+ * segmented LRU region if a {@link CountMinSketch} says it has been seen
+ * more often recently than the key the main region would evict in its
+ * place; otherwise the newcomer itself is evicted. One-hit wonders and scans
+ * therefore pass through the window without displacing the popular keys,
+ * while the window still lets bursts of new keys build up their frequency.
+ */
+public class WindowTinyLfuPolicy implements EvictionPolicy {
+  /**
+   * Share of the capacity given to the admission window, in percent.
+   */
+  static final int WINDOW_PERCENTAGE = 1;
+
+  /**
+   * Maximum number of keys.
+   */
+  private final int capacity;
+  /**
+   * Recency-ordered admission window.
+   */
+  private final LruPolicy window;
+  /**
+   * Main region, null if the capacity only leaves room for the window.
+   */
+  private final SegmentedLruPolicy main;
+  /**
+   * Frequency estimates of recently seen keys.
+   */
+  private final CountMinSketch sketch;
+
+  /**
+   * Constructor.
+   *
+   * @param cap int
+   */
+  public WindowTinyLfuPolicy(final int cap) {
+    if (cap <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    var windowCapacity = Math.max(1, cap * WINDOW_PERCENTAGE / 100);
+    this.capacity = cap;
+    this.window = new LruPolicy(windowCapacity);
+    this.main = cap > windowCapacity ? new SegmentedLruPolicy(cap - windowCapacity) : null;
+    this.sketch = new CountMinSketch(cap);
+  }
+
+  @Override
+  public void recordAccess(final String key) {
+    sketch.increment(key);
+    if (window.contains(key)) {
+      window.recordAccess(key);
+    } else if (main != null) {
+      main.recordAccess(key);
+    }
+  }
+
+  @Override
+  public String recordInsertion(final String key) {
+    sketch.increment(key);
+    var candidate = window.recordInsertion(key);
+    if (candidate == null || main == null) {
+      return candidate;
+    }
+    if (main.size() < main.getCapacity()) {
+      main.recordInsertion(candidate);
+      return null;
+    }
+    var victim = main.peekVictim();
+    if (sketch.frequency(candidate) <= sketch.frequency(victim)) {
+      return candidate;
+    }
+    main.recordRemoval(victim);
+    main.recordInsertion(candidate);
+    return victim;
+  }
+
+  @Override
+  public void recordRemoval(final String key) {
+    if (window.contains(key)) {
+      window.recordRemoval(key);
+    } else if (main != null) {
+      main.recordRemoval(key);
+    }
+  }
+
+  @Override
+  public boolean contains(final String key) {
+    return window.contains(key) || main != null && main.contains(key);
+  }
+
+  @Override
+  public int size() {
+    return window.size() + (main == null ? 0 : main.size());
+  }
+
+  @Override
+  public int getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public List<String> keys() {
+    var keys = new ArrayList<String>(size());
+    if (main != null) {
+      keys.addAll(main.keys());
+    }
+    keys.addAll(window.keys());
+    return keys;
+  }
+
+  @Override
+  public void clear() {
+    window.clear();
+    if (main != null) {
+      main.clear();
+    }
+    sketch.clear();
+  }
+}
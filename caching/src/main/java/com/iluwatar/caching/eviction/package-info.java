@@ -0,0 +1,4 @@
+/**
+ * Eviction policies deciding which user ids the cache keeps.
+ */
+package com.iluwatar.caching.eviction;
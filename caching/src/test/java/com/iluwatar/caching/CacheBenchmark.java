@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Throughput comparison of {@link SegmentedCache} against a {@link LruCache}
+ * guarded by a single monitor, which is the only way to share the latter
+ * between threads. Every operation is a read-through lookup over a skewed key
+ * distribution. Run the main method with the module's test classpath.
+ */
+public final class CacheBenchmark {
+  private static final int CAPACITY = 4_096;
+  private static final int KEY_SPACE = 16_384;
+  private static final long WARMUP_MS = 1_000;
+  private static final long MEASURE_MS = 2_000;
+  private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+  private CacheBenchmark() {
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args unused
+   */
+  public static void main(String[] args) throws InterruptedException {
+    var keys = new String[KEY_SPACE];
+    for (var i = 0; i < KEY_SPACE; i++) {
+      keys[i] = String.valueOf(i);
+    }
+    Function<String, UserAccount> loader = id -> new UserAccount(id, "name", "info");
+    System.out.printf("%8s %20s %20s%n", "threads", "LruCache ops/s", "Segmented ops/s");
+    for (var threads : THREADS) {
+      var lru = new LruCache(CAPACITY);
+      var locked = run(threads, keys, id -> {
+        synchronized (lru) {
+          var account = lru.get(id);
+          if (account == null) {
+            account = loader.apply(id);
+            lru.set(id, account);
+          }
+          return account;
+        }
+      });
+      var segmented = new SegmentedCache(CAPACITY);
+      var striped = run(threads, keys, id -> segmented.getOrLoad(id, loader));
+      System.out.printf("%8d %20.0f %20.0f%n", threads, locked, striped);
+    }
+  }
+
+  private static double run(int threads, String[] keys, Function<String, UserAccount> op)
+      throws InterruptedException {
+    run(threads, keys, op, WARMUP_MS);
+    return run(threads, keys, op, MEASURE_MS) * 1_000.0 / MEASURE_MS;
+  }
+
+  private static long run(int threads, String[] keys, Function<String, UserAccount> op,
+                          long durationMs) throws InterruptedException {
+    var ops = new LongAdder();
+    var start = new CountDownLatch(1);
+    var done = new CountDownLatch(threads);
+    var deadline = new long[1];
+    for (var t = 0; t < threads; t++) {
+      var worker = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        var random = ThreadLocalRandom.current();
+        var count = 0L;
+        while (System.nanoTime() < deadline[0]) {
+          // squaring a uniform sample skews the accesses towards the low keys
+          var u = random.nextDouble();
+          op.apply(keys[(int) (u * u * keys.length)]);
+          count++;
+        }
+        ops.add(count);
+        done.countDown();
+      });
+      worker.setDaemon(true);
+      worker.start();
+    }
+    deadline[0] = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMs);
+    start.countDown();
+    done.await();
+    return ops.sum();
+  }
+}
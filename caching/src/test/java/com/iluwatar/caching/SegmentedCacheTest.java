@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.caching.eviction.EvictionPolicyType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link SegmentedCache}.
+ */
+class SegmentedCacheTest {
+
+  private static UserAccount account(String id) {
+    return new UserAccount(id, "name" + id, "info" + id);
+  }
+
+  @Test
+  void smallCacheUsesSingleSegment() {
+    assertEquals(1, new SegmentedCache(3).getSegmentCount());
+    assertEquals(4, new SegmentedCache(64, EvictionPolicyType.LRU, 4).getSegmentCount());
+    assertEquals(16, new SegmentedCache(10_000).getSegmentCount());
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedAndReportsIt() {
+    var cache = new SegmentedCache(2);
+    var evicted = new ArrayList<UserAccount>();
+    cache.set("1", account("1"), evicted::add);
+    cache.set("2", account("2"), evicted::add);
+    cache.get("1");
+    cache.set("3", account("3"), evicted::add);
+
+    assertEquals(List.of(account("2")), evicted);
+    assertTrue(cache.contains("1"));
+    assertFalse(cache.contains("2"));
+    assertTrue(cache.contains("3"));
+  }
+
+  @Test
+  void getOrLoadOnlyLoadsOnMiss() {
+    var cache = new SegmentedCache(3);
+    var loads = new AtomicInteger();
+    cache.getOrLoad("1", id -> {
+      loads.incrementAndGet();
+      return account(id);
+    });
+    var second = cache.getOrLoad("1", id -> {
+      loads.incrementAndGet();
+      return account(id);
+    });
+
+    assertEquals(account("1"), second);
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void getOrLoadDoesNotCacheMissingAccounts() {
+    var cache = new SegmentedCache(3);
+    assertNull(cache.getOrLoad("1", id -> null));
+    assertFalse(cache.contains("1"));
+  }
+
+  @Test
+  void concurrentAccessStaysWithinCapacity() throws Exception {
+    var cache = new SegmentedCache(256, EvictionPolicyType.TINY_LFU, 8);
+    var executor = Executors.newFixedThreadPool(8);
+    for (var t = 0; t < 8; t++) {
+      var offset = t;
+      executor.execute(() -> {
+        for (var i = 0; i < 10_000; i++) {
+          var id = String.valueOf((i * 31 + offset) % 1_000);
+          cache.getOrLoad(id, SegmentedCacheTest::account);
+        }
+      });
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+    assertTrue(cache.getCacheDataInListForm().size() <= 256);
+  }
+
+  @Test
+  void reportsCandidateRejectedByAdmission() {
+    var cache = new SegmentedCache(101, EvictionPolicyType.TINY_LFU, 1);
+    for (var i = 0; i < 101; i++) {
+      cache.set(String.valueOf(i), account(String.valueOf(i)));
+    }
+    for (var round = 0; round < 3; round++) {
+      for (var i = 0; i < 101; i++) {
+        cache.get(String.valueOf(i));
+      }
+    }
+    var evicted = new ArrayList<UserAccount>();
+    cache.set("new", account("new"), evicted::add);
+    cache.set("newer", account("newer"), evicted::add);
+
+    // the first newcomer pushes "100" out of the admission window, where it
+    // loses against the equally popular main region; the second one pushes
+    // out "new", which has only been seen once
+    assertEquals(List.of(account("100"), account("new")), evicted);
+    assertFalse(cache.contains("new"));
+    assertTrue(cache.contains("newer"));
+  }
+}
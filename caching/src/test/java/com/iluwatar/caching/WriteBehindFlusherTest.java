@@ -0,0 +1,189 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.caching.database.VirtualDb;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link WriteBehindFlusher}.
+ */
+class WriteBehindFlusherTest {
+
+  /**
+   * Virtual DB that records the size of every batch it receives.
+   */
+  private static class RecordingDb extends VirtualDb {
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void upsertBatch(List<UserAccount> userAccounts) {
+      batchSizes.add(userAccounts.size());
+      super.upsertBatch(userAccounts);
+    }
+  }
+
+  /**
+   * Virtual DB whose batch writes fail a given number of times.
+   */
+  private static class FailingDb extends VirtualDb {
+    private final AtomicInteger failures;
+
+    FailingDb(int failures) {
+      this.failures = new AtomicInteger(failures);
+    }
+
+    @Override
+    public void upsertBatch(List<UserAccount> userAccounts) {
+      if (failures.getAndDecrement() > 0) {
+        throw new IllegalStateException("DB unavailable");
+      }
+      super.upsertBatch(userAccounts);
+    }
+  }
+
+  private RecordingDb db;
+
+  @BeforeEach
+  void setUp() {
+    db = new RecordingDb();
+    db.connect();
+  }
+
+  @Test
+  void foldsRepeatedWritesOfTheSameUser() {
+    var flusher = new WriteBehindFlusher(db, 10, 60_000, 100);
+    flusher.markDirty(new UserAccount("001", "John", "v1"));
+    flusher.markDirty(new UserAccount("001", "John", "v2"));
+    flusher.markDirty(new UserAccount("001", "John", "v3"));
+    assertEquals("v3", flusher.getPending("001").getAdditionalInfo());
+
+    flusher.flush();
+
+    assertEquals(List.of(1), db.batchSizes);
+    assertEquals("v3", db.readFromDb("001").getAdditionalInfo());
+    assertEquals(2, flusher.getMetrics().getFoldedWriteCount());
+    assertNull(flusher.getPending("001"));
+  }
+
+  @Test
+  void writesInBatchesOfBoundedSize() {
+    var flusher = new WriteBehindFlusher(db, 4, 60_000, 100);
+    for (var i = 0; i < 10; i++) {
+      flusher.markDirty(new UserAccount(String.valueOf(i), "user", "info"));
+    }
+
+    flusher.close();
+
+    assertEquals(10, flusher.getMetrics().getFlushedEntryCount());
+    assertTrue(db.batchSizes.stream().allMatch(size -> size <= 4));
+    assertEquals(4, flusher.getMetrics().getMaxBatchSize());
+  }
+
+  @Test
+  void flushesAfterTheMaximumDelay() throws InterruptedException {
+    var flusher = new WriteBehindFlusher(db, 100, 10, 1_000);
+    flusher.markDirty(new UserAccount("001", "John", "info"));
+
+    for (var i = 0; i < 500 && db.readFromDb("001") == null; i++) {
+      Thread.sleep(10);
+    }
+
+    assertEquals("John", db.readFromDb("001").getUserName());
+    flusher.close();
+  }
+
+  @Test
+  void rejectsWritesAfterClose() {
+    var flusher = new WriteBehindFlusher(db);
+    flusher.close();
+    assertThrows(IllegalStateException.class,
+        () -> flusher.markDirty(new UserAccount("001", "John", "info")));
+  }
+
+  @Test
+  void retriesFailedBatchesOnClose() {
+    var failingDb = new FailingDb(WriteBehindFlusher.FLUSH_ATTEMPTS - 1);
+    failingDb.connect();
+    var flusher = new WriteBehindFlusher(failingDb, 10, 60_000, 100);
+    flusher.markDirty(new UserAccount("001", "John", "info"));
+
+    flusher.close();
+
+    assertEquals("John", failingDb.readFromDb("001").getUserName());
+  }
+
+  @Test
+  void reportsEntriesLostOnClose() {
+    var failingDb = new FailingDb(Integer.MAX_VALUE);
+    failingDb.connect();
+    var flusher = new WriteBehindFlusher(failingDb, 10, 60_000, 100);
+    flusher.markDirty(new UserAccount("001", "John", "info"));
+    flusher.markDirty(new UserAccount("002", "Jane", "info"));
+
+    var e = assertThrows(IllegalStateException.class, flusher::close);
+
+    assertTrue(e.getMessage().endsWith("[001, 002]"), e.getMessage());
+    assertNull(failingDb.readFromDb("001"));
+  }
+
+  @Test
+  void flushGivesUpOnAFailingDb() {
+    var failingDb = new FailingDb(Integer.MAX_VALUE);
+    failingDb.connect();
+    var cacheStore = new CacheStore(failingDb);
+    cacheStore.writeBehind(new UserAccount("001", "John", "info"));
+
+    var e = assertTimeoutPreemptively(Duration.ofSeconds(5),
+        () -> assertThrows(IllegalStateException.class, cacheStore::flushCache));
+
+    assertTrue(e.getMessage().endsWith("[001]"), e.getMessage());
+    cacheStore.writeBehind(new UserAccount("002", "Jane", "info"));
+    assertThrows(IllegalStateException.class, cacheStore::close);
+  }
+
+  @Test
+  void cacheStoreKeepsWritingBehindAfterFlush() {
+    var cacheStore = new CacheStore(db);
+    cacheStore.writeBehind(new UserAccount("001", "John", "v1"));
+    cacheStore.flushCache();
+    assertEquals("v1", db.readFromDb("001").getAdditionalInfo());
+
+    cacheStore.writeBehind(new UserAccount("001", "John", "v2"));
+    cacheStore.flushCache();
+    assertEquals("v2", db.readFromDb("001").getAdditionalInfo());
+    cacheStore.close();
+  }
+}
@@ -5,6 +5,7 @@ import com.iluwatar.caching.constants.CachingConstants;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import java.util.List;
 import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -80,4 +81,11 @@ class MongoDbTest {
     when(db.getCollection(CachingConstants.USER_ACCOUNT)).thenReturn(mongoCollection);
     assertDoesNotThrow(()-> {mongoDb.upsertDb(userAccount);});
   }
-}
\ No newline at end of file
+
+  @Test
+  void upsertBatch() {
+    MongoCollection<Document> mongoCollection = mock(MongoCollection.class);
+    when(db.getCollection(CachingConstants.USER_ACCOUNT)).thenReturn(mongoCollection);
+    assertDoesNotThrow(()-> {mongoDb.upsertBatch(List.of(userAccount));});
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.caching.eviction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the {@link EvictionPolicy} implementations.
+ */
+class EvictionPolicyTest {
+
+  @Test
+  void lruEvictsLeastRecentlyUsed() {
+    var policy = new LruPolicy(2);
+    assertNull(policy.recordInsertion("a"));
+    assertNull(policy.recordInsertion("b"));
+    policy.recordAccess("a");
+    assertEquals("b", policy.recordInsertion("c"));
+    assertEquals(List.of("c", "a"), policy.keys());
+  }
+
+  @Test
+  void slruProtectsKeysHitTwice() {
+    var policy = new SegmentedLruPolicy(5);
+    policy.recordInsertion("hot");
+    policy.recordAccess("hot");
+    for (var i = 0; i < 10; i++) {
+      policy.recordInsertion("scan-" + i);
+    }
+    assertTrue(policy.contains("hot"));
+    assertEquals(5, policy.size());
+  }
+
+  @Test
+  void clockGivesReferencedKeysASecondChance() {
+    var policy = new ClockPolicy(3);
+    policy.recordInsertion("a");
+    policy.recordInsertion("b");
+    policy.recordInsertion("c");
+    policy.recordAccess("a");
+    assertEquals("b", policy.recordInsertion("d"));
+    assertTrue(policy.contains("a"));
+    policy.recordRemoval("c");
+    assertNull(policy.recordInsertion("e"));
+    assertEquals(3, policy.size());
+  }
+
+  @Test
+  void countMinSketchEstimatesFrequency() {
+    var sketch = new CountMinSketch(64);
+    for (var i = 0; i < 5; i++) {
+      sketch.increment("a");
+    }
+    sketch.increment("b");
+    assertEquals(5, sketch.frequency("a"));
+    assertEquals(1, sketch.frequency("b"));
+    assertEquals(0, sketch.frequency("c"));
+  }
+
+  @Test
+  void tinyLfuRejectsUnpopularCandidates() {
+    var policy = new WindowTinyLfuPolicy(101);
+    for (var i = 0; i < 101; i++) {
+      policy.recordInsertion("key-" + i);
+      policy.recordAccess("key-" + i);
+    }
+    policy.recordInsertion("one-hit-1");
+    assertEquals("one-hit-1", policy.recordInsertion("one-hit-2"));
+    assertFalse(policy.contains("one-hit-1"));
+    assertEquals(101, policy.size());
+  }
+
+  @Test
+  void scanResistantPoliciesBeatLruOnScans() {
+    var trace = HitRatioSimulator.syntheticTrace(10_000, 100_000, 5_000, 2_000, 7);
+    var lru = HitRatioSimulator.simulate(new LruPolicy(500), trace.stream());
+    var slru = HitRatioSimulator.simulate(new SegmentedLruPolicy(500), trace.stream());
+    var tinyLfu = HitRatioSimulator.simulate(new WindowTinyLfuPolicy(500), trace.stream());
+    assertTrue(slru > lru, "SLRU " + slru + " vs LRU " + lru);
+    assertTrue(tinyLfu > slru, "W-TinyLFU " + tinyLfu + " vs SLRU " + slru);
+  }
+
+  @Test
+  void everyTypeRespectsItsCapacity() {
+    for (var type : EvictionPolicyType.values()) {
+      var policy = type.create(10);
+      for (var i = 0; i < 100; i++) {
+        policy.recordInsertion(String.valueOf(i % 37));
+        policy.recordAccess(String.valueOf(i % 5));
+      }
+      assertTrue(policy.size() <= 10, type.name());
+      assertEquals(policy.size(), policy.keys().size(), type.name());
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.circuitbreaker;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link SlidingWindow} over the last {@code size} calls. Outcomes go into a ring buffer, and
+ * recording one replaces the oldest and adjusts the totals by the difference.
+ *
+ * <p>The number of calls, failed calls and slow calls are packed into a single long as three
+ * 21-bit two's complement fields, so the totals are updated and read with one atomic operation
+ * each. A field can be negative for a moment while concurrent updates are in flight, and is read as
+ * zero then.
+ */
+final class CountBasedSlidingWindow implements SlidingWindow {
+
+  private static final int FIELD_BITS = 21;
+
+  /**
+   * Largest window size, leaving room for the sign and concurrent updates in every field.
+   */
+  static final int MAX_SIZE = (1 << (FIELD_BITS - 2)) - 1;
+
+  private static final long CALL = 1L;
+
+  private static final long FAILURE = 1L << FIELD_BITS;
+
+  private static final long SLOW = 1L << (2 * FIELD_BITS);
+
+  private final AtomicLongArray outcomes;
+
+  private final AtomicLong next = new AtomicLong();
+
+  private final AtomicLong totals = new AtomicLong();
+
+  CountBasedSlidingWindow(int size) {
+    if (size < 1 || size > MAX_SIZE) {
+      throw new IllegalArgumentException("Invalid window size: " + size);
+    }
+    outcomes = new AtomicLongArray(size);
+  }
+
+  @Override
+  public void record(boolean failure, boolean slow) {
+    var outcome = CALL + (failure ? FAILURE : 0) + (slow ? SLOW : 0);
+    var index = (int) (next.getAndIncrement() % outcomes.length());
+    var replaced = outcomes.getAndSet(index, outcome);
+    if (replaced != outcome) {
+      // in a steady state most outcomes replace an equal one and leave the totals unchanged
+      totals.addAndGet(outcome - replaced);
+    }
+  }
+
+  @Override
+  public Snapshot snapshot() {
+    var packed = totals.get();
+    var calls = field(packed);
+    packed = (packed - calls) >> FIELD_BITS;
+    var failures = field(packed);
+    packed = (packed - failures) >> FIELD_BITS;
+    return new Snapshot(calls, failures, field(packed));
+  }
+
+  @Override
+  public void reset() {
+    for (var i = 0; i < outcomes.length(); i++) {
+      totals.addAndGet(-outcomes.getAndSet(i, 0));
+    }
+  }
+
+  private static long field(long packed) {
+    return (packed << (Long.SIZE - FIELD_BITS)) >> (Long.SIZE - FIELD_BITS);
+  }
+}
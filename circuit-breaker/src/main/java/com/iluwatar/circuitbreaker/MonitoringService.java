@@ -23,16 +23,23 @@
 
 package com.iluwatar.circuitbreaker;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * The service class which makes local and remote calls Uses {@link DefaultCircuitBreaker} object to
  * ensure remote calls don't use up resources.
  */
+@Slf4j
 public class MonitoringService {
 
   private final CircuitBreaker delayedService;
 
   private final CircuitBreaker quickService;
 
+  private final List<StateTransitionEvent> stateTransitions = new CopyOnWriteArrayList<>();
+
   public MonitoringService(CircuitBreaker delayedService, CircuitBreaker quickService) {
     this.delayedService = delayedService;
     this.quickService = quickService;
@@ -68,4 +75,24 @@ public class MonitoringService {
       return e.getMessage();
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Receives the state transitions of a circuit breaker, for example as a listener of a
+   * {@link SlidingWindowCircuitBreaker}.
+   *
+   * @param event the state transition
+   */
+  public void onStateTransition(StateTransitionEvent event) {
+    LOGGER.info("Circuit breaker {}", event);
+    stateTransitions.add(event);
+  }
+
+  /**
+   * The state transitions received so far, oldest first.
+   *
+   * @return the state transitions
+   */
+  public List<StateTransitionEvent> getStateTransitions() {
+    return List.copyOf(stateTransitions);
+  }
+}
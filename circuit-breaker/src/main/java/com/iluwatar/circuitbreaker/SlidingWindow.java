@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.circuitbreaker;
+
+/**
+ * Window over the most recent call outcomes of a {@link SlidingWindowCircuitBreaker}.
+ */
+interface SlidingWindow {
+
+  /**
+   * Records the outcome of a call.
+   *
+   * @param failure whether the call failed
+   * @param slow whether the call took longer than the slow call threshold
+   */
+  void record(boolean failure, boolean slow);
+
+  /**
+   * The totals of the calls currently in the window.
+   */
+  Snapshot snapshot();
+
+  /**
+   * Removes all outcomes from the window.
+   */
+  void reset();
+
+  /**
+   * Number of calls, failed calls and slow calls in a window.
+   */
+  final class Snapshot {
+
+    private final long calls;
+    private final long failures;
+    private final long slowCalls;
+
+    Snapshot(long calls, long failures, long slowCalls) {
+      this.calls = Math.max(0, calls);
+      this.failures = Math.max(0, failures);
+      this.slowCalls = Math.max(0, slowCalls);
+    }
+
+    long getCalls() {
+      return calls;
+    }
+
+    float getFailureRate() {
+      return calls == 0 ? 0 : 100f * failures / calls;
+    }
+
+    float getSlowCallRate() {
+      return calls == 0 ? 0 : 100f * slowCalls / calls;
+    }
+  }
+}
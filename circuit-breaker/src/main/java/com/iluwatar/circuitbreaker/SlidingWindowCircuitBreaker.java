@@ -0,0 +1,391 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.circuitbreaker;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe circuit breaker that decides on the failure rate and the slow call rate of the most
+ * recent calls, rather than on a number of consecutive failures like {@link DefaultCircuitBreaker}.
+ *
+ * <p>Outcomes are recorded in a {@link SlidingWindow} over either the last N calls or the calls of
+ * the last period of time. Once the window holds enough calls and either rate reaches its
+ * threshold, the circuit opens. After waiting in the OPEN state it turns HALF_OPEN and lets a
+ * limited number of trial calls through, and their rates decide whether it closes again or opens
+ * for another wait. If the trial calls do not all complete within the maximum wait in the HALF_OPEN
+ * state, it opens again.
+ *
+ * <p>No locks are taken. The state and the data that belongs to it are swapped in together with a
+ * single CAS, so only one of several threads that see the same outcome performs a transition, and
+ * every transition is published once to the registered listeners.
+ */
+public class SlidingWindowCircuitBreaker implements CircuitBreaker {
+
+  private final String name;
+  private final RemoteService service;
+  private final SlidingWindow window;
+  private final int minimumNumberOfCalls;
+  private final float failureRateThreshold;
+  private final float slowCallRateThreshold;
+  private final long slowCallNanos;
+  private final long openNanos;
+  private final long maxHalfOpenNanos;
+  private final int permittedCallsInHalfOpenState;
+  private final LongSupplier clock;
+  private final AtomicReference<Phase> phase;
+  private final List<Consumer<StateTransitionEvent>> listeners = new CopyOnWriteArrayList<>();
+  private volatile String lastFailureResponse;
+
+  private SlidingWindowCircuitBreaker(Builder builder) {
+    this.name = builder.name;
+    this.service = builder.service;
+    this.clock = builder.clock;
+    this.window = builder.timeBasedWindow != null
+        ? new TimeBasedSlidingWindow(builder.timeBasedWindow.toNanos(), clock)
+        : new CountBasedSlidingWindow(builder.countBasedWindow);
+    this.minimumNumberOfCalls = builder.minimumNumberOfCalls;
+    this.failureRateThreshold = builder.failureRateThreshold;
+    this.slowCallRateThreshold = builder.slowCallRateThreshold;
+    this.slowCallNanos = builder.slowCallDuration.toNanos();
+    this.openNanos = builder.waitDurationInOpenState.toNanos();
+    this.maxHalfOpenNanos = builder.maxWaitDurationInHalfOpenState.toNanos();
+    this.permittedCallsInHalfOpenState = builder.permittedCallsInHalfOpenState;
+    this.phase = new AtomicReference<>(new Phase(State.CLOSED, clock.getAsLong()));
+  }
+
+  /**
+   * Starts building a circuit breaker with the default configuration: a window of the last 100
+   * calls, at least 10 calls before the rates are evaluated, opening at a failure rate of 50%, slow
+   * calls of 60 seconds and more not counted as failures, a wait of 60 seconds in the OPEN state
+   * and 10 trial calls in the HALF_OPEN state, which have to complete within 60 seconds.
+   *
+   * @param name    name of the circuit breaker, used in events
+   * @param service the remote service to call
+   * @return a builder
+   */
+  public static Builder builder(String name, RemoteService service) {
+    return new Builder(name, service);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Registers a listener that is called in the thread that causes a state transition.
+   *
+   * @param listener the listener to call
+   */
+  public void addStateTransitionListener(Consumer<StateTransitionEvent> listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Percentage of failed calls in the window.
+   */
+  public float getFailureRate() {
+    return window.snapshot().getFailureRate();
+  }
+
+  /**
+   * Percentage of slow calls in the window.
+   */
+  public float getSlowCallRate() {
+    return window.snapshot().getSlowCallRate();
+  }
+
+  @Override
+  public void recordSuccess() {
+    record(currentPhase(), false, false);
+  }
+
+  @Override
+  public void recordFailure(String response) {
+    lastFailureResponse = response;
+    record(currentPhase(), true, false);
+  }
+
+  @Override
+  public String getState() {
+    return currentPhase().state.name();
+  }
+
+  /**
+   * Break the circuit beforehand if it is known service is down Or connect the circuit manually if
+   * service comes online before expected.
+   *
+   * @param state State at which circuit is in
+   */
+  @Override
+  public void setState(State state) {
+    while (!transition(phase.get(), state, window.snapshot())) {
+      Thread.onSpinWait();
+    }
+  }
+
+  /**
+   * Executes service call.
+   *
+   * @return Value from the remote resource, stale response or a custom exception
+   */
+  @Override
+  public String attemptRequest() throws RemoteServiceException {
+    var current = currentPhase();
+    if (current.state == State.OPEN
+        || current.state == State.HALF_OPEN && !current.tryAcquirePermit()) {
+      // return cached response while calls are not permitted
+      return lastFailureResponse;
+    }
+    var start = clock.getAsLong();
+    // any exception counts as a failure, so that every trial call in HALF_OPEN is recorded
+    var failure = true;
+    try {
+      var response = service.call();
+      failure = false;
+      return response;
+    } catch (RemoteServiceException ex) {
+      lastFailureResponse = ex.getMessage();
+      throw ex;
+    } finally {
+      record(current, failure, clock.getAsLong() - start >= slowCallNanos);
+    }
+  }
+
+  private Phase currentPhase() {
+    var current = phase.get();
+    if (current.state == State.OPEN && clock.getAsLong() - current.since >= openNanos) {
+      transition(current, State.HALF_OPEN, window.snapshot());
+      current = phase.get();
+    }
+    if (current.state == State.HALF_OPEN
+        && clock.getAsLong() - current.since >= maxHalfOpenNanos) {
+      // trial calls that hang must not keep the circuit half open
+      transition(current, State.OPEN, current.trials());
+      current = phase.get();
+    }
+    return current;
+  }
+
+  private void record(Phase current, boolean failure, boolean slow) {
+    switch (current.state) {
+      case CLOSED:
+        window.record(failure, slow);
+        if (failure || slow) {
+          var snapshot = window.snapshot();
+          if (snapshot.getCalls() >= minimumNumberOfCalls && exceedsThresholds(snapshot)) {
+            transition(current, State.OPEN, snapshot);
+          }
+        }
+        break;
+      case HALF_OPEN:
+        if (failure) {
+          current.failures.incrementAndGet();
+        }
+        if (slow) {
+          current.slowCalls.incrementAndGet();
+        }
+        if (current.completed.incrementAndGet() == permittedCallsInHalfOpenState) {
+          var trials = current.trials();
+          transition(current, exceedsThresholds(trials) ? State.OPEN : State.CLOSED, trials);
+        }
+        break;
+      default:
+        // outcome of a call that was started before the circuit opened
+    }
+  }
+
+  private boolean exceedsThresholds(SlidingWindow.Snapshot snapshot) {
+    return snapshot.getFailureRate() >= failureRateThreshold
+        || snapshot.getSlowCallRate() >= slowCallRateThreshold;
+  }
+
+  private boolean transition(Phase expected, State to, SlidingWindow.Snapshot snapshot) {
+    if (!phase.compareAndSet(expected, new Phase(to, clock.getAsLong()))) {
+      return false;
+    }
+    if (to == State.CLOSED) {
+      window.reset();
+    }
+    var event = new StateTransitionEvent(name, expected.state, to, snapshot.getFailureRate(),
+        snapshot.getSlowCallRate());
+    listeners.forEach(listener -> listener.accept(event));
+    return true;
+  }
+
+  /**
+   * A state together with the time it was entered and, for HALF_OPEN, the trial calls.
+   */
+  private final class Phase {
+
+    private final State state;
+    private final long since;
+    private final AtomicInteger permits = new AtomicInteger(permittedCallsInHalfOpenState);
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger slowCalls = new AtomicInteger();
+
+    private Phase(State state, long since) {
+      this.state = state;
+      this.since = since;
+    }
+
+    private SlidingWindow.Snapshot trials() {
+      return new SlidingWindow.Snapshot(completed.get(), failures.get(), slowCalls.get());
+    }
+
+    private boolean tryAcquirePermit() {
+      while (true) {
+        var left = permits.get();
+        if (left <= 0) {
+          return false;
+        }
+        if (permits.compareAndSet(left, left - 1)) {
+          return true;
+        }
+      }
+    }
+  }
+
+  /**
+   * Builder for {@link SlidingWindowCircuitBreaker}.
+   */
+  public static final class Builder {
+
+    private final String name;
+    private final RemoteService service;
+    private int countBasedWindow = 100;
+    private Duration timeBasedWindow;
+    private int minimumNumberOfCalls = 10;
+    private float failureRateThreshold = 50;
+    private float slowCallRateThreshold = 100;
+    private Duration slowCallDuration = Duration.ofSeconds(60);
+    private Duration waitDurationInOpenState = Duration.ofSeconds(60);
+    private Duration maxWaitDurationInHalfOpenState = Duration.ofSeconds(60);
+    private int permittedCallsInHalfOpenState = 10;
+    private LongSupplier clock = System::nanoTime;
+
+    private Builder(String name, RemoteService service) {
+      this.name = name;
+      this.service = service;
+    }
+
+    /**
+     * Evaluate the last {@code size} calls.
+     */
+    public Builder countBasedWindow(int size) {
+      this.countBasedWindow = size;
+      this.timeBasedWindow = null;
+      return this;
+    }
+
+    /**
+     * Evaluate the calls of the last {@code duration}.
+     */
+    public Builder timeBasedWindow(Duration duration) {
+      this.timeBasedWindow = duration;
+      return this;
+    }
+
+    /**
+     * Number of calls the window must hold before the rates are evaluated.
+     */
+    public Builder minimumNumberOfCalls(int calls) {
+      this.minimumNumberOfCalls = calls;
+      return this;
+    }
+
+    /**
+     * Percentage of failed calls at which the circuit opens.
+     */
+    public Builder failureRateThreshold(float percentage) {
+      this.failureRateThreshold = percentage;
+      return this;
+    }
+
+    /**
+     * Percentage of slow calls at which the circuit opens.
+     */
+    public Builder slowCallRateThreshold(float percentage) {
+      this.slowCallRateThreshold = percentage;
+      return this;
+    }
+
+    /**
+     * Duration from which a call counts as slow.
+     */
+    public Builder slowCallDuration(Duration duration) {
+      this.slowCallDuration = duration;
+      return this;
+    }
+
+    /**
+     * Time to wait in the OPEN state before trial calls are let through.
+     */
+    public Builder waitDurationInOpenState(Duration duration) {
+      this.waitDurationInOpenState = duration;
+      return this;
+    }
+
+    /**
+     * Longest time in the HALF_OPEN state before the circuit opens again, when the trial calls
+     * have not all completed.
+     */
+    public Builder maxWaitDurationInHalfOpenState(Duration duration) {
+      this.maxWaitDurationInHalfOpenState = duration;
+      return this;
+    }
+
+    /**
+     * Number of trial calls in the HALF_OPEN state.
+     */
+    public Builder permittedCallsInHalfOpenState(int calls) {
+      this.permittedCallsInHalfOpenState = calls;
+      return this;
+    }
+
+    Builder clock(LongSupplier clock) {
+      this.clock = clock;
+      return this;
+    }
+
+    /**
+     * Builds the circuit breaker, in the CLOSED state.
+     *
+     * @return the circuit breaker
+     */
+    public SlidingWindowCircuitBreaker build() {
+      if (permittedCallsInHalfOpenState < 1) {
+        throw new IllegalArgumentException("At least one call must be permitted in HALF_OPEN");
+      }
+      return new SlidingWindowCircuitBreaker(this);
+    }
+  }
+}
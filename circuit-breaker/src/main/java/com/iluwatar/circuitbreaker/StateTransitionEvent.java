@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.circuitbreaker;
+
+import java.time.Instant;
+
+/**
+ * Event published by a {@link SlidingWindowCircuitBreaker} when it changes state, with the rates
+ * that were measured at that moment.
+ */
+public class StateTransitionEvent {
+
+  private final String circuitBreaker;
+  private final State from;
+  private final State to;
+  private final float failureRate;
+  private final float slowCallRate;
+  private final Instant time;
+
+  /**
+   * Constructor.
+   *
+   * @param circuitBreaker name of the circuit breaker
+   * @param from           state before the transition
+   * @param to             state after the transition
+   * @param failureRate    percentage of failed calls in the window
+   * @param slowCallRate   percentage of slow calls in the window
+   */
+  public StateTransitionEvent(String circuitBreaker, State from, State to, float failureRate,
+      float slowCallRate) {
+    this.circuitBreaker = circuitBreaker;
+    this.from = from;
+    this.to = to;
+    this.failureRate = failureRate;
+    this.slowCallRate = slowCallRate;
+    this.time = Instant.now();
+  }
+
+  public String getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  public State getFrom() {
+    return from;
+  }
+
+  public State getTo() {
+    return to;
+  }
+
+  public float getFailureRate() {
+    return failureRate;
+  }
+
+  public float getSlowCallRate() {
+    return slowCallRate;
+  }
+
+  public Instant getTime() {
+    return time;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: %s -> %s (failure rate %.1f%%, slow call rate %.1f%%)",
+        circuitBreaker, from, to, failureRate, slowCallRate);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.circuitbreaker;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link SlidingWindow} over the calls of the last {@code windowNanos}. The window is split into
+ * buckets, each holding the totals of one slice of time. The first call after a bucket's slice has
+ * left the window replaces the bucket with a fresh one in a single compare-and-set, so calls that
+ * already see the new bucket are never wiped; only a call still holding the replaced bucket, and
+ * so belonging to a slice outside the window, goes uncounted.
+ */
+final class TimeBasedSlidingWindow implements SlidingWindow {
+
+  private static final int BUCKETS = 10;
+
+  private static final long NO_EPOCH = Long.MIN_VALUE / 2;
+
+  private final long bucketNanos;
+
+  private final LongSupplier clock;
+
+  private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(BUCKETS);
+
+  TimeBasedSlidingWindow(long windowNanos, LongSupplier clock) {
+    if (windowNanos < BUCKETS) {
+      throw new IllegalArgumentException("Invalid window duration: " + windowNanos);
+    }
+    this.bucketNanos = windowNanos / BUCKETS;
+    this.clock = clock;
+    reset();
+  }
+
+  @Override
+  public void record(boolean failure, boolean slow) {
+    var epoch = epoch();
+    var index = (int) Math.floorMod(epoch, (long) BUCKETS);
+    var bucket = buckets.get(index);
+    while (bucket.epoch < epoch) {
+      var fresh = new Bucket(epoch);
+      if (buckets.compareAndSet(index, bucket, fresh)) {
+        bucket = fresh;
+      } else {
+        bucket = buckets.get(index);
+      }
+    }
+    bucket.calls.incrementAndGet();
+    if (failure) {
+      bucket.failures.incrementAndGet();
+    }
+    if (slow) {
+      bucket.slowCalls.incrementAndGet();
+    }
+  }
+
+  @Override
+  public Snapshot snapshot() {
+    var epoch = epoch();
+    long callCount = 0;
+    long failureCount = 0;
+    long slowCallCount = 0;
+    for (var i = 0; i < BUCKETS; i++) {
+      var bucket = buckets.get(i);
+      if (epoch - bucket.epoch < BUCKETS) {
+        callCount += bucket.calls.get();
+        failureCount += bucket.failures.get();
+        slowCallCount += bucket.slowCalls.get();
+      }
+    }
+    return new Snapshot(callCount, failureCount, slowCallCount);
+  }
+
+  @Override
+  public void reset() {
+    for (var i = 0; i < BUCKETS; i++) {
+      buckets.set(i, new Bucket(NO_EPOCH));
+    }
+  }
+
+  private long epoch() {
+    return Math.floorDiv(clock.getAsLong(), bucketNanos);
+  }
+
+  /**
+   * The totals of one slice of time.
+   */
+  private static final class Bucket {
+
+    private final long epoch;
+
+    private final AtomicLong calls = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private final AtomicLong slowCalls = new AtomicLong();
+
+    private Bucket(long epoch) {
+      this.epoch = epoch;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.circuitbreaker;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Measures the overhead a circuit breaker adds to every call of a {@link QuickRemoteService} when
+ * several threads share it, compared with calling the service directly. Every thread makes the same
+ * number of calls after a warm-up, and the elapsed time is divided by the total number of calls.
+ * Run the main method with the module's test classpath.
+ */
+public final class CircuitBreakerBenchmark {
+
+  private static final int CALLS_PER_THREAD = 2_000_000;
+
+  private static final int[] THREADS = {1, 2, 4, 8};
+
+  private CircuitBreakerBenchmark() {
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args unused
+   * @throws Exception if the benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    var service = new QuickRemoteService();
+    System.out.printf("%-30s %8s %12s%n", "circuit breaker", "threads", "wall ns/call");
+    for (var threads : THREADS) {
+      run("none", threads, () -> new DirectCall(service));
+      run("DefaultCircuitBreaker", threads,
+          () -> new DefaultCircuitBreaker(service, 3000, 2, 2000 * 1000 * 1000));
+      run("SlidingWindow (count)", threads,
+          () -> SlidingWindowCircuitBreaker.builder("count", service).build());
+      run("SlidingWindow (time)", threads,
+          () -> SlidingWindowCircuitBreaker.builder("time", service)
+              .timeBasedWindow(Duration.ofSeconds(10)).build());
+    }
+  }
+
+  private static void run(String name, int threads, Supplier<CircuitBreaker> circuitBreakers)
+      throws Exception {
+    measure(threads, circuitBreakers.get());
+    var nanos = measure(threads, circuitBreakers.get());
+    System.out.printf("%-30s %8d %12.1f%n", name, threads,
+        (double) nanos / ((long) threads * CALLS_PER_THREAD));
+  }
+
+  private static long measure(int threads, CircuitBreaker circuitBreaker) throws Exception {
+    var start = new CountDownLatch(1);
+    var workers = new ArrayList<Thread>();
+    for (var i = 0; i < threads; i++) {
+      var worker = new Thread(() -> {
+        try {
+          start.await();
+          for (var call = 0; call < CALLS_PER_THREAD; call++) {
+            circuitBreaker.attemptRequest();
+          }
+        } catch (InterruptedException | RemoteServiceException e) {
+          throw new IllegalStateException(e);
+        }
+      });
+      worker.start();
+      workers.add(worker);
+    }
+    var begin = System.nanoTime();
+    start.countDown();
+    for (var worker : workers) {
+      worker.join();
+    }
+    return System.nanoTime() - begin;
+  }
+
+  /**
+   * Calls the service without any circuit breaker logic, as a baseline.
+   */
+  private static final class DirectCall implements CircuitBreaker {
+
+    private final RemoteService service;
+
+    private DirectCall(RemoteService service) {
+      this.service = service;
+    }
+
+    @Override
+    public void recordSuccess() {
+      // nothing to record
+    }
+
+    @Override
+    public void recordFailure(String response) {
+      // nothing to record
+    }
+
+    @Override
+    public String getState() {
+      return State.CLOSED.name();
+    }
+
+    @Override
+    public void setState(State state) {
+      // always closed
+    }
+
+    @Override
+    public String attemptRequest() throws RemoteServiceException {
+      return service.call();
+    }
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.circuitbreaker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Sliding window circuit breaker test.
+ */
+class SlidingWindowCircuitBreakerTest {
+
+  private final AtomicLong now = new AtomicLong();
+
+  private final AtomicBoolean down = new AtomicBoolean();
+
+  private final AtomicLong callNanos = new AtomicLong();
+
+  private final AtomicInteger serviceCalls = new AtomicInteger();
+
+  private final RemoteService service = () -> {
+    serviceCalls.incrementAndGet();
+    now.addAndGet(callNanos.get());
+    if (down.get()) {
+      throw new RemoteServiceException("Service is down");
+    }
+    return "Service is working";
+  };
+
+  private SlidingWindowCircuitBreaker.Builder builder() {
+    return SlidingWindowCircuitBreaker.builder("test", service)
+        .countBasedWindow(10)
+        .minimumNumberOfCalls(4)
+        .failureRateThreshold(50)
+        .waitDurationInOpenState(Duration.ofSeconds(1))
+        .permittedCallsInHalfOpenState(2)
+        .clock(now::get);
+  }
+
+  @Test
+  void testOpensOnFailureRate() throws Exception {
+    var circuitBreaker = builder().build();
+    for (var i = 0; i < 5; i++) {
+      circuitBreaker.attemptRequest();
+    }
+    down.set(true);
+    for (var i = 0; i < 4; i++) {
+      assertThrows(RemoteServiceException.class, circuitBreaker::attemptRequest);
+      assertEquals("CLOSED", circuitBreaker.getState());
+    }
+    // 5 failures out of 10 calls
+    assertThrows(RemoteServiceException.class, circuitBreaker::attemptRequest);
+    assertEquals("OPEN", circuitBreaker.getState());
+    assertEquals(50f, circuitBreaker.getFailureRate());
+
+    var calls = serviceCalls.get();
+    assertEquals("Service is down", circuitBreaker.attemptRequest());
+    assertEquals(calls, serviceCalls.get());
+  }
+
+  @Test
+  void testNeedsMinimumNumberOfCalls() {
+    var circuitBreaker = builder().build();
+    down.set(true);
+    for (var i = 0; i < 3; i++) {
+      assertThrows(RemoteServiceException.class, circuitBreaker::attemptRequest);
+    }
+    assertEquals("CLOSED", circuitBreaker.getState());
+    assertThrows(RemoteServiceException.class, circuitBreaker::attemptRequest);
+    assertEquals("OPEN", circuitBreaker.getState());
+  }
+
+  @Test
+  void testOpensOnSlowCallRate() throws Exception {
+    var circuitBreaker = builder()
+        .slowCallDuration(Duration.ofMillis(100))
+        .slowCallRateThreshold(75)
+        .build();
+    callNanos.set(TimeUnit.MILLISECONDS.toNanos(100));
+    for (var i = 0; i < 3; i++) {
+      circuitBreaker.attemptRequest();
+    }
+    assertEquals("CLOSED", circuitBreaker.getState());
+    circuitBreaker.attemptRequest();
+    assertEquals("OPEN", circuitBreaker.getState());
+    assertEquals(100f, circuitBreaker.getSlowCallRate());
+  }
+
+  @Test
+  void testHalfOpenLimitsTrialCallsAndCloses() throws Exception {
+    var monitoringService = new MonitoringService(null, null);
+    var circuitBreaker = builder().build();
+    circuitBreaker.addStateTransitionListener(monitoringService::onStateTransition);
+    circuitBreaker.setState(State.OPEN);
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertEquals("HALF_OPEN", circuitBreaker.getState());
+
+    var calls = serviceCalls.get();
+    circuitBreaker.attemptRequest();
+    assertEquals("HALF_OPEN", circuitBreaker.getState());
+    circuitBreaker.attemptRequest();
+    assertEquals("CLOSED", circuitBreaker.getState());
+    assertEquals(calls + 2, serviceCalls.get());
+
+    var transitions = monitoringService.getStateTransitions().stream()
+        .map(event -> event.getFrom() + "->" + event.getTo())
+        .collect(Collectors.toList());
+    assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+  }
+
+  @Test
+  void testFailedTrialCallsReopen() {
+    var circuitBreaker = builder().build();
+    circuitBreaker.setState(State.HALF_OPEN);
+    down.set(true);
+    assertThrows(RemoteServiceException.class, circuitBreaker::attemptRequest);
+    assertThrows(RemoteServiceException.class, circuitBreaker::attemptRequest);
+    assertEquals("OPEN", circuitBreaker.getState());
+  }
+
+  @Test
+  void testUncheckedExceptionsCountAsFailedTrialCalls() {
+    RemoteService failing = () -> {
+      throw new IllegalStateException("bug in the client");
+    };
+    var circuitBreaker = SlidingWindowCircuitBreaker.builder("unchecked", failing)
+        .permittedCallsInHalfOpenState(2)
+        .clock(now::get)
+        .build();
+    circuitBreaker.setState(State.HALF_OPEN);
+    assertThrows(IllegalStateException.class, circuitBreaker::attemptRequest);
+    assertThrows(IllegalStateException.class, circuitBreaker::attemptRequest);
+    assertEquals("OPEN", circuitBreaker.getState());
+  }
+
+  @Test
+  void testHangingTrialCallReopensAfterMaximumWait() throws Exception {
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    RemoteService hanging = () -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return "late";
+    };
+    var circuitBreaker = SlidingWindowCircuitBreaker.builder("hanging", hanging)
+        .permittedCallsInHalfOpenState(1)
+        .maxWaitDurationInHalfOpenState(Duration.ofSeconds(5))
+        .clock(now::get)
+        .build();
+    circuitBreaker.setState(State.HALF_OPEN);
+    var trial = new Thread(() -> {
+      try {
+        circuitBreaker.attemptRequest();
+      } catch (RemoteServiceException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    trial.start();
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    assertEquals("HALF_OPEN", circuitBreaker.getState());
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+    assertEquals("OPEN", circuitBreaker.getState());
+    release.countDown();
+    trial.join();
+    assertEquals("OPEN", circuitBreaker.getState());
+  }
+
+  @Test
+  void testTimeBasedWindowForgetsOldCalls() {
+    var circuitBreaker = builder().timeBasedWindow(Duration.ofSeconds(10)).build();
+    down.set(true);
+    for (var i = 0; i < 3; i++) {
+      assertThrows(RemoteServiceException.class, circuitBreaker::attemptRequest);
+    }
+    now.addAndGet(TimeUnit.SECONDS.toNanos(11));
+    assertThrows(RemoteServiceException.class, circuitBreaker::attemptRequest);
+    assertEquals("CLOSED", circuitBreaker.getState());
+    for (var i = 0; i < 3; i++) {
+      assertThrows(RemoteServiceException.class, circuitBreaker::attemptRequest);
+    }
+    assertEquals("OPEN", circuitBreaker.getState());
+  }
+
+  @Test
+  void testConcurrentCallsPublishEachTransitionOnce() throws Exception {
+    var circuitBreaker = SlidingWindowCircuitBreaker.builder("concurrent", service)
+        .countBasedWindow(100)
+        .minimumNumberOfCalls(20)
+        .build();
+    var transitions = new AtomicInteger();
+    circuitBreaker.addStateTransitionListener(event -> transitions.incrementAndGet());
+    down.set(true);
+    var executor = Executors.newFixedThreadPool(4);
+    var start = new CountDownLatch(1);
+    for (var t = 0; t < 4; t++) {
+      executor.execute(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (var i = 0; i < 1000; i++) {
+          try {
+            circuitBreaker.attemptRequest();
+          } catch (RemoteServiceException e) {
+            // expected while the circuit is closed
+          }
+        }
+      });
+    }
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals("OPEN", circuitBreaker.getState());
+    assertEquals(1, transitions.get());
+  }
+}
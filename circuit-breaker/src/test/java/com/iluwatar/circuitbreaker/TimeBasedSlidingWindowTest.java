@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.circuitbreaker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Time based sliding window test.
+ */
+class TimeBasedSlidingWindowTest {
+
+  private static final long WINDOW = TimeUnit.SECONDS.toNanos(10);
+
+  private final AtomicLong now = new AtomicLong();
+
+  private final TimeBasedSlidingWindow window = new TimeBasedSlidingWindow(WINDOW, now::get);
+
+  @Test
+  void testOldBucketsLeaveTheWindow() {
+    window.record(true, false);
+    now.addAndGet(WINDOW / 2);
+    window.record(false, true);
+    assertSnapshot(2, 50, 50);
+    now.addAndGet(WINDOW / 2);
+    assertSnapshot(1, 0, 100);
+    now.addAndGet(WINDOW);
+    assertSnapshot(0, 0, 0);
+  }
+
+  @Test
+  void testConcurrentCallsInANewBucketAreAllCounted() throws Exception {
+    var threads = 4;
+    var calls = 10_000;
+    for (var round = 1; round <= 20; round++) {
+      // every round starts a bucket that held the calls of the previous window
+      now.addAndGet(WINDOW);
+      var barrier = new CyclicBarrier(threads);
+      var workers = new ArrayList<Thread>();
+      for (var t = 0; t < threads; t++) {
+        var worker = new Thread(() -> {
+          try {
+            barrier.await();
+          } catch (Exception e) {
+            throw new IllegalStateException(e);
+          }
+          for (var i = 0; i < calls; i++) {
+            window.record(i % 2 == 0, false);
+          }
+        });
+        worker.start();
+        workers.add(worker);
+      }
+      for (var worker : workers) {
+        worker.join();
+      }
+      assertSnapshot(threads * calls, 50, 0);
+    }
+  }
+
+  private void assertSnapshot(long calls, float failureRate, float slowCallRate) {
+    var snapshot = window.snapshot();
+    assertEquals(calls, snapshot.getCalls());
+    assertEquals(failureRate, snapshot.getFailureRate());
+    assertEquals(slowCallRate, snapshot.getSlowCallRate());
+  }
+}
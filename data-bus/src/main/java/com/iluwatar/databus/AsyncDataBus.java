@@ -0,0 +1,292 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.databus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A Data-Bus that delivers events asynchronously.
+ *
+ * <p>{@link #publish(DataType)} only puts the event into the mailbox of every interested member
+ * and returns, the members receive it on the threads of an {@link Executor}. A slow member
+ * therefore only delays its own events, not the publisher or the other members. Every member
+ * chooses whether it receives its events in order, one at a time, or in parallel.</p>
+ *
+ * <p>Members subscribe to event classes and receive the events of those classes and their
+ * subclasses. Every member has a single mailbox, whatever it subscribed to, so it receives an
+ * event once even if the classes overlap. For every event class the bus keeps the mailboxes of the
+ * interested members in a dispatch table, so publishing does not test every subscription.
+ * Subscriptions and the dispatch table are replaced as a whole when they change, so publishing
+ * never takes a lock.</p>
+ */
+@Slf4j
+public class AsyncDataBus extends DataBus {
+
+  private final Executor executor;
+
+  private final AtomicLong pending = new AtomicLong();
+
+  private final Object idle = new Object();
+
+  private volatile List<Mailbox> subscriptions = List.of();
+
+  private volatile Map<Class<?>, Mailbox[]> dispatchTable = Map.of();
+
+  /**
+   * Creates a Data-Bus.
+   *
+   * @param executor runs the deliveries to the members
+   */
+  public AsyncDataBus(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Register a member to receive all events, in order.
+   *
+   * @param member The member to register
+   */
+  @Override
+  public void subscribe(final Member member) {
+    subscribe(DataType.class, member, Delivery.ORDERED);
+  }
+
+  /**
+   * Register a member to receive the events of a type and its subtypes. A member subscribing to
+   * several types receives every event once, even if the types overlap. Subscribing the same member
+   * to the same type twice has no effect.
+   *
+   * @param type     The type of the events
+   * @param member   The member to register
+   * @param delivery How the events are delivered to the member
+   * @throws IllegalArgumentException if the member already subscribed with another delivery
+   */
+  public synchronized void subscribe(final Class<? extends DataType> type, final Member member,
+      final Delivery delivery) {
+    for (var mailbox : subscriptions) {
+      if (mailbox.member == member) {
+        if (mailbox.delivery != delivery) {
+          throw new IllegalArgumentException(
+              "Member already subscribed with " + mailbox.delivery + " delivery");
+        }
+        if (!mailbox.types.contains(type)) {
+          var types = new HashSet<>(mailbox.types);
+          types.add(type);
+          mailbox.types = Set.copyOf(types);
+          update(subscriptions);
+        }
+        return;
+      }
+    }
+    var updated = new ArrayList<>(subscriptions);
+    updated.add(new Mailbox(type, member, delivery));
+    update(updated);
+  }
+
+  /**
+   * Deregister a member from all the types it subscribed to. Events that are still in its mailbox
+   * are discarded.
+   *
+   * @param member The member to deregister
+   */
+  @Override
+  public synchronized void unsubscribe(final Member member) {
+    var updated = new ArrayList<Mailbox>();
+    for (var mailbox : subscriptions) {
+      if (mailbox.member == member) {
+        mailbox.active = false;
+      } else {
+        updated.add(mailbox);
+      }
+    }
+    update(updated);
+  }
+
+  /**
+   * Publish an event to all members subscribed to its type, without waiting for them.
+   *
+   * @param event The event
+   */
+  @Override
+  public void publish(final DataType event) {
+    event.setDataBus(this);
+    var mailboxes = dispatchTable.get(event.getClass());
+    if (mailboxes == null) {
+      mailboxes = addToDispatchTable(event.getClass());
+    }
+    pending.addAndGet(mailboxes.length);
+    for (var mailbox : mailboxes) {
+      mailbox.offer(event);
+    }
+  }
+
+  /**
+   * Get pending count.
+   *
+   * @return the number of events published but not yet received by a member
+   */
+  public long getPendingCount() {
+    return pending.get();
+  }
+
+  /**
+   * Waits until the members received all published events, including those they published
+   * themselves.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit    the unit of the timeout
+   * @return true if all events were received, false if the timeout passed
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+    var deadline = System.nanoTime() + unit.toNanos(timeout);
+    synchronized (idle) {
+      while (pending.get() > 0) {
+        var remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(idle, remaining);
+      }
+    }
+    return true;
+  }
+
+  private void update(List<Mailbox> updated) {
+    subscriptions = List.copyOf(updated);
+    var table = new HashMap<Class<?>, Mailbox[]>();
+    for (var type : dispatchTable.keySet()) {
+      table.put(type, mailboxesFor(type));
+    }
+    dispatchTable = table;
+  }
+
+  private synchronized Mailbox[] addToDispatchTable(Class<?> type) {
+    var mailboxes = dispatchTable.get(type);
+    if (mailboxes == null) {
+      mailboxes = mailboxesFor(type);
+      var table = new HashMap<>(dispatchTable);
+      table.put(type, mailboxes);
+      dispatchTable = table;
+    }
+    return mailboxes;
+  }
+
+  private Mailbox[] mailboxesFor(Class<?> type) {
+    return subscriptions.stream()
+        .filter(mailbox -> mailbox.accepts(type))
+        .toArray(Mailbox[]::new);
+  }
+
+  private void delivered() {
+    if (pending.decrementAndGet() == 0) {
+      synchronized (idle) {
+        idle.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * The subscription of a member to its types, with the events waiting to be delivered to it.
+   */
+  private final class Mailbox {
+
+    private final Member member;
+
+    private final Delivery delivery;
+
+    private final Queue<DataType> events = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private volatile Set<Class<? extends DataType>> types;
+
+    private volatile boolean active = true;
+
+    private Mailbox(Class<? extends DataType> type, Member member, Delivery delivery) {
+      this.types = Set.of(type);
+      this.member = member;
+      this.delivery = delivery;
+    }
+
+    private boolean accepts(Class<?> type) {
+      return types.stream().anyMatch(subscribed -> subscribed.isAssignableFrom(type));
+    }
+
+    private void offer(DataType event) {
+      if (delivery == Delivery.PARALLEL) {
+        executor.execute(() -> deliver(event));
+      } else {
+        events.offer(event);
+        schedule();
+      }
+    }
+
+    private void schedule() {
+      if (scheduled.compareAndSet(false, true)) {
+        executor.execute(this::drain);
+      }
+    }
+
+    /*
+     * Delivers the queued events one after the other. Only one drain runs at a time, and an event
+     * queued while the last drain was finishing schedules a new one.
+     */
+    private void drain() {
+      DataType event;
+      while ((event = events.poll()) != null) {
+        deliver(event);
+      }
+      scheduled.set(false);
+      if (!events.isEmpty()) {
+        schedule();
+      }
+    }
+
+    private void deliver(DataType event) {
+      try {
+        if (active) {
+          member.accept(event);
+        }
+      } catch (RuntimeException e) {
+        LOGGER.error("Member {} failed to receive {}", member, event, e);
+      } finally {
+        delivered();
+      }
+    }
+  }
+}
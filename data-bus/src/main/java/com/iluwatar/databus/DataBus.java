@@ -23,13 +23,14 @@
 
 package com.iluwatar.databus;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  * The Data-Bus implementation.
  *
- * <p>This implementation uses a Singleton.</p>
+ * <p>This implementation uses a Singleton. Members may subscribe and unsubscribe while events are
+ * published, a publish sees the members that were subscribed when it started.</p>
  *
  * @author Paul Campbell (pcampbell@kemitix.net)
  */
@@ -37,7 +38,7 @@ public class DataBus {
 
   private static final DataBus INSTANCE = new DataBus();
 
-  private final Set<Member> listeners = new HashSet<>();
+  private final Set<Member> listeners = new CopyOnWriteArraySet<>();
 
   public static DataBus getInstance() {
     return INSTANCE;
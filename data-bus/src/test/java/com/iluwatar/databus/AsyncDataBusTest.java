@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.databus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.databus.data.MessageData;
+import com.iluwatar.databus.data.StartingData;
+import com.iluwatar.databus.data.StoppingData;
+import com.iluwatar.databus.members.MessageCollectorMember;
+import com.iluwatar.databus.members.StatusMember;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link AsyncDataBus}.
+ */
+class AsyncDataBusTest {
+
+  private ExecutorService executor;
+
+  private AsyncDataBus dataBus;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+    dataBus = new AsyncDataBus(executor);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void slowMemberDoesNotStallPublisherOrOtherMembers() {
+    assertTimeout(Duration.ofSeconds(5), () -> {
+      var release = new CountDownLatch(1);
+      dataBus.subscribe(event -> await(release));
+      var collector = new MessageCollectorMember("collector");
+      dataBus.subscribe(collector);
+
+      for (var i = 0; i < 10; i++) {
+        dataBus.publish(MessageData.of("message " + i));
+      }
+      while (collector.getMessages().size() < 10) {
+        Thread.sleep(1);
+      }
+      assertEquals(10, dataBus.getPendingCount());
+      release.countDown();
+      assertTrue(dataBus.awaitIdle(5, TimeUnit.SECONDS));
+    });
+  }
+
+  @Test
+  void membersOnlyReceiveTheTypesTheySubscribedTo() throws Exception {
+    var messages = new CopyOnWriteArrayList<DataType>();
+    var all = new CopyOnWriteArrayList<DataType>();
+    dataBus.subscribe(MessageData.class, messages::add, Delivery.ORDERED);
+    dataBus.subscribe(AbstractDataType.class, all::add, Delivery.ORDERED);
+
+    var message = MessageData.of("message");
+    var starting = StartingData.of(LocalDateTime.now());
+    dataBus.publish(message);
+    dataBus.publish(starting);
+    assertTrue(dataBus.awaitIdle(5, TimeUnit.SECONDS));
+
+    assertEquals(List.of(message), messages);
+    assertEquals(List.of(message, starting), all);
+    assertEquals(dataBus, message.getDataBus());
+  }
+
+  @Test
+  void orderedMemberReceivesEventsInPublishOrder() throws Exception {
+    var received = new ArrayList<String>();
+    var concurrent = new AtomicInteger();
+    var overlaps = new AtomicInteger();
+    dataBus.subscribe(MessageData.class, event -> {
+      if (concurrent.incrementAndGet() > 1) {
+        overlaps.incrementAndGet();
+      }
+      received.add(((MessageData) event).getMessage());
+      concurrent.decrementAndGet();
+    }, Delivery.ORDERED);
+
+    var expected = new ArrayList<String>();
+    for (var i = 0; i < 10_000; i++) {
+      expected.add("message " + i);
+      dataBus.publish(MessageData.of("message " + i));
+    }
+    assertTrue(dataBus.awaitIdle(10, TimeUnit.SECONDS));
+    assertEquals(0, overlaps.get());
+    assertEquals(expected, received);
+  }
+
+  @Test
+  void memberWithOverlappingTypesReceivesEveryEventOnceInOrder() throws Exception {
+    var received = new ArrayList<String>();
+    var concurrent = new AtomicInteger();
+    var overlaps = new AtomicInteger();
+    Member member = event -> {
+      if (concurrent.incrementAndGet() > 1) {
+        overlaps.incrementAndGet();
+      }
+      received.add(((MessageData) event).getMessage());
+      concurrent.decrementAndGet();
+    };
+    dataBus.subscribe(member);
+    dataBus.subscribe(MessageData.class, member, Delivery.ORDERED);
+    assertThrows(IllegalArgumentException.class,
+        () -> dataBus.subscribe(MessageData.class, member, Delivery.PARALLEL));
+
+    var expected = new ArrayList<String>();
+    for (var i = 0; i < 10_000; i++) {
+      expected.add("message " + i);
+      dataBus.publish(MessageData.of("message " + i));
+    }
+    assertTrue(dataBus.awaitIdle(10, TimeUnit.SECONDS));
+    assertEquals(0, overlaps.get());
+    assertEquals(expected, received);
+  }
+
+  @Test
+  void parallelMemberReceivesEventsConcurrently() {
+    assertTimeout(Duration.ofSeconds(5), () -> {
+      var bothInside = new CountDownLatch(2);
+      dataBus.subscribe(MessageData.class, event -> {
+        bothInside.countDown();
+        await(bothInside);
+      }, Delivery.PARALLEL);
+      dataBus.publish(MessageData.of("first"));
+      dataBus.publish(MessageData.of("second"));
+      assertTrue(dataBus.awaitIdle(5, TimeUnit.SECONDS));
+    });
+  }
+
+  @Test
+  void unsubscribedMemberReceivesNothing() throws Exception {
+    var received = new AtomicInteger();
+    Member member = event -> received.incrementAndGet();
+    dataBus.subscribe(member);
+    dataBus.subscribe(member);
+    dataBus.publish(MessageData.of("once"));
+    assertTrue(dataBus.awaitIdle(5, TimeUnit.SECONDS));
+    dataBus.unsubscribe(member);
+    dataBus.publish(MessageData.of("never"));
+    assertTrue(dataBus.awaitIdle(5, TimeUnit.SECONDS));
+    assertEquals(1, received.get());
+  }
+
+  @Test
+  void eventsPublishedByMembersAreDelivered() throws Exception {
+    var status = new StatusMember(1);
+    var collector = new MessageCollectorMember("collector");
+    dataBus.subscribe(StoppingData.class, status, Delivery.ORDERED);
+    dataBus.subscribe(MessageData.class, collector, Delivery.ORDERED);
+    dataBus.publish(StoppingData.of(LocalDateTime.now()));
+    assertTrue(dataBus.awaitIdle(5, TimeUnit.SECONDS));
+    assertEquals(List.of("Goodbye cruel world from #1!"), collector.getMessages());
+  }
+
+  @Test
+  void fanOutReachesEveryMember() throws Exception {
+    var received = new AtomicInteger();
+    for (var i = 0; i < 500; i++) {
+      dataBus.subscribe(event -> received.incrementAndGet());
+    }
+    for (var i = 0; i < 10; i++) {
+      dataBus.publish(MessageData.of("message " + i));
+    }
+    assertTrue(dataBus.awaitIdle(5, TimeUnit.SECONDS));
+    assertEquals(5_000, received.get());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
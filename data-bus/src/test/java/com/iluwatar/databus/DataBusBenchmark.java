@@ -0,0 +1,88 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.databus;
+
+import com.iluwatar.databus.data.MessageData;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compares the synchronous {@link DataBus} with the {@link AsyncDataBus} when publishing to
+ * hundreds of members, one of which takes 100 microseconds per event. Reports how long the
+ * publisher was blocked per event and how long it took until every member received every event.
+ * Run the main method with the module's test classpath.
+ */
+public final class DataBusBenchmark {
+
+  private static final int EVENTS = 2_000;
+
+  private static final int[] MEMBERS = {100, 500};
+
+  private static final long SLOW_MEMBER_NANOS = 100_000L;
+
+  private DataBusBenchmark() {
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args unused
+   * @throws Exception if the benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    System.out.printf("%-12s %8s %16s %16s%n", "bus", "members", "publish us/event",
+        "delivered in ms");
+    for (var members : MEMBERS) {
+      run("sync", new DataBus(), members);
+      var executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+      run("async", new AsyncDataBus(executor), members);
+      executor.shutdown();
+    }
+  }
+
+  private static void run(String name, DataBus dataBus, int members) throws Exception {
+    var received = new LongAdder();
+    dataBus.subscribe(event -> LockSupport.parkNanos(SLOW_MEMBER_NANOS));
+    for (var i = 1; i < members; i++) {
+      dataBus.subscribe(event -> received.increment());
+    }
+    var begin = System.nanoTime();
+    for (var i = 0; i < EVENTS; i++) {
+      dataBus.publish(MessageData.of("message " + i));
+    }
+    var published = System.nanoTime() - begin;
+    if (dataBus instanceof AsyncDataBus) {
+      ((AsyncDataBus) dataBus).awaitIdle(1, TimeUnit.MINUTES);
+    }
+    var delivered = System.nanoTime() - begin;
+    if (received.sum() != (long) EVENTS * (members - 1)) {
+      throw new IllegalStateException("Lost events: " + received.sum());
+    }
+    System.out.printf("%-12s %8d %16.1f %16.1f%n", name, members, published / 1e3 / EVENTS,
+        delivered / 1e6);
+  }
+}
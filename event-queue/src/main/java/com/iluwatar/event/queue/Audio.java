@@ -34,6 +34,11 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * This class implements the Event Queue pattern.
  *
+ * <p>Requests are queued in a {@link CoalescingEventQueue}: a request for a stream that is already
+ * pending only raises the volume of the pending request, and when the queue is full the
+ * {@link OverflowPolicy} decides what happens. The update thread parks while there is nothing to
+ * play.
+ *
  * @author mkuprivecz
  */
 @Slf4j
@@ -42,17 +47,25 @@ public class Audio {
 
   private static final int MAX_PENDING = 16;
 
-  private int headIndex;
-
-  private int tailIndex;
-
   private volatile Thread updateThread = null;
 
-  private final PlayMessage[] pendingAudio = new PlayMessage[MAX_PENDING];
+  private final CoalescingEventQueue<AudioInputStream, PlayMessage> pendingAudio;
 
   // Visible only for testing purposes
   Audio() {
+    this(MAX_PENDING, OverflowPolicy.DROP_OLDEST);
+  }
 
+  /**
+   * Creates an audio service.
+   *
+   * @param maxPending     maximum number of pending requests, rounded up to a power of two
+   * @param overflowPolicy what to do with new requests when the maximum is reached
+   */
+  public Audio(int maxPending, OverflowPolicy overflowPolicy) {
+    pendingAudio = new CoalescingEventQueue<>(maxPending, overflowPolicy, (pending, message) ->
+        // Use the larger of the two volumes.
+        pending.setVolume(Math.max(message.getVolume(), pending.getVolume())));
   }
 
   public static Audio getInstance() {
@@ -65,8 +78,8 @@ public class Audio {
   public synchronized void stopService() throws InterruptedException {
     if (updateThread != null) {
       updateThread.interrupt();
+      updateThread.join();
     }
-    updateThread.join();
     updateThread = null;
   }
 
@@ -80,28 +93,23 @@ public class Audio {
   }
 
   /**
-   * Starts the thread for the Update Method pattern if it was not started previously. Also when the
-   * thread is is ready initializes the indexes of the queue
+   * Starts the thread for the Update Method pattern if it was not started previously. Requests
+   * that were queued while the service was stopped are played once it is started.
    */
-  public void init() {
+  public synchronized void init() {
     if (updateThread == null) {
       updateThread = new Thread(() -> {
-        while (!Thread.currentThread().isInterrupted()) {
-          update();
+        try {
+          while (!Thread.currentThread().isInterrupted()) {
+            update(pendingAudio.take());
+          }
+        } catch (InterruptedException e) {
+          LOGGER.trace("Audio service stopped", e);
         }
       });
     }
-    startThread();
-  }
-
-  /**
-   * This is a synchronized thread starter.
-   */
-  private synchronized void startThread() {
     if (!updateThread.isAlive()) {
       updateThread.start();
-      headIndex = 0;
-      tailIndex = 0;
     }
   }
 
@@ -112,33 +120,20 @@ public class Audio {
    * @param volume is the level of the audio's volume
    */
   public void playSound(AudioInputStream stream, float volume) {
-    init();
-    // Walk the pending requests.
-    for (var i = headIndex; i != tailIndex; i = (i + 1) % MAX_PENDING) {
-      var playMessage = getPendingAudio()[i];
-      if (playMessage.getStream() == stream) {
-        // Use the larger of the two volumes.
-        playMessage.setVolume(Math.max(volume, playMessage.getVolume()));
-
-        // Don't need to enqueue.
-        return;
-      }
+    if (updateThread == null) {
+      init();
+    }
+    if (!pendingAudio.enqueue(stream, new PlayMessage(stream, volume))) {
+      LOGGER.debug("Audio queue is full, dropping request");
     }
-    getPendingAudio()[tailIndex] = new PlayMessage(stream, volume);
-    tailIndex = (tailIndex + 1) % MAX_PENDING;
   }
 
   /**
-   * This method uses the Update Method pattern. It takes the audio from the queue and plays it
+   * This method uses the Update Method pattern. It plays the audio taken from the queue.
    */
-  private void update() {
-    // If there are no pending requests, do nothing.
-    if (headIndex == tailIndex) {
-      return;
-    }
+  private void update(PlayMessage playMessage) {
     try {
-      var audioStream = getPendingAudio()[headIndex].getStream();
-      headIndex++;
+      var audioStream = playMessage.getStream();
       var clip = AudioSystem.getClip();
       clip.open(audioStream);
       clip.start();
@@ -165,12 +160,27 @@ public class Audio {
   }
 
   /**
-   * Returns with the message array of the queue.
+   * Returns with the message array of the queue: the pending messages, oldest first, in an array
+   * the size of the queue.
    *
    * @return PlayMessage[]
    */
   public PlayMessage[] getPendingAudio() {
-    return pendingAudio;
+    return pendingAudio.snapshot(new PlayMessage[pendingAudio.capacity()]);
+  }
+
+  /**
+   * Number of requests that were merged into a pending request for the same stream.
+   */
+  public long getCoalescedCount() {
+    return pendingAudio.getCoalescedCount();
+  }
+
+  /**
+   * Number of requests that were dropped because the queue was full.
+   */
+  public long getDroppedCount() {
+    return pendingAudio.getDroppedCount();
   }
 
 }
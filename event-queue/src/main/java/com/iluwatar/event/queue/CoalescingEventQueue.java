@@ -0,0 +1,306 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.event.queue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded event queue for many producers and one consumer that merges events with the same key.
+ *
+ * <p>Events are kept in order in a lock-free ring buffer, where every slot has a sequence number
+ * that tells whether it is free for a producer or filled for the consumer. An index from key to
+ * pending event finds a duplicate in O(1) instead of walking the queue. When the queue is full the
+ * {@link OverflowPolicy} decides, and when it is empty the consumer parks in {@link #take()} until
+ * a producer wakes it up.
+ *
+ * @param <K> type of the keys that identify duplicate events
+ * @param <E> type of the events
+ */
+public class CoalescingEventQueue<K, E> {
+
+  private static final long BLOCK_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final OverflowPolicy overflowPolicy;
+
+  private final BiConsumer<E, E> merge;
+
+  private final AtomicReferenceArray<Node<K, E>> nodes;
+
+  private final AtomicLongArray sequences;
+
+  private final int mask;
+
+  private final AtomicLong tail = new AtomicLong();
+
+  private final AtomicLong head = new AtomicLong();
+
+  private final Map<K, Node<K, E>> pending = new ConcurrentHashMap<>();
+
+  private final LongAdder coalesced = new LongAdder();
+
+  private final LongAdder dropped = new LongAdder();
+
+  private volatile Thread waitingConsumer;
+
+  /**
+   * Creates a queue.
+   *
+   * @param capacity       minimum capacity, rounded up to the next power of two of at least two
+   * @param overflowPolicy what to do with new events when the queue is full
+   * @param merge          merges a new event (second argument) into a pending one with the same key
+   *                       (first argument)
+   */
+  public CoalescingEventQueue(int capacity, OverflowPolicy overflowPolicy,
+      BiConsumer<E, E> merge) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    // with a single slot a published sequence would equal the next producer position
+    var size = Math.max(2, Integer.highestOneBit(capacity));
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.nodes = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (var i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+    this.mask = size - 1;
+    this.overflowPolicy = overflowPolicy;
+    this.merge = merge;
+  }
+
+  /**
+   * Adds an event, or merges it into the pending event with the same key.
+   *
+   * @param key   identity of the event
+   * @param event the event
+   * @return false if the event was dropped because the queue was full
+   */
+  public boolean enqueue(K key, E event) {
+    while (true) {
+      var merged = pending.computeIfPresent(key, (k, node) -> {
+        merge.accept(node.event, event);
+        node.merged++;
+        return node;
+      });
+      if (merged != null) {
+        coalesced.increment();
+        return true;
+      }
+      var node = new Node<>(key, event);
+      if (pending.putIfAbsent(key, node) == null) {
+        return append(node);
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest event without waiting.
+   *
+   * @return the oldest event, or null if the queue is empty
+   */
+  public E poll() {
+    var node = pollNode();
+    return node == null ? null : node.event;
+  }
+
+  /**
+   * Removes the oldest event, parking the calling thread while the queue is empty. Only one thread
+   * may wait in this method at a time.
+   *
+   * @return the oldest event
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public E take() throws InterruptedException {
+    while (true) {
+      var event = poll();
+      if (event != null) {
+        return event;
+      }
+      waitingConsumer = Thread.currentThread();
+      // check again, a producer may have added an event before it could see the waiting consumer
+      event = poll();
+      if (event != null) {
+        waitingConsumer = null;
+        return event;
+      }
+      LockSupport.park(this);
+      waitingConsumer = null;
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+    }
+  }
+
+  /**
+   * Number of pending events.
+   */
+  public int size() {
+    return (int) Math.max(0, Math.min(tail.get() - head.get(), nodes.length()));
+  }
+
+  public int capacity() {
+    return nodes.length();
+  }
+
+  /**
+   * Copies the pending events, oldest first, into an array the size of the queue's capacity.
+   *
+   * @param array an array of at least the queue's capacity
+   * @return the array
+   */
+  public E[] snapshot(E[] array) {
+    var count = 0;
+    for (var position = head.get(); count < array.length && position < tail.get(); position++) {
+      var node = nodes.get((int) (position & mask));
+      if (node != null && sequences.get((int) (position & mask)) == position + 1) {
+        array[count++] = node.event;
+      }
+    }
+    return array;
+  }
+
+  /**
+   * Number of events that were merged into a pending event, not counting those dropped with it.
+   */
+  public long getCoalescedCount() {
+    return coalesced.sum();
+  }
+
+  /**
+   * Number of events that were dropped because the queue was full, including the events that had
+   * been merged into a dropped event.
+   */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  private boolean append(Node<K, E> node) {
+    while (!offer(node)) {
+      switch (overflowPolicy) {
+        case DROP_OLDEST:
+          var oldest = pollNode();
+          if (oldest != null) {
+            drop(oldest);
+          }
+          break;
+        case BLOCK:
+          if (!Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(this, BLOCK_WAIT_NANOS);
+            break;
+          }
+          pending.remove(node.key, node);
+          drop(node);
+          return false;
+        default:
+          pending.remove(node.key, node);
+          drop(node);
+          return false;
+      }
+    }
+    var consumer = waitingConsumer;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+    return true;
+  }
+
+  /*
+   * Counts a node that left the pending index without being delivered, together with the events
+   * merged into it, as dropped instead of coalesced.
+   */
+  private void drop(Node<K, E> node) {
+    coalesced.add(-node.merged);
+    dropped.add(1 + node.merged);
+  }
+
+  private boolean offer(Node<K, E> node) {
+    var position = tail.get();
+    while (true) {
+      var index = (int) (position & mask);
+      var difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          nodes.set(index, node);
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  private Node<K, E> pollNode() {
+    var position = head.get();
+    while (true) {
+      var index = (int) (position & mask);
+      var difference = sequences.get(index) - (position + 1);
+      if (difference == 0) {
+        if (head.compareAndSet(position, position + 1)) {
+          var node = nodes.getAndSet(index, null);
+          sequences.set(index, position + nodes.length());
+          // merges run while holding the key's entry, and so does the removal: a merge that got
+          // in after the node left the ring still ends before the event is handed out, and every
+          // later event with the key starts a new node
+          pending.remove(node.key, node);
+          return node;
+        }
+        position = head.get();
+      } else if (difference < 0) {
+        return null;
+      } else {
+        position = head.get();
+      }
+    }
+  }
+
+  private static final class Node<K, E> {
+
+    private final K key;
+
+    private final E event;
+
+    // changed while holding the key's entry in the pending index, read once the node left it
+    private int merged;
+
+    private Node(K key, E event) {
+      this.key = key;
+      this.event = event;
+    }
+  }
+}
@@ -40,6 +40,6 @@ public class PlayMessage {
   private final AudioInputStream stream;
 
   @Setter
-  private float volume;
+  private volatile float volume;
 
 }
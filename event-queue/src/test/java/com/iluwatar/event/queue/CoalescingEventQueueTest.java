@@ -0,0 +1,217 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.event.queue;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testing the queue behind the Audio service.
+ */
+class CoalescingEventQueueTest {
+
+  private static CoalescingEventQueue<String, AtomicInteger> queue(int capacity,
+      OverflowPolicy overflowPolicy) {
+    return new CoalescingEventQueue<>(capacity, overflowPolicy,
+        (pending, event) -> pending.accumulateAndGet(event.get(), Math::max));
+  }
+
+  @Test
+  void testEventsWithSameKeyAreMerged() {
+    var queue = queue(4, OverflowPolicy.DROP_OLDEST);
+    assertTrue(queue.enqueue("a", new AtomicInteger(1)));
+    assertTrue(queue.enqueue("b", new AtomicInteger(2)));
+    assertTrue(queue.enqueue("a", new AtomicInteger(5)));
+    assertEquals(2, queue.size());
+    assertEquals(1, queue.getCoalescedCount());
+    assertEquals(5, queue.poll().get());
+    assertEquals(2, queue.poll().get());
+    assertNull(queue.poll());
+    // once taken, a key is queued again
+    queue.enqueue("a", new AtomicInteger(1));
+    assertEquals(1, queue.size());
+  }
+
+  @Test
+  void testDropOldest() {
+    var queue = queue(2, OverflowPolicy.DROP_OLDEST);
+    queue.enqueue("a", new AtomicInteger(1));
+    queue.enqueue("b", new AtomicInteger(2));
+    assertTrue(queue.enqueue("c", new AtomicInteger(3)));
+    assertEquals(1, queue.getDroppedCount());
+    assertEquals(2, queue.poll().get());
+    assertEquals(3, queue.poll().get());
+    // the dropped key is no longer pending
+    queue.enqueue("a", new AtomicInteger(4));
+    assertEquals(4, queue.poll().get());
+  }
+
+  @Test
+  void testEventsMergedIntoDroppedEventAreDropped() {
+    var queue = queue(2, OverflowPolicy.DROP_OLDEST);
+    queue.enqueue("a", new AtomicInteger(1));
+    queue.enqueue("a", new AtomicInteger(2));
+    queue.enqueue("b", new AtomicInteger(3));
+    assertEquals(1, queue.getCoalescedCount());
+    queue.enqueue("c", new AtomicInteger(4));
+    assertEquals(0, queue.getCoalescedCount());
+    assertEquals(2, queue.getDroppedCount());
+    assertEquals(3, queue.poll().get());
+    assertEquals(4, queue.poll().get());
+  }
+
+  @Test
+  void testCoalesceOnlyMergesWhenFull() {
+    var queue = queue(2, OverflowPolicy.COALESCE);
+    queue.enqueue("a", new AtomicInteger(1));
+    queue.enqueue("b", new AtomicInteger(2));
+    assertFalse(queue.enqueue("c", new AtomicInteger(3)));
+    assertTrue(queue.enqueue("a", new AtomicInteger(7)));
+    assertEquals(1, queue.getDroppedCount());
+    assertEquals(7, queue.poll().get());
+    assertEquals(2, queue.poll().get());
+    assertNull(queue.poll());
+  }
+
+  @Test
+  void testBlockWaitsForRoom() {
+    assertTimeout(Duration.ofSeconds(5), () -> {
+      var queue = queue(2, OverflowPolicy.BLOCK);
+      queue.enqueue("a", new AtomicInteger(1));
+      queue.enqueue("b", new AtomicInteger(2));
+      var executor = Executors.newSingleThreadExecutor();
+      var enqueued = executor.submit(() -> queue.enqueue("c", new AtomicInteger(3)));
+      Thread.sleep(100);
+      assertFalse(enqueued.isDone());
+      assertEquals(1, queue.take().get());
+      assertTrue(enqueued.get());
+      assertEquals(2, queue.take().get());
+      assertEquals(3, queue.take().get());
+      executor.shutdown();
+    });
+  }
+
+  @Test
+  void testTakeParksUntilEventArrives() {
+    assertTimeout(Duration.ofSeconds(5), () -> {
+      var queue = queue(4, OverflowPolicy.DROP_OLDEST);
+      var executor = Executors.newSingleThreadExecutor();
+      var taken = executor.submit(queue::take);
+      Thread.sleep(100);
+      assertFalse(taken.isDone());
+      queue.enqueue("a", new AtomicInteger(1));
+      assertEquals(1, taken.get().get());
+      executor.shutdownNow();
+    });
+  }
+
+  @Test
+  void testSmallestQueueIsBounded() {
+    var queue = queue(1, OverflowPolicy.COALESCE);
+    assertEquals(2, queue.capacity());
+    assertTrue(queue.enqueue("a", new AtomicInteger(1)));
+    assertTrue(queue.enqueue("b", new AtomicInteger(2)));
+    assertFalse(queue.enqueue("c", new AtomicInteger(3)));
+  }
+
+  @Test
+  void testSnapshot() {
+    var queue = queue(4, OverflowPolicy.DROP_OLDEST);
+    var first = new AtomicInteger(1);
+    var second = new AtomicInteger(2);
+    queue.enqueue("a", first);
+    queue.enqueue("b", second);
+    assertArrayEquals(new AtomicInteger[] {first, second, null, null},
+        queue.snapshot(new AtomicInteger[queue.capacity()]));
+  }
+
+  @Test
+  void testManyProducersOneConsumer() throws Exception {
+    var queue = queue(64, OverflowPolicy.BLOCK);
+    var producers = 4;
+    var events = 5_000;
+    var done = new CountDownLatch(producers);
+    var executor = Executors.newFixedThreadPool(producers);
+    for (var p = 0; p < producers; p++) {
+      var producer = p;
+      executor.execute(() -> {
+        for (var i = 0; i < events; i++) {
+          queue.enqueue(producer + "-" + i, new AtomicInteger(producer * events + i));
+        }
+        done.countDown();
+      });
+    }
+    var seen = new HashSet<Integer>();
+    for (var i = 0; i < producers * events; i++) {
+      assertTrue(seen.add(queue.take().get()));
+    }
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(0, queue.getDroppedCount());
+    executor.shutdown();
+  }
+
+  @Test
+  void testMergesRacingTheConsumerAreDelivered() throws Exception {
+    var queue = new CoalescingEventQueue<Integer, AtomicInteger>(8, OverflowPolicy.BLOCK,
+        (pending, event) -> pending.addAndGet(event.get()));
+    var producers = 4;
+    var events = 50_000;
+    var executor = Executors.newFixedThreadPool(producers);
+    for (var p = 0; p < producers; p++) {
+      executor.execute(() -> {
+        for (var i = 0; i < events; i++) {
+          queue.enqueue(i % 4, new AtomicInteger(1));
+        }
+      });
+    }
+    var delivered = 0;
+    var taken = 0;
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (delivered < producers * events && System.nanoTime() < deadline) {
+      var event = queue.poll();
+      if (event != null) {
+        delivered += event.get();
+        taken++;
+      }
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    assertNull(queue.poll());
+    assertEquals(producers * events, delivered);
+    assertEquals(producers * events, taken + queue.getCoalescedCount());
+  }
+}
@@ -0,0 +1,393 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+/**
+ * This is the binary implementation of event journal. Events are appended to segment files in a
+ * journal directory as length-prefixed records: a four byte payload length, a CRC32C checksum of
+ * the payload and the payload encoded by {@link EventType}. A segment is closed when it reaches
+ * the segment size and is named after its offset, the position of its first record in the journal
+ * as a whole, so the offset of every record is known without an index.
+ *
+ * <p>Replay maps the segments into memory one after another and decodes the records straight from
+ * the mapped buffers, so the journal is streamed instead of being read into memory. A record with
+ * a wrong checksum or a length that does not fit in the middle of the journal is reported as
+ * corruption; an incomplete record at the end of the last segment, with no complete record after
+ * it, is what a crash during a write leaves behind and is ignored, and cut off before the next
+ * write.
+ *
+ * <p>Writes are made durable with group commit: the segment is forced to disk once
+ * {@code syncBatchSize} records are waiting or the oldest of them waited for
+ * {@code syncIntervalMillis}, whichever happens first. The interval is kept by a shared daemon
+ * thread, so a record is forced in time even if no further write follows it. With a batch size of
+ * 1 every write is durable before it returns; larger batches trade the last few events on a power
+ * failure for throughput. {@link #close()} always forces the remaining records.
+ */
+public class BinaryEventJournal implements EventJournal {
+
+  /**
+   * The default journal directory, in the working directory.
+   */
+  public static final Path DEFAULT_DIRECTORY = Paths.get("Journal");
+
+  /**
+   * The default maximum size of a segment file, 64 MiB.
+   */
+  public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * The default number of records forced to disk together.
+   */
+  public static final int DEFAULT_SYNC_BATCH_SIZE = 64;
+
+  /**
+   * The default maximum time a written record waits to be forced to disk.
+   */
+  public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 10;
+
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+  private static final ScheduledExecutorService SYNC_SCHEDULER =
+      Executors.newSingleThreadScheduledExecutor(task -> {
+        var thread = new Thread(task, "event-journal-sync");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final Path directory;
+  private final int segmentSize;
+  private final int syncBatchSize;
+  private final long syncIntervalNanos;
+  private final CRC32C writeCrc = new CRC32C();
+
+  private ByteBuffer buffer = ByteBuffer.allocate(256);
+  private FileChannel channel;
+  private long segmentOffset;
+  private int unsyncedRecords;
+  private long firstUnsyncedNanos;
+  private ScheduledFuture<?> scheduledSync;
+
+  /**
+   * Instantiates a new binary journal in the default directory with the default settings.
+   */
+  public BinaryEventJournal() {
+    this(DEFAULT_DIRECTORY, DEFAULT_SEGMENT_SIZE, DEFAULT_SYNC_BATCH_SIZE,
+        DEFAULT_SYNC_INTERVAL_MILLIS);
+  }
+
+  /**
+   * Instantiates a new binary journal.
+   *
+   * @param directory          the journal directory
+   * @param segmentSize        the size at which a segment is closed and a new one started
+   * @param syncBatchSize      the number of records forced to disk together
+   * @param syncIntervalMillis the maximum time a record waits to be forced to disk
+   */
+  public BinaryEventJournal(Path directory, int segmentSize, int syncBatchSize,
+                            long syncIntervalMillis) {
+    if (segmentSize <= HEADER_SIZE || syncBatchSize <= 0 || syncIntervalMillis < 0) {
+      throw new IllegalArgumentException("Invalid journal settings");
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.syncBatchSize = syncBatchSize;
+    this.syncIntervalNanos = syncIntervalMillis * 1_000_000;
+  }
+
+  @Override
+  public synchronized void write(DomainEvent domainEvent) {
+    var record = encode(domainEvent);
+    try {
+      if (channel == null) {
+        openForWrite();
+      }
+      if (channel.position() > 0 && channel.position() + record.remaining() > segmentSize) {
+        sync();
+        segmentOffset += channel.position();
+        channel.close();
+        channel = openSegment(segmentOffset);
+      }
+      while (record.hasRemaining()) {
+        channel.write(record);
+      }
+      if (unsyncedRecords++ == 0) {
+        firstUnsyncedNanos = System.nanoTime();
+        if (syncBatchSize > 1) {
+          // a failed scheduled sync leaves the records unsynced for the next write or close
+          scheduledSync = SYNC_SCHEDULER.schedule(this::sync, syncIntervalNanos,
+              TimeUnit.NANOSECONDS);
+        }
+      }
+      if (unsyncedRecords >= syncBatchSize
+          || System.nanoTime() - firstUnsyncedNanos >= syncIntervalNanos) {
+        sync();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Forces all written records to disk.
+   */
+  public synchronized void sync() {
+    if (channel != null && unsyncedRecords > 0) {
+      try {
+        channel.force(false);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      unsyncedRecords = 0;
+      if (scheduledSync != null) {
+        scheduledSync.cancel(false);
+        scheduledSync = null;
+      }
+    }
+  }
+
+  /**
+   * Get the number of written records not forced to disk yet.
+   *
+   * @return the number of unsynced records
+   */
+  synchronized int getUnsyncedRecords() {
+    return unsyncedRecords;
+  }
+
+  @Override
+  public synchronized void reset() {
+    close();
+    try {
+      for (var segment : segments()) {
+        Files.delete(segment);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    segmentOffset = 0;
+  }
+
+  @Override
+  public long replay(long fromOffset, Consumer<DomainEvent> consumer) {
+    var segments = segments();
+    var end = fromOffset;
+    for (var i = 0; i < segments.size(); i++) {
+      var offset = offsetOf(segments.get(i));
+      var nextOffset = i + 1 < segments.size() ? offsetOf(segments.get(i + 1)) : Long.MAX_VALUE;
+      if (nextOffset <= fromOffset) {
+        continue;
+      }
+      var records = map(segments.get(i));
+      records.position((int) Math.min(Math.max(0, fromOffset - offset), records.limit()));
+      end = offset + readRecords(records, consumer, i == segments.size() - 1);
+    }
+    return end;
+  }
+
+  @Override
+  public synchronized long getEndOffset() {
+    try {
+      if (channel == null) {
+        openForWrite();
+      }
+      return segmentOffset + channel.position();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (channel != null) {
+      try {
+        sync();
+        channel.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      channel = null;
+    }
+  }
+
+  private ByteBuffer encode(DomainEvent domainEvent) {
+    while (true) {
+      buffer.clear().position(HEADER_SIZE);
+      try {
+        EventType.encode(domainEvent, buffer);
+        break;
+      } catch (BufferOverflowException e) {
+        buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+      }
+    }
+    var length = buffer.position() - HEADER_SIZE;
+    writeCrc.reset();
+    writeCrc.update(buffer.array(), HEADER_SIZE, length);
+    buffer.putInt(0, length);
+    buffer.putInt(Integer.BYTES, (int) writeCrc.getValue());
+    return buffer.flip();
+  }
+
+  /**
+   * Reads the records of a segment from its current position.
+   *
+   * @return the position after the last complete record
+   */
+  private static int readRecords(ByteBuffer records, Consumer<DomainEvent> consumer,
+                                 boolean last) {
+    var crc = new CRC32C();
+    while (records.remaining() >= HEADER_SIZE) {
+      var start = records.position();
+      var length = records.getInt();
+      var checksum = records.getInt();
+      if (length <= 0 || length > records.remaining()) {
+        if (last && isTornTail(records, start, length)) {
+          return start;
+        }
+        throw new IllegalStateException("Corrupt journal record at position " + start);
+      }
+      var payload = records.slice().limit(length);
+      crc.reset();
+      crc.update(payload.duplicate());
+      if ((int) crc.getValue() != checksum) {
+        if (last && start + HEADER_SIZE + length == records.limit()) {
+          return start;
+        }
+        throw new IllegalStateException("Corrupt journal record at position " + start);
+      }
+      consumer.accept(EventType.decode(payload));
+      records.position(start + HEADER_SIZE + length);
+    }
+    return checkTail(records, records.position(), last);
+  }
+
+  /**
+   * Tells whether a record whose length does not fit the segment was cut off by a crash: either
+   * only zeros were written from its start, or it runs past the end of the segment and no
+   * complete record follows its header. Otherwise its length is corrupt and the records after it
+   * must not be cut off.
+   */
+  private static boolean isTornTail(ByteBuffer records, int start, int length) {
+    if (length <= 0) {
+      for (var i = start; i < records.limit(); i++) {
+        if (records.get(i) != 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+    var crc = new CRC32C();
+    for (var position = start + HEADER_SIZE; position + HEADER_SIZE < records.limit(); position++) {
+      var candidate = records.getInt(position);
+      if (candidate <= 0 || candidate > records.limit() - position - HEADER_SIZE) {
+        continue;
+      }
+      crc.reset();
+      crc.update(records.duplicate().position(position + HEADER_SIZE)
+          .limit(position + HEADER_SIZE + candidate));
+      if ((int) crc.getValue() == records.getInt(position + Integer.BYTES)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int checkTail(ByteBuffer records, int position, boolean last) {
+    if (!last && position < records.limit()) {
+      throw new IllegalStateException("Incomplete journal record at position " + position);
+    }
+    return position;
+  }
+
+  private void openForWrite() throws IOException {
+    Files.createDirectories(directory);
+    var segments = segments();
+    if (segments.isEmpty()) {
+      segmentOffset = 0;
+      channel = openSegment(0);
+      return;
+    }
+    var last = segments.get(segments.size() - 1);
+    segmentOffset = offsetOf(last);
+    var end = readRecords(map(last), event -> { }, true);
+    channel = openSegment(segmentOffset);
+    channel.truncate(end);
+    channel.position(end);
+  }
+
+  private FileChannel openSegment(long offset) throws IOException {
+    return FileChannel.open(directory.resolve(segmentName(offset)), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE);
+  }
+
+  private MappedByteBuffer map(Path segment) {
+    try (var file = FileChannel.open(segment, StandardOpenOption.READ)) {
+      return file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private List<Path> segments() {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (var files = Files.list(directory)) {
+      return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .sorted()
+          .collect(Collectors.toList());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String segmentName(long offset) {
+    return String.format("%020d%s", offset, SEGMENT_SUFFIX);
+  }
+
+  private static long offsetOf(Path segment) {
+    var name = segment.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+  }
+}
@@ -24,16 +24,70 @@
 package com.iluwatar.event.sourcing.processor;
 
 import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.state.AccountAggregate;
 
 /**
  * This is the implementation of event processor. All events are processed by this class. This
- * processor uses processorJournal to persist and recover events.
+ * processor uses processorJournal to persist and recover events. By default the journal is a
+ * {@link BinaryEventJournal} in the working directory.
+ *
+ * <p>Every {@code snapshotInterval} events the processor saves a snapshot of all accounts together
+ * with the journal offset it covers. Recovery loads the latest snapshot and replays only the
+ * events after it, in parallel partitions by account number (see {@link PartitionedReplay}).
  *
  * <p>Created by Serdar Hamzaogullari on 06.08.2017.
  */
 public class DomainEventProcessor {
 
-  private final JsonFileJournal processorJournal = new JsonFileJournal();
+  /**
+   * The default number of events between two snapshots.
+   */
+  public static final int DEFAULT_SNAPSHOT_INTERVAL = 1000;
+
+  /**
+   * The default number of partitions replaying events in parallel.
+   */
+  public static final int DEFAULT_REPLAY_PARTITIONS = Runtime.getRuntime().availableProcessors();
+
+  private final EventJournal processorJournal;
+  private final SnapshotStore snapshotStore;
+  private final int snapshotInterval;
+  private final int replayPartitions;
+  private int eventsSinceSnapshot;
+
+  /**
+   * Instantiates a new event processor with the default binary journal and snapshot store.
+   */
+  public DomainEventProcessor() {
+    this(new BinaryEventJournal(), new SnapshotStore(), DEFAULT_SNAPSHOT_INTERVAL,
+        DEFAULT_REPLAY_PARTITIONS);
+  }
+
+  /**
+   * Instantiates a new event processor without snapshots.
+   *
+   * @param processorJournal the journal to persist and recover events
+   */
+  public DomainEventProcessor(EventJournal processorJournal) {
+    this(processorJournal, null, 0, DEFAULT_REPLAY_PARTITIONS);
+  }
+
+  /**
+   * Instantiates a new event processor.
+   *
+   * @param processorJournal the journal to persist and recover events
+   * @param snapshotStore    the store of account snapshots, or null to disable snapshots
+   * @param snapshotInterval the number of events between two snapshots, 0 to disable snapshots
+   * @param replayPartitions the number of partitions replaying events in parallel, 1 to replay
+   *                         on the calling thread
+   */
+  public DomainEventProcessor(EventJournal processorJournal, SnapshotStore snapshotStore,
+                              int snapshotInterval, int replayPartitions) {
+    this.processorJournal = processorJournal;
+    this.snapshotStore = snapshotInterval > 0 ? snapshotStore : null;
+    this.snapshotInterval = snapshotInterval;
+    this.replayPartitions = replayPartitions;
+  }
 
   /**
    * Process.
@@ -43,6 +97,19 @@ public class DomainEventProcessor {
   public void process(DomainEvent domainEvent) {
     domainEvent.process();
     processorJournal.write(domainEvent);
+    if (snapshotStore != null && ++eventsSinceSnapshot >= snapshotInterval) {
+      snapshot();
+    }
+  }
+
+  /**
+   * Saves a snapshot of all accounts at the current end of the journal.
+   */
+  public void snapshot() {
+    if (snapshotStore != null) {
+      snapshotStore.save(processorJournal.getEndOffset(), AccountAggregate.getAccounts());
+      eventsSinceSnapshot = 0;
+    }
   }
 
   /**
@@ -50,15 +117,38 @@ public class DomainEventProcessor {
    */
   public void reset() {
     processorJournal.reset();
+    if (snapshotStore != null) {
+      snapshotStore.reset();
+    }
+    eventsSinceSnapshot = 0;
   }
 
   /**
-   * Recover.
+   * Recover. The latest snapshot is loaded, and the events after it are streamed from the journal
+   * and replayed in parallel partitions.
    */
   public void recover() {
-    DomainEvent domainEvent;
-    while ((domainEvent = processorJournal.readNext()) != null) {
-      domainEvent.process();
+    var fromOffset = 0L;
+    if (snapshotStore != null) {
+      var snapshot = snapshotStore.loadLatest()
+          .filter(s -> s.getOffset() <= processorJournal.getEndOffset());
+      if (snapshot.isPresent()) {
+        snapshot.get().getAccounts().forEach(AccountAggregate::putAccount);
+        fromOffset = snapshot.get().getOffset();
+      }
+    }
+    var replay = new PartitionedReplay(replayPartitions);
+    try {
+      processorJournal.replay(fromOffset, replay);
+    } finally {
+      replay.close();
     }
   }
+
+  /**
+   * Close the journal.
+   */
+  public void close() {
+    processorJournal.close();
+  }
 }
@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import java.util.function.Consumer;
+
+/**
+ * This is the interface of event journals. A journal persists the events processed by the
+ * {@link DomainEventProcessor} and replays them on recovery.
+ */
+public interface EventJournal extends AutoCloseable {
+
+  /**
+   * Write.
+   *
+   * @param domainEvent the domain event
+   */
+  void write(DomainEvent domainEvent);
+
+  /**
+   * Reset.
+   */
+  void reset();
+
+  /**
+   * Replays all events of the journal, oldest first. Replayed events are not real time events.
+   *
+   * @param consumer receives the events
+   */
+  default void replay(Consumer<DomainEvent> consumer) {
+    replay(0, consumer);
+  }
+
+  /**
+   * Replays the events starting at an offset of the journal, oldest first.
+   *
+   * @param fromOffset the offset of the first event to replay, 0 or an offset returned by
+   *                   {@link #getEndOffset()}
+   * @param consumer   receives the events
+   * @return the offset after the last event replayed
+   */
+  long replay(long fromOffset, Consumer<DomainEvent> consumer);
+
+  /**
+   * Returns the offset after the last event written. Offsets only grow, so the offset of a state
+   * tells which events it covers.
+   *
+   * @return the end offset of the journal
+   */
+  long getEndOffset();
+
+  /**
+   * Makes all written events durable and releases the journal's resources.
+   */
+  @Override
+  void close();
+}
@@ -0,0 +1,176 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The binary encodings of the domain events, keyed by a one byte type tag written in front of every
+ * record. Events are dispatched through lookup tables by tag and by class, so adding an event
+ * type only needs a new constant here.
+ */
+enum EventType {
+
+  ACCOUNT_CREATE(1, AccountCreateEvent.class) {
+    @Override
+    void encodeFields(DomainEvent domainEvent, ByteBuffer buffer) {
+      var event = (AccountCreateEvent) domainEvent;
+      buffer.putInt(event.getAccountNo());
+      putString(buffer, event.getOwner());
+    }
+
+    @Override
+    DomainEvent decodeFields(long sequenceId, long createdTime, ByteBuffer buffer) {
+      return new AccountCreateEvent(sequenceId, createdTime, buffer.getInt(), getString(buffer));
+    }
+  },
+
+  MONEY_DEPOSIT(2, MoneyDepositEvent.class) {
+    @Override
+    void encodeFields(DomainEvent domainEvent, ByteBuffer buffer) {
+      var event = (MoneyDepositEvent) domainEvent;
+      buffer.putInt(event.getAccountNo());
+      putDecimal(buffer, event.getMoney());
+    }
+
+    @Override
+    DomainEvent decodeFields(long sequenceId, long createdTime, ByteBuffer buffer) {
+      return new MoneyDepositEvent(sequenceId, createdTime, buffer.getInt(), getDecimal(buffer));
+    }
+  },
+
+  MONEY_TRANSFER(3, MoneyTransferEvent.class) {
+    @Override
+    void encodeFields(DomainEvent domainEvent, ByteBuffer buffer) {
+      var event = (MoneyTransferEvent) domainEvent;
+      buffer.putInt(event.getAccountNoFrom());
+      buffer.putInt(event.getAccountNoTo());
+      putDecimal(buffer, event.getMoney());
+    }
+
+    @Override
+    DomainEvent decodeFields(long sequenceId, long createdTime, ByteBuffer buffer) {
+      var accountNoFrom = buffer.getInt();
+      var accountNoTo = buffer.getInt();
+      return new MoneyTransferEvent(sequenceId, createdTime, getDecimal(buffer), accountNoFrom,
+          accountNoTo);
+    }
+  };
+
+  private static final EventType[] BY_TAG = new EventType[4];
+  private static final Map<Class<?>, EventType> BY_CLASS = Stream.of(values())
+      .collect(Collectors.toMap(type -> type.eventClass, Function.identity()));
+
+  static {
+    for (var type : values()) {
+      BY_TAG[type.tag] = type;
+    }
+  }
+
+  private final byte tag;
+  private final Class<? extends DomainEvent> eventClass;
+
+  EventType(int tag, Class<? extends DomainEvent> eventClass) {
+    this.tag = (byte) tag;
+    this.eventClass = eventClass;
+  }
+
+  /**
+   * Writes the type tag, the common fields and the event specific fields of an event.
+   *
+   * @param domainEvent the domain event
+   * @param buffer      the buffer, which overflows if the event does not fit
+   */
+  static void encode(DomainEvent domainEvent, ByteBuffer buffer) {
+    var type = BY_CLASS.get(domainEvent.getClass());
+    if (type == null) {
+      throw new IllegalArgumentException("Journal Event not recognized: "
+          + domainEvent.getClass().getName());
+    }
+    buffer.put(type.tag);
+    buffer.putLong(domainEvent.getSequenceId());
+    buffer.putLong(domainEvent.getCreatedTime());
+    type.encodeFields(domainEvent, buffer);
+  }
+
+  /**
+   * Reads an event written by {@link #encode(DomainEvent, ByteBuffer)}. The event is marked as
+   * not real time.
+   *
+   * @param buffer buffer positioned at the type tag
+   * @return the domain event
+   */
+  static DomainEvent decode(ByteBuffer buffer) {
+    var tag = buffer.get();
+    if (tag <= 0 || tag >= BY_TAG.length || BY_TAG[tag] == null) {
+      throw new IllegalStateException("Journal Event not recognized: type " + tag);
+    }
+    var sequenceId = buffer.getLong();
+    var createdTime = buffer.getLong();
+    var domainEvent = BY_TAG[tag].decodeFields(sequenceId, createdTime, buffer);
+    domainEvent.setRealTime(false);
+    return domainEvent;
+  }
+
+  abstract void encodeFields(DomainEvent domainEvent, ByteBuffer buffer);
+
+  abstract DomainEvent decodeFields(long sequenceId, long createdTime, ByteBuffer buffer);
+
+  private static void putString(ByteBuffer buffer, String value) {
+    var bytes = value.getBytes(StandardCharsets.UTF_8);
+    buffer.putInt(bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    var bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void putDecimal(ByteBuffer buffer, BigDecimal value) {
+    var unscaled = value.unscaledValue().toByteArray();
+    buffer.putInt(value.scale());
+    buffer.putInt(unscaled.length);
+    buffer.put(unscaled);
+  }
+
+  private static BigDecimal getDecimal(ByteBuffer buffer) {
+    var scale = buffer.getInt();
+    var unscaled = new byte[buffer.getInt()];
+    buffer.get(unscaled);
+    return new BigDecimal(new BigInteger(unscaled), scale);
+  }
+}
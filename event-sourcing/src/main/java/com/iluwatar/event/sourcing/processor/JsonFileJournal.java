@@ -41,6 +41,7 @@ import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * This is the implementation of event journal. This implementation serialize/deserialize the events
@@ -48,11 +49,12 @@ import java.util.List;
  *
  * <p>Created by Serdar Hamzaogullari on 06.08.2017.
  */
-public class JsonFileJournal {
+public class JsonFileJournal implements EventJournal {
 
   private final File file;
   private final List<String> events = new ArrayList<>();
   private int index = 0;
+  private int written = 0;
 
   /**
    * Instantiates a new Json file journal.
@@ -80,6 +82,7 @@ public class JsonFileJournal {
    *
    * @param domainEvent the domain event
    */
+  @Override
   public void write(DomainEvent domainEvent) {
     var gson = new Gson();
     JsonElement jsonElement;
@@ -97,6 +100,7 @@ public class JsonFileJournal {
         new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
       var eventString = jsonElement.toString();
       output.write(eventString + "\r\n");
+      written++;
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -106,8 +110,12 @@ public class JsonFileJournal {
   /**
    * Reset.
    */
+  @Override
   public void reset() {
     file.delete();
+    events.clear();
+    index = 0;
+    written = 0;
   }
 
 
@@ -141,4 +149,36 @@ public class JsonFileJournal {
     domainEvent.setRealTime(false);
     return domainEvent;
   }
+
+  /**
+   * Replays the events read when the journal was instantiated, starting at a line of the file.
+   *
+   * @param fromOffset the line of the first event to replay
+   * @param consumer   receives the events
+   * @return the line after the last event replayed
+   */
+  @Override
+  public long replay(long fromOffset, Consumer<DomainEvent> consumer) {
+    index = (int) Math.min(fromOffset, events.size());
+    DomainEvent domainEvent;
+    while ((domainEvent = readNext()) != null) {
+      consumer.accept(domainEvent);
+    }
+    return index;
+  }
+
+  /**
+   * Returns the number of lines of the file, which is the offset after the last event.
+   *
+   * @return the end offset of the journal
+   */
+  @Override
+  public long getEndOffset() {
+    return events.size() + written;
+  }
+
+  @Override
+  public void close() {
+    // every write closes the file already
+  }
 }
@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import com.iluwatar.event.sourcing.state.AccountAggregate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Replays events in parallel partitions. Every account belongs to one partition, and each
+ * partition applies its events on its own thread in journal order, so the events of an account are
+ * applied in the same order as in a sequential replay.
+ *
+ * <p>A {@link MoneyTransferEvent} between accounts of different partitions is split: the
+ * withdrawal is applied in the partition of the source account and the deposit in the partition of
+ * the target account, each at the transfer's position in the journal. Since both handlers only
+ * change their own account, every account passes through the same states as in a sequential
+ * replay, and so does the final state; only the moment the two halves are applied differs. Event
+ * types unknown to the replay are applied on the calling thread after all earlier events.
+ *
+ * <p>Events are handed to the partitions in batches, and a bounded number of batches may be
+ * waiting, so a fast journal does not flood the memory. The first failure stops the replay and is
+ * rethrown by {@link #close()}.
+ */
+class PartitionedReplay implements Consumer<DomainEvent>, AutoCloseable {
+
+  private static final int BATCH_SIZE = 256;
+  private static final int BATCHES_PER_PARTITION = 4;
+
+  private final ExecutorService[] partitions;
+  private final List<List<Runnable>> batches = new ArrayList<>();
+  private final Semaphore pendingBatches;
+  private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+  PartitionedReplay(int partitionCount) {
+    this.partitions = new ExecutorService[partitionCount > 1 ? partitionCount : 0];
+    for (var i = 0; i < partitions.length; i++) {
+      var name = "replay-" + i;
+      partitions[i] = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+      });
+      batches.add(new ArrayList<>(BATCH_SIZE));
+    }
+    this.pendingBatches = new Semaphore(BATCHES_PER_PARTITION * Math.max(1, partitions.length));
+  }
+
+  @Override
+  public void accept(DomainEvent domainEvent) {
+    throwIfFailed();
+    if (partitions.length == 0) {
+      domainEvent.process();
+    } else if (domainEvent instanceof AccountCreateEvent) {
+      add(((AccountCreateEvent) domainEvent).getAccountNo(), domainEvent::process);
+    } else if (domainEvent instanceof MoneyDepositEvent) {
+      add(((MoneyDepositEvent) domainEvent).getAccountNo(), domainEvent::process);
+    } else if (domainEvent instanceof MoneyTransferEvent) {
+      var transfer = (MoneyTransferEvent) domainEvent;
+      var from = transfer.getAccountNoFrom();
+      var to = transfer.getAccountNoTo();
+      if (partition(from) == partition(to)) {
+        add(from, transfer::process);
+      } else {
+        add(from, () -> account(from).handleTransferFromEvent(transfer));
+        add(to, () -> account(to).handleTransferToEvent(transfer));
+      }
+    } else {
+      awaitPartitions();
+      domainEvent.process();
+    }
+  }
+
+  /**
+   * Waits until all events are applied and stops the partitions.
+   *
+   * @throws RuntimeException the first failure of an event
+   */
+  @Override
+  public void close() {
+    try {
+      awaitPartitions();
+    } finally {
+      for (var partition : partitions) {
+        partition.shutdownNow();
+      }
+    }
+  }
+
+  private void add(int accountNo, Runnable task) {
+    var partition = partition(accountNo);
+    var batch = batches.get(partition);
+    batch.add(task);
+    if (batch.size() == BATCH_SIZE) {
+      submit(partition);
+    }
+  }
+
+  private void submit(int partition) {
+    var batch = batches.get(partition);
+    if (batch.isEmpty()) {
+      return;
+    }
+    batches.set(partition, new ArrayList<>(BATCH_SIZE));
+    pendingBatches.acquireUninterruptibly();
+    partitions[partition].execute(() -> {
+      try {
+        for (var task : batch) {
+          if (failure.get() != null) {
+            return;
+          }
+          task.run();
+        }
+      } catch (RuntimeException e) {
+        failure.compareAndSet(null, e);
+      } finally {
+        pendingBatches.release();
+      }
+    });
+  }
+
+  private void awaitPartitions() {
+    var done = new CompletableFuture<?>[partitions.length];
+    for (var i = 0; i < partitions.length; i++) {
+      submit(i);
+      done[i] = CompletableFuture.runAsync(() -> { }, partitions[i]);
+    }
+    CompletableFuture.allOf(done).join();
+    throwIfFailed();
+  }
+
+  private void throwIfFailed() {
+    var e = failure.get();
+    if (e != null) {
+      throw e;
+    }
+  }
+
+  private int partition(int accountNo) {
+    return Math.floorMod(accountNo, partitions.length);
+  }
+
+  private static Account account(int accountNo) {
+    return Optional.ofNullable(AccountAggregate.getAccount(accountNo))
+        .orElseThrow(() -> new RuntimeException("Account not found " + accountNo));
+  }
+}
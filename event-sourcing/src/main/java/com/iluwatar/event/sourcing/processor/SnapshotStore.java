@@ -0,0 +1,216 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This is the store of account state snapshots. A snapshot holds the state of all accounts
+ * together with the journal offset it covers, so recovery can start from the latest snapshot and
+ * replay only the events written after it. Snapshots are written to a temporary file and renamed,
+ * carry a CRC32C checksum, and the latest few are kept; a damaged snapshot is skipped in favour of
+ * an older one.
+ */
+@Slf4j
+public class SnapshotStore {
+
+  /**
+   * The default snapshot directory, inside the default journal directory.
+   */
+  public static final Path DEFAULT_DIRECTORY =
+      BinaryEventJournal.DEFAULT_DIRECTORY.resolve("snapshots");
+
+  private static final int MAGIC = 0x534E4150;
+  private static final int RETAINED_SNAPSHOTS = 2;
+  private static final String PREFIX = "snapshot-";
+  private static final String SUFFIX = ".bin";
+
+  private final Path directory;
+
+  /**
+   * Instantiates a new snapshot store in the default directory.
+   */
+  public SnapshotStore() {
+    this(DEFAULT_DIRECTORY);
+  }
+
+  /**
+   * Instantiates a new snapshot store.
+   *
+   * @param directory the snapshot directory
+   */
+  public SnapshotStore(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Saves a snapshot and deletes the snapshots older than the retained ones.
+   *
+   * @param offset   the journal offset after the last event the accounts reflect
+   * @param accounts the accounts
+   */
+  public void save(long offset, Collection<Account> accounts) {
+    try {
+      Files.createDirectories(directory);
+      var target = directory.resolve(String.format("%s%020d%s", PREFIX, offset, SUFFIX));
+      var temporary = Files.createTempFile(directory, PREFIX, ".tmp");
+      var checksum = new CRC32C();
+      try (var output = new DataOutputStream(new CheckedOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(temporary)), checksum))) {
+        output.writeInt(MAGIC);
+        output.writeLong(offset);
+        output.writeInt(accounts.size());
+        for (var account : accounts) {
+          output.writeInt(account.getAccountNo());
+          output.writeUTF(account.getOwner());
+          var unscaled = account.getMoney().unscaledValue().toByteArray();
+          output.writeInt(account.getMoney().scale());
+          output.writeInt(unscaled.length);
+          output.write(unscaled);
+        }
+        output.flush();
+        output.writeLong(checksum.getValue());
+      }
+      try (var channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+        channel.force(true);
+      }
+      Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      var snapshots = snapshots();
+      for (var i = RETAINED_SNAPSHOTS; i < snapshots.size(); i++) {
+        Files.delete(snapshots.get(i));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Loads the latest intact snapshot.
+   *
+   * @return the snapshot, or empty if there is none
+   */
+  public Optional<Snapshot> loadLatest() {
+    for (var file : snapshots()) {
+      try {
+        return Optional.of(load(file));
+      } catch (IOException | IllegalStateException e) {
+        LOGGER.warn("Skipping damaged snapshot " + file + ": " + e.getMessage());
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Deletes all snapshots.
+   */
+  public void reset() {
+    try {
+      for (var file : snapshots()) {
+        Files.delete(file);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Snapshot load(Path file) throws IOException {
+    var checksum = new CRC32C();
+    try (var input = new DataInputStream(new CheckedInputStream(
+        new BufferedInputStream(Files.newInputStream(file)), checksum))) {
+      if (input.readInt() != MAGIC) {
+        throw new IllegalStateException("Not a snapshot");
+      }
+      var offset = input.readLong();
+      var count = input.readInt();
+      var accounts = new ArrayList<Account>(count);
+      for (var i = 0; i < count; i++) {
+        var account = new Account(input.readInt(), input.readUTF());
+        var scale = input.readInt();
+        var unscaled = new byte[input.readInt()];
+        input.readFully(unscaled);
+        account.setMoney(new BigDecimal(new BigInteger(unscaled), scale));
+        accounts.add(account);
+      }
+      var expected = checksum.getValue();
+      if (input.readLong() != expected) {
+        throw new IllegalStateException("Checksum mismatch");
+      }
+      return new Snapshot(offset, Collections.unmodifiableList(accounts));
+    }
+  }
+
+  /**
+   * Lists the snapshot files, latest first.
+   */
+  private List<Path> snapshots() {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (var files = Files.list(directory)) {
+      return files.filter(file -> {
+        var name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+      }).sorted(Collections.reverseOrder()).collect(Collectors.toList());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * A snapshot of all accounts and the journal offset it covers.
+   */
+  @Getter
+  @RequiredArgsConstructor
+  public static class Snapshot {
+
+    private final long offset;
+    private final List<Account> accounts;
+  }
+}
@@ -24,18 +24,22 @@
 package com.iluwatar.event.sourcing.state;
 
 import com.iluwatar.event.sourcing.domain.Account;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
- * This is the static accounts map holder class. This class holds the state of the accounts.
+ * This is the static accounts map holder class. This class holds the state of the accounts. The
+ * map is concurrent, so that different accounts can be updated from different threads while
+ * events are replayed.
  *
  * <p>Created by Serdar Hamzaogullari on 06.08.2017.
  */
 public class AccountAggregate {
 
-  private static Map<Integer, Account> accounts = new HashMap<>();
+  private static volatile Map<Integer, Account> accounts = new ConcurrentHashMap<>();
 
   private AccountAggregate() {
   }
@@ -62,10 +66,19 @@ public class AccountAggregate {
         .orElse(null);
   }
 
+  /**
+   * Gets all accounts.
+   *
+   * @return the copies of the accounts
+   */
+  public static List<Account> getAccounts() {
+    return accounts.values().stream().map(Account::copy).collect(Collectors.toList());
+  }
+
   /**
    * Reset state.
    */
   public static void resetState() {
-    accounts = new HashMap<>();
+    accounts = new ConcurrentHashMap<>();
   }
 }
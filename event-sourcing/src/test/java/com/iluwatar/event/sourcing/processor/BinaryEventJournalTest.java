@@ -0,0 +1,187 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for BinaryEventJournal.
+ */
+class BinaryEventJournalTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testWriteAndReplay() {
+    var journal = new BinaryEventJournal(directory, 1024, 1, 0);
+    journal.write(new AccountCreateEvent(0, 10, 1, "Daenerys Targaryen"));
+    journal.write(new MoneyDepositEvent(1, 11, 1, new BigDecimal("100000.25")));
+    journal.write(new MoneyTransferEvent(2, 12, new BigDecimal("-3"), 1, 2));
+    journal.close();
+
+    var events = replay(new BinaryEventJournal(directory, 1024, 1, 0), 0);
+    assertEquals(3, events.size());
+    var create = (AccountCreateEvent) events.get(0);
+    assertEquals("Daenerys Targaryen", create.getOwner());
+    assertEquals(1, create.getAccountNo());
+    assertEquals(10, create.getCreatedTime());
+    var deposit = (MoneyDepositEvent) events.get(1);
+    assertEquals(new BigDecimal("100000.25"), deposit.getMoney());
+    var transfer = (MoneyTransferEvent) events.get(2);
+    assertEquals(new BigDecimal("-3"), transfer.getMoney());
+    assertEquals(1, transfer.getAccountNoFrom());
+    assertEquals(2, transfer.getAccountNoTo());
+    assertEquals(2, transfer.getSequenceId());
+    assertTrue(events.stream().noneMatch(DomainEvent::isRealTime));
+  }
+
+  @Test
+  void testSegmentsAndOffsets() throws IOException {
+    var journal = new BinaryEventJournal(directory, 200, 8, 1000);
+    var offsets = new ArrayList<Long>();
+    for (var i = 0; i < 50; i++) {
+      offsets.add(journal.getEndOffset());
+      journal.write(new MoneyDepositEvent(i, i, 1, BigDecimal.valueOf(i)));
+    }
+    var end = journal.getEndOffset();
+    journal.close();
+    try (var files = Files.list(directory)) {
+      assertTrue(files.count() > 5);
+    }
+
+    var fromStart = replay(journal, 0);
+    assertEquals(50, fromStart.size());
+    var fromMiddle = new ArrayList<DomainEvent>();
+    assertEquals(end, journal.replay(offsets.get(20), fromMiddle::add));
+    assertEquals(30, fromMiddle.size());
+    assertEquals(20, fromMiddle.get(0).getSequenceId());
+    assertEquals(0, replay(journal, end).size());
+
+    journal.reset();
+    assertEquals(0, replay(journal, 0).size());
+    assertEquals(0, journal.getEndOffset());
+  }
+
+  @Test
+  void testIdleRecordsAreForcedAfterSyncInterval() throws InterruptedException {
+    var journal = new BinaryEventJournal(directory, 1024, 64, 20);
+    journal.write(new MoneyDepositEvent(0, 0, 1, BigDecimal.ONE));
+    journal.write(new MoneyDepositEvent(1, 1, 1, BigDecimal.ONE));
+    assertEquals(2, journal.getUnsyncedRecords());
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (journal.getUnsyncedRecords() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, journal.getUnsyncedRecords());
+    journal.close();
+  }
+
+  @Test
+  void testTornTailIsIgnoredAndCutOff() throws IOException {
+    var journal = new BinaryEventJournal(directory, 1024, 1, 0);
+    journal.write(new MoneyDepositEvent(0, 0, 1, BigDecimal.ONE));
+    journal.write(new MoneyDepositEvent(1, 0, 1, BigDecimal.TEN));
+    journal.close();
+    var segment = singleSegment();
+    try (var channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+
+    journal = new BinaryEventJournal(directory, 1024, 1, 0);
+    assertEquals(1, replay(journal, 0).size());
+    journal.write(new MoneyDepositEvent(2, 0, 1, BigDecimal.ONE));
+    journal.close();
+    assertEquals(List.of(0L, 2L), replay(journal, 0).stream()
+        .map(DomainEvent::getSequenceId)
+        .collect(Collectors.toList()));
+  }
+
+  @Test
+  void testCorruptRecordIsDetected() throws IOException {
+    var journal = new BinaryEventJournal(directory, 1024, 1, 0);
+    journal.write(new MoneyDepositEvent(0, 0, 1, BigDecimal.ONE));
+    journal.write(new MoneyDepositEvent(1, 0, 1, BigDecimal.TEN));
+    journal.close();
+    try (var channel = FileChannel.open(singleSegment(), StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {42}), 12);
+    }
+    assertThrows(IllegalStateException.class, () -> replay(journal, 0));
+    assertFalse(Files.size(singleSegment()) == 0);
+  }
+
+  @Test
+  void testCorruptLengthIsDetectedAndNotCutOff() throws IOException {
+    for (var length : new int[] {0, -1, 1000}) {
+      var journal = new BinaryEventJournal(directory, 1024, 1, 0);
+      journal.reset();
+      journal.write(new MoneyDepositEvent(0, 0, 1, BigDecimal.ONE));
+      journal.write(new MoneyDepositEvent(1, 0, 1, BigDecimal.TEN));
+      journal.close();
+      var size = Files.size(singleSegment());
+      try (var channel = FileChannel.open(singleSegment(), StandardOpenOption.WRITE)) {
+        channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, length), 0);
+      }
+
+      var reopened = new BinaryEventJournal(directory, 1024, 1, 0);
+      assertThrows(IllegalStateException.class, () -> replay(reopened, 0));
+      assertThrows(IllegalStateException.class,
+          () -> reopened.write(new MoneyDepositEvent(2, 0, 1, BigDecimal.ONE)));
+      assertEquals(size, Files.size(singleSegment()), "length " + length);
+    }
+  }
+
+  private Path singleSegment() throws IOException {
+    try (var files = Files.list(directory)) {
+      return files.findFirst().orElseThrow();
+    }
+  }
+
+  private static List<DomainEvent> replay(BinaryEventJournal journal, long fromOffset) {
+    var events = new ArrayList<DomainEvent>();
+    journal.replay(fromOffset, events::add);
+    return events;
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import com.iluwatar.event.sourcing.event.AccountCreateEvent;
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import com.iluwatar.event.sourcing.state.AccountAggregate;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for snapshots and parallel replay of DomainEventProcessor.
+ */
+class DomainEventProcessorTest {
+
+  private static final int ACCOUNTS = 16;
+  private static final int TRANSFERS = 5000;
+
+  @TempDir
+  Path directory;
+
+  @BeforeEach
+  void setUp() {
+    AccountAggregate.resetState();
+  }
+
+  @AfterEach
+  void tearDown() {
+    AccountAggregate.resetState();
+  }
+
+  @Test
+  void testParallelReplayMatchesSequentialReplay() {
+    var journal = journal();
+    var processor = new DomainEventProcessor(journal, null, 0, 1);
+    writeEvents(processor);
+    var expected = accounts();
+    processor.close();
+
+    AccountAggregate.resetState();
+    var sequential = new DomainEventProcessor(journal(), null, 0, 1);
+    sequential.recover();
+    sequential.close();
+    assertEquals(expected, accounts());
+
+    AccountAggregate.resetState();
+    var parallel = new DomainEventProcessor(journal(), null, 0, 4);
+    parallel.recover();
+    parallel.close();
+    assertEquals(expected, accounts());
+  }
+
+  @Test
+  void testRecoverFromSnapshotReplaysOnlyTail() {
+    var snapshots = new SnapshotStore(directory.resolve("snapshots"));
+    var processor = new DomainEventProcessor(
+        journal(), snapshots, 1000, 4);
+    writeEvents(processor);
+    var expected = accounts();
+    processor.close();
+
+    AccountAggregate.resetState();
+    var journal = new CountingJournal(journal());
+    var recovered = new DomainEventProcessor(journal, snapshots, 1000, 4);
+    recovered.recover();
+    recovered.close();
+
+    assertEquals(expected, accounts());
+    assertEquals((2 * ACCOUNTS + TRANSFERS) % 1000, journal.replayed);
+  }
+
+  @Test
+  void testSnapshotAheadOfJournalIsIgnored() {
+    var snapshots = new SnapshotStore(directory.resolve("snapshots"));
+    var processor = new DomainEventProcessor(
+        journal(), null, 0, 1);
+    writeEvents(processor);
+    var expected = accounts();
+    processor.close();
+    snapshots.save(Long.MAX_VALUE, List.of());
+
+    AccountAggregate.resetState();
+    var recovered = new DomainEventProcessor(
+        journal(), snapshots, 1000, 4);
+    recovered.recover();
+    recovered.close();
+
+    assertEquals(expected, accounts());
+  }
+
+  @Test
+  void testReplayFailureIsRethrown() {
+    var processor = new DomainEventProcessor(
+        journal(), null, 0, 1);
+    processor.process(new AccountCreateEvent(0, 0, 1, "Jon Snow"));
+    processor.close();
+    var journal = journal();
+    journal.write(new MoneyTransferEvent(1, 0, BigDecimal.ONE, 1, 2));
+    journal.close();
+
+    AccountAggregate.resetState();
+    var recovered = new DomainEventProcessor(
+        journal(), null, 0, 4);
+    assertThrows(RuntimeException.class, recovered::recover);
+    recovered.close();
+  }
+
+  private BinaryEventJournal journal() {
+    return new BinaryEventJournal(directory.resolve("journal"), 64 * 1024, 1024, 1000);
+  }
+
+  private static void writeEvents(DomainEventProcessor processor) {
+    var sequenceId = 0L;
+    for (var i = 0; i < ACCOUNTS; i++) {
+      processor.process(new AccountCreateEvent(sequenceId++, 0, i, "Owner " + i));
+      processor.process(new MoneyDepositEvent(sequenceId++, 0, i, BigDecimal.valueOf(TRANSFERS)));
+    }
+    for (var i = 0; i < TRANSFERS; i++) {
+      var from = i % ACCOUNTS;
+      var to = (i * 7 + 3) % ACCOUNTS;
+      if (from == to) {
+        processor.process(new MoneyDepositEvent(sequenceId++, 0, from, BigDecimal.valueOf(i)));
+      } else {
+        processor.process(new MoneyTransferEvent(sequenceId++, 0, BigDecimal.valueOf(i % 5 + 1),
+            from, to));
+      }
+    }
+  }
+
+  private static List<String> accounts() {
+    return AccountAggregate.getAccounts().stream()
+        .sorted(Comparator.comparingInt(Account::getAccountNo))
+        .map(Account::toString)
+        .collect(Collectors.toList());
+  }
+
+  private static class CountingJournal implements EventJournal {
+
+    private final EventJournal journal;
+    private int replayed;
+
+    CountingJournal(EventJournal journal) {
+      this.journal = journal;
+    }
+
+    @Override
+    public void write(DomainEvent domainEvent) {
+      journal.write(domainEvent);
+    }
+
+    @Override
+    public void reset() {
+      journal.reset();
+    }
+
+    @Override
+    public long replay(long fromOffset, Consumer<DomainEvent> consumer) {
+      return journal.replay(fromOffset, event -> {
+        replayed++;
+        consumer.accept(event);
+      });
+    }
+
+    @Override
+    public long getEndOffset() {
+      return journal.getEndOffset();
+    }
+
+    @Override
+    public void close() {
+      journal.close();
+    }
+  }
+}
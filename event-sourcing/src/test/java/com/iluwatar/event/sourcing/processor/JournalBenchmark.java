@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import com.iluwatar.event.sourcing.event.DomainEvent;
+import com.iluwatar.event.sourcing.event.MoneyDepositEvent;
+import com.iluwatar.event.sourcing.event.MoneyTransferEvent;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+
+/**
+ * Compares {@link JsonFileJournal} with {@link BinaryEventJournal}: events per second written and
+ * replayed. The JSON journal writes Journal.json in the working directory, the binary journal a
+ * temporary directory. Run the main method with the module's test classpath; the first argument
+ * overrides the number of events (default 100,000).
+ */
+public final class JournalBenchmark {
+
+  private JournalBenchmark() {
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args optional number of events
+   * @throws Exception if the temporary directory cannot be created
+   */
+  public static void main(String[] args) throws Exception {
+    var count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    var events = new DomainEvent[count];
+    for (var i = 0; i < count; i++) {
+      events[i] = i % 2 == 0
+          ? new MoneyDepositEvent(i, i, i % 100, BigDecimal.valueOf(i, 2))
+          : new MoneyTransferEvent(i, i, BigDecimal.ONE, i % 100, (i + 1) % 100);
+    }
+
+    var json = new JsonFileJournal();
+    json.reset();
+    var jsonWrite = write(json, events);
+    var jsonReplay = replay(new JsonFileJournal(), count);
+    json.reset();
+
+    var directory = Files.createTempDirectory("journal");
+    var binary = new BinaryEventJournal(directory, BinaryEventJournal.DEFAULT_SEGMENT_SIZE,
+        BinaryEventJournal.DEFAULT_SYNC_BATCH_SIZE,
+        BinaryEventJournal.DEFAULT_SYNC_INTERVAL_MILLIS);
+    var binaryWrite = write(binary, events);
+    binary.close();
+    var binaryReplay = replay(binary, count);
+    binary.reset();
+    Files.delete(directory);
+
+    System.out.printf("%d events%n", count);
+    System.out.printf("%-8s %16s %16s%n", "journal", "write events/s", "replay events/s");
+    System.out.printf("%-8s %16.0f %16.0f%n", "json", jsonWrite, jsonReplay);
+    System.out.printf("%-8s %16.0f %16.0f%n", "binary", binaryWrite, binaryReplay);
+  }
+
+  private static double write(EventJournal journal, DomainEvent[] events) {
+    var start = System.nanoTime();
+    for (var event : events) {
+      journal.write(event);
+    }
+    return events.length * 1e9 / (System.nanoTime() - start);
+  }
+
+  private static double replay(EventJournal journal, int count) {
+    var replayed = new long[1];
+    var start = System.nanoTime();
+    journal.replay(event -> replayed[0]++);
+    var elapsed = System.nanoTime() - start;
+    if (replayed[0] != count) {
+      throw new IllegalStateException("Replayed " + replayed[0] + " of " + count + " events");
+    }
+    return count * 1e9 / elapsed;
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.event.sourcing.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.event.sourcing.domain.Account;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for SnapshotStore.
+ */
+class SnapshotStoreTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testSaveAndLoad() {
+    var store = new SnapshotStore(directory);
+    assertTrue(store.loadLatest().isEmpty());
+
+    store.save(42, List.of(account(1, "Daenerys Targaryen", "100000.25"),
+        account(2, "Jon Snow", "-3")));
+
+    var snapshot = store.loadLatest().orElseThrow();
+    assertEquals(42, snapshot.getOffset());
+    assertEquals(2, snapshot.getAccounts().size());
+    var daenerys = snapshot.getAccounts().get(0);
+    assertEquals(1, daenerys.getAccountNo());
+    assertEquals("Daenerys Targaryen", daenerys.getOwner());
+    assertEquals(new BigDecimal("100000.25"), daenerys.getMoney());
+    assertEquals(new BigDecimal("-3"), snapshot.getAccounts().get(1).getMoney());
+  }
+
+  @Test
+  void testRetainsLatestSnapshots() throws IOException {
+    var store = new SnapshotStore(directory);
+    for (var offset = 1; offset <= 5; offset++) {
+      store.save(offset, List.of(account(1, "Jon Snow", String.valueOf(offset))));
+    }
+
+    assertEquals(5, store.loadLatest().orElseThrow().getOffset());
+    assertEquals(2, files().size());
+
+    store.reset();
+    assertTrue(store.loadLatest().isEmpty());
+  }
+
+  @Test
+  void testDamagedSnapshotFallsBackToOlder() throws IOException {
+    var store = new SnapshotStore(directory);
+    store.save(10, List.of(account(1, "Jon Snow", "10")));
+    store.save(20, List.of(account(1, "Jon Snow", "20")));
+
+    var latest = files().get(files().size() - 1);
+    var bytes = Files.readAllBytes(latest);
+    bytes[bytes.length - 12] ^= 1;
+    Files.write(latest, bytes);
+
+    var snapshot = store.loadLatest().orElseThrow();
+    assertEquals(10, snapshot.getOffset());
+    assertEquals(new BigDecimal("10"), snapshot.getAccounts().get(0).getMoney());
+  }
+
+  private List<Path> files() throws IOException {
+    try (var files = Files.list(directory)) {
+      return files.sorted().collect(Collectors.toList());
+    }
+  }
+
+  private static Account account(int accountNo, String owner, String money) {
+    var account = new Account(accountNo, owner);
+    account.setMoney(new BigDecimal(money));
+    return account;
+  }
+}
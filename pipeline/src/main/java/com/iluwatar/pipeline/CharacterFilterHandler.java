@@ -0,0 +1,60 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.pipeline;
+
+/**
+ * Stage handler that removes some characters of the input string and keeps the others in order.
+ * A {@link Pipeline#fused() fused} pipeline runs a chain of these handlers in a single pass over
+ * the input.
+ */
+interface CharacterFilterHandler extends Handler<String, String> {
+
+  /**
+   * Tells whether the handler removes a character. The answer may only depend on the character,
+   * so that a fused pipeline can compute it in advance.
+   *
+   * @param character the character
+   * @return true if the character is removed
+   */
+  boolean removes(char character);
+
+  /**
+   * Returns the input without the characters this handler removes.
+   *
+   * @param input the input
+   * @return the filtered input
+   */
+  default String filter(String input) {
+    var output = new char[input.length()];
+    var length = 0;
+    for (var i = 0; i < input.length(); i++) {
+      var character = input.charAt(i);
+      if (!removes(character)) {
+        output[length++] = character;
+      }
+    }
+    return new String(output, 0, length);
+  }
+}
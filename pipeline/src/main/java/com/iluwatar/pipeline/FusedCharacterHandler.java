@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.pipeline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stage handler that runs a chain of {@link CharacterFilterHandler}s, and optionally a
+ * {@link ConvertToCharArrayHandler}, in a single pass. Every character of the input is checked
+ * against all filters at once and copied into a buffer that the thread reuses for the next input,
+ * so the only allocation per input is the output itself. Which Latin-1 characters the filters
+ * remove is looked up in a table computed up front, other characters are passed to the filters.
+ *
+ * <p>Unlike the handlers it replaces, it does not log every input.
+ *
+ * @param <O> the output type, {@code String} or {@code char[]}
+ */
+final class FusedCharacterHandler<O> implements Handler<String, O> {
+
+  private static final int LATIN1 = 256;
+
+  private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[256]);
+
+  private final CharacterFilterHandler[] filters;
+
+  private final boolean toCharArray;
+
+  private final boolean[] latin1Removed = new boolean[LATIN1];
+
+  private FusedCharacterHandler(CharacterFilterHandler[] filters, boolean toCharArray) {
+    this.filters = filters;
+    this.toCharArray = toCharArray;
+    for (var character = 0; character < LATIN1; character++) {
+      latin1Removed[character] = removes((char) character);
+    }
+  }
+
+  /**
+   * Creates a handler that runs one filter.
+   */
+  static FusedCharacterHandler<String> of(CharacterFilterHandler filter) {
+    return new FusedCharacterHandler<>(new CharacterFilterHandler[] {filter}, false);
+  }
+
+  /**
+   * Returns a handler that also runs the given filter after the filters of this one.
+   *
+   * @throws IllegalStateException if this handler returns a char array
+   */
+  FusedCharacterHandler<String> andThen(CharacterFilterHandler filter) {
+    if (toCharArray) {
+      throw new IllegalStateException("Cannot filter a char array");
+    }
+    var combined = Arrays.copyOf(filters, filters.length + 1);
+    combined[filters.length] = filter;
+    return new FusedCharacterHandler<>(combined, false);
+  }
+
+  /**
+   * Returns a handler that runs the filters of this one and returns a char array, like a
+   * {@link ConvertToCharArrayHandler} after it.
+   */
+  FusedCharacterHandler<char[]> toCharArray() {
+    return new FusedCharacterHandler<>(filters, true);
+  }
+
+  /**
+   * Tells whether the handler returns a string, which more filters can be fused into.
+   */
+  boolean returnsString() {
+    return !toCharArray;
+  }
+
+  @Override
+  public O process(String input) {
+    return process(input, buffer(input.length()));
+  }
+
+  @Override
+  public List<O> processBatch(List<String> inputs) {
+    var outputs = new ArrayList<O>(inputs.size());
+    var buffer = BUFFER.get();
+    for (var input : inputs) {
+      if (buffer.length < input.length()) {
+        buffer = buffer(input.length());
+      }
+      outputs.add(process(input, buffer));
+    }
+    return outputs;
+  }
+
+  @SuppressWarnings("unchecked")
+  private O process(String input, char[] buffer) {
+    var length = 0;
+    for (var i = 0; i < input.length(); i++) {
+      var character = input.charAt(i);
+      if (character < LATIN1 ? !latin1Removed[character] : !removes(character)) {
+        buffer[length++] = character;
+      }
+    }
+    return (O) (toCharArray ? Arrays.copyOf(buffer, length) : new String(buffer, 0, length));
+  }
+
+  private boolean removes(char character) {
+    for (var filter : filters) {
+      if (filter.removes(character)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static char[] buffer(int length) {
+    var buffer = BUFFER.get();
+    if (buffer.length < length) {
+      buffer = new char[Math.max(length, 2 * buffer.length)];
+      BUFFER.set(buffer);
+    }
+    return buffer;
+  }
+}
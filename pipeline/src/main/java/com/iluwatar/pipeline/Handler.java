@@ -23,6 +23,9 @@
 
 package com.iluwatar.pipeline;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Forms a contract to all stage handlers to accept a certain type of input and return a processed
  * output.
@@ -32,4 +35,19 @@ package com.iluwatar.pipeline;
  */
 interface Handler<I, O> {
   O process(I input);
+
+  /**
+   * Processes a batch of inputs, as a {@link StagedPipeline} does. Handlers can override it to
+   * share work between the inputs of a batch.
+   *
+   * @param inputs the inputs
+   * @return the outputs, in the order of the inputs
+   */
+  default List<O> processBatch(List<I> inputs) {
+    var outputs = new ArrayList<O>(inputs.size());
+    for (var input : inputs) {
+      outputs.add(process(input));
+    }
+    return outputs;
+  }
 }
\ No newline at end of file
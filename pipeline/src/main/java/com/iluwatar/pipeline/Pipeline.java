@@ -23,26 +23,79 @@
 
 package com.iluwatar.pipeline;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Main Pipeline class that initially sets the current handler. Processed output of the initial
  * handler is then passed as the input to the next stage handlers.
  *
+ * <p>{@link #execute(Object)} runs all handlers on the calling thread, one input at a time. To
+ * process many inputs, {@link #staged()} runs every handler on its own threads instead, and
+ * {@link #fused()} merges chains of character filters into one handler.
+ *
  * @param <I> the type of the input for the first stage handler
  * @param <O> the final stage handler's output type
  */
 class Pipeline<I, O> {
 
-  private final Handler<I, O> currentHandler;
+  private final List<Handler<?, ?>> handlers;
 
   Pipeline(Handler<I, O> currentHandler) {
-    this.currentHandler = currentHandler;
+    this(List.of(currentHandler));
+  }
+
+  private Pipeline(List<Handler<?, ?>> handlers) {
+    this.handlers = handlers;
   }
 
   <K> Pipeline<I, K> addHandler(Handler<O, K> newHandler) {
-    return new Pipeline<>(input -> newHandler.process(currentHandler.process(input)));
+    var newHandlers = new ArrayList<Handler<?, ?>>(handlers);
+    newHandlers.add(newHandler);
+    return new Pipeline<>(List.copyOf(newHandlers));
   }
 
+  @SuppressWarnings("unchecked")
   O execute(I input) {
-    return currentHandler.process(input);
+    Object value = input;
+    for (var handler : handlers) {
+      value = ((Handler<Object, Object>) handler).process(value);
+    }
+    return (O) value;
+  }
+
+  /**
+   * Returns a pipeline in which every chain of {@link CharacterFilterHandler}s, together with a
+   * {@link ConvertToCharArrayHandler} right after it, is replaced by one
+   * {@link FusedCharacterHandler}. The outputs are the same, but the characters are copied once
+   * instead of once per handler.
+   */
+  Pipeline<I, O> fused() {
+    var fused = new ArrayList<Handler<?, ?>>();
+    for (var handler : handlers) {
+      var last = fused.isEmpty() ? null : fused.get(fused.size() - 1);
+      var open = last instanceof FusedCharacterHandler
+          && ((FusedCharacterHandler<?>) last).returnsString();
+      if (handler instanceof CharacterFilterHandler) {
+        var filter = (CharacterFilterHandler) handler;
+        if (open) {
+          fused.set(fused.size() - 1, ((FusedCharacterHandler<?>) last).andThen(filter));
+        } else {
+          fused.add(FusedCharacterHandler.of(filter));
+        }
+      } else if (open && handler instanceof ConvertToCharArrayHandler) {
+        fused.set(fused.size() - 1, ((FusedCharacterHandler<?>) last).toCharArray());
+      } else {
+        fused.add(handler);
+      }
+    }
+    return new Pipeline<>(List.copyOf(fused));
+  }
+
+  /**
+   * Returns a builder for a {@link StagedPipeline} with the handlers of this pipeline as stages.
+   */
+  StagedPipeline.Builder<I, O> staged() {
+    return new StagedPipeline.Builder<>(handlers);
   }
 }
\ No newline at end of file
@@ -23,7 +23,6 @@
 
 package com.iluwatar.pipeline;
 
-import java.util.function.IntPredicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,20 +30,18 @@ import org.slf4j.LoggerFactory;
  * Stage handler that returns a new instance of String without the alphabet characters of the input
  * string.
  */
-class RemoveAlphabetsHandler implements Handler<String, String> {
+class RemoveAlphabetsHandler implements CharacterFilterHandler {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(RemoveAlphabetsHandler.class);
 
   @Override
-  public String process(String input) {
-    var inputWithoutAlphabets = new StringBuilder();
-    var isAlphabetic = (IntPredicate) Character::isAlphabetic;
-    input.chars()
-        .filter(isAlphabetic.negate())
-        .mapToObj(x -> (char) x)
-        .forEachOrdered(inputWithoutAlphabets::append);
+  public boolean removes(char character) {
+    return Character.isAlphabetic(character);
+  }
 
-    var inputWithoutAlphabetsStr = inputWithoutAlphabets.toString();
+  @Override
+  public String process(String input) {
+    var inputWithoutAlphabetsStr = filter(input);
     LOGGER.info(
         String.format(
             "Current handler: %s, input is %s of type %s, output is %s, of type %s",
@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.pipeline;
+
+/**
+ * Counters of one stage of a {@link StagedPipeline}. The stage that limits the throughput is the
+ * one whose threads are busy while the others are idle waiting for input, or blocked waiting for
+ * room in the queue to the next stage.
+ */
+class StageStatistics {
+
+  private final String handler;
+
+  private final int parallelism;
+
+  private final long items;
+
+  private final long batches;
+
+  private final long busyNanos;
+
+  private final long idleNanos;
+
+  private final long blockedNanos;
+
+  StageStatistics(String handler, int parallelism, long items, long batches, long busyNanos,
+      long idleNanos, long blockedNanos) {
+    this.handler = handler;
+    this.parallelism = parallelism;
+    this.items = items;
+    this.batches = batches;
+    this.busyNanos = busyNanos;
+    this.idleNanos = idleNanos;
+    this.blockedNanos = blockedNanos;
+  }
+
+  String getHandler() {
+    return handler;
+  }
+
+  int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Number of inputs the stage processed.
+   */
+  long getItems() {
+    return items;
+  }
+
+  /**
+   * Number of batches the stage processed.
+   */
+  long getBatches() {
+    return batches;
+  }
+
+  /**
+   * Time the threads of the stage spent in the handler, summed over the threads.
+   */
+  long getBusyNanos() {
+    return busyNanos;
+  }
+
+  /**
+   * Time the threads of the stage waited for input.
+   */
+  long getIdleNanos() {
+    return idleNanos;
+  }
+
+  /**
+   * Time the threads of the stage waited for room in the queue to the next stage.
+   */
+  long getBlockedNanos() {
+    return blockedNanos;
+  }
+
+  /**
+   * Average time the handler took per input.
+   */
+  double getNanosPerItem() {
+    return items == 0 ? 0 : (double) busyNanos / items;
+  }
+
+  /**
+   * Inputs the stage can process per second with all its threads busy.
+   */
+  double getMaxItemsPerSecond() {
+    return busyNanos == 0 ? 0 : items * parallelism * 1e9 / busyNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s x%d: %d items in %d batches, %.0f ns/item, busy %d ms, idle %d ms, "
+            + "blocked %d ms", handler, parallelism, items, batches, getNanosPerItem(),
+        busyNanos / 1_000_000, idleNanos / 1_000_000, blockedNanos / 1_000_000);
+  }
+}
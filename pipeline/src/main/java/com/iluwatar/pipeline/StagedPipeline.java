@@ -0,0 +1,411 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.pipeline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Runs the handlers of a {@link Pipeline} as stages of an assembly line. Every stage has its own
+ * threads and the stages are connected by bounded queues, so all stages work at the same time on
+ * different inputs. Inputs travel between the stages in batches, which keeps the cost of the
+ * queues low. When a stage falls behind, the queue in front of it fills up and the stages before
+ * it wait, up to the caller of {@link #submit(Object)}.
+ *
+ * <p>A stage can run on several threads, which then process batches out of order. The outputs
+ * are still passed to the sink one at a time and in the order of the inputs.
+ *
+ * <p>If a handler throws an exception, the rest of the inputs is not processed and
+ * {@link #close()} throws the exception.
+ *
+ * @param <I> the type of the input for the first stage handler
+ * @param <O> the final stage handler's output type
+ */
+class StagedPipeline<I, O> implements AutoCloseable {
+
+  static final int DEFAULT_BATCH_SIZE = 64;
+
+  static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+  /**
+   * Tells a stage thread that there are no more inputs.
+   */
+  private static final Batch END = new Batch(-1, List.of());
+
+  private final List<Stage> stages = new ArrayList<>();
+
+  private final int batchSize;
+
+  private final Consumer<? super O> sink;
+
+  private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+  private final Map<Long, Batch> outOfOrder = new HashMap<>();
+
+  private long nextOutput;
+
+  private List<Object> inputs;
+
+  private long nextInput;
+
+  private boolean closed;
+
+  private StagedPipeline(Builder<I, O> builder, Consumer<? super O> sink) {
+    this.batchSize = builder.batchSize;
+    this.sink = sink;
+    this.inputs = new ArrayList<>(batchSize);
+    Stage next = null;
+    for (var i = builder.handlers.size() - 1; i >= 0; i--) {
+      next = new Stage(i, builder.handlers.get(i), builder.parallelism[i], builder.queueCapacity,
+          next);
+      stages.add(0, next);
+    }
+    stages.forEach(Stage::start);
+  }
+
+  /**
+   * Adds an input. Waits while the queue to the first stage is full.
+   *
+   * @param input the input
+   * @throws InterruptedException if interrupted while waiting
+   */
+  synchronized void submit(I input) throws InterruptedException {
+    if (closed) {
+      throw new IllegalStateException("Pipeline is closed");
+    }
+    inputs.add(input);
+    if (inputs.size() == batchSize) {
+      flush();
+    }
+  }
+
+  /**
+   * Passes the inputs collected so far to the first stage, without waiting for a full batch.
+   *
+   * @throws InterruptedException if interrupted while waiting for room in the queue
+   */
+  synchronized void flush() throws InterruptedException {
+    if (!inputs.isEmpty()) {
+      stages.get(0).input.put(new Batch(nextInput++, inputs));
+      inputs = new ArrayList<>(batchSize);
+    }
+  }
+
+  /**
+   * Processes the remaining inputs and stops the stage threads. Waits for the stages even if
+   * interrupted, and restores the interrupt status afterwards.
+   */
+  @Override
+  public synchronized void close() {
+    var interrupted = false;
+    if (!closed) {
+      closed = true;
+      var first = stages.get(0);
+      if (!inputs.isEmpty()) {
+        interrupted = putUninterruptibly(first.input, new Batch(nextInput++, inputs));
+        inputs = List.of();
+      }
+      for (var i = 0; i < first.threads.size(); i++) {
+        interrupted |= putUninterruptibly(first.input, END);
+      }
+    }
+    for (var stage : stages) {
+      for (var thread : stage.threads) {
+        interrupted |= joinUninterruptibly(thread);
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    var exception = failure.get();
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  /**
+   * Get statistics.
+   *
+   * @return the counters of every stage, in pipeline order
+   */
+  List<StageStatistics> getStatistics() {
+    var statistics = new ArrayList<StageStatistics>();
+    for (var i = 0; i < stages.size(); i++) {
+      var stage = stages.get(i);
+      var type = stage.handler.getClass();
+      // lambdas have no useful name
+      var name = type.isSynthetic() ? "stage " + i : type.getSimpleName();
+      statistics.add(new StageStatistics(name, stage.threads.size(), stage.items.sum(),
+          stage.batches.sum(), stage.busyNanos.sum(), stage.idleNanos.sum(),
+          stage.blockedNanos.sum()));
+    }
+    return statistics;
+  }
+
+  /*
+   * Passes the outputs of the last stage to the sink, holding back batches that overtook an
+   * earlier one.
+   */
+  @SuppressWarnings("unchecked")
+  private void emit(Batch batch) {
+    synchronized (outOfOrder) {
+      outOfOrder.put(batch.sequence, batch);
+      Batch next;
+      while ((next = outOfOrder.remove(nextOutput)) != null) {
+        nextOutput++;
+        for (var output : next.items) {
+          try {
+            sink.accept((O) output);
+          } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+          }
+        }
+      }
+    }
+  }
+
+  /*
+   * Puts a batch into a queue, waiting for room even if interrupted, and restores the interrupt
+   * status afterwards. Returns whether the thread was interrupted.
+   */
+  private static boolean putUninterruptibly(BlockingQueue<Batch> queue, Batch batch) {
+    var interrupted = false;
+    while (true) {
+      try {
+        queue.put(batch);
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    return interrupted;
+  }
+
+  /*
+   * Waits for a thread to die even if interrupted. Returns whether the waiting thread was
+   * interrupted; the caller restores the interrupt status.
+   */
+  private static boolean joinUninterruptibly(Thread thread) {
+    var interrupted = false;
+    while (true) {
+      try {
+        thread.join();
+        return interrupted;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+  }
+
+  /**
+   * Inputs or outputs of a stage, numbered in the order of the inputs they come from.
+   */
+  private static final class Batch {
+
+    private final long sequence;
+
+    private final List<?> items;
+
+    private Batch(long sequence, List<?> items) {
+      this.sequence = sequence;
+      this.items = items;
+    }
+  }
+
+  /**
+   * A handler with its input queue and threads.
+   */
+  private final class Stage {
+
+    private final Handler<Object, Object> handler;
+
+    private final BlockingQueue<Batch> input;
+
+    private final Stage next;
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    private final AtomicInteger running;
+
+    private final LongAdder items = new LongAdder();
+
+    private final LongAdder batches = new LongAdder();
+
+    private final LongAdder busyNanos = new LongAdder();
+
+    private final LongAdder idleNanos = new LongAdder();
+
+    private final LongAdder blockedNanos = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    private Stage(int index, Handler<?, ?> handler, int parallelism, int queueCapacity,
+        Stage next) {
+      this.handler = (Handler<Object, Object>) handler;
+      this.input = new ArrayBlockingQueue<>(queueCapacity);
+      this.next = next;
+      this.running = new AtomicInteger(parallelism);
+      for (var i = 0; i < parallelism; i++) {
+        threads.add(new Thread(this::run, "pipeline-stage-" + index + "-" + i));
+      }
+    }
+
+    private void start() {
+      threads.forEach(Thread::start);
+    }
+
+    private void run() {
+      try {
+        while (true) {
+          var waiting = System.nanoTime();
+          var batch = input.take();
+          var started = System.nanoTime();
+          idleNanos.add(started - waiting);
+          if (batch == END) {
+            return;
+          }
+          var outputs = process(batch);
+          var processed = System.nanoTime();
+          busyNanos.add(processed - started);
+          if (next == null) {
+            emit(outputs);
+          } else {
+            putUninterruptibly(next.input, outputs);
+            blockedNanos.add(System.nanoTime() - processed);
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        // the last thread of a stage tells every thread of the next stage to stop
+        if (running.decrementAndGet() == 0 && next != null) {
+          for (var i = 0; i < next.threads.size(); i++) {
+            putUninterruptibly(next.input, END);
+          }
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Batch process(Batch batch) {
+      List<Object> outputs = List.of();
+      // after a failure the batches still pass through, so that the stages stop in order
+      if (failure.get() == null) {
+        try {
+          outputs = handler.processBatch((List<Object>) batch.items);
+        } catch (RuntimeException e) {
+          failure.compareAndSet(null, e);
+        }
+      }
+      items.add(batch.items.size());
+      batches.increment();
+      return new Batch(batch.sequence, outputs);
+    }
+  }
+
+  /**
+   * Builder for a {@link StagedPipeline}.
+   *
+   * @param <I> the type of the input for the first stage handler
+   * @param <O> the final stage handler's output type
+   */
+  static final class Builder<I, O> {
+
+    private final List<Handler<?, ?>> handlers;
+
+    private final int[] parallelism;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    Builder(List<Handler<?, ?>> handlers) {
+      this.handlers = handlers;
+      this.parallelism = new int[handlers.size()];
+      Arrays.fill(parallelism, 1);
+    }
+
+    /**
+     * Sets the number of inputs passed from one stage to the next at once.
+     */
+    Builder<I, O> batchSize(int batchSize) {
+      if (batchSize < 1) {
+        throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+      }
+      this.batchSize = batchSize;
+      return this;
+    }
+
+    /**
+     * Sets the number of batches that may wait in front of a stage.
+     */
+    Builder<I, O> queueCapacity(int queueCapacity) {
+      if (queueCapacity < 1) {
+        throw new IllegalArgumentException("Invalid queue capacity: " + queueCapacity);
+      }
+      this.queueCapacity = queueCapacity;
+      return this;
+    }
+
+    /**
+     * Sets the number of threads of a stage. The handler of a stage with more than one thread
+     * must be thread safe.
+     *
+     * @param stage   the index of the stage, 0 for the first handler
+     * @param threads the number of threads
+     */
+    Builder<I, O> parallelism(int stage, int threads) {
+      if (stage < 0 || stage >= parallelism.length) {
+        throw new IllegalArgumentException("Invalid stage: " + stage);
+      }
+      if (threads < 1) {
+        throw new IllegalArgumentException("Invalid parallelism: " + threads);
+      }
+      parallelism[stage] = threads;
+      return this;
+    }
+
+    /**
+     * Starts the stage threads.
+     *
+     * @param sink receives the outputs of the last stage, in the order of the inputs
+     * @return the running pipeline
+     */
+    StagedPipeline<I, O> start(Consumer<? super O> sink) {
+      return new StagedPipeline<>(this, sink);
+    }
+  }
+}
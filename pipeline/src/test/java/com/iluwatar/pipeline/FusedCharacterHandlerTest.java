@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link FusedCharacterHandler}.
+ */
+class FusedCharacterHandlerTest {
+
+  private final FusedCharacterHandler<String> filters =
+      FusedCharacterHandler.of(new RemoveAlphabetsHandler()).andThen(new RemoveDigitsHandler());
+
+  @Test
+  void testRunsAllFilters() {
+    assertEquals("#!(&%#!", filters.process("#H!E(L&L0O%THE3R#34E!"));
+    assertEquals("", filters.process(""));
+    assertTrue(filters.returnsString());
+  }
+
+  @Test
+  void testConvertsToCharArray() {
+    var handler = filters.toCharArray();
+    assertArrayEquals(new char[]{'!'}, handler.process("GoYankees123!"));
+    assertFalse(handler.returnsString());
+    assertThrows(IllegalStateException.class, () -> handler.andThen(new RemoveDigitsHandler()));
+  }
+
+  @Test
+  void testInputsLongerThanTheBuffer() {
+    var input = "a1-".repeat(10_000);
+    assertEquals("-".repeat(10_000), filters.process(input));
+    assertEquals(List.of("-", "-".repeat(10_000), "--"),
+        filters.processBatch(List.of("a1-", input, "--")));
+  }
+}
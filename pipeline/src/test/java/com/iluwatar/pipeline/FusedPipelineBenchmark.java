@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * Compares a {@link Pipeline#fused() fused} pipeline with composed pipelines that filter the
+ * input in a stream per stage, as the example handlers used to, and in a loop per stage. The
+ * inputs are random printable ASCII strings of 1000 characters, and the throughput is reported in
+ * MB of input per second. The composed pipelines use lambdas, because the example handlers log
+ * every input. Run the main method with the module's test classpath.
+ */
+public final class FusedPipelineBenchmark {
+
+  private static final int INPUTS = 20_000;
+
+  private static final int LENGTH = 1_000;
+
+  private static final int ROUNDS = 5;
+
+  private FusedPipelineBenchmark() {
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args unused
+   */
+  public static void main(String[] args) {
+    var inputs = inputs();
+    var alphabets = new RemoveAlphabetsHandler();
+    var digits = new RemoveDigitsHandler();
+    var streams = new Pipeline<String, String>(input -> remove(input, Character::isAlphabetic))
+        .addHandler(input -> remove(input, Character::isDigit))
+        .addHandler(String::toCharArray);
+    var loops = new Pipeline<String, String>(alphabets::filter)
+        .addHandler(digits::filter)
+        .addHandler(String::toCharArray);
+    var fused = new Pipeline<>(alphabets)
+        .addHandler(digits)
+        .addHandler(new ConvertToCharArrayHandler())
+        .fused();
+    System.out.printf("%-18s %10s%n", "pipeline", "MB/s");
+    for (var round = 0; round < ROUNDS; round++) {
+      run("composed streams", streams, inputs);
+      run("composed loops", loops, inputs);
+      run("fused", fused, inputs);
+    }
+  }
+
+  private static void run(String name, Pipeline<String, char[]> pipeline, List<String> inputs) {
+    var checksum = 0L;
+    var begin = System.nanoTime();
+    for (var input : inputs) {
+      checksum += pipeline.execute(input).length;
+    }
+    var elapsed = System.nanoTime() - begin;
+    if (checksum == 0) {
+      throw new IllegalStateException("Nothing left after filtering");
+    }
+    System.out.printf("%-18s %10.1f%n", name, (double) INPUTS * LENGTH * 1e3 / elapsed);
+  }
+
+  private static List<String> inputs() {
+    var random = new Random(42);
+    var inputs = new ArrayList<String>(INPUTS);
+    for (var i = 0; i < INPUTS; i++) {
+      var input = new StringBuilder(LENGTH);
+      for (var c = 0; c < LENGTH; c++) {
+        input.append((char) (' ' + random.nextInt(95)));
+      }
+      inputs.add(input.toString());
+    }
+    return inputs;
+  }
+
+  private static String remove(String input, IntPredicate predicate) {
+    var output = new StringBuilder();
+    input.chars()
+        .filter(predicate.negate())
+        .mapToObj(x -> (char) x)
+        .forEachOrdered(output::append);
+    return output.toString();
+  }
+}
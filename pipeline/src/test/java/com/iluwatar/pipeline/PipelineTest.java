@@ -24,7 +24,9 @@
 package com.iluwatar.pipeline;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -43,4 +45,36 @@ public class PipelineTest {
         filters.execute("#H!E(L&L0O%THE3R#34E!")
     );
   }
+
+  @Test
+  void testFusedPipelineReturnsTheSameOutputs() {
+    var filters = new Pipeline<>(new RemoveAlphabetsHandler())
+        .addHandler(new RemoveDigitsHandler())
+        .addHandler(new ConvertToCharArrayHandler());
+    var fused = filters.fused();
+
+    assertArrayEquals(
+        new char[]{'#', '!', '(', '&', '%', '#', '!'},
+        fused.execute("#H!E(L&L0O%THE3R#34E!")
+    );
+    var random = new Random(1);
+    for (var i = 0; i < 100; i++) {
+      var input = new StringBuilder();
+      for (var c = random.nextInt(1000); c > 0; c--) {
+        input.append((char) random.nextInt(0x3000));
+      }
+      input.append("\uD83D\uDE00٣");
+      assertArrayEquals(filters.execute(input.toString()), fused.execute(input.toString()));
+    }
+  }
+
+  @Test
+  void testFusingKeepsOtherHandlers() {
+    var pipeline = new Pipeline<>(new RemoveDigitsHandler())
+        .addHandler(String::toUpperCase)
+        .addHandler(new RemoveAlphabetsHandler())
+        .addHandler(String::length);
+
+    assertEquals(pipeline.execute("a1b2c3!?"), pipeline.fused().execute("a1b2c3!?"));
+  }
 }
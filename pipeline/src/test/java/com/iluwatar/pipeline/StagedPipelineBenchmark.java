@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+
+/**
+ * Compares {@link Pipeline#execute(Object)} with a {@link StagedPipeline} for batch sizes from 1
+ * to 512, filtering random strings of 100 characters in three stages. Reports the inputs per
+ * second and the counters of every stage. The handlers do the work of the example handlers
+ * without logging every input. Run the main method with the module's test classpath.
+ */
+public final class StagedPipelineBenchmark {
+
+  private static final int INPUTS = 200_000;
+
+  private static final int[] BATCH_SIZES = {1, 16, 64, 512};
+
+  private StagedPipelineBenchmark() {
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args unused
+   * @throws Exception if the benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    var inputs = inputs();
+    var pipeline = new Pipeline<String, String>(input -> remove(input, Character::isAlphabetic))
+        .addHandler(input -> remove(input, Character::isDigit))
+        .addHandler(String::toCharArray);
+    for (var round = 0; round < 2; round++) {
+      var checksum = 0L;
+      var begin = System.nanoTime();
+      for (var input : inputs) {
+        checksum += pipeline.execute(input).length;
+      }
+      report("execute", System.nanoTime() - begin, checksum);
+      for (var batchSize : BATCH_SIZES) {
+        var length = new LongAdder();
+        begin = System.nanoTime();
+        var staged = pipeline.staged().batchSize(batchSize)
+            .start(output -> length.add(output.length));
+        for (var input : inputs) {
+          staged.submit(input);
+        }
+        staged.close();
+        report("staged batch " + batchSize, System.nanoTime() - begin, length.sum());
+        if (round == 1) {
+          staged.getStatistics().forEach(stage -> System.out.println("  " + stage));
+        }
+      }
+    }
+  }
+
+  private static List<String> inputs() {
+    var random = new Random(42);
+    var inputs = new ArrayList<String>(INPUTS);
+    for (var i = 0; i < INPUTS; i++) {
+      var input = new StringBuilder();
+      for (var c = 0; c < 100; c++) {
+        input.append((char) (' ' + random.nextInt(95)));
+      }
+      inputs.add(input.toString());
+    }
+    return inputs;
+  }
+
+  private static String remove(String input, IntPredicate predicate) {
+    var output = new StringBuilder(input.length());
+    input.chars().filter(predicate.negate()).forEach(c -> output.append((char) c));
+    return output.toString();
+  }
+
+  private static void report(String name, long nanos, long checksum) {
+    System.out.printf("%-18s %12.0f inputs/s  (checksum %d)%n", name, INPUTS * 1e9 / nanos,
+        checksum);
+  }
+}
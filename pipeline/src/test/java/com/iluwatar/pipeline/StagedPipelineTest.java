@@ -0,0 +1,198 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link StagedPipeline}.
+ */
+class StagedPipelineTest {
+
+  @Test
+  void testOutputsKeepTheOrderOfTheInputs() throws Exception {
+    var pipeline = new Pipeline<String, String>(input -> input + "a")
+        .addHandler(input -> input + "b")
+        .addHandler(String::length);
+    var outputs = new ArrayList<Integer>();
+    var expected = new ArrayList<Integer>();
+    try (var staged = pipeline.staged().batchSize(7).queueCapacity(2).parallelism(1, 3)
+        .start(outputs::add)) {
+      for (var i = 0; i < 10_000; i++) {
+        var input = "x".repeat(i % 50);
+        expected.add(pipeline.execute(input));
+        staged.submit(input);
+      }
+    }
+    assertEquals(expected, outputs);
+  }
+
+  @Test
+  void testSameOutputsAsExecute() throws Exception {
+    var pipeline = new Pipeline<>(new RemoveAlphabetsHandler())
+        .addHandler(new RemoveDigitsHandler())
+        .addHandler(new ConvertToCharArrayHandler());
+    var outputs = new ArrayList<char[]>();
+    try (var staged = pipeline.staged().start(outputs::add)) {
+      staged.submit("#H!E(L&L0O%THE3R#34E!");
+      staged.submit("GoYankees123!");
+    }
+    assertEquals(2, outputs.size());
+    assertArrayEquals(new char[]{'#', '!', '(', '&', '%', '#', '!'}, outputs.get(0));
+    assertArrayEquals(new char[]{'!'}, outputs.get(1));
+  }
+
+  @Test
+  void testSlowStageHoldsBackTheSubmitter() {
+    assertTimeout(Duration.ofSeconds(10), () -> {
+      var release = new CountDownLatch(1);
+      var submitted = new AtomicInteger();
+      var outputs = new CopyOnWriteArrayList<Integer>();
+      var pipeline = new Pipeline<Integer, Integer>(input -> input)
+          .addHandler(input -> {
+            await(release);
+            return input;
+          });
+      var staged = pipeline.staged().batchSize(1).queueCapacity(1).start(outputs::add);
+      var submitter = new Thread(() -> {
+        try {
+          for (var i = 0; i < 100; i++) {
+            staged.submit(i);
+            submitted.incrementAndGet();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      submitter.start();
+      Thread.sleep(200);
+      assertTrue(submitter.isAlive());
+      // one batch in each queue and in each stage, plus the one the submitter waits to put
+      assertTrue(submitted.get() <= 5, "submitted " + submitted.get());
+      release.countDown();
+      submitter.join();
+      staged.close();
+      assertEquals(100, outputs.size());
+    });
+  }
+
+  @Test
+  void testHandlerFailureIsThrownOnClose() throws Exception {
+    var exception = new IllegalArgumentException("bad input");
+    var outputs = new ArrayList<String>();
+    var staged = new Pipeline<String, String>(input -> {
+      if (input.isEmpty()) {
+        throw exception;
+      }
+      return input;
+    }).staged().batchSize(1).start(outputs::add);
+    staged.submit("first");
+    staged.submit("");
+    staged.submit("third");
+    assertSame(exception, assertThrows(IllegalArgumentException.class, staged::close));
+    assertFalse(outputs.contains("third"));
+    assertThrows(IllegalStateException.class, () -> staged.submit("fourth"));
+  }
+
+  @Test
+  void testCloseWaitsForTheStagesWhenInterrupted() throws Exception {
+    var outputs = new CopyOnWriteArrayList<Integer>();
+    var staged = new Pipeline<Integer, Integer>(input -> input).staged().batchSize(10)
+        .queueCapacity(1).start(output -> {
+          sleep();
+          outputs.add(output);
+        });
+    for (var i = 0; i < 25; i++) {
+      staged.submit(i);
+    }
+    Thread.currentThread().interrupt();
+    try {
+      staged.close();
+      assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      Thread.interrupted();
+    }
+    assertEquals(25, outputs.size());
+  }
+
+  @Test
+  void testStatisticsPerStage() throws Exception {
+    var pipeline = new Pipeline<String, String>(String::trim)
+        .addHandler(String::length);
+    var staged = pipeline.staged().batchSize(10).parallelism(1, 2).start(output -> {
+    });
+    for (var i = 0; i < 95; i++) {
+      staged.submit(" " + i + " ");
+    }
+    staged.close();
+    List<StageStatistics> statistics = staged.getStatistics();
+    assertEquals(2, statistics.size());
+    for (var stage : statistics) {
+      assertEquals(95, stage.getItems());
+      assertEquals(10, stage.getBatches());
+    }
+    assertEquals(1, statistics.get(0).getParallelism());
+    assertEquals(2, statistics.get(1).getParallelism());
+  }
+
+  @Test
+  void testInvalidSettings() {
+    var builder = new Pipeline<String, String>(String::trim).staged();
+    assertThrows(IllegalArgumentException.class, () -> builder.batchSize(0));
+    assertThrows(IllegalArgumentException.class, () -> builder.queueCapacity(0));
+    assertThrows(IllegalArgumentException.class, () -> builder.parallelism(1, 1));
+    assertThrows(IllegalArgumentException.class, () -> builder.parallelism(0, 0));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void sleep() {
+    try {
+      Thread.sleep(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
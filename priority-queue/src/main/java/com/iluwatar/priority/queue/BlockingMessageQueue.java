@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.priority.queue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-safe queue of {@link Message}s that hands out the message with the highest priority first
+ * and lets any number of {@link Worker}s wait for messages to arrive.
+ */
+public interface BlockingMessageQueue {
+
+  /**
+   * Add message to queue and wake up one waiting consumer.
+   */
+  void put(Message message);
+
+  /**
+   * Remove top message from queue without waiting.
+   *
+   * @return the top message, or null if the queue is empty
+   */
+  Message poll();
+
+  /**
+   * Remove top message from queue, waiting up to the given time for one to arrive.
+   *
+   * @return the top message, or null if none arrived in time
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  Message poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+  /**
+   * Remove top message from queue, waiting for one to arrive.
+   *
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  Message take() throws InterruptedException;
+
+  /**
+   * Number of queued messages.
+   */
+  int size();
+}
@@ -0,0 +1,191 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.priority.queue;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link BlockingMessageQueue} for a small range of priorities {@code 0..levels-1}. Every priority
+ * has its own FIFO, so publishing is O(1) and messages of equal priority keep their order.
+ *
+ * <p>To keep a steady stream of high priority messages from starving the rest, a message gains one
+ * priority level for every {@code agingMillis} it has waited. Only the oldest message of each level
+ * can be the oldest overall, so picking the next message costs O(levels).
+ */
+public class BucketedPriorityMessageQueue implements BlockingMessageQueue {
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition notEmpty = lock.newCondition();
+
+  private final ArrayDeque<Entry>[] buckets;
+
+  private final long agingNanos;
+
+  private final LongSupplier clock;
+
+  private int size;
+
+  /**
+   * Creates a queue without aging.
+   *
+   * @param levels number of priorities
+   */
+  public BucketedPriorityMessageQueue(int levels) {
+    this(levels, 0);
+  }
+
+  /**
+   * Creates a queue.
+   *
+   * @param levels number of priorities
+   * @param agingMillis time after which a waiting message is raised by one priority level, or 0 to
+   *                    disable aging
+   */
+  public BucketedPriorityMessageQueue(int levels, long agingMillis) {
+    this(levels, agingMillis, System::nanoTime);
+  }
+
+  @SuppressWarnings("unchecked")
+  BucketedPriorityMessageQueue(int levels, long agingMillis, LongSupplier clock) {
+    if (levels < 1) {
+      throw new IllegalArgumentException("Invalid number of priority levels: " + levels);
+    }
+    if (agingMillis < 0) {
+      throw new IllegalArgumentException("Invalid aging time: " + agingMillis);
+    }
+    buckets = new ArrayDeque[levels];
+    for (var i = 0; i < levels; i++) {
+      buckets[i] = new ArrayDeque<>();
+    }
+    this.agingNanos = TimeUnit.MILLISECONDS.toNanos(agingMillis);
+    this.clock = clock;
+  }
+
+  @Override
+  public void put(Message message) {
+    var priority = message.getPriority();
+    if (priority < 0 || priority >= buckets.length) {
+      throw new IllegalArgumentException("Priority out of range: " + priority);
+    }
+    var entry = new Entry(message, clock.getAsLong());
+    lock.lock();
+    try {
+      buckets[priority].addLast(entry);
+      size++;
+      notEmpty.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Message poll() {
+    lock.lock();
+    try {
+      return remove();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Message poll(long timeout, TimeUnit unit) throws InterruptedException {
+    var nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (size == 0) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return remove();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Message take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (size == 0) {
+        notEmpty.await();
+      }
+      return remove();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return size;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Message remove() {
+    if (size == 0) {
+      return null;
+    }
+    var now = clock.getAsLong();
+    var best = -1;
+    var bestPriority = Long.MIN_VALUE;
+    for (var level = buckets.length - 1; level >= 0; level--) {
+      var head = buckets[level].peekFirst();
+      if (head == null) {
+        continue;
+      }
+      var priority = agingNanos == 0 ? level : level + (now - head.enqueued) / agingNanos;
+      if (priority > bestPriority) {
+        best = level;
+        bestPriority = priority;
+      }
+    }
+    size--;
+    return buckets[best].pollFirst().message;
+  }
+
+  private static final class Entry {
+
+    private final Message message;
+
+    private final long enqueued;
+
+    private Entry(Message message, long enqueued) {
+      this.message = message;
+      this.enqueued = enqueued;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.priority.queue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link BlockingMessageQueue} that guards a {@link PriorityMessageQueue} heap with a lock. Waiting
+ * consumers sleep on a condition and are woken up one at a time as messages arrive, so a message
+ * published to an idle queue is picked up immediately instead of on the next poll.
+ */
+public class ConcurrentPriorityMessageQueue implements BlockingMessageQueue {
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition notEmpty = lock.newCondition();
+
+  private final PriorityMessageQueue<Message> heap;
+
+  private int size;
+
+  public ConcurrentPriorityMessageQueue(int initialCapacity) {
+    heap = new PriorityMessageQueue<>(new Message[Math.max(1, initialCapacity)]);
+  }
+
+  @Override
+  public void put(Message message) {
+    lock.lock();
+    try {
+      heap.add(message);
+      size++;
+      notEmpty.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Message poll() {
+    lock.lock();
+    try {
+      return remove();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Message poll(long timeout, TimeUnit unit) throws InterruptedException {
+    var nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (size == 0) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return remove();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Message take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (size == 0) {
+        notEmpty.await();
+      }
+      return remove();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return size;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Message remove() {
+    if (size == 0) {
+      return null;
+    }
+    size--;
+    return heap.remove();
+  }
+}
@@ -23,35 +23,57 @@
 
 package com.iluwatar.priority.queue;
 
+import java.util.concurrent.TimeUnit;
+
 /**
- * Manage priority queue.
+ * Manage priority queue. The queue is thread-safe, so messages can be published and received by
+ * any number of threads.
  */
 public class QueueManager {
   /*
      Priority message
    */
-  private final PriorityMessageQueue<Message> messagePriorityMessageQueue;
+  private final BlockingMessageQueue messagePriorityMessageQueue;
 
   public QueueManager(int initialCapacity) {
-    messagePriorityMessageQueue = new PriorityMessageQueue<>(new Message[initialCapacity]);
+    this(new ConcurrentPriorityMessageQueue(initialCapacity));
+  }
+
+  public QueueManager(BlockingMessageQueue messageQueue) {
+    messagePriorityMessageQueue = messageQueue;
   }
 
   /**
    * Publish message to queue.
    */
   public void publishMessage(Message message) {
-    messagePriorityMessageQueue.add(message);
+    messagePriorityMessageQueue.put(message);
   }
 
 
   /**
    * Receive message from queue.
+   *
+   * @return the top message, or null if the queue is empty
    */
   public Message receiveMessage() {
-    if (messagePriorityMessageQueue.isEmpty()) {
-      return null;
-    }
-    return messagePriorityMessageQueue.remove();
+    return messagePriorityMessageQueue.poll();
+  }
+
+  /**
+   * Receive message from queue, waiting up to the given time for one to arrive.
+   *
+   * @return the top message, or null if none arrived in time
+   */
+  public Message receiveMessage(long timeout, TimeUnit unit) throws InterruptedException {
+    return messagePriorityMessageQueue.poll(timeout, unit);
+  }
+
+  /**
+   * Receive message from queue, waiting for one to arrive.
+   */
+  public Message takeMessage() throws InterruptedException {
+    return messagePriorityMessageQueue.take();
   }
 
 
@@ -38,18 +38,12 @@ public class Worker {
   }
 
   /**
-   * Keep checking queue for message.
+   * Keep taking messages from the queue, waiting while it is empty, until interrupted.
    */
   @SuppressWarnings("squid:S2189")
-  public void run() throws Exception {
+  public void run() throws InterruptedException {
     while (true) {
-      var message = queueManager.receiveMessage();
-      if (message == null) {
-        LOGGER.info("No Message ... waiting");
-        Thread.sleep(200);
-      } else {
-        processMessage(message);
-      }
+      processMessage(queueManager.takeMessage());
     }
   }
 
@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.priority.queue;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test ordering and aging of the bucketed priority queue.
+ */
+class BucketedPriorityMessageQueueTest {
+
+  @Test
+  void higherPriorityFirstAndFifoWithinPriority() {
+    var queue = new BucketedPriorityMessageQueue(3);
+    var low = new Message("low", 0);
+    var first = new Message("first", 2);
+    var second = new Message("second", 2);
+    var medium = new Message("medium", 1);
+    queue.put(low);
+    queue.put(first);
+    queue.put(medium);
+    queue.put(second);
+    assertSame(first, queue.poll());
+    assertSame(second, queue.poll());
+    assertSame(medium, queue.poll());
+    assertSame(low, queue.poll());
+    assertNull(queue.poll());
+  }
+
+  @Test
+  void waitingMessagesAreAgedAheadOfNewerHigherPriorityMessages() {
+    var now = new AtomicLong();
+    var queue = new BucketedPriorityMessageQueue(3, 100, now::get);
+    var old = new Message("old", 0);
+    queue.put(old);
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+    var medium = new Message("medium", 1);
+    queue.put(medium);
+    // old has gained one level and ties with medium, so the original priority decides
+    assertSame(medium, queue.poll());
+    queue.put(new Message("medium", 1));
+    // 250 ms later old is four levels up, the newer medium message only three
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+    assertSame(old, queue.poll());
+  }
+
+  @Test
+  void takeWaitsForMessage() {
+    assertTimeout(Duration.ofSeconds(5), () -> {
+      var queue = new BucketedPriorityMessageQueue(2, 1000);
+      var message = new Message("message", 1);
+      var executor = Executors.newSingleThreadExecutor();
+      var received = executor.submit(queue::take);
+      Thread.sleep(50);
+      queue.put(message);
+      assertSame(message, received.get());
+      assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+      executor.shutdown();
+    });
+  }
+
+  @Test
+  void rejectsPriorityOutOfRange() {
+    var queue = new BucketedPriorityMessageQueue(2);
+    assertThrows(IllegalArgumentException.class, () -> queue.put(new Message("high", 2)));
+    assertThrows(IllegalArgumentException.class, () -> queue.put(new Message("low", -1)));
+    assertThrows(IllegalArgumentException.class, () -> new BucketedPriorityMessageQueue(0));
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.priority.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test blocking and concurrent access to the priority queue.
+ */
+class ConcurrentPriorityMessageQueueTest {
+
+  @Test
+  void pollReturnsHighestPriorityFirst() {
+    var queue = new ConcurrentPriorityMessageQueue(1);
+    var low = new Message("low", 0);
+    var high = new Message("high", 5);
+    queue.put(low);
+    queue.put(high);
+    assertEquals(2, queue.size());
+    assertSame(high, queue.poll());
+    assertSame(low, queue.poll());
+    assertNull(queue.poll());
+  }
+
+  @Test
+  void timedPollReturnsNullWhenNothingArrives() throws Exception {
+    var queue = new ConcurrentPriorityMessageQueue(1);
+    var start = System.nanoTime();
+    assertNull(queue.poll(50, TimeUnit.MILLISECONDS));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
+  @Test
+  void takeWakesUpAsSoonAsMessageIsPublished() {
+    assertTimeout(Duration.ofSeconds(5), () -> {
+      var queueManager = new QueueManager(2);
+      var message = new Message("message", 1);
+      var executor = Executors.newSingleThreadExecutor();
+      var received = executor.submit(queueManager::takeMessage);
+      Thread.sleep(50);
+      var published = System.nanoTime();
+      queueManager.publishMessage(message);
+      assertSame(message, received.get());
+      assertTrue(System.nanoTime() - published < TimeUnit.MILLISECONDS.toNanos(100));
+      executor.shutdown();
+    });
+  }
+
+  @Test
+  void manyWorkersReceiveEveryMessageOnce() throws Exception {
+    var queueManager = new QueueManager(16);
+    var workers = 4;
+    var messages = 10_000;
+    var received = ConcurrentHashMap.<Message>newKeySet();
+    var done = new CountDownLatch(messages);
+    var executor = Executors.newFixedThreadPool(workers + 2);
+    for (var i = 0; i < workers; i++) {
+      executor.submit(() -> {
+        while (true) {
+          var message = queueManager.takeMessage();
+          received.add(message);
+          done.countDown();
+        }
+      });
+    }
+    for (var p = 0; p < 2; p++) {
+      executor.submit(() -> {
+        for (var i = 0; i < messages / 2; i++) {
+          queueManager.publishMessage(new Message("message", i % 10));
+        }
+      });
+    }
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertEquals(messages, received.size());
+    assertNull(queueManager.receiveMessage());
+    executor.shutdownNow();
+  }
+}
@@ -23,29 +23,70 @@
 
 package com.iluwatar.producer.consumer;
 
+import java.util.Collection;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Class as a channel for {@link Producer}-{@link Consumer} exchange.
+ *
+ * <p>The default queue is a {@link LinkedBlockingQueue}. Alternatively it can be backed by a
+ * lock-free {@link RingBuffer}, which avoids allocating a node and taking a lock per hand-off,
+ * with producers and consumers waiting according to the chosen {@link WaitStrategy}.
  */
 public class ItemQueue {
 
   private final BlockingQueue<Item> queue;
 
+  private final RingBuffer<Item> ringBuffer;
+
+  private final WaitStrategy waitStrategy;
+
   public ItemQueue() {
 
     queue = new LinkedBlockingQueue<>(5);
+    ringBuffer = null;
+    waitStrategy = null;
+  }
+
+  /**
+   * Creates a queue backed by a ring buffer.
+   *
+   * @param capacity minimum capacity, rounded up to the next power of two
+   * @param waitStrategy how to wait while the queue is full or empty
+   */
+  public ItemQueue(int capacity, WaitStrategy waitStrategy) {
+    queue = null;
+    ringBuffer = new RingBuffer<>(capacity);
+    this.waitStrategy = waitStrategy;
   }
 
   public void put(Item item) throws InterruptedException {
 
-    queue.put(item);
+    if (ringBuffer != null) {
+      ringBuffer.put(item, waitStrategy);
+    } else {
+      queue.put(item);
+    }
   }
 
   public Item take() throws InterruptedException {
 
-    return queue.take();
+    return ringBuffer != null ? ringBuffer.take(waitStrategy) : queue.take();
+  }
+
+  /**
+   * Removes up to {@code maxItems} available items without waiting.
+   *
+   * @param items collection to add the items to
+   * @param maxItems maximum number of items to remove
+   * @return the number of items removed
+   */
+  public int drainTo(Collection<? super Item> items, int maxItems) {
+    if (ringBuffer != null) {
+      return ringBuffer.drainTo(items, maxItems);
+    }
+    return queue.drainTo(items, maxItems);
   }
 
 }
@@ -0,0 +1,222 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.producer.consumer;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free multi-producer/multi-consumer queue backed by a pre-allocated array.
+ *
+ * <p>Every slot carries a sequence number that tells whether it is free for the producer of a
+ * given position or holds an element for the consumer of that position. Producers and consumers
+ * claim positions with a single CAS on the tail or head counter, so a hand-off neither allocates
+ * nor takes a lock. The two counters live on their own cache lines to keep producers and consumers
+ * from invalidating each other's line on every operation.
+ *
+ * @param <E> element type
+ */
+public class RingBuffer<E> {
+
+  /**
+   * Number of longs in a 64-byte cache line.
+   */
+  private static final int PAD = 8;
+
+  private static final int TAIL = PAD;
+
+  private static final int HEAD = 2 * PAD;
+
+  private final AtomicLongArray counters = new AtomicLongArray(3 * PAD);
+
+  private final AtomicLongArray sequences;
+
+  private final Object[] elements;
+
+  private final int mask;
+
+  /**
+   * Creates a ring buffer.
+   *
+   * @param capacity minimum capacity, rounded up to the next power of two of at least two
+   */
+  public RingBuffer(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    // with a single slot a published sequence would equal the next producer position
+    var size = Math.max(2, Integer.highestOneBit(capacity));
+    if (size < capacity) {
+      size <<= 1;
+    }
+    elements = new Object[size];
+    sequences = new AtomicLongArray(size);
+    for (var i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+    mask = size - 1;
+  }
+
+  public int capacity() {
+    return elements.length;
+  }
+
+  /**
+   * Returns the number of elements currently in the buffer. The value is only a snapshot when other
+   * threads are using the buffer.
+   */
+  public int size() {
+    var size = counters.get(TAIL) - counters.get(HEAD);
+    return (int) Math.max(0, Math.min(size, elements.length));
+  }
+
+  /**
+   * Adds an element if there is room for it.
+   *
+   * @param element element to add
+   * @return true if the element was added, false if the buffer is full
+   */
+  public boolean offer(E element) {
+    if (element == null) {
+      throw new NullPointerException();
+    }
+    var position = counters.get(TAIL);
+    while (true) {
+      var index = (int) (position & mask);
+      var difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (counters.compareAndSet(TAIL, position, position + 1)) {
+          elements[index] = element;
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = counters.get(TAIL);
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = counters.get(TAIL);
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest element if there is one.
+   *
+   * @return the removed element, or null if the buffer is empty
+   */
+  @SuppressWarnings("unchecked")
+  public E poll() {
+    var position = counters.get(HEAD);
+    while (true) {
+      var index = (int) (position & mask);
+      var difference = sequences.get(index) - (position + 1);
+      if (difference == 0) {
+        if (counters.compareAndSet(HEAD, position, position + 1)) {
+          var element = (E) elements[index];
+          elements[index] = null;
+          sequences.set(index, position + elements.length);
+          return element;
+        }
+        position = counters.get(HEAD);
+      } else if (difference < 0) {
+        return null;
+      } else {
+        position = counters.get(HEAD);
+      }
+    }
+  }
+
+  /**
+   * Adds an element, waiting for room with the given strategy.
+   *
+   * @param element element to add
+   * @param strategy how to wait while the buffer is full
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public void put(E element, WaitStrategy strategy) throws InterruptedException {
+    for (var attempt = 0; !offer(element); attempt++) {
+      strategy.idle(attempt);
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest element, waiting for one with the given strategy.
+   *
+   * @param strategy how to wait while the buffer is empty
+   * @return the removed element
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public E take(WaitStrategy strategy) throws InterruptedException {
+    for (var attempt = 0; ; attempt++) {
+      var element = poll();
+      if (element != null) {
+        return element;
+      }
+      strategy.idle(attempt);
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+    }
+  }
+
+  /**
+   * Removes up to {@code maxElements} available elements in order and adds them to the given
+   * collection. The whole batch is claimed with a single CAS on the head counter.
+   *
+   * @param collection collection to add the elements to
+   * @param maxElements maximum number of elements to remove
+   * @return the number of elements removed
+   */
+  @SuppressWarnings("unchecked")
+  public int drainTo(Collection<? super E> collection, int maxElements) {
+    while (true) {
+      var position = counters.get(HEAD);
+      var count = 0;
+      while (count < maxElements
+          && sequences.get((int) ((position + count) & mask)) == position + count + 1) {
+        count++;
+      }
+      if (count == 0) {
+        if (maxElements <= 0
+            || sequences.get((int) (position & mask)) - (position + 1) < 0) {
+          return 0;
+        }
+        continue;
+      }
+      if (counters.compareAndSet(HEAD, position, position + count)) {
+        for (var i = 0; i < count; i++) {
+          var index = (int) ((position + i) & mask);
+          collection.add((E) elements[index]);
+          elements[index] = null;
+          sequences.set(index, position + i + elements.length);
+        }
+        return count;
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.producer.consumer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a thread waits for a {@link RingBuffer} slot to become available. Busy-spinning gives the
+ * lowest hand-off latency but burns a core per waiting thread, yielding lets other threads run on
+ * the same core, and parking backs off exponentially so idle threads cost almost nothing.
+ */
+public enum WaitStrategy {
+
+  BUSY_SPIN {
+    @Override
+    void idle(int attempt) {
+      Thread.onSpinWait();
+    }
+  },
+
+  YIELD {
+    @Override
+    void idle(int attempt) {
+      if (attempt < SPIN_TRIES) {
+        Thread.onSpinWait();
+      } else {
+        Thread.yield();
+      }
+    }
+  },
+
+  PARK {
+    @Override
+    void idle(int attempt) {
+      if (attempt < SPIN_TRIES) {
+        Thread.onSpinWait();
+      } else if (attempt < 2 * SPIN_TRIES) {
+        Thread.yield();
+      } else {
+        var shift = Math.min(attempt - 2 * SPIN_TRIES, MAX_PARK_SHIFT);
+        LockSupport.parkNanos(MIN_PARK_NANOS << shift);
+      }
+    }
+  };
+
+  private static final int SPIN_TRIES = 100;
+
+  private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+  private static final int MAX_PARK_SHIFT = 10;
+
+  /**
+   * Waits once before the next attempt.
+   *
+   * @param attempt the number of failed attempts so far
+   */
+  abstract void idle(int attempt);
+}
@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.producer.consumer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Compares the default {@link ItemQueue} with ring buffer backed queues using each
+ * {@link WaitStrategy}, for 1 to 16 producers and as many consumers. Reports the throughput in
+ * items per second and the latency from {@code put} to {@code take}. Busy-spinning is skipped when
+ * there are more threads than processors, because spinning threads would then only steal time
+ * from the threads they wait for. Run the main method with the module's test classpath.
+ */
+public final class ItemQueueBenchmark {
+
+  private static final int ITEMS = 240_000;
+
+  private static final int CAPACITY = 5;
+
+  private static final int[] THREADS = {1, 2, 4, 8, 16};
+
+  private ItemQueueBenchmark() {
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args unused
+   * @throws Exception if the benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    var processors = Runtime.getRuntime().availableProcessors();
+    System.out.printf("%-22s %8s %14s %10s %10s%n", "queue", "threads", "items/s", "p50 us",
+        "p99 us");
+    for (var threads : THREADS) {
+      run("LinkedBlockingQueue", threads, ItemQueue::new);
+      for (var strategy : WaitStrategy.values()) {
+        if (strategy == WaitStrategy.BUSY_SPIN && 2 * threads > processors) {
+          continue;
+        }
+        run("RingBuffer " + strategy, threads, () -> new ItemQueue(CAPACITY, strategy));
+      }
+    }
+  }
+
+  private static void run(String name, int threads, Supplier<ItemQueue> queues)
+      throws Exception {
+    var queue = queues.get();
+    var perThread = ITEMS / threads;
+    var sent = new long[perThread * threads];
+    var latencies = new long[sent.length];
+    var ready = new CountDownLatch(2 * threads);
+    var start = new CountDownLatch(1);
+    var workers = new ArrayList<Thread>();
+    for (var i = 0; i < threads; i++) {
+      var first = i * perThread;
+      workers.add(new Thread(() -> {
+        await(ready, start);
+        for (var id = first; id < first + perThread; id++) {
+          sent[id] = System.nanoTime();
+          put(queue, new Item("producer", id));
+        }
+      }));
+      workers.add(new Thread(() -> {
+        await(ready, start);
+        for (var n = 0; n < perThread; n++) {
+          var item = take(queue);
+          latencies[item.getId()] = System.nanoTime() - sent[item.getId()];
+        }
+      }));
+    }
+    workers.forEach(Thread::start);
+    ready.await();
+    var begin = System.nanoTime();
+    start.countDown();
+    for (var worker : workers) {
+      worker.join();
+    }
+    var elapsed = System.nanoTime() - begin;
+    Arrays.sort(latencies);
+    System.out.printf("%-22s %8d %14.0f %10.1f %10.1f%n", name, threads,
+        latencies.length * 1e9 / elapsed, latencies[latencies.length / 2] / 1e3,
+        latencies[(int) (latencies.length * 0.99)] / 1e3);
+  }
+
+  private static void await(CountDownLatch ready, CountDownLatch start) {
+    ready.countDown();
+    try {
+      start.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void put(ItemQueue queue, Item item) {
+    try {
+      queue.put(item);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static Item take(ItemQueue queue) {
+    try {
+      return queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
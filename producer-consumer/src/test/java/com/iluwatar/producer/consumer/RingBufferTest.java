@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.producer.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link RingBuffer}.
+ */
+class RingBufferTest {
+
+  @Test
+  void testCapacityIsRoundedUpToPowerOfTwo() {
+    assertEquals(8, new RingBuffer<Integer>(5).capacity());
+    assertEquals(8, new RingBuffer<Integer>(8).capacity());
+    assertEquals(2, new RingBuffer<Integer>(1).capacity());
+    assertThrows(IllegalArgumentException.class, () -> new RingBuffer<Integer>(0));
+  }
+
+  @Test
+  void testSmallestBufferIsBounded() {
+    var buffer = new RingBuffer<Integer>(1);
+    assertTrue(buffer.offer(1));
+    assertTrue(buffer.offer(2));
+    assertFalse(buffer.offer(3));
+    assertEquals((Integer) 1, buffer.poll());
+    assertEquals((Integer) 2, buffer.poll());
+    assertNull(buffer.poll());
+  }
+
+  @Test
+  void testOfferAndPollInOrderAcrossWrapAround() {
+    var buffer = new RingBuffer<Integer>(4);
+    for (var round = 0; round < 3; round++) {
+      for (var i = 0; i < 4; i++) {
+        assertTrue(buffer.offer(round * 4 + i));
+      }
+      assertFalse(buffer.offer(-1));
+      assertEquals(4, buffer.size());
+      for (var i = 0; i < 4; i++) {
+        assertEquals((Integer) (round * 4 + i), buffer.poll());
+      }
+      assertNull(buffer.poll());
+    }
+  }
+
+  @Test
+  void testDrainToRemovesAvailableElementsInOrder() {
+    var buffer = new RingBuffer<Integer>(8);
+    for (var i = 0; i < 6; i++) {
+      buffer.offer(i);
+    }
+    var drained = new ArrayList<Integer>();
+    assertEquals(4, buffer.drainTo(drained, 4));
+    assertEquals(List.of(0, 1, 2, 3), drained);
+    assertEquals(2, buffer.drainTo(drained, 10));
+    assertEquals(List.of(0, 1, 2, 3, 4, 5), drained);
+    assertEquals(0, buffer.drainTo(drained, 10));
+    assertTrue(buffer.offer(6));
+  }
+
+  @Test
+  void testMultipleProducersAndConsumersHandOffEveryElementOnce() throws Exception {
+    for (var strategy : WaitStrategy.values()) {
+      var queue = new ItemQueue(4, strategy);
+      var producers = 3;
+      var perProducer = 2_000;
+      var seen = ConcurrentHashMap.<Integer>newKeySet();
+      var done = new CountDownLatch(2 * producers);
+      for (var p = 0; p < producers; p++) {
+        var first = p * perProducer;
+        new Thread(() -> {
+          try {
+            for (var id = first; id < first + perProducer; id++) {
+              queue.put(new Item("producer", id));
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          done.countDown();
+        }).start();
+        new Thread(() -> {
+          try {
+            for (var n = 0; n < perProducer; n++) {
+              assertTrue(seen.add(queue.take().getId()));
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          done.countDown();
+        }).start();
+      }
+      assertTrue(done.await(30, TimeUnit.SECONDS), strategy.name());
+      assertEquals(producers * perProducer, seen.size(), strategy.name());
+      assertEquals(0, queue.drainTo(new ArrayList<>(), 1));
+    }
+  }
+
+  @Test
+  void testTakeIsInterruptible() {
+    assertTimeout(Duration.ofSeconds(5), () -> {
+      var buffer = new RingBuffer<Integer>(2);
+      var thread = Thread.currentThread();
+      new Thread(() -> {
+        try {
+          Thread.sleep(100);
+        } catch (InterruptedException e) {
+          return;
+        }
+        thread.interrupt();
+      }).start();
+      assertThrows(InterruptedException.class, () -> buffer.take(WaitStrategy.PARK));
+    });
+  }
+}
@@ -98,7 +98,7 @@ public abstract class AbstractNioChannel {
    * fetched using {@link SelectionKey#channel()}.
    *
    * @param key the key on which read event occurred.
-   * @return data read.
+   * @return data read, or null if the data read is not complete enough to be handled yet.
    * @throws IOException if any I/O error occurs.
    */
   public abstract Object read(SelectionKey key) throws IOException;
@@ -112,19 +112,75 @@ public abstract class AbstractNioChannel {
     return handler;
   }
 
+  /**
+   * Passes the data read to the handler of this channel and releases it afterwards. {@link
+   * Dispatcher}s call this method rather than the handler itself, so that channels can reuse the
+   * buffers they read into.
+   *
+   * @param readObject the data read.
+   * @param key        the key on which read event occurred.
+   */
+  public void handleRead(Object readObject, SelectionKey key) {
+    try {
+      handler.handleChannelRead(this, readObject, key);
+    } finally {
+      release(readObject);
+    }
+  }
+
+  /**
+   * Releases data read from or written to this channel once it is no longer used. By default
+   * nothing is released.
+   *
+   * @param data the data read or written.
+   */
+  protected void release(Object data) {
+    // no-op
+  }
+
   /*
    * Called from the context of reactor thread when the key becomes writable. The channel writes the
    * whole pending block of data at once.
    */
   void flush(SelectionKey key) throws IOException {
     var pendingWrites = channelToPendingWrites.get(key.channel());
+    if (pendingWrites != null && !doFlush(pendingWrites, key)) {
+      // the peer is not keeping up, so stay interested in writing until the rest fits
+      return;
+    }
+    // We don't have anything more to write so channel is interested in reading more data
+    reactor.changeOps(key, SelectionKey.OP_READ);
+  }
+
+  /**
+   * Writes the pending data to the channel, oldest first. The default implementation writes each
+   * pending data using {@link #doWrite(Object, SelectionKey)}.
+   *
+   * @param pendingWrites the queue of pending data, data written completely is removed from it.
+   * @param key           the key which is writable.
+   * @return true if all pending data was written, false if some is left for the next flush.
+   * @throws IOException if any I/O error occurs.
+   */
+  protected boolean doFlush(Queue<Object> pendingWrites, SelectionKey key) throws IOException {
     Object pendingWrite;
     while ((pendingWrite = pendingWrites.poll()) != null) {
       // ask the concrete channel to make sense of data and write it to java channel
       doWrite(pendingWrite, key);
     }
-    // We don't have anything more to write so channel is interested in reading more data
-    reactor.changeOps(key, SelectionKey.OP_READ);
+    return true;
+  }
+
+  /**
+   * Called from the context of reactor thread when a connection of this channel is closed. Drops
+   * the writes still pending for it; subclasses drop their own state of the connection too.
+   *
+   * @param key the key of the closed connection.
+   */
+  protected void onClose(SelectionKey key) {
+    var pendingWrites = channelToPendingWrites.remove(key.channel());
+    if (pendingWrites != null) {
+      pendingWrites.forEach(this::release);
+    }
   }
 
   /**
@@ -147,13 +203,14 @@ public abstract class AbstractNioChannel {
    * <code>
    * {@literal @}Override
    * public void handleChannelRead(AbstractNioChannel channel, Object readObj, SelectionKey key) {
-   *   byte[] data = ((ByteBuffer)readObj).array();
    *   ByteBuffer buffer = ByteBuffer.wrap("Server reply".getBytes());
    *   channel.write(buffer, key);
    * }
    * </code>
    * </pre>
    *
+   * <p>The channel owns the data from now on and releases it once it is written.
+   *
    * @param data the data to be written on underlying channel.
    * @param key  the key which is writable.
    */
@@ -0,0 +1,194 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of direct {@link ByteBuffer}s in power of two size classes. Allocating a direct buffer is
+ * expensive, but the operating system can read into and write from it without an extra copy, so
+ * channels acquire their buffers here and release them when the data is handled or written.
+ *
+ * <p>Every size class keeps a bounded stack of free buffers. A request larger than the largest
+ * class gets a new buffer that is not pooled, and released buffers which do not fit in a full
+ * stack are left to the garbage collector.
+ *
+ * <p>The pool remembers which of its buffers are acquired. Only those are taken back, so releasing
+ * a buffer twice, or a buffer the pool did not hand out, such as a slice of a pooled buffer, has
+ * no effect. A buffer that is acquired but never released stays referenced by the pool.
+ */
+public class BufferPool {
+
+  /**
+   * The default capacity of the largest size class.
+   */
+  public static final int DEFAULT_MAX_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The default number of free buffers kept per size class.
+   */
+  public static final int DEFAULT_MAX_FREE_BUFFERS = 1024;
+
+  private static final int MIN_SHIFT = 9;
+
+  private final SizeClass[] sizeClasses;
+  private final AtomicLong allocations = new AtomicLong();
+
+  /**
+   * Creates a pool with the default size classes from 512 bytes to 64 KB.
+   */
+  public BufferPool() {
+    this(DEFAULT_MAX_BUFFER_SIZE, DEFAULT_MAX_FREE_BUFFERS);
+  }
+
+  /**
+   * Creates a pool.
+   *
+   * @param maxBufferSize  the capacity of the largest size class, rounded up to a power of two.
+   * @param maxFreeBuffers the number of free buffers kept per size class, 0 to disable pooling.
+   */
+  public BufferPool(int maxBufferSize, int maxFreeBuffers) {
+    if (maxBufferSize <= 0 || maxFreeBuffers < 0) {
+      throw new IllegalArgumentException("Invalid buffer pool settings");
+    }
+    this.sizeClasses = new SizeClass[sizeClass(maxBufferSize) + 1];
+    for (var i = 0; i < sizeClasses.length; i++) {
+      sizeClasses[i] = new SizeClass(1 << (MIN_SHIFT + i), maxFreeBuffers);
+    }
+  }
+
+  /**
+   * Acquires a cleared direct buffer of at least the requested size.
+   *
+   * @param size the minimum capacity of the buffer.
+   * @return the buffer, positioned at 0 with its limit at its capacity.
+   */
+  public ByteBuffer acquire(int size) {
+    var index = sizeClass(size);
+    if (index >= sizeClasses.length) {
+      allocations.incrementAndGet();
+      return ByteBuffer.allocateDirect(size);
+    }
+    var sizeClass = sizeClasses[index];
+    var buffer = sizeClass.poll();
+    if (buffer == null) {
+      allocations.incrementAndGet();
+      buffer = ByteBuffer.allocateDirect(sizeClass.capacity);
+      sizeClass.acquired(buffer);
+    }
+    return buffer.clear();
+  }
+
+  /**
+   * Returns a buffer to the pool. The buffer must not be used after it is released.
+   *
+   * @param buffer the buffer, buffers that are not currently acquired from this pool are ignored.
+   */
+  public void release(ByteBuffer buffer) {
+    var sizeClass = sizeClassOf(buffer);
+    if (sizeClass != null) {
+      sizeClass.offer(buffer);
+    }
+  }
+
+  /**
+   * Tells whether a buffer is acquired from this pool and not yet released.
+   *
+   * @param buffer the buffer.
+   * @return true if the pool takes the buffer back when it is released.
+   */
+  public boolean isAcquired(ByteBuffer buffer) {
+    var sizeClass = sizeClassOf(buffer);
+    return sizeClass != null && sizeClass.isAcquired(buffer);
+  }
+
+  /**
+   * Get allocation count.
+   *
+   * @return the number of buffers this pool allocated because no free buffer was available.
+   */
+  public long getAllocationCount() {
+    return allocations.get();
+  }
+
+  private SizeClass sizeClassOf(ByteBuffer buffer) {
+    if (!buffer.isDirect() || Integer.bitCount(buffer.capacity()) != 1) {
+      return null;
+    }
+    var index = sizeClass(buffer.capacity());
+    if (index < sizeClasses.length && sizeClasses[index].capacity == buffer.capacity()) {
+      return sizeClasses[index];
+    }
+    return null;
+  }
+
+  private static int sizeClass(int size) {
+    return Math.max(0, Integer.SIZE - Integer.numberOfLeadingZeros((size - 1) >> MIN_SHIFT));
+  }
+
+  /**
+   * The free buffers of one capacity, kept in an array stack so that releasing and acquiring a
+   * buffer allocates nothing, and the acquired ones, compared by identity.
+   */
+  private static final class SizeClass {
+
+    private final int capacity;
+    private final ByteBuffer[] free;
+    private final Set<ByteBuffer> acquired = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int size;
+
+    private SizeClass(int capacity, int maxFreeBuffers) {
+      this.capacity = capacity;
+      this.free = new ByteBuffer[maxFreeBuffers];
+    }
+
+    private synchronized ByteBuffer poll() {
+      if (size == 0) {
+        return null;
+      }
+      var buffer = free[--size];
+      free[size] = null;
+      acquired.add(buffer);
+      return buffer;
+    }
+
+    private synchronized void acquired(ByteBuffer buffer) {
+      acquired.add(buffer);
+    }
+
+    private synchronized boolean isAcquired(ByteBuffer buffer) {
+      return acquired.contains(buffer);
+    }
+
+    private synchronized void offer(ByteBuffer buffer) {
+      if (acquired.remove(buffer) && size < free.length) {
+        free[size++] = buffer;
+      }
+    }
+  }
+}
@@ -36,7 +36,9 @@ import java.nio.channels.SelectionKey;
 public interface ChannelHandler {
 
   /**
-   * Called when the {@code channel} receives some data from remote peer.
+   * Called when the {@code channel} receives some data from remote peer. The data read is only
+   * valid until this method returns, as the channel may reuse its buffer afterwards; data to be
+   * kept or written back must be copied.
    *
    * @param channel    the channel from which the data was received.
    * @param readObject the data read.
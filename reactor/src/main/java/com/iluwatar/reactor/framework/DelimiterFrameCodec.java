@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A {@link FrameCodec} for frames terminated by a delimiter, such as the lines of a text protocol.
+ * Decoded frames do not include the delimiter.
+ */
+public class DelimiterFrameCodec implements FrameCodec {
+
+  private final byte[] delimiter;
+  private final ByteBuffer delimiterBuffer;
+  private final int maxFrameLength;
+
+  /**
+   * Creates a codec.
+   *
+   * @param delimiter      the bytes ending a frame.
+   * @param maxFrameLength the maximum length of a frame without the delimiter, longer frames close
+   *                       the connection.
+   */
+  public DelimiterFrameCodec(byte[] delimiter, int maxFrameLength) {
+    if (delimiter.length == 0 || maxFrameLength <= 0) {
+      throw new IllegalArgumentException("Invalid delimiter codec settings");
+    }
+    this.delimiter = delimiter.clone();
+    this.delimiterBuffer = ByteBuffer.wrap(this.delimiter).asReadOnlyBuffer();
+    this.maxFrameLength = maxFrameLength;
+  }
+
+  @Override
+  public void decode(ByteBuffer in, List<ByteBuffer> frames) throws IOException {
+    var first = delimiter[0];
+    var index = in.position();
+    var last = in.limit() - delimiter.length;
+    while (index <= last) {
+      if (in.get(index) == first && matches(in, index)) {
+        frames.add(FrameCodec.slice(in, index));
+        index += delimiter.length;
+        in.position(index);
+      } else {
+        index++;
+        if (index - in.position() > maxFrameLength) {
+          throw new IOException("Frame longer than " + maxFrameLength + " bytes");
+        }
+      }
+    }
+    if (in.remaining() > maxFrameLength + delimiter.length) {
+      throw new IOException("Frame longer than " + maxFrameLength + " bytes");
+    }
+  }
+
+  @Override
+  public ByteBuffer[] encode(ByteBuffer frame, BufferPool pool) {
+    return new ByteBuffer[] {frame, delimiterBuffer.duplicate()};
+  }
+
+  private boolean matches(ByteBuffer in, int index) {
+    for (var i = 1; i < delimiter.length; i++) {
+      if (in.get(index + i) != delimiter[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -45,6 +45,8 @@ public interface Dispatcher {
    * associated {@link ChannelHandler} of <code>channel</code>.
    *
    * <p>The type of <code>readObject</code> depends on the channel on which data was received.
+   * The handler should be called through {@link AbstractNioChannel#handleRead(Object,
+   * SelectionKey)}, which releases the data once it is handled.
    *
    * @param channel    on which read event occurred
    * @param readObject object read by channel
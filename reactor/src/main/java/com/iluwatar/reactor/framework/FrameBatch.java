@@ -0,0 +1,57 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The frames decoded from one read of a connection, which a {@link NioServerSocketChannel} with a
+ * {@link FrameCodec} dispatches as one read event. The frames are slices of the buffer read into,
+ * which goes back to the pool once the handler returns.
+ */
+public final class FrameBatch {
+
+  private final List<ByteBuffer> frames;
+  private final ByteBuffer buffer;
+
+  FrameBatch(List<ByteBuffer> frames, ByteBuffer buffer) {
+    this.frames = Collections.unmodifiableList(frames);
+    this.buffer = buffer;
+  }
+
+  /**
+   * Get frames.
+   *
+   * @return the frames in the order they were received.
+   */
+  public List<ByteBuffer> getFrames() {
+    return frames;
+  }
+
+  ByteBuffer getBuffer() {
+    return buffer;
+  }
+}
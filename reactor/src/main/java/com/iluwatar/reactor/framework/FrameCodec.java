@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Splits the byte stream of a connection into frames and turns frames back into bytes. A read may
+ * end in the middle of a frame or hold several frames, so a {@link NioServerSocketChannel} with a
+ * codec keeps the incomplete tail of every connection and hands the {@link ChannelHandler} whole
+ * frames only.
+ *
+ * <p>Decoded frames are slices of the buffer read into, not copies, so they are only valid until
+ * the handler returns.
+ */
+public interface FrameCodec {
+
+  /**
+   * Decodes all complete frames from the position of the buffer onwards. The position is advanced
+   * past the last complete frame, leaving the start of an incomplete frame, if any, remaining.
+   *
+   * @param in     the bytes received.
+   * @param frames receives the frame contents as slices of {@code in}.
+   * @throws IOException if the bytes are not a valid frame, which closes the connection.
+   */
+  void decode(ByteBuffer in, List<ByteBuffer> frames) throws IOException;
+
+  /**
+   * Encodes a frame. The frame contents are not copied, the returned buffers are written together
+   * in order by a gathering write.
+   *
+   * @param frame the frame contents.
+   * @param pool  the pool to acquire the buffers added to the frame from.
+   * @return the buffers making up the encoded frame.
+   */
+  ByteBuffer[] encode(ByteBuffer frame, BufferPool pool);
+
+  /**
+   * Returns a slice of {@code in} from its position to {@code end} and moves its position to
+   * {@code end}.
+   *
+   * @param in  the buffer.
+   * @param end the end of the slice.
+   * @return the slice.
+   */
+  static ByteBuffer slice(ByteBuffer in, int end) {
+    var limit = in.limit();
+    in.limit(end);
+    var slice = in.slice();
+    in.limit(limit);
+    in.position(end);
+    return slice;
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A {@link FrameCodec} for frames prefixed with their length. The length field holds the number of
+ * bytes following it in big endian order and is 1, 2 or 4 bytes long. Decoded frames do not
+ * include the length field.
+ */
+public class LengthFieldFrameCodec implements FrameCodec {
+
+  private final int lengthFieldSize;
+  private final int maxFrameLength;
+
+  /**
+   * Creates a codec.
+   *
+   * @param lengthFieldSize the size of the length field, 1, 2 or 4 bytes.
+   * @param maxFrameLength  the maximum length of a frame without the length field, longer frames
+   *                        close the connection.
+   */
+  public LengthFieldFrameCodec(int lengthFieldSize, int maxFrameLength) {
+    if (lengthFieldSize != 1 && lengthFieldSize != 2 && lengthFieldSize != 4) {
+      throw new IllegalArgumentException("Length field size must be 1, 2 or 4: " + lengthFieldSize);
+    }
+    if (maxFrameLength <= 0 || lengthFieldSize < 4 && maxFrameLength >= 1 << 8 * lengthFieldSize) {
+      throw new IllegalArgumentException("Invalid maximum frame length: " + maxFrameLength);
+    }
+    this.lengthFieldSize = lengthFieldSize;
+    this.maxFrameLength = maxFrameLength;
+  }
+
+  @Override
+  public void decode(ByteBuffer in, List<ByteBuffer> frames) throws IOException {
+    while (in.remaining() >= lengthFieldSize) {
+      var start = in.position();
+      var length = readLength(in, start);
+      if (length < 0 || length > maxFrameLength) {
+        throw new IOException("Invalid frame length: " + length);
+      }
+      if (in.remaining() - lengthFieldSize < length) {
+        return;
+      }
+      in.position(start + lengthFieldSize);
+      frames.add(FrameCodec.slice(in, in.position() + length));
+    }
+  }
+
+  @Override
+  public ByteBuffer[] encode(ByteBuffer frame, BufferPool pool) {
+    var length = frame.remaining();
+    if (length > maxFrameLength) {
+      throw new IllegalArgumentException("Frame too long: " + length);
+    }
+    // a pooled buffer would be at least 512 bytes for a header of at most 4
+    var header = ByteBuffer.allocate(lengthFieldSize);
+    switch (lengthFieldSize) {
+      case 1:
+        header.put((byte) length);
+        break;
+      case 2:
+        header.putShort((short) length);
+        break;
+      default:
+        header.putInt(length);
+        break;
+    }
+    return new ByteBuffer[] {header.flip(), frame};
+  }
+
+  private int readLength(ByteBuffer in, int index) {
+    switch (lengthFieldSize) {
+      case 1:
+        return in.get(index) & 0xFF;
+      case 2:
+        return in.getShort(index) & 0xFFFF;
+      default:
+        return in.getInt(index);
+    }
+  }
+}
@@ -27,11 +27,16 @@ import java.io.IOException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -45,6 +50,12 @@ import lombok.extern.slf4j.Slf4j;
  * #start()} method. {@link NioReactor} uses {@link Selector} for realizing Synchronous Event
  * De-multiplexing.
  *
+ * <p>Multi-reactor mode: A single selector thread caps the throughput at one core. When created
+ * with worker reactors, this reactor only accepts connections and hands every accepted {@link
+ * SocketChannel} to one of its workers, chosen {@link Balancing#ROUND_ROBIN round robin} or
+ * {@link Balancing#LEAST_LOADED least loaded}. Each worker runs its own selector, event loop and
+ * pending command queue, and reads, dispatches and flushes the connections it owns.
+ *
  * <p>NOTE: This is one of the ways to implement NIO reactor and it does not take care of all
  * possible edge cases which are required in a real application. This implementation is meant to
  * demonstrate the fundamental concepts that lie behind Reactor pattern.
@@ -52,8 +63,26 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class NioReactor {
 
+  /**
+   * The strategy used to choose the worker reactor for an accepted connection.
+   */
+  public enum Balancing {
+    /**
+     * Hands connections to the workers in turn.
+     */
+    ROUND_ROBIN,
+    /**
+     * Hands every connection to the worker with the fewest open connections.
+     */
+    LEAST_LOADED
+  }
+
   private final Selector selector;
   private final Dispatcher dispatcher;
+  private final List<NioReactor> workers;
+  private final Balancing balancing;
+  private final AtomicInteger connections = new AtomicInteger();
+  private int nextWorker;
   /**
    * All the work of altering the SelectionKey operations and Selector operations are performed in
    * the context of main event loop of reactor. So when any channel needs to change its readability
@@ -71,14 +100,59 @@ public class NioReactor {
    * @throws IOException if any I/O error occurs.
    */
   public NioReactor(Dispatcher dispatcher) throws IOException {
+    this(dispatcher, 0, Balancing.ROUND_ROBIN);
+  }
+
+  /**
+   * Creates a reactor which accepts connections and hands them to {@code workerCount} worker
+   * reactors, each running its own selector thread. With no workers the reactor handles all events
+   * itself.
+   *
+   * @param dispatcher  a non-null dispatcher used to dispatch events on registered channels.
+   * @param workerCount the number of worker reactors.
+   * @param balancing   the strategy used to choose the worker of an accepted connection.
+   * @throws IOException if any I/O error occurs.
+   */
+  public NioReactor(Dispatcher dispatcher, int workerCount, Balancing balancing)
+      throws IOException {
+    if (workerCount < 0) {
+      throw new IllegalArgumentException("Worker count must not be negative: " + workerCount);
+    }
     this.dispatcher = dispatcher;
+    this.balancing = balancing;
     this.selector = Selector.open();
+    var workerList = new ArrayList<NioReactor>(workerCount);
+    for (var i = 0; i < workerCount; i++) {
+      workerList.add(new NioReactor(dispatcher, 0, balancing));
+    }
+    this.workers = Collections.unmodifiableList(workerList);
   }
 
   /**
-   * Starts the reactor event loop in a new thread.
+   * Get workers.
+   *
+   * @return the worker reactors, empty if this reactor handles all events itself.
+   */
+  public List<NioReactor> getWorkers() {
+    return workers;
+  }
+
+  /**
+   * Get connection count.
+   *
+   * @return the number of open connections whose events this reactor handles.
+   */
+  public int getConnectionCount() {
+    return connections.get();
+  }
+
+  /**
+   * Starts the reactor event loop in a new thread, and the event loops of the workers.
    */
   public void start() {
+    for (var worker : workers) {
+      worker.start();
+    }
     reactorMain.execute(() -> {
       try {
         LOGGER.info("Reactor started, waiting for events...");
@@ -100,6 +174,9 @@ public class NioReactor {
     selector.wakeup();
     reactorMain.awaitTermination(4, TimeUnit.SECONDS);
     selector.close();
+    for (var worker : workers) {
+      worker.stop();
+    }
     LOGGER.info("Reactor stopped");
   }
 
@@ -173,22 +250,37 @@ public class NioReactor {
     }
   }
 
-  private static void onChannelWritable(SelectionKey key) throws IOException {
+  private void onChannelWritable(SelectionKey key) {
     var channel = (AbstractNioChannel) key.attachment();
-    channel.flush(key);
+    try {
+      channel.flush(key);
+    } catch (IOException e) {
+      closeChannel(key);
+    }
   }
 
   private void onChannelReadable(SelectionKey key) {
     try {
       // reads the incoming data in context of reactor main loop. Can this be improved?
       var readObject = ((AbstractNioChannel) key.attachment()).read(key);
-      dispatchReadEvent(key, readObject);
-    } catch (IOException e) {
-      try {
-        key.channel().close();
-      } catch (IOException e1) {
-        LOGGER.error("error closing channel", e1);
+      // a channel may need more data before there is anything to handle
+      if (readObject != null) {
+        dispatchReadEvent(key, readObject);
       }
+    } catch (IOException e) {
+      closeChannel(key);
+    }
+  }
+
+  private void closeChannel(SelectionKey key) {
+    try {
+      key.channel().close();
+    } catch (IOException e) {
+      LOGGER.error("error closing channel", e);
+    }
+    ((AbstractNioChannel) key.attachment()).onClose(key);
+    if (key.channel() instanceof SocketChannel) {
+      connections.decrementAndGet();
     }
   }
 
@@ -202,9 +294,63 @@ public class NioReactor {
   private void onChannelAcceptable(SelectionKey key) throws IOException {
     var serverSocketChannel = (ServerSocketChannel) key.channel();
     var socketChannel = serverSocketChannel.accept();
+    if (socketChannel == null) {
+      return;
+    }
     socketChannel.configureBlocking(false);
-    var readKey = socketChannel.register(selector, SelectionKey.OP_READ);
-    readKey.attach(key.attachment());
+    if (workers.isEmpty()) {
+      registerAccepted(socketChannel, key.attachment());
+    } else {
+      var worker = nextWorker();
+      worker.pendingCommands.add(() -> worker.registerAccepted(socketChannel, key.attachment()));
+      worker.selector.wakeup();
+    }
+  }
+
+  /*
+   * Registers an accepted connection with the selector of this reactor, from its event loop.
+   */
+  private void registerAccepted(SocketChannel socketChannel, Object attachment) {
+    try {
+      var readKey = socketChannel.register(selector, SelectionKey.OP_READ);
+      readKey.attach(attachment);
+      connections.incrementAndGet();
+    } catch (IOException e) {
+      LOGGER.error("error registering accepted channel", e);
+      try {
+        socketChannel.close();
+      } catch (IOException e1) {
+        LOGGER.error("error closing channel", e1);
+      }
+    }
+  }
+
+  private NioReactor nextWorker() {
+    if (balancing == Balancing.LEAST_LOADED) {
+      var leastLoaded = workers.get(0);
+      for (var worker : workers) {
+        if (worker.getConnectionCount() < leastLoaded.getConnectionCount()) {
+          leastLoaded = worker;
+        }
+      }
+      return leastLoaded;
+    }
+    var worker = workers.get(nextWorker);
+    nextWorker = (nextWorker + 1) % workers.size();
+    return worker;
+  }
+
+  /*
+   * Finds the reactor whose selector the key belongs to. Channels are registered with the acceptor,
+   * but the connections they accept are owned by the workers.
+   */
+  private NioReactor ownerOf(SelectionKey key) {
+    for (var worker : workers) {
+      if (key.selector() == worker.selector) {
+        return worker;
+      }
+    }
+    return this;
   }
 
   /**
@@ -218,8 +364,9 @@ public class NioReactor {
    * @param interestedOps the new interest operations.
    */
   public void changeOps(SelectionKey key, int interestedOps) {
-    pendingCommands.add(new ChangeKeyOpsCommand(key, interestedOps));
-    selector.wakeup();
+    var owner = ownerOf(key);
+    owner.pendingCommands.add(new ChangeKeyOpsCommand(key, interestedOps));
+    owner.selector.wakeup();
   }
 
   /**
@@ -235,7 +382,9 @@ public class NioReactor {
     }
 
     public void run() {
-      key.interestOps(interestedOps);
+      if (key.isValid()) {
+        key.interestOps(interestedOps);
+      }
     }
 
     @Override
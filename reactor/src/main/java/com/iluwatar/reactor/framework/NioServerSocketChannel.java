@@ -29,17 +29,42 @@ import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SelectableChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * A wrapper over {@link NioServerSocketChannel} which can read and write data on a {@link
  * SocketChannel}.
+ *
+ * <p>Data is read into direct buffers acquired from a {@link BufferPool}, which go back to the
+ * pool once the handler returns. Pending writes are flushed with gathering writes, and when a slow
+ * peer accepts only part of them the rest is kept for the next writable event instead of being
+ * dropped. Besides a {@link ByteBuffer}, a {@code ByteBuffer[]} can be written; its buffers are
+ * written together and in order.
+ *
+ * <p>With a {@link FrameCodec} the channel reads frames instead of raw fragments: the frames
+ * decoded from a read are dispatched together as a {@link FrameBatch}, and the incomplete frame at
+ * the end of a read is kept per connection until the rest arrives. Frames are slices of the read
+ * buffer; only the bytes of an incomplete frame are copied, into the buffer of the next read.
  */
 @Slf4j
 public class NioServerSocketChannel extends AbstractNioChannel {
 
+  private static final int READ_BUFFER_SIZE = 1024;
+  private static final int MAX_GATHERED_BUFFERS = 64;
+  private static final ThreadLocal<ByteBuffer[]> GATHERED_BUFFERS =
+      ThreadLocal.withInitial(() -> new ByteBuffer[MAX_GATHERED_BUFFERS]);
+
   private final int port;
+  private final BufferPool bufferPool;
+  private final FrameCodec codec;
+  private final Map<SelectableChannel, ByteBuffer> partialFrames = new ConcurrentHashMap<>();
 
   /**
    * Creates a {@link ServerSocketChannel} which will bind at provided port and use
@@ -53,8 +78,48 @@ public class NioServerSocketChannel extends AbstractNioChannel {
    * @throws IOException if any I/O error occurs.
    */
   public NioServerSocketChannel(int port, ChannelHandler handler) throws IOException {
+    this(port, handler, new BufferPool());
+  }
+
+  /**
+   * Creates a {@link ServerSocketChannel} which reads into buffers of the provided pool.
+   *
+   * @param port       the port on which channel will be bound to accept incoming connection
+   *                   requests.
+   * @param handler    the handler that will handle incoming requests on this channel.
+   * @param bufferPool the pool of read buffers, written buffers are released to it as well.
+   * @throws IOException if any I/O error occurs.
+   */
+  public NioServerSocketChannel(int port, ChannelHandler handler, BufferPool bufferPool)
+      throws IOException {
+    this(port, handler, bufferPool, null);
+  }
+
+  /**
+   * Creates a {@link ServerSocketChannel} which reads frames, dispatched as {@link FrameBatch}es.
+   *
+   * @param port       the port on which channel will be bound to accept incoming connection
+   *                   requests.
+   * @param handler    the handler that will handle incoming frames on this channel.
+   * @param bufferPool the pool of read buffers, written buffers are released to it as well.
+   * @param codec      the codec of the frames, or null to read raw {@link ByteBuffer}s.
+   * @throws IOException if any I/O error occurs.
+   */
+  public NioServerSocketChannel(int port, ChannelHandler handler, BufferPool bufferPool,
+                                FrameCodec codec) throws IOException {
     super(handler, ServerSocketChannel.open());
     this.port = port;
+    this.bufferPool = bufferPool;
+    this.codec = codec;
+  }
+
+  /**
+   * Get buffer pool.
+   *
+   * @return the pool of buffers read into, handlers can acquire the buffers they write from it.
+   */
+  public BufferPool getBufferPool() {
+    return bufferPool;
   }
 
 
@@ -77,18 +142,92 @@ public class NioServerSocketChannel extends AbstractNioChannel {
   /**
    * Reads and returns {@link ByteBuffer} from the underlying {@link SocketChannel} represented by
    * the <code>key</code>. Due to the fact that there is a dedicated channel for each client
-   * connection we don't need to store the sender.
+   * connection we don't need to store the sender. The buffer is a pooled direct buffer which is
+   * released after the handler has handled it.
+   *
+   * <p>With a codec the complete frames read are returned as a {@link FrameBatch}, or null if no
+   * frame is complete yet.
    */
   @Override
-  public ByteBuffer read(SelectionKey key) throws IOException {
+  public Object read(SelectionKey key) throws IOException {
     var socketChannel = (SocketChannel) key.channel();
-    var buffer = ByteBuffer.allocate(1024);
-    var read = socketChannel.read(buffer);
+    var partialFrame = codec == null ? null : partialFrames.remove(socketChannel);
+    var buffer = partialFrame == null ? bufferPool.acquire(READ_BUFFER_SIZE)
+        : bufferPool.acquire(Math.max(partialFrame.remaining() + READ_BUFFER_SIZE,
+            2 * partialFrame.remaining()));
+    if (partialFrame != null) {
+      buffer.put(partialFrame);
+      bufferPool.release(partialFrame);
+    }
+    try {
+      if (socketChannel.read(buffer) == -1) {
+        throw new IOException("Socket closed");
+      }
+    } catch (IOException e) {
+      bufferPool.release(buffer);
+      throw e;
+    }
     buffer.flip();
-    if (read == -1) {
-      throw new IOException("Socket closed");
+    if (codec == null) {
+      return buffer;
+    }
+    var frames = new ArrayList<ByteBuffer>();
+    try {
+      codec.decode(buffer, frames);
+    } catch (IOException e) {
+      bufferPool.release(buffer);
+      throw e;
+    }
+    if (buffer.hasRemaining()) {
+      partialFrames.put(socketChannel, bufferPool.acquire(buffer.remaining()).put(buffer).flip());
+    }
+    if (frames.isEmpty()) {
+      bufferPool.release(buffer);
+      return null;
+    }
+    return new FrameBatch(frames, buffer);
+  }
+
+  /**
+   * Queues a frame for writing, encoded by the codec of this channel. A frame acquired from the
+   * buffer pool of this channel is not copied and is released once it is written. Any other frame,
+   * such as a decoded frame, which is a slice of a read buffer released when the handler returns,
+   * is copied into a pooled buffer first.
+   *
+   * @param frame the frame contents.
+   * @param key   the key of the connection.
+   */
+  public void writeFrame(ByteBuffer frame, SelectionKey key) {
+    if (codec == null) {
+      throw new IllegalStateException("Channel has no frame codec");
+    }
+    var contents = frame;
+    if (!bufferPool.isAcquired(frame)) {
+      contents = bufferPool.acquire(frame.remaining()).put(frame).flip();
+    }
+    write(codec.encode(contents, bufferPool), key);
+  }
+
+  @Override
+  protected void release(Object data) {
+    if (data instanceof ByteBuffer) {
+      bufferPool.release((ByteBuffer) data);
+    } else if (data instanceof ByteBuffer[]) {
+      for (var buffer : (ByteBuffer[]) data) {
+        bufferPool.release(buffer);
+      }
+    } else if (data instanceof FrameBatch) {
+      bufferPool.release(((FrameBatch) data).getBuffer());
+    }
+  }
+
+  @Override
+  protected void onClose(SelectionKey key) {
+    super.onClose(key);
+    var partialFrame = partialFrames.remove(key.channel());
+    if (partialFrame != null) {
+      bufferPool.release(partialFrame);
     }
-    return buffer;
   }
 
   /**
@@ -113,4 +252,60 @@ public class NioServerSocketChannel extends AbstractNioChannel {
     var pendingBuffer = (ByteBuffer) pendingWrite;
     ((SocketChannel) key.channel()).write(pendingBuffer);
   }
+
+  /**
+   * Writes the pending {@link ByteBuffer}s with gathering writes of up to 64 buffers. Pending
+   * writes written completely are removed and released; a partially written one stays at the head
+   * of the queue until the channel is writable again.
+   */
+  @Override
+  protected boolean doFlush(Queue<Object> pendingWrites, SelectionKey key) throws IOException {
+    var socketChannel = (SocketChannel) key.channel();
+    var buffers = GATHERED_BUFFERS.get();
+    try {
+      while (true) {
+        var count = 0;
+        for (var pendingWrite : pendingWrites) {
+          var size = bufferCount(pendingWrite);
+          if (count + size > buffers.length) {
+            if (count > 0) {
+              break;
+            }
+            buffers = Arrays.copyOf(buffers, size);
+            GATHERED_BUFFERS.set(buffers);
+          }
+          if (pendingWrite instanceof ByteBuffer[]) {
+            System.arraycopy(pendingWrite, 0, buffers, count, size);
+          } else {
+            buffers[count] = (ByteBuffer) pendingWrite;
+          }
+          count += size;
+        }
+        if (count == 0) {
+          return true;
+        }
+        socketChannel.write(buffers, 0, count);
+        var index = 0;
+        while (index < count) {
+          // only the reactor thread owning the key removes pending writes, so the head is ours
+          var pendingWrite = pendingWrites.peek();
+          var size = bufferCount(pendingWrite);
+          for (var i = index; i < index + size; i++) {
+            if (buffers[i].hasRemaining()) {
+              return false;
+            }
+          }
+          pendingWrites.poll();
+          release(pendingWrite);
+          index += size;
+        }
+      }
+    } finally {
+      Arrays.fill(buffers, null);
+    }
+  }
+
+  private static int bufferCount(Object pendingWrite) {
+    return pendingWrite instanceof ByteBuffer[] ? ((ByteBuffer[]) pendingWrite).length : 1;
+  }
 }
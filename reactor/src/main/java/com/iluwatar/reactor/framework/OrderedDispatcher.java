@@ -0,0 +1,232 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import java.nio.channels.SelectionKey;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An implementation that dispatches the events of every connection in order. The read events of a
+ * {@link SelectionKey} are queued and handled one at a time, oldest first, while the events of
+ * different connections are handled in parallel. A {@link ThreadPoolDispatcher} in contrast may
+ * handle two reads of the same connection at the same time, or the later one first.
+ *
+ * <p>The queues run on an executor which by default starts a thread whenever all its threads are
+ * busy, so a handler that blocks delays only its own connection. Where lightweight threads are
+ * available, an executor starting one per task can be provided instead. A queue exists only while
+ * it has events, so idle connections cost nothing.
+ *
+ * <p>The dispatcher keeps {@link ChannelStats} per {@link AbstractNioChannel}: the number of queued
+ * events and the latency of the handler.
+ */
+@Slf4j
+public class OrderedDispatcher implements Dispatcher {
+
+  private final ExecutorService executorService;
+  private final Map<SelectionKey, SerialQueue> queues = new ConcurrentHashMap<>();
+  private final Map<AbstractNioChannel, ChannelStats> stats = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a dispatcher running the queues on a cached thread pool.
+   */
+  public OrderedDispatcher() {
+    this(Executors.newCachedThreadPool());
+  }
+
+  /**
+   * Creates a dispatcher running the queues on the provided executor, which is shut down when the
+   * dispatcher stops.
+   *
+   * @param executorService the executor running the queues of the connections.
+   */
+  public OrderedDispatcher(ExecutorService executorService) {
+    this.executorService = executorService;
+  }
+
+  /**
+   * Queues the read event behind the earlier events of its connection. <br> Note that this is a
+   * non-blocking call and returns immediately.
+   */
+  @Override
+  public void onChannelReadEvent(AbstractNioChannel channel, Object readObject, SelectionKey key) {
+    var channelStats = getStats(channel);
+    channelStats.queueDepth.incrementAndGet();
+    Runnable task = () -> {
+      channelStats.queueDepth.decrementAndGet();
+      var start = System.nanoTime();
+      try {
+        channel.handleRead(readObject, key);
+      } catch (RuntimeException e) {
+        LOGGER.error("handler failed", e);
+      } finally {
+        channelStats.record(System.nanoTime() - start);
+      }
+    };
+    while (true) {
+      var queue = queues.computeIfAbsent(key, SerialQueue::new);
+      if (queue.add(task)) {
+        return;
+      }
+      // the queue drained and removed itself in the meantime, so start a new one
+    }
+  }
+
+  /**
+   * Get stats.
+   *
+   * @param channel the channel.
+   * @return the live statistics of the events of the channel.
+   */
+  public ChannelStats getStats(AbstractNioChannel channel) {
+    return stats.computeIfAbsent(channel, c -> new ChannelStats());
+  }
+
+  /**
+   * Stops the executor, waiting for the queued events to be handled.
+   *
+   * @throws InterruptedException if interrupted while stopping the executor.
+   */
+  @Override
+  public void stop() throws InterruptedException {
+    executorService.shutdown();
+    executorService.awaitTermination(4, TimeUnit.SECONDS);
+  }
+
+  /**
+   * The events of one connection, handled one at a time by at most one executor task.
+   */
+  private final class SerialQueue implements Runnable {
+
+    private final SelectionKey key;
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private boolean running;
+    private boolean removed;
+
+    private SerialQueue(SelectionKey key) {
+      this.key = key;
+    }
+
+    /*
+     * Returns false if the queue was removed and must not take new events.
+     */
+    private boolean add(Runnable task) {
+      synchronized (this) {
+        if (removed) {
+          return false;
+        }
+        tasks.add(task);
+        if (running) {
+          return true;
+        }
+        running = true;
+      }
+      executorService.execute(this);
+      return true;
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        Runnable task;
+        synchronized (this) {
+          task = tasks.poll();
+          if (task == null) {
+            running = false;
+            removed = true;
+            queues.remove(key, this);
+            return;
+          }
+        }
+        task.run();
+      }
+    }
+  }
+
+  /**
+   * The statistics of the events of a channel.
+   */
+  public static final class ChannelStats {
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAdder handled = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    private ChannelStats() {
+    }
+
+    private void record(long latencyNanos) {
+      handled.increment();
+      totalLatencyNanos.add(latencyNanos);
+      maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    /**
+     * Get queue depth.
+     *
+     * @return the number of events waiting to be handled.
+     */
+    public int getQueueDepth() {
+      return queueDepth.get();
+    }
+
+    /**
+     * Get handled count.
+     *
+     * @return the number of events handled.
+     */
+    public long getHandledCount() {
+      return handled.sum();
+    }
+
+    /**
+     * Get mean latency.
+     *
+     * @return the mean time the handler took for an event, in nanoseconds.
+     */
+    public long getMeanLatencyNanos() {
+      var count = handled.sum();
+      return count == 0 ? 0 : totalLatencyNanos.sum() / count;
+    }
+
+    /**
+     * Get max latency.
+     *
+     * @return the longest time the handler took for an event, in nanoseconds.
+     */
+    public long getMaxLatencyNanos() {
+      return maxLatencyNanos.get();
+    }
+  }
+}
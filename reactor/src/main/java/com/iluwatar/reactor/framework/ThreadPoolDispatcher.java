@@ -53,7 +53,7 @@ public class ThreadPoolDispatcher implements Dispatcher {
    */
   @Override
   public void onChannelReadEvent(AbstractNioChannel channel, Object readObject, SelectionKey key) {
-    executorService.execute(() -> channel.getHandler().handleChannelRead(channel, readObject, key));
+    executorService.execute(() -> channel.handleRead(readObject, key));
   }
 
   /**
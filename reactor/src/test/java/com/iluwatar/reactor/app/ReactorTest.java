@@ -25,6 +25,7 @@ package com.iluwatar.reactor.app;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import com.iluwatar.reactor.framework.OrderedDispatcher;
 import com.iluwatar.reactor.framework.SameThreadDispatcher;
 import com.iluwatar.reactor.framework.ThreadPoolDispatcher;
 import java.io.IOException;
@@ -101,4 +102,36 @@ class ReactorTest {
     app.stop();
     LOGGER.info("testAppUsingSameThreadDispatcher stop");
   }
+
+  /**
+   * Test the application using ordered dispatcher.
+   *
+   * @throws IOException          if any I/O error occurs.
+   * @throws InterruptedException if interrupted while stopping the application.
+   */
+  @Test
+  void testAppUsingOrderedDispatcher() throws IOException, InterruptedException {
+    LOGGER.info("testAppUsingOrderedDispatcher start");
+    var app = new App(new OrderedDispatcher());
+    app.start();
+
+    assertNotNull(app);
+
+    var client = new AppClient();
+    client.start();
+
+    assertNotNull(client);
+
+    // allow clients to send requests. Artificial delay.
+    try {
+      Thread.sleep(2000);
+    } catch (InterruptedException e) {
+      LOGGER.error("sleep interrupted", e);
+    }
+
+    client.stop();
+
+    app.stop();
+    LOGGER.info("testAppUsingOrderedDispatcher stop");
+  }
 }
@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Allocation profile of the reactor under echo load: the bytes allocated on the server threads and
+ * the buffers the {@link BufferPool} allocated per echoed message, with pooling enabled and with a
+ * pool that keeps no free buffers. Client threads are excluded from the measurement. Run the main
+ * method with the module's test classpath on a HotSpot JVM.
+ */
+public final class BufferPoolBenchmark {
+
+  private static final int CLIENTS = 8;
+
+  private static final int MESSAGE_SIZE = 256;
+
+  private static final long DURATION_MILLIS = 3_000;
+
+  private BufferPoolBenchmark() {
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args unused
+   * @throws Exception if the benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    System.out.printf("%10s %12s %16s %16s%n", "pool", "echo/s", "bytes/echo", "buffers/echo");
+    run("pooled", new BufferPool());
+    run("unpooled", new BufferPool(BufferPool.DEFAULT_MAX_BUFFER_SIZE, 0));
+    run("pooled", new BufferPool());
+  }
+
+  private static void run(String name, BufferPool pool) throws Exception {
+    var dispatcher = new SameThreadDispatcher();
+    var reactor = new NioReactor(dispatcher, 2, NioReactor.Balancing.ROUND_ROBIN);
+    var channel = new NioServerSocketChannel(0, BufferPoolBenchmark::echoBack, pool);
+    channel.bind();
+    reactor.registerChannel(channel);
+    reactor.start();
+    var address = new InetSocketAddress(InetAddress.getLocalHost(),
+        channel.getJavaChannel().socket().getLocalPort());
+
+    var clients = new ArrayList<Client>();
+    var clientThreads = new HashSet<Long>();
+    for (var i = 0; i < CLIENTS; i++) {
+      var client = new Client(address);
+      clients.add(client);
+      clientThreads.add(client.getId());
+    }
+    clientThreads.add(Thread.currentThread().getId());
+    clients.forEach(Thread::start);
+    // warm up, then measure the steady state
+    Thread.sleep(DURATION_MILLIS / 3);
+    var allocatedBefore = allocatedBytes(clientThreads);
+    var buffersBefore = pool.getAllocationCount();
+    var echoesBefore = echoes(clients);
+    Thread.sleep(DURATION_MILLIS);
+    var allocated = sum(allocatedBytes(clientThreads)) - sum(allocatedBefore);
+    var buffers = pool.getAllocationCount() - buffersBefore;
+    var echoes = echoes(clients) - echoesBefore;
+
+    for (var client : clients) {
+      client.interrupt();
+      client.join();
+    }
+    reactor.stop();
+    channel.getJavaChannel().close();
+    dispatcher.stop();
+    System.out.printf("%10s %12.0f %16.1f %16.4f%n", name, echoes * 1000.0 / DURATION_MILLIS,
+        (double) allocated / echoes, (double) buffers / echoes);
+  }
+
+  private static void echoBack(AbstractNioChannel channel, Object readObject, SelectionKey key) {
+    var data = (ByteBuffer) readObject;
+    var reply = ((NioServerSocketChannel) channel).getBufferPool().acquire(data.remaining());
+    channel.write(reply.put(data).flip(), key);
+  }
+
+  /*
+   * Bytes allocated so far by every live thread other than the excluded ones.
+   */
+  private static Map<Long, Long> allocatedBytes(Set<Long> excluded) {
+    var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    var allocated = new HashMap<Long, Long>();
+    for (var id : threads.getAllThreadIds()) {
+      if (!excluded.contains(id)) {
+        allocated.put(id, threads.getThreadAllocatedBytes(id));
+      }
+    }
+    return allocated;
+  }
+
+  private static long sum(Map<Long, Long> allocated) {
+    return allocated.values().stream().mapToLong(bytes -> Math.max(0, bytes)).sum();
+  }
+
+  private static long echoes(Iterable<Client> clients) {
+    var echoes = 0L;
+    for (var client : clients) {
+      echoes += client.echoes;
+    }
+    return echoes;
+  }
+
+  private static final class Client extends Thread {
+
+    private final InetSocketAddress address;
+    private volatile long echoes;
+
+    private Client(InetSocketAddress address) {
+      this.address = address;
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      var request = ByteBuffer.allocateDirect(MESSAGE_SIZE);
+      var response = ByteBuffer.allocateDirect(MESSAGE_SIZE);
+      try (var socket = SocketChannel.open(address)) {
+        socket.socket().setTcpNoDelay(true);
+        while (!isInterrupted()) {
+          request.clear();
+          response.clear();
+          while (request.hasRemaining()) {
+            socket.write(request);
+          }
+          while (response.hasRemaining()) {
+            if (socket.read(response) < 0) {
+              return;
+            }
+          }
+          echoes++;
+        }
+      } catch (IOException e) {
+        // interrupted while blocked in the socket, which closes it
+      }
+    }
+  }
+}
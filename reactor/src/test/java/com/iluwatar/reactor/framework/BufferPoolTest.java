@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for BufferPool.
+ */
+class BufferPoolTest {
+
+  @Test
+  void testSizeClasses() {
+    var pool = new BufferPool();
+    assertEquals(512, pool.acquire(1).capacity());
+    assertEquals(512, pool.acquire(512).capacity());
+    assertEquals(1024, pool.acquire(513).capacity());
+    assertEquals(64 * 1024, pool.acquire(40_000).capacity());
+    assertEquals(100_000, pool.acquire(100_000).capacity());
+    assertTrue(pool.acquire(1).isDirect());
+  }
+
+  @Test
+  void testReleasedBufferIsReused() {
+    var pool = new BufferPool();
+    var buffer = pool.acquire(1000);
+    buffer.putInt(42).flip();
+    pool.release(buffer);
+
+    var reused = pool.acquire(600);
+    assertSame(buffer, reused);
+    assertEquals(0, reused.position());
+    assertEquals(reused.capacity(), reused.limit());
+    assertEquals(1, pool.getAllocationCount());
+  }
+
+  @Test
+  void testForeignBuffersAreIgnored() {
+    var pool = new BufferPool();
+    pool.release(ByteBuffer.allocate(1024));
+    pool.release(ByteBuffer.allocateDirect(1000));
+    pool.release(ByteBuffer.allocateDirect(128 * 1024));
+
+    pool.acquire(1024);
+    pool.acquire(1000);
+    assertEquals(2, pool.getAllocationCount());
+  }
+
+  @Test
+  void testForeignPowerOfTwoBuffersAreIgnored() {
+    var pool = new BufferPool();
+    var pooled = pool.acquire(2048);
+    var slice = pooled.position(1024).slice();
+    pool.release(slice);
+    pool.release(ByteBuffer.allocateDirect(512));
+
+    assertFalse(pool.isAcquired(slice));
+    assertNotSame(slice, pool.acquire(1024));
+    assertEquals(2, pool.getAllocationCount());
+  }
+
+  @Test
+  void testDoubleReleaseIsIgnored() {
+    var pool = new BufferPool();
+    var buffer = pool.acquire(512);
+    assertTrue(pool.isAcquired(buffer));
+    pool.release(buffer);
+    pool.release(buffer);
+    assertFalse(pool.isAcquired(buffer));
+
+    var first = pool.acquire(512);
+    var second = pool.acquire(512);
+    assertSame(buffer, first);
+    assertNotSame(first, second);
+    assertEquals(2, pool.getAllocationCount());
+  }
+
+  @Test
+  void testFreeBuffersAreBounded() {
+    var pool = new BufferPool(4096, 1);
+    var first = pool.acquire(512);
+    var second = pool.acquire(512);
+    pool.release(first);
+    pool.release(second);
+
+    assertSame(first, pool.acquire(512));
+    assertNotSame(second, pool.acquire(512));
+    assertEquals(3, pool.getAllocationCount());
+  }
+
+  @Test
+  void testInvalidSettings() {
+    assertThrows(IllegalArgumentException.class, () -> new BufferPool(0, 1));
+    assertThrows(IllegalArgumentException.class, () -> new BufferPool(1024, -1));
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for LengthFieldFrameCodec and DelimiterFrameCodec.
+ */
+class FrameCodecTest {
+
+  @Test
+  void testLengthFieldDecodesPackedFrames() throws IOException {
+    var codec = new LengthFieldFrameCodec(2, 1024);
+    var in = ByteBuffer.allocate(64);
+    in.putShort((short) 5).put(bytes("hello")).putShort((short) 0).putShort((short) 5)
+        .put(bytes("world")).putShort((short) 3).put(bytes("in")).flip();
+
+    var frames = new ArrayList<ByteBuffer>();
+    codec.decode(in, frames);
+
+    assertEquals(List.of("hello", "", "world"), strings(frames));
+    // the incomplete frame stays in the buffer
+    assertEquals(4, in.remaining());
+    assertEquals(3, in.getShort(in.position()));
+  }
+
+  @Test
+  void testLengthFieldFramesAreSlices() throws IOException {
+    var codec = new LengthFieldFrameCodec(4, 1024);
+    var in = ByteBuffer.allocate(16);
+    in.putInt(3).put(bytes("abc")).flip();
+
+    var frames = new ArrayList<ByteBuffer>();
+    codec.decode(in, frames);
+    in.put(4, (byte) 'x');
+
+    assertEquals(List.of("xbc"), strings(frames));
+  }
+
+  @Test
+  void testLengthFieldRejectsLongFrame() {
+    var codec = new LengthFieldFrameCodec(4, 16);
+    var in = ByteBuffer.allocate(8).putInt(17).flip();
+    assertThrows(IOException.class, () -> codec.decode(in, new ArrayList<>()));
+    assertThrows(IllegalArgumentException.class, () -> new LengthFieldFrameCodec(3, 16));
+    assertThrows(IllegalArgumentException.class, () -> new LengthFieldFrameCodec(1, 256));
+  }
+
+  @Test
+  void testLengthFieldEncode() {
+    var codec = new LengthFieldFrameCodec(1, 255);
+    var frame = ByteBuffer.wrap(bytes("abc"));
+
+    var buffers = codec.encode(frame, new BufferPool());
+
+    assertEquals(2, buffers.length);
+    assertEquals(1, buffers[0].remaining());
+    assertEquals(3, buffers[0].get(0));
+    assertEquals(frame, buffers[1]);
+  }
+
+  @Test
+  void testDelimiterDecodesLines() throws IOException {
+    var codec = new DelimiterFrameCodec(bytes("\r\n"), 64);
+    var in = ByteBuffer.wrap(bytes("first\r\n\r\nsecond\r\nthi"));
+
+    var frames = new ArrayList<ByteBuffer>();
+    codec.decode(in, frames);
+
+    assertEquals(List.of("first", "", "second"), strings(frames));
+    assertEquals("thi", StandardCharsets.UTF_8.decode(in).toString());
+  }
+
+  @Test
+  void testDelimiterSplitAcrossReads() throws IOException {
+    var codec = new DelimiterFrameCodec(bytes("\r\n"), 64);
+    var in = ByteBuffer.wrap(bytes("line\r"));
+
+    var frames = new ArrayList<ByteBuffer>();
+    codec.decode(in, frames);
+
+    assertEquals(List.of(), frames);
+    assertEquals(0, in.position());
+  }
+
+  @Test
+  void testDelimiterRejectsLongFrame() {
+    var codec = new DelimiterFrameCodec(bytes("\n"), 4);
+    assertThrows(IOException.class,
+        () -> codec.decode(ByteBuffer.wrap(bytes("toolong\n")), new ArrayList<>()));
+    assertThrows(IOException.class,
+        () -> codec.decode(ByteBuffer.wrap(bytes("toolong")), new ArrayList<>()));
+  }
+
+  @Test
+  void testDelimiterEncode() {
+    var codec = new DelimiterFrameCodec(bytes("\n"), 64);
+    var buffers = codec.encode(ByteBuffer.wrap(bytes("line")), new BufferPool());
+    assertEquals("line\n", String.join("", strings(List.of(buffers))));
+  }
+
+  private static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static List<String> strings(List<ByteBuffer> frames) {
+    return frames.stream()
+        .map(frame -> StandardCharsets.UTF_8.decode(frame.duplicate()).toString())
+        .collect(Collectors.toList());
+  }
+}
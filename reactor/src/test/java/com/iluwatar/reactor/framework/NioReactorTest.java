@@ -0,0 +1,367 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the multi-reactor mode, buffer pooling and partial writes of NioReactor.
+ */
+class NioReactorTest {
+
+  private NioReactor reactor;
+  private NioServerSocketChannel channel;
+  private final List<SocketChannel> clients = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() throws IOException, InterruptedException {
+    for (var client : clients) {
+      client.close();
+    }
+    if (reactor != null) {
+      reactor.stop();
+      channel.getJavaChannel().close();
+    }
+  }
+
+  @Test
+  void testRoundRobinSpreadsConnectionsOverWorkers() throws IOException {
+    start(3, NioReactor.Balancing.ROUND_ROBIN);
+    for (var i = 0; i < 6; i++) {
+      assertEquals("message " + i, echo(connect(), "message " + i));
+    }
+
+    assertEquals(List.of(2, 2, 2), connectionCounts());
+    assertEquals(0, reactor.getConnectionCount());
+  }
+
+  @Test
+  void testLeastLoadedPrefersIdleWorker() throws IOException {
+    start(2, NioReactor.Balancing.LEAST_LOADED);
+    var first = connect();
+    echo(first, "first");
+    var second = connect();
+    echo(second, "second");
+    assertEquals(List.of(1, 1), connectionCounts());
+
+    first.close();
+    waitFor(() -> connectionCounts().equals(List.of(0, 1)));
+    echo(connect(), "third");
+
+    assertEquals(List.of(1, 1), connectionCounts());
+  }
+
+  @Test
+  void testEchoOnManyConnectionsConcurrently() throws Exception {
+    start(2, NioReactor.Balancing.ROUND_ROBIN);
+    var sockets = new ArrayList<SocketChannel>();
+    for (var i = 0; i < 8; i++) {
+      sockets.add(connect());
+    }
+    var threads = new ArrayList<Thread>();
+    var failures = new ArrayList<Throwable>();
+    for (var i = 0; i < sockets.size(); i++) {
+      var socket = sockets.get(i);
+      var message = "client " + i;
+      var thread = new Thread(() -> {
+        try {
+          for (var j = 0; j < 50; j++) {
+            assertEquals(message, echo(socket, message));
+          }
+        } catch (Throwable e) {
+          synchronized (failures) {
+            failures.add(e);
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (var thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(List.of(), failures);
+    assertEquals(List.of(4, 4), connectionCounts());
+  }
+
+  @Test
+  void testSlowPeerReceivesEverything() throws Exception {
+    start(1, NioReactor.Balancing.ROUND_ROBIN);
+    var client = connect();
+    var sent = new byte[8 * 1024 * 1024];
+    for (var i = 0; i < sent.length; i++) {
+      sent[i] = (byte) (i * 31 + i / 1024);
+    }
+    // the client writes everything before reading, so the server's writes back are partial
+    var writer = new Thread(() -> {
+      try {
+        var request = ByteBuffer.wrap(sent);
+        while (request.hasRemaining()) {
+          client.write(request);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    writer.start();
+    Thread.sleep(200);
+    var received = ByteBuffer.allocate(sent.length);
+    while (received.hasRemaining()) {
+      if (client.read(received) < 0) {
+        throw new IOException("Connection closed by server");
+      }
+    }
+    writer.join();
+
+    assertArrayEquals(sent, received.array());
+    assertTrue(channel.getBufferPool().getAllocationCount() < 1000);
+  }
+
+  @Test
+  void testLengthFieldFramesSplitAndPackedAcrossReads() throws Exception {
+    startFramed(new SameThreadDispatcher(), new LengthFieldFrameCodec(4, 1 << 20));
+    var client = connect();
+    var stream = ByteBuffer.allocate(4 * 1024 * 1024);
+    var expected = new ArrayList<String>();
+    for (var i = 0; i < 300; i++) {
+      var payload = ("frame " + i + " ").repeat(i * 7 % 400);
+      var bytes = payload.getBytes(StandardCharsets.UTF_8);
+      stream.putInt(bytes.length).put(bytes);
+      expected.add(payload);
+    }
+    stream.flip();
+    // write in odd sized chunks, so frames are split and packed in every possible way
+    var writer = new Thread(() -> {
+      try {
+        var chunk = stream.duplicate();
+        while (chunk.hasRemaining()) {
+          chunk.limit(Math.min(stream.limit(), chunk.position() + 997));
+          while (chunk.hasRemaining()) {
+            client.write(chunk);
+          }
+          chunk.limit(stream.limit());
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    writer.start();
+
+    var received = ByteBuffer.allocate(stream.limit());
+    while (received.hasRemaining()) {
+      if (client.read(received) < 0) {
+        throw new IOException("Connection closed by server");
+      }
+    }
+    writer.join();
+    received.flip();
+    var actual = new ArrayList<String>();
+    while (received.hasRemaining()) {
+      var bytes = new byte[received.getInt()];
+      received.get(bytes);
+      actual.add(new String(bytes, StandardCharsets.UTF_8));
+    }
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void testDecodedFramesEchoedWithoutCopy() throws Exception {
+    reactor = new NioReactor(new SameThreadDispatcher(), 1, NioReactor.Balancing.ROUND_ROBIN);
+    channel = new NioServerSocketChannel(0, (channel, readObject, key) -> {
+      for (var frame : ((FrameBatch) readObject).getFrames()) {
+        ((NioServerSocketChannel) channel).writeFrame(frame, key);
+      }
+    }, new BufferPool(), new LengthFieldFrameCodec(4, 1 << 20));
+    startChannel();
+    // two connections share the pool, so the read buffer one of them released is soon reused
+    var clients = List.of(connect(), connect());
+    var echoes = new ArrayList<Thread>();
+    var failures = new ConcurrentLinkedQueue<Throwable>();
+    for (var c = 0; c < clients.size(); c++) {
+      var client = clients.get(c);
+      var stream = ByteBuffer.allocate(4 << 20);
+      for (var i = 0; stream.remaining() > 1 << 10; i++) {
+        var payload = ("client " + c + " echo " + i + " ").repeat(i % 50 + 1)
+            .getBytes(StandardCharsets.UTF_8);
+        stream.putInt(payload.length).put(payload);
+      }
+      stream.flip();
+      var echo = new Thread(() -> {
+        try {
+          assertEquals(stream, echo(client, stream));
+        } catch (Throwable e) {
+          failures.add(e);
+        }
+      });
+      echo.start();
+      echoes.add(echo);
+    }
+    for (var echo : echoes) {
+      echo.join();
+    }
+    assertTrue(failures.isEmpty(), () -> failures.toString());
+  }
+
+  private static ByteBuffer echo(SocketChannel client, ByteBuffer stream) throws Exception {
+    var writer = new Thread(() -> {
+      try {
+        var request = stream.duplicate();
+        while (request.hasRemaining()) {
+          client.write(request);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    writer.start();
+    var received = ByteBuffer.allocate(stream.limit());
+    while (received.hasRemaining()) {
+      if (client.read(received) < 0) {
+        throw new IOException("Connection closed by server");
+      }
+    }
+    writer.join();
+    return received.flip();
+  }
+
+  @Test
+  void testDelimiterFramesWithThreadPoolDispatcher() throws Exception {
+    var dispatcher = new ThreadPoolDispatcher(1);
+    startFramed(dispatcher, new DelimiterFrameCodec(new byte[] {'\n'}, 1024));
+    var client = connect();
+
+    assertEquals("a\nbc\n", send(client, "a\nbc\nd", 5));
+    assertEquals("de\n", send(client, "e\n", 3));
+    dispatcher.stop();
+  }
+
+  @Test
+  void testOversizedFrameClosesConnection() throws IOException {
+    startFramed(new SameThreadDispatcher(), new LengthFieldFrameCodec(4, 16));
+    var client = connect();
+    client.write(ByteBuffer.allocate(8).putInt(17).flip());
+
+    assertEquals(-1, client.read(ByteBuffer.allocate(1)));
+  }
+
+  @Test
+  void testNegativeWorkerCount() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new NioReactor(new SameThreadDispatcher(), -1, NioReactor.Balancing.ROUND_ROBIN));
+  }
+
+  private void start(int workers, NioReactor.Balancing balancing) throws IOException {
+    reactor = new NioReactor(new SameThreadDispatcher(), workers, balancing);
+    channel = new NioServerSocketChannel(0, NioReactorTest::echoBack);
+    startChannel();
+  }
+
+  private void startFramed(Dispatcher dispatcher, FrameCodec codec) throws IOException {
+    reactor = new NioReactor(dispatcher, 1, NioReactor.Balancing.ROUND_ROBIN);
+    channel = new NioServerSocketChannel(0, NioReactorTest::echoFrames, new BufferPool(), codec);
+    startChannel();
+  }
+
+  private void startChannel() throws IOException {
+    channel.bind();
+    reactor.registerChannel(channel);
+    reactor.start();
+  }
+
+  private static void echoBack(AbstractNioChannel channel, Object readObject, SelectionKey key) {
+    var data = (ByteBuffer) readObject;
+    var reply = ((NioServerSocketChannel) channel).getBufferPool().acquire(data.remaining());
+    channel.write(reply.put(data).flip(), key);
+  }
+
+  private static void echoFrames(AbstractNioChannel channel, Object readObject, SelectionKey key) {
+    var socketChannel = (NioServerSocketChannel) channel;
+    for (var frame : ((FrameBatch) readObject).getFrames()) {
+      var reply = socketChannel.getBufferPool().acquire(frame.remaining());
+      socketChannel.writeFrame(reply.put(frame).flip(), key);
+    }
+  }
+
+  private SocketChannel connect() throws IOException {
+    var client = SocketChannel.open(new InetSocketAddress(InetAddress.getLocalHost(),
+        channel.getJavaChannel().socket().getLocalPort()));
+    clients.add(client);
+    return client;
+  }
+
+  private static String echo(SocketChannel client, String message) throws IOException {
+    return send(client, message, message.length());
+  }
+
+  private static String send(SocketChannel client, String message, int responseLength)
+      throws IOException {
+    var request = ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8));
+    while (request.hasRemaining()) {
+      client.write(request);
+    }
+    var response = ByteBuffer.allocate(responseLength);
+    while (response.hasRemaining()) {
+      if (client.read(response) < 0) {
+        throw new IOException("Connection closed by server");
+      }
+    }
+    return new String(response.array(), StandardCharsets.UTF_8);
+  }
+
+  private List<Integer> connectionCounts() {
+    return reactor.getWorkers().stream()
+        .map(NioReactor::getConnectionCount)
+        .collect(Collectors.toList());
+  }
+
+  private static void waitFor(BooleanSupplier condition) {
+    var deadline = System.currentTimeMillis() + 5_000;
+    while (!condition.getAsBoolean()) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new AssertionError("Condition not met in time");
+      }
+      Thread.onSpinWait();
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for OrderedDispatcher.
+ */
+class OrderedDispatcherTest {
+
+  private static final int CONNECTIONS = 8;
+
+  private Selector selector;
+  private final List<Pipe> pipes = new ArrayList<>();
+  private final List<SelectionKey> keys = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws IOException {
+    selector = Selector.open();
+    for (var i = 0; i < CONNECTIONS; i++) {
+      var pipe = Pipe.open();
+      pipe.source().configureBlocking(false);
+      keys.add(pipe.source().register(selector, SelectionKey.OP_READ));
+      pipes.add(pipe);
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    for (var pipe : pipes) {
+      pipe.source().close();
+      pipe.sink().close();
+    }
+    selector.close();
+  }
+
+  @Test
+  void testEventsOfConnectionAreHandledInOrder() throws Exception {
+    var handled = new ConcurrentHashMap<SelectionKey, List<Integer>>();
+    var concurrent = new ConcurrentHashMap<SelectionKey, Boolean>();
+    var violations = new CopyOnWriteArrayList<SelectionKey>();
+    var channel = new NioServerSocketChannel(0, (ch, readObject, key) -> {
+      if (concurrent.put(key, Boolean.TRUE) != null) {
+        violations.add(key);
+      }
+      if ((Integer) readObject % 97 == 0) {
+        Thread.yield();
+      }
+      handled.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add((Integer) readObject);
+      concurrent.remove(key);
+    });
+    var dispatcher = new OrderedDispatcher();
+    for (var i = 0; i < 2000; i++) {
+      for (var key : keys) {
+        dispatcher.onChannelReadEvent(channel, i, key);
+      }
+    }
+    dispatcher.stop();
+    channel.getJavaChannel().close();
+
+    assertEquals(List.of(), violations);
+    for (var key : keys) {
+      var events = handled.get(key);
+      assertEquals(2000, events.size());
+      for (var i = 0; i < events.size(); i++) {
+        assertEquals(i, (int) events.get(i));
+      }
+    }
+    var stats = dispatcher.getStats(channel);
+    assertEquals(2000L * CONNECTIONS, stats.getHandledCount());
+    assertEquals(0, stats.getQueueDepth());
+    assertTrue(stats.getMaxLatencyNanos() >= stats.getMeanLatencyNanos());
+  }
+
+  @Test
+  void testBlockingHandlerDelaysOnlyItsConnection() throws Exception {
+    var release = new CountDownLatch(1);
+    var others = new CountDownLatch(CONNECTIONS - 1);
+    var blocked = keys.get(0);
+    var channel = new NioServerSocketChannel(0, (ch, readObject, key) -> {
+      if (key == blocked) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      } else {
+        others.countDown();
+      }
+    });
+    var dispatcher = new OrderedDispatcher();
+    dispatcher.onChannelReadEvent(channel, 0, blocked);
+    dispatcher.onChannelReadEvent(channel, 1, blocked);
+    for (var key : keys.subList(1, CONNECTIONS)) {
+      dispatcher.onChannelReadEvent(channel, 0, key);
+    }
+
+    assertTrue(others.await(5, TimeUnit.SECONDS));
+    var stats = dispatcher.getStats(channel);
+    assertEquals(1, stats.getQueueDepth());
+    assertEquals(CONNECTIONS - 1, stats.getHandledCount());
+
+    release.countDown();
+    dispatcher.stop();
+    channel.getJavaChannel().close();
+    assertEquals(CONNECTIONS + 1, stats.getHandledCount());
+  }
+
+  @Test
+  void testFailingHandlerDoesNotStopQueue() throws Exception {
+    var handled = new CopyOnWriteArrayList<Integer>();
+    var channel = new NioServerSocketChannel(0, (ch, readObject, key) -> {
+      if ((Integer) readObject == 1) {
+        throw new IllegalStateException("handler failure");
+      }
+      handled.add((Integer) readObject);
+    });
+    var dispatcher = new OrderedDispatcher();
+    for (var i = 0; i < 3; i++) {
+      dispatcher.onChannelReadEvent(channel, i, keys.get(0));
+    }
+    dispatcher.stop();
+    channel.getJavaChannel().close();
+
+    assertEquals(List.of(0, 2), handled);
+    assertEquals(3, dispatcher.getStats(channel).getHandledCount());
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.reactor.framework;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load generator for {@link NioReactor}: client threads repeatedly connect to an echo server, send
+ * a few messages and disconnect. Reports the connections per second and the median and 99th
+ * percentile echo latency for a single reactor and for an acceptor with 1 to N worker reactors.
+ * Run the main method with the module's test classpath; the optional argument is N, by default
+ * the number of processors.
+ */
+public final class ReactorBenchmark {
+
+  private static final int CLIENTS = 32;
+
+  private static final int ECHOES_PER_CONNECTION = 10;
+
+  private static final int MESSAGE_SIZE = 64;
+
+  private static final long DURATION_MILLIS = 3_000;
+
+  private ReactorBenchmark() {
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args the maximum number of worker reactors, optional
+   * @throws Exception if the benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    var maxWorkers = args.length > 0
+        ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+    System.out.printf("%10s %12s %12s %12s%n", "selectors", "conn/s", "p50 us", "p99 us");
+    for (var workers = 0; workers <= maxWorkers; workers = workers == 0 ? 1 : workers * 2) {
+      run(workers);
+    }
+  }
+
+  private static void run(int workers) throws Exception {
+    var dispatcher = new SameThreadDispatcher();
+    var reactor = new NioReactor(dispatcher, workers, NioReactor.Balancing.LEAST_LOADED);
+    var channel = new NioServerSocketChannel(0, ReactorBenchmark::echoBack);
+    channel.bind();
+    reactor.registerChannel(channel);
+    reactor.start();
+    var address = new InetSocketAddress(InetAddress.getLocalHost(),
+        channel.getJavaChannel().socket().getLocalPort());
+
+    var clients = Executors.newFixedThreadPool(CLIENTS);
+    var deadline = System.currentTimeMillis() + DURATION_MILLIS;
+    var results = new ArrayList<Future<Client>>();
+    for (var i = 0; i < CLIENTS; i++) {
+      results.add(clients.submit(new Client(address, deadline)));
+    }
+    var connections = 0L;
+    var latencies = new ArrayList<long[]>();
+    for (var result : results) {
+      var client = result.get();
+      connections += client.connections;
+      latencies.add(Arrays.copyOf(client.latencies, client.count));
+    }
+    clients.shutdown();
+    clients.awaitTermination(1, TimeUnit.SECONDS);
+    reactor.stop();
+    channel.getJavaChannel().close();
+    dispatcher.stop();
+
+    var sorted = merge(latencies);
+    System.out.printf("%10s %12.0f %12.1f %12.1f%n",
+        workers == 0 ? "1" : "1+" + workers, connections * 1000.0 / DURATION_MILLIS,
+        percentile(sorted, 0.50) / 1000.0, percentile(sorted, 0.99) / 1000.0);
+  }
+
+  /**
+   * Echo handler: copies the data read into a pooled buffer, which the channel releases once it is
+   * written, since the read buffer is reused after the handler returns.
+   */
+  private static void echoBack(AbstractNioChannel channel, Object readObject, SelectionKey key) {
+    var data = (ByteBuffer) readObject;
+    var reply = ((NioServerSocketChannel) channel).getBufferPool().acquire(data.remaining());
+    channel.write(reply.put(data).flip(), key);
+  }
+
+  private static long[] merge(List<long[]> latencies) {
+    var sorted = latencies.stream().flatMapToLong(Arrays::stream).toArray();
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    return sorted.length == 0 ? 0 : sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+  }
+
+  private static final class Client implements Callable<Client> {
+
+    private final InetSocketAddress address;
+    private final long deadline;
+    private long connections;
+    private long[] latencies = new long[1024];
+    private int count;
+
+    private Client(InetSocketAddress address, long deadline) {
+      this.address = address;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public Client call() throws IOException {
+      var request = ByteBuffer.allocate(MESSAGE_SIZE);
+      var response = ByteBuffer.allocate(MESSAGE_SIZE);
+      while (System.currentTimeMillis() < deadline) {
+        try (var socket = SocketChannel.open(address)) {
+          socket.socket().setTcpNoDelay(true);
+          for (var i = 0; i < ECHOES_PER_CONNECTION; i++) {
+            request.clear();
+            response.clear();
+            var start = System.nanoTime();
+            while (request.hasRemaining()) {
+              socket.write(request);
+            }
+            while (response.hasRemaining()) {
+              if (socket.read(response) < 0) {
+                throw new IOException("Connection closed by server");
+              }
+            }
+            record(System.nanoTime() - start);
+          }
+        }
+        connections++;
+      }
+      return this;
+    }
+
+    private void record(long latency) {
+      if (count == latencies.length) {
+        latencies = Arrays.copyOf(latencies, count * 2);
+      }
+      latencies[count++] = latency;
+    }
+  }
+}
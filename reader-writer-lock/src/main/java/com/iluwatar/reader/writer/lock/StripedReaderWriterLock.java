@@ -0,0 +1,341 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.reader.writer.lock;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Reader writer lock for read mostly data.
+ *
+ * <p>Readers do not share a counter: every thread counts itself in one of several stripes, each on
+ * its own cache line, so readers on different cores do not invalidate each other's caches. A
+ * writer first sets the write bit of a version number, which keeps new readers out, and then waits
+ * until the stripes add up to zero. Readers that find the write bit set, or writers waiting for it,
+ * step back, so writers are preferred and are not starved by a steady stream of readers.
+ *
+ * <p>Like {@link java.util.concurrent.locks.StampedLock} the lock also supports optimistic reads,
+ * which write nothing to shared memory at all:
+ *
+ * <pre>{@code
+ *   var stamp = lock.tryOptimisticRead();
+ *   var copy = data;
+ *   if (!lock.validate(stamp)) {
+ *     lock.readLock().lock();
+ *     try {
+ *       copy = data;
+ *     } finally {
+ *       lock.readLock().unlock();
+ *     }
+ *   }
+ * }</pre>
+ *
+ * <p>The lock is not reentrant. A thread that holds the read lock and asks for it again while a
+ * writer waits deadlocks with that writer.
+ */
+public class StripedReaderWriterLock implements ReadWriteLock {
+
+  /**
+   * Longs between two stripes, so that every stripe is on its own pair of cache lines.
+   */
+  private static final int PADDING = 16;
+
+  private static final int SPINS = 64;
+
+  /**
+   * The first version. Even versions mean no writer, and 0 is never a valid stamp.
+   */
+  private static final long INITIAL_VERSION = 2;
+
+  private final AtomicLongArray readers;
+
+  private final int mask;
+
+  private final AtomicLong version = new AtomicLong(INITIAL_VERSION);
+
+  private final AtomicInteger waitingWriters = new AtomicInteger();
+
+  private final AtomicInteger waiters = new AtomicInteger();
+
+  private final Object monitor = new Object();
+
+  private final ReadLock readerLock = new ReadLock();
+
+  private final WriteLock writerLock = new WriteLock();
+
+  /**
+   * Creates a lock with one reader stripe per available processor.
+   */
+  public StripedReaderWriterLock() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a lock.
+   *
+   * @param stripes minimum number of reader stripes, rounded up to the next power of two
+   */
+  public StripedReaderWriterLock(int stripes) {
+    if (stripes < 1 || stripes > 1 << 16) {
+      throw new IllegalArgumentException("Invalid number of stripes: " + stripes);
+    }
+    var size = Integer.highestOneBit(stripes);
+    if (size < stripes) {
+      size <<= 1;
+    }
+    this.readers = new AtomicLongArray(size * PADDING);
+    this.mask = size - 1;
+  }
+
+  @Override
+  public Lock readLock() {
+    return readerLock;
+  }
+
+  @Override
+  public Lock writeLock() {
+    return writerLock;
+  }
+
+  /**
+   * Starts an optimistic read.
+   *
+   * @return a stamp to pass to {@link #validate(long)}, or 0 if a writer holds the lock
+   */
+  public long tryOptimisticRead() {
+    var stamp = version.get();
+    return isWriting(stamp) ? 0 : stamp;
+  }
+
+  /**
+   * Checks that no writer held the lock since the stamp was issued, so that everything read since
+   * then is consistent.
+   *
+   * @param stamp the stamp from {@link #tryOptimisticRead()}
+   * @return true if the reads are valid
+   */
+  public boolean validate(long stamp) {
+    // keep the reads of the protected data from moving after the version check
+    VarHandle.acquireFence();
+    return stamp != 0 && version.get() == stamp;
+  }
+
+  /**
+   * Number of threads holding the read lock, or trying to get it.
+   */
+  public int getReadLockCount() {
+    var count = 0L;
+    for (var i = 0; i <= mask; i++) {
+      count += readers.get(i * PADDING);
+    }
+    return (int) count;
+  }
+
+  /**
+   * Whether a writer holds the lock, or waits for the readers to leave.
+   */
+  public boolean isWriteLocked() {
+    return isWriting(version.get());
+  }
+
+  private static boolean isWriting(long version) {
+    return (version & 1) != 0;
+  }
+
+  private int stripe() {
+    var hash = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+    return ((int) (hash >>> 32) & mask) * PADDING;
+  }
+
+  /**
+   * Spins for a moment, then waits on the monitor until the condition no longer holds. A thread
+   * that changes the state calls {@link #signal()} afterwards, which only takes the monitor when
+   * somebody is waiting.
+   */
+  private void awaitWhile(BooleanSupplier blocked) {
+    for (var i = 0; i < SPINS; i++) {
+      if (!blocked.getAsBoolean()) {
+        return;
+      }
+      Thread.onSpinWait();
+    }
+    var interrupted = false;
+    waiters.incrementAndGet();
+    try {
+      synchronized (monitor) {
+        while (blocked.getAsBoolean()) {
+          try {
+            monitor.wait();
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+      }
+    } finally {
+      waiters.decrementAndGet();
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void signal() {
+    if (waiters.get() > 0) {
+      synchronized (monitor) {
+        monitor.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Reader Lock, can be held by many readers while no writer holds or waits for the lock.
+   */
+  private class ReadLock implements Lock {
+
+    @Override
+    public void lock() {
+      var stripe = stripe();
+      while (true) {
+        if (waitingWriters.get() > 0) {
+          awaitWhile(() -> waitingWriters.get() > 0 || isWriteLocked());
+        }
+        readers.getAndIncrement(stripe);
+        // a writer sets the write bit before it counts the readers, so either it sees this reader
+        // or this reader sees the bit
+        if (!isWriteLocked()) {
+          return;
+        }
+        release(stripe);
+        awaitWhile(StripedReaderWriterLock.this::isWriteLocked);
+      }
+    }
+
+    @Override
+    public boolean tryLock() {
+      var stripe = stripe();
+      readers.getAndIncrement(stripe);
+      if (!isWriteLocked()) {
+        return true;
+      }
+      release(stripe);
+      return false;
+    }
+
+    @Override
+    public void unlock() {
+      release(stripe());
+    }
+
+    private void release(int stripe) {
+      readers.getAndDecrement(stripe);
+      if (isWriteLocked()) {
+        // the writer may wait for this reader to leave
+        signal();
+      }
+    }
+
+    @Override
+    public void lockInterruptibly() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Condition newCondition() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * Writer Lock, can only be held by one writer while no reader holds the lock.
+   */
+  private class WriteLock implements Lock {
+
+    @Override
+    public void lock() {
+      if (!claim()) {
+        waitingWriters.incrementAndGet();
+        try {
+          do {
+            awaitWhile(StripedReaderWriterLock.this::isWriteLocked);
+          } while (!claim());
+        } finally {
+          waitingWriters.decrementAndGet();
+        }
+      }
+      awaitWhile(() -> getReadLockCount() != 0);
+    }
+
+    @Override
+    public boolean tryLock() {
+      if (getReadLockCount() != 0 || !claim()) {
+        return false;
+      }
+      if (getReadLockCount() == 0) {
+        return true;
+      }
+      // a reader came in between, give the lock back
+      unlock();
+      return false;
+    }
+
+    @Override
+    public void unlock() {
+      version.incrementAndGet();
+      signal();
+    }
+
+    private boolean claim() {
+      var current = version.get();
+      return !isWriting(current) && version.compareAndSet(current, current + 1);
+    }
+
+    @Override
+    public void lockInterruptibly() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Condition newCondition() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
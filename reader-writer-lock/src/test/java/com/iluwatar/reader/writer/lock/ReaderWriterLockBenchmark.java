@@ -0,0 +1,235 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.reader.writer.lock;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Compares {@link ReaderWriterLock} and {@link StripedReaderWriterLock} with
+ * {@link ReentrantReadWriteLock} and {@link StampedLock}, reading with the read lock and, where
+ * supported, optimistically. Every operation reads or updates a pair of counters, with 95% and 50%
+ * reads, for 1 to 8 threads. Reports the operations per second. Run the main method with the
+ * module's test classpath.
+ */
+public final class ReaderWriterLockBenchmark {
+
+  private static final long DURATION_NANOS = 500_000_000L;
+
+  private static final int[] READ_PERCENTAGES = {95, 50};
+
+  private static final int[] THREADS = {1, 2, 4, 8};
+
+  private ReaderWriterLockBenchmark() {
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args unused
+   * @throws Exception if the benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    var cases = new LinkedHashMap<String, Supplier<Data>>();
+    cases.put("ReaderWriterLock", () -> new LockedData(new ReaderWriterLock()));
+    cases.put("ReentrantReadWriteLock", () -> new LockedData(new ReentrantReadWriteLock()));
+    cases.put("StampedLock", () -> new LockedData(new StampedLock().asReadWriteLock()));
+    cases.put("StampedLock optimistic", StampedData::new);
+    cases.put("Striped", () -> new LockedData(new StripedReaderWriterLock()));
+    cases.put("Striped optimistic", StripedData::new);
+    System.out.printf("%-24s %6s %8s %14s%n", "lock", "reads", "threads", "ops/s");
+    for (var reads : READ_PERCENTAGES) {
+      for (var threads : THREADS) {
+        for (Map.Entry<String, Supplier<Data>> entry : cases.entrySet()) {
+          run(entry.getKey(), entry.getValue().get(), reads, threads);
+        }
+      }
+    }
+  }
+
+  private static void run(String name, Data data, int reads, int threads) throws Exception {
+    var operations = new LongAdder();
+    var start = new CountDownLatch(1);
+    var workers = new ArrayList<Thread>();
+    for (var i = 0; i < threads; i++) {
+      workers.add(new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        var random = ThreadLocalRandom.current();
+        var count = 0L;
+        var end = System.nanoTime() + DURATION_NANOS;
+        while (System.nanoTime() < end) {
+          for (var n = 0; n < 100; n++) {
+            if (random.nextInt(100) < reads) {
+              if (data.read() < 0) {
+                throw new IllegalStateException("Torn read");
+              }
+            } else {
+              data.write();
+            }
+          }
+          count += 100;
+        }
+        operations.add(count);
+      }));
+    }
+    workers.forEach(Thread::start);
+    var begin = System.nanoTime();
+    start.countDown();
+    for (var worker : workers) {
+      worker.join();
+    }
+    var elapsed = System.nanoTime() - begin;
+    System.out.printf("%-24s %5d%% %8d %14.0f%n", name, reads, threads,
+        operations.sum() * 1e9 / elapsed);
+  }
+
+  /**
+   * A pair of counters that are always equal.
+   */
+  private abstract static class Data {
+
+    long first;
+
+    long second;
+
+    /**
+     * Returns the difference of the counters, negative if they were not equal.
+     */
+    abstract long read();
+
+    abstract void write();
+
+    long difference() {
+      return first == second ? 0 : -1;
+    }
+
+    void increment() {
+      first++;
+      second++;
+    }
+  }
+
+  private static final class LockedData extends Data {
+
+    private final ReadWriteLock lock;
+
+    private LockedData(ReadWriteLock lock) {
+      this.lock = lock;
+    }
+
+    @Override
+    long read() {
+      lock.readLock().lock();
+      try {
+        return difference();
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    @Override
+    void write() {
+      lock.writeLock().lock();
+      try {
+        increment();
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  private static final class StampedData extends Data {
+
+    private final StampedLock lock = new StampedLock();
+
+    @Override
+    long read() {
+      var stamp = lock.tryOptimisticRead();
+      var difference = difference();
+      if (lock.validate(stamp)) {
+        return difference;
+      }
+      stamp = lock.readLock();
+      try {
+        return difference();
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+
+    @Override
+    void write() {
+      var stamp = lock.writeLock();
+      try {
+        increment();
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  private static final class StripedData extends Data {
+
+    private final StripedReaderWriterLock lock = new StripedReaderWriterLock();
+
+    @Override
+    long read() {
+      var stamp = lock.tryOptimisticRead();
+      var difference = difference();
+      if (lock.validate(stamp)) {
+        return difference;
+      }
+      lock.readLock().lock();
+      try {
+        return difference();
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    @Override
+    void write() {
+      lock.writeLock().lock();
+      try {
+        increment();
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+}
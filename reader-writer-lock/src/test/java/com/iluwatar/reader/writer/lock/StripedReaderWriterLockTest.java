@@ -0,0 +1,167 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.reader.writer.lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link StripedReaderWriterLock}.
+ */
+class StripedReaderWriterLockTest {
+
+  @Test
+  void testReadersShareTheLock() {
+    var lock = new StripedReaderWriterLock(4);
+    lock.readLock().lock();
+    assertTrue(lock.readLock().tryLock());
+    assertEquals(2, lock.getReadLockCount());
+    assertFalse(lock.writeLock().tryLock());
+    lock.readLock().unlock();
+    lock.readLock().unlock();
+    assertEquals(0, lock.getReadLockCount());
+    assertTrue(lock.writeLock().tryLock());
+    lock.writeLock().unlock();
+  }
+
+  @Test
+  void testWriterExcludesReadersAndWriters() {
+    var lock = new StripedReaderWriterLock();
+    lock.writeLock().lock();
+    assertTrue(lock.isWriteLocked());
+    assertFalse(lock.readLock().tryLock());
+    assertFalse(lock.writeLock().tryLock());
+    assertEquals(0, lock.getReadLockCount());
+    lock.writeLock().unlock();
+    assertFalse(lock.isWriteLocked());
+    assertTrue(lock.readLock().tryLock());
+    lock.readLock().unlock();
+  }
+
+  @Test
+  void testWriteInvalidatesOptimisticRead() {
+    var lock = new StripedReaderWriterLock();
+    var stamp = lock.tryOptimisticRead();
+    assertNotEquals(0, stamp);
+    assertTrue(lock.validate(stamp));
+    lock.readLock().lock();
+    assertTrue(lock.validate(stamp));
+    lock.readLock().unlock();
+
+    lock.writeLock().lock();
+    assertFalse(lock.validate(stamp));
+    assertEquals(0, lock.tryOptimisticRead());
+    assertFalse(lock.validate(0));
+    lock.writeLock().unlock();
+    assertFalse(lock.validate(stamp));
+    assertTrue(lock.validate(lock.tryOptimisticRead()));
+  }
+
+  @Test
+  void testWaitingWriterKeepsNewReadersOut() {
+    assertTimeout(Duration.ofSeconds(5), () -> {
+      var lock = new StripedReaderWriterLock();
+      var executor = Executors.newFixedThreadPool(2);
+      lock.readLock().lock();
+      var writer = executor.submit(() -> {
+        lock.writeLock().lock();
+        lock.writeLock().unlock();
+      });
+      while (!lock.isWriteLocked()) {
+        Thread.sleep(1);
+      }
+      var reader = executor.submit(() -> {
+        lock.readLock().lock();
+        lock.readLock().unlock();
+      });
+      Thread.sleep(100);
+      assertFalse(writer.isDone());
+      assertFalse(reader.isDone());
+      lock.readLock().unlock();
+      writer.get();
+      reader.get();
+      executor.shutdown();
+    });
+  }
+
+  @Test
+  void testWritesAreExclusiveUnderContention() throws Exception {
+    var lock = new StripedReaderWriterLock();
+    var values = new long[2];
+    var threads = 4;
+    var start = new CountDownLatch(1);
+    var executor = Executors.newFixedThreadPool(threads);
+    var results = new ArrayList<Future<Integer>>();
+    for (var t = 0; t < threads; t++) {
+      results.add(executor.submit(() -> {
+        start.await();
+        var torn = 0;
+        for (var i = 0; i < 20_000; i++) {
+          if (i % 10 == 0) {
+            lock.writeLock().lock();
+            try {
+              values[0]++;
+              values[1]++;
+            } finally {
+              lock.writeLock().unlock();
+            }
+          } else {
+            lock.readLock().lock();
+            try {
+              torn += values[0] == values[1] ? 0 : 1;
+            } finally {
+              lock.readLock().unlock();
+            }
+          }
+        }
+        return torn;
+      }));
+    }
+    start.countDown();
+    for (var result : results) {
+      assertEquals(0, (int) result.get(30, TimeUnit.SECONDS));
+    }
+    assertEquals(threads * 2_000L, values[0]);
+    assertEquals(values[0], values[1]);
+    executor.shutdown();
+  }
+
+  @Test
+  void testInvalidStripes() {
+    assertThrows(IllegalArgumentException.class, () -> new StripedReaderWriterLock(0));
+  }
+}
@@ -23,6 +23,7 @@
 
 package com.iluwatar.retry;
 
+import java.util.concurrent.Executors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,7 +52,8 @@ import org.slf4j.LoggerFactory;
  * from the load.
  *
  * <p>To keep the calling code as decoupled as possible from this workaround, we have implemented
- * the retry mechanism as a {@link BusinessOperation} named {@link Retry}.
+ * the retry mechanism as a {@link BusinessOperation} named {@link Retry}. {@link AsyncRetry} does
+ * the same without blocking a thread between attempts.
  *
  * @author George Aristy (george.aristy@gmail.com)
  * @see <a href="https://docs.microsoft.com/en-us/azure/architecture/patterns/retry">Retry pattern
@@ -73,6 +75,7 @@ public final class App {
     errorNoRetry();
     errorWithRetry();
     errorWithRetryExponentialBackoff();
+    errorWithAsyncRetry();
   }
 
   private static void noErrors() throws Exception {
@@ -119,4 +122,24 @@ public final class App {
             + "the result %s after a number of attempts %s", customerId, retry.attempts()
     ));
   }
+
+  private static void errorWithAsyncRetry() throws Exception {
+    final var scheduler = Executors.newSingleThreadScheduledExecutor();
+    final var retry = new AsyncRetry<>(
+        new FindCustomer("123", new CustomerNotFoundException(NOT_FOUND)),
+        scheduler,
+        6,  //6 attempts
+        100, //100 ms base delay
+        30000, //30 s max delay between attempts
+        Jitter.DECORRELATED,
+        new RetryBudget(0.1, 10), //retries limited to 10% of requests
+        e -> CustomerNotFoundException.class.isAssignableFrom(e.getClass())
+    );
+    final var customerId = retry.performAsync().get();
+    scheduler.shutdown();
+    LOG.info(String.format(
+        "Retrying asynchronously will yield the result %s after a number of attempts %s, without "
+            + "blocking a thread while waiting", customerId, retry.attempts()
+    ));
+  }
 }
@@ -0,0 +1,184 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.retry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Decorates {@link BusinessOperation business operation} with non-blocking "retry" capabilities.
+ *
+ * <p>Unlike {@link Retry} and {@link RetryExponentialBackoff}, no thread sleeps between attempts:
+ * every attempt is scheduled on a shared {@link ScheduledExecutorService}, so an operation that is
+ * waiting for its next attempt holds no thread at all. The delays grow exponentially and are
+ * randomized by a {@link Jitter} strategy, and an optional {@link RetryBudget} shared by many
+ * operations stops retrying once retries make up too large a part of the requests.
+ *
+ * @param <T> the remote op's return type
+ */
+public final class AsyncRetry<T> implements BusinessOperation<T> {
+  private final BusinessOperation<T> op;
+  private final ScheduledExecutorService scheduler;
+  private final int maxAttempts;
+  private final long baseDelay;
+  private final long maxDelay;
+  private final Jitter jitter;
+  private final RetryBudget budget;
+  private final AtomicInteger attempts;
+  private final Predicate<Exception> test;
+  private final ConcurrentLinkedQueue<Exception> errors;
+
+  /**
+   * Ctor.
+   *
+   * @param op          the {@link BusinessOperation} to retry
+   * @param scheduler   the executor that runs the attempts
+   * @param maxAttempts number of times to try
+   * @param baseDelay   delay (in milliseconds) before the first retry, before jitter
+   * @param maxDelay    upper bound (in milliseconds) of the delay between attempts
+   * @param jitter      how to randomize the delays
+   * @param budget      the retry budget to draw from, or null for no budget
+   * @param ignoreTests tests to check whether the remote exception can be ignored. No exceptions
+   *                    will be ignored if no tests are given
+   */
+  @SafeVarargs
+  public AsyncRetry(
+      BusinessOperation<T> op,
+      ScheduledExecutorService scheduler,
+      int maxAttempts,
+      long baseDelay,
+      long maxDelay,
+      Jitter jitter,
+      RetryBudget budget,
+      Predicate<Exception>... ignoreTests
+  ) {
+    this.op = op;
+    this.scheduler = scheduler;
+    this.maxAttempts = maxAttempts;
+    this.baseDelay = baseDelay;
+    this.maxDelay = maxDelay;
+    this.jitter = jitter;
+    this.budget = budget;
+    this.attempts = new AtomicInteger();
+    this.test = Arrays.stream(ignoreTests).reduce(Predicate::or).orElse(e -> false);
+    this.errors = new ConcurrentLinkedQueue<>();
+  }
+
+  /**
+   * The errors encountered while retrying, in the encounter order.
+   *
+   * @return the errors encountered while retrying
+   */
+  public List<Exception> errors() {
+    return List.copyOf(this.errors);
+  }
+
+  /**
+   * The number of failed attempts, over all calls.
+   *
+   * @return the number of failed attempts
+   */
+  public int attempts() {
+    return this.attempts.intValue();
+  }
+
+  /**
+   * Starts the operation on the scheduler. Cancelling the returned future stops any further
+   * attempts.
+   *
+   * @return a future that completes with the result of the first successful attempt, or
+   *     exceptionally with the error of the last attempt
+   */
+  public CompletableFuture<T> performAsync() {
+    var result = new CompletableFuture<T>();
+    if (budget != null) {
+      budget.recordRequest();
+    }
+    scheduler.execute(() -> attempt(result, 1, 0));
+    return result;
+  }
+
+  /**
+   * Performs the operation and waits for the result. Prefer {@link #performAsync()}, which does not
+   * block the calling thread.
+   */
+  @Override
+  public T perform() throws BusinessException {
+    var result = performAsync();
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      result.cancel(false);
+      Thread.currentThread().interrupt();
+      throw new BusinessException("Interrupted while waiting for the operation");
+    } catch (ExecutionException e) {
+      var cause = e.getCause();
+      if (cause instanceof BusinessException) {
+        throw (BusinessException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  private void attempt(CompletableFuture<T> result, int attempt, long previousDelay) {
+    if (result.isDone()) {
+      return;
+    }
+    try {
+      result.complete(this.op.perform());
+    } catch (BusinessException e) {
+      this.errors.add(e);
+      this.attempts.incrementAndGet();
+      if (attempt >= this.maxAttempts || !this.test.test(e)
+          || (this.budget != null && !this.budget.tryAcquireRetry())) {
+        result.completeExceptionally(e);
+        return;
+      }
+      var delay = this.jitter.delay(attempt, this.baseDelay, this.maxDelay, previousDelay);
+      try {
+        this.scheduler.schedule(() -> attempt(result, attempt + 1, delay), delay,
+            TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException f) {
+        result.completeExceptionally(e);
+      }
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+  }
+}
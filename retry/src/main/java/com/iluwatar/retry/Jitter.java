@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Strategies for randomizing the delay between retries. Without jitter, clients that failed at the
+ * same time retry at the same time too, so the retries arrive at the remote system in waves.
+ *
+ * @see <a href="https://aws.amazon.com/blogs/architecture/exponential-backoff-and-jitter/">
+ *     Exponential Backoff And Jitter (AWS Architecture Blog)</a>
+ */
+public enum Jitter {
+
+  /**
+   * Exponential backoff without randomization.
+   */
+  NONE {
+    @Override
+    long delay(int retry, long baseDelay, long maxDelay, long previousDelay) {
+      return backoff(retry, baseDelay, maxDelay);
+    }
+  },
+
+  /**
+   * A random delay between zero and the exponential backoff.
+   */
+  FULL {
+    @Override
+    long delay(int retry, long baseDelay, long maxDelay, long previousDelay) {
+      return random(0, backoff(retry, baseDelay, maxDelay));
+    }
+  },
+
+  /**
+   * At least half the exponential backoff, plus a random part of the other half.
+   */
+  EQUAL {
+    @Override
+    long delay(int retry, long baseDelay, long maxDelay, long previousDelay) {
+      var half = backoff(retry, baseDelay, maxDelay) / 2;
+      return half + random(0, half);
+    }
+  },
+
+  /**
+   * A random delay between the base delay and three times the previous delay, so the delays keep
+   * growing without being tied to the number of retries.
+   */
+  DECORRELATED {
+    @Override
+    long delay(int retry, long baseDelay, long maxDelay, long previousDelay) {
+      var upper = Math.max(baseDelay, Math.min(maxDelay, 3 * Math.max(previousDelay, baseDelay)));
+      return Math.min(maxDelay, random(baseDelay, upper));
+    }
+  };
+
+  /**
+   * The delay before the next retry.
+   *
+   * @param retry         the number of the upcoming retry, starting at 1
+   * @param baseDelay     the delay (in milliseconds) before the first retry without jitter
+   * @param maxDelay      the upper bound (in milliseconds) of any delay
+   * @param previousDelay the delay (in milliseconds) before the previous retry, or 0
+   * @return the delay in milliseconds
+   */
+  abstract long delay(int retry, long baseDelay, long maxDelay, long previousDelay);
+
+  private static long backoff(int retry, long baseDelay, long maxDelay) {
+    var shift = Math.min(retry - 1, Long.numberOfLeadingZeros(Math.max(1, baseDelay)) - 1);
+    return Math.min(maxDelay, baseDelay << shift);
+  }
+
+  private static long random(long from, long to) {
+    return from >= to ? from : ThreadLocalRandom.current().nextLong(from, to + 1);
+  }
+}
@@ -23,10 +23,10 @@
 
 package com.iluwatar.retry;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 
@@ -65,7 +65,7 @@ public final class Retry<T> implements BusinessOperation<T> {
     this.delay = delay;
     this.attempts = new AtomicInteger();
     this.test = Arrays.stream(ignoreTests).reduce(Predicate::or).orElse(e -> false);
-    this.errors = new ArrayList<>();
+    this.errors = new CopyOnWriteArrayList<>();
   }
 
   /**
@@ -101,7 +101,8 @@ public final class Retry<T> implements BusinessOperation<T> {
         try {
           Thread.sleep(this.delay);
         } catch (InterruptedException f) {
-          //ignore
+          Thread.currentThread().interrupt();
+          throw e;
         }
       }
     } while (true);
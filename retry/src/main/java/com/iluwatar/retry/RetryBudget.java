@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits retries to a ratio of the requests made, so that when a remote system is down the clients
+ * do not multiply its load with retries. Share one budget between all operations that call the same
+ * system.
+ *
+ * <p>Every request deposits {@code retryRatio} into the budget and every retry withdraws one, with
+ * the balance capped at {@code maxRetries}, or one if that is zero, so that deposits can add up to
+ * a retry. The balance starts at {@code maxRetries}, so a few retries are possible before any
+ * requests are made, but in the long run there are never more than {@code retryRatio} retries per
+ * request.
+ */
+public final class RetryBudget {
+  private static final long SCALE = 1000;
+  private final long deposit;
+  private final long maxBalance;
+  private final AtomicLong balance;
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * Ctor.
+   *
+   * @param retryRatio the number of retries allowed per request, for example 0.1 for 10%
+   * @param maxRetries the number of retries that can be saved up while there are no failures
+   */
+  public RetryBudget(double retryRatio, int maxRetries) {
+    if (retryRatio < 0 || maxRetries < 0) {
+      throw new IllegalArgumentException("Retry ratio and max retries must not be negative");
+    }
+    this.deposit = Math.round(retryRatio * SCALE);
+    this.maxBalance = Math.max(1, maxRetries) * SCALE;
+    this.balance = new AtomicLong(maxRetries * SCALE);
+  }
+
+  /**
+   * Records a request, adding to the budget.
+   */
+  public void recordRequest() {
+    balance.accumulateAndGet(deposit, (current, amount) -> Math.min(maxBalance, current + amount));
+  }
+
+  /**
+   * Withdraws one retry from the budget if there is one left.
+   *
+   * @return true if the retry may be made
+   */
+  public boolean tryAcquireRetry() {
+    while (true) {
+      var current = balance.get();
+      if (current < SCALE) {
+        rejected.increment();
+        return false;
+      }
+      if (balance.compareAndSet(current, current - SCALE)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * The number of retries refused because the budget was exhausted.
+   *
+   * @return the number of refused retries
+   */
+  public long rejectedRetries() {
+    return rejected.sum();
+  }
+}
@@ -23,11 +23,11 @@
 
 package com.iluwatar.retry;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 
@@ -66,7 +66,7 @@ public final class RetryExponentialBackoff<T> implements BusinessOperation<T> {
     this.maxDelay = maxDelay;
     this.attempts = new AtomicInteger();
     this.test = Arrays.stream(ignoreTests).reduce(Predicate::or).orElse(e -> false);
-    this.errors = new ArrayList<>();
+    this.errors = new CopyOnWriteArrayList<>();
   }
 
   /**
@@ -104,7 +104,8 @@ public final class RetryExponentialBackoff<T> implements BusinessOperation<T> {
           var delay = Math.min(testDelay, this.maxDelay);
           Thread.sleep(delay);
         } catch (InterruptedException f) {
-          //ignore
+          Thread.currentThread().interrupt();
+          throw e;
         }
       }
     } while (true);
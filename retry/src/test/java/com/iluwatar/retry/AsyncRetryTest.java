@@ -0,0 +1,171 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.retry;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link AsyncRetry}.
+ */
+class AsyncRetryTest {
+
+  private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+
+  @AfterEach
+  void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  /**
+   * Should eventually return the result when the errors are ignored.
+   */
+  @Test
+  void result() throws Exception {
+    final var retry = new AsyncRetry<>(
+        new FindCustomer("123", new CustomerNotFoundException("not found"),
+            new CustomerNotFoundException("still not found")),
+        scheduler, 3, 1, 10, Jitter.FULL, null,
+        ex -> CustomerNotFoundException.class.isAssignableFrom(ex.getClass())
+    );
+
+    assertThat(retry.performAsync().get(5, TimeUnit.SECONDS), is("123"));
+    assertThat(retry.attempts(), is(2));
+  }
+
+  /**
+   * No exceptions will be ignored, hence final number of attempts should be 1 even if we're asking
+   * it to attempt twice.
+   */
+  @Test
+  void attempts() {
+    final var e = new BusinessException("unhandled");
+    final var retry = new AsyncRetry<String>(
+        () -> {
+          throw e;
+        },
+        scheduler, 2, 0, 0, Jitter.NONE, null
+    );
+
+    final var thrown = assertThrows(BusinessException.class, retry::perform);
+
+    assertThat(thrown, is(e));
+    assertThat(retry.attempts(), is(1));
+    assertThat(retry.errors(), hasItem(e));
+  }
+
+  /**
+   * Final number of attempts should be equal to the number of attempts asked because we are asking
+   * it to ignore the exception that will be thrown.
+   */
+  @Test
+  void ignore() {
+    final var e = new CustomerNotFoundException("customer not found");
+    final var retry = new AsyncRetry<String>(
+        () -> {
+          throw e;
+        },
+        scheduler, 3, 1, 5, Jitter.EQUAL, null,
+        ex -> CustomerNotFoundException.class.isAssignableFrom(ex.getClass())
+    );
+
+    final var thrown = assertThrows(ExecutionException.class, () -> retry.performAsync().get());
+
+    assertThat(thrown.getCause(), instanceOf(CustomerNotFoundException.class));
+    assertThat(retry.attempts(), is(3));
+  }
+
+  /**
+   * Unchecked exceptions are not retried and reach the caller of perform as they were thrown.
+   */
+  @Test
+  void uncheckedExceptionsAreRethrownAsIs() {
+    final var e = new IllegalArgumentException("bug in the operation");
+    final var retry = new AsyncRetry<String>(
+        () -> {
+          throw e;
+        },
+        scheduler, 3, 0, 0, Jitter.NONE, null, ex -> true
+    );
+
+    final var thrown = assertThrows(IllegalArgumentException.class, retry::perform);
+
+    assertThat(thrown, is(e));
+    assertThat(retry.attempts(), is(0));
+  }
+
+  /**
+   * Once the budget is exhausted, failures are not retried any more.
+   */
+  @Test
+  void budget() {
+    final var budget = new RetryBudget(0, 2);
+    final var retry = new AsyncRetry<String>(
+        () -> {
+          throw new CustomerNotFoundException("customer not found");
+        },
+        scheduler, 10, 0, 0, Jitter.NONE, budget,
+        ex -> CustomerNotFoundException.class.isAssignableFrom(ex.getClass())
+    );
+
+    assertThrows(BusinessException.class, retry::perform);
+    assertThrows(BusinessException.class, retry::perform);
+
+    assertThat(retry.attempts(), is(4));
+    assertThat(budget.rejectedRetries(), is(2L));
+  }
+
+  /**
+   * Waiting for a retry should not hold a thread, so one thread can serve many operations.
+   */
+  @Test
+  void manyOperationsShareOneThread() throws Exception {
+    final var retries = new ArrayList<CompletableFuture<String>>();
+    for (var i = 0; i < 50; i++) {
+      retries.add(new AsyncRetry<>(
+          new FindCustomer("" + i, new CustomerNotFoundException("not found")),
+          scheduler, 2, 100, 100, Jitter.NONE, null,
+          ex -> CustomerNotFoundException.class.isAssignableFrom(ex.getClass())
+      ).performAsync());
+    }
+    final var start = System.nanoTime();
+    for (var i = 0; i < 50; i++) {
+      assertThat(retries.get(i).get(5, TimeUnit.SECONDS), is("" + i));
+    }
+    assertThat(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), is(true));
+  }
+}
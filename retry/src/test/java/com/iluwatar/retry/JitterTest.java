@@ -0,0 +1,72 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.retry;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link Jitter}.
+ */
+class JitterTest {
+
+  @Test
+  void none() {
+    assertThat(Jitter.NONE.delay(1, 100, 1000, 0), is(100L));
+    assertThat(Jitter.NONE.delay(3, 100, 1000, 0), is(400L));
+    assertThat(Jitter.NONE.delay(10, 100, 1000, 0), is(1000L));
+    assertThat(Jitter.NONE.delay(100, 100, Long.MAX_VALUE, 0) > 0, is(true));
+  }
+
+  @Test
+  void full() {
+    for (var i = 0; i < 100; i++) {
+      assertBetween(0, 400, Jitter.FULL.delay(3, 100, 1000, 0));
+    }
+  }
+
+  @Test
+  void equal() {
+    for (var i = 0; i < 100; i++) {
+      assertBetween(200, 400, Jitter.EQUAL.delay(3, 100, 1000, 0));
+    }
+  }
+
+  @Test
+  void decorrelated() {
+    var delay = 0L;
+    for (var i = 1; i < 100; i++) {
+      var next = Jitter.DECORRELATED.delay(i, 100, 1000, delay);
+      assertBetween(100, Math.min(1000, 3 * Math.max(delay, 100)), next);
+      delay = next;
+    }
+  }
+
+  private static void assertBetween(long from, long to, long delay) {
+    assertThat(delay + " in [" + from + ", " + to + "]", from <= delay && delay <= to, is(true));
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.retry;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RetryBudget}.
+ */
+class RetryBudgetTest {
+
+  @Test
+  void startsFull() {
+    final var budget = new RetryBudget(0.1, 3);
+    for (var i = 0; i < 3; i++) {
+      assertThat(budget.tryAcquireRetry(), is(true));
+    }
+    assertThat(budget.tryAcquireRetry(), is(false));
+    assertThat(budget.rejectedRetries(), is(1L));
+  }
+
+  @Test
+  void retriesAreLimitedToRatioOfRequests() {
+    final var budget = new RetryBudget(0.1, 0);
+    var retries = 0;
+    for (var i = 0; i < 1000; i++) {
+      budget.recordRequest();
+      if (budget.tryAcquireRetry()) {
+        retries++;
+      }
+    }
+    assertThat(retries, is(100));
+  }
+
+  @Test
+  void balanceIsCapped() {
+    final var budget = new RetryBudget(1, 2);
+    for (var i = 0; i < 100; i++) {
+      budget.recordRequest();
+    }
+    assertThat(budget.tryAcquireRetry(), is(true));
+    assertThat(budget.tryAcquireRetry(), is(true));
+    assertThat(budget.tryAcquireRetry(), is(false));
+  }
+}
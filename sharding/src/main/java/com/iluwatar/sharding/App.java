@@ -58,7 +58,8 @@ public class App {
     shard2.clearData();
     shard3.clearData();
 
-    var rangeShardManager = new RangeShardManager();
+    var rangeShardManager = new RangeShardManager(2, RangeShardManager.DEFAULT_MAX_RANGE_QPS,
+        RangeShardManager.DEFAULT_MIN_RANGE_QPS);
     rangeShardManager.addNewShard(shard1);
     rangeShardManager.addNewShard(shard2);
     rangeShardManager.addNewShard(shard3);
@@ -83,6 +84,19 @@ public class App {
     shard1.clearData();
     shard2.clearData();
     shard3.clearData();
+
+    var consistentHashShardManager = new ConsistentHashShardManager();
+    consistentHashShardManager.addNewShard(shard1);
+    consistentHashShardManager.addNewShard(shard2);
+    consistentHashShardManager.storeData(data1);
+    consistentHashShardManager.storeData(data2);
+    consistentHashShardManager.storeData(data3);
+    consistentHashShardManager.storeData(data4);
+    consistentHashShardManager.addNewShard(shard3);
+
+    shard1.clearData();
+    shard2.clearData();
+    shard3.clearData();
   }
 
 }
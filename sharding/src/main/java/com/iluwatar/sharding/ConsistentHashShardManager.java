@@ -0,0 +1,305 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ShardManager with consistent hashing strategy. Every shard owns a number of points, called
+ * virtual nodes, on a ring of 64-bit hashes, proportional to its weight; a key belongs to the
+ * shard owning the first point clockwise from the key's hash. Adding or removing a shard only
+ * changes the owner of the keys next to that shard's points, so unlike {@link HashShardManager}
+ * only about {@code 1/n} of the data has to move, and the manager moves exactly that data.
+ *
+ * <p>Topology changes hold the write lock of a read-write lock while they publish the new ring and
+ * move the data, and writes hold its read lock, so a write never lands on the previous owner of a
+ * key after the key was moved away. Reads through {@link #getDataByKey(int)} do not wait for the
+ * lock: while data is being moved they look a key up on its previous owner first and then on its
+ * new owner, which cannot miss it because every key is copied before it is removed, and they are
+ * retried when the topology changed while they were looking.
+ */
+@Slf4j
+public class ConsistentHashShardManager extends ShardManager {
+
+  /**
+   * Default number of virtual nodes per unit of weight.
+   */
+  public static final int DEFAULT_VIRTUAL_NODES = 100;
+
+  private final int virtualNodes;
+
+  private final Map<Integer, Integer> weights = new HashMap<>();
+
+  private final AtomicLong movedDataCount = new AtomicLong();
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private volatile Ring ring = Ring.EMPTY;
+
+  private volatile Ring previousRing;
+
+  /**
+   * Odd while data is being moved, incremented before and after each move. Only changed with the
+   * write lock held.
+   */
+  private volatile long topologyVersion;
+
+  public ConsistentHashShardManager() {
+    this(DEFAULT_VIRTUAL_NODES);
+  }
+
+  /**
+   * Constructor of ConsistentHashShardManager class.
+   *
+   * @param virtualNodes number of virtual nodes per unit of weight
+   */
+  public ConsistentHashShardManager(final int virtualNodes) {
+    if (virtualNodes <= 0) {
+      throw new IllegalArgumentException("Number of virtual nodes must be positive");
+    }
+    this.virtualNodes = virtualNodes;
+  }
+
+  @Override
+  public boolean addNewShard(final Shard shard) {
+    return addNewShard(shard, 1);
+  }
+
+  /**
+   * Add a shard with the given weight and move the data it now owns from the other shards.
+   *
+   * @param shard new shard instance
+   * @param weight relative share of the keys the shard should own
+   * @return {@code true} if succeed to add the new instance.
+   *         {@code false} if the shardId is already existed.
+   */
+  public boolean addNewShard(final Shard shard, final int weight) {
+    if (weight <= 0) {
+      throw new IllegalArgumentException("Weight must be positive");
+    }
+    lock.writeLock().lock();
+    try {
+      if (!super.addNewShard(shard)) {
+        return false;
+      }
+      weights.put(shard.getId(), weight);
+      rebalance(shardMap.values().toArray(new Shard[0]));
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove a shard and move its data to the shards that now own it.
+   *
+   * @param shardId Id of shard instance to remove.
+   * @return {@code true} if removed. {@code false} if the shardId is not existed.
+   */
+  @Override
+  public boolean removeShardById(final int shardId) {
+    lock.writeLock().lock();
+    try {
+      var shard = shardMap.get(shardId);
+      if (shard == null) {
+        return false;
+      }
+      weights.remove(shardId);
+      if (weights.isEmpty()) {
+        ring = Ring.EMPTY;
+      } else {
+        rebalance(new Shard[] {shard});
+      }
+      super.removeShardById(shardId);
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public int storeData(Data data) {
+    int shardId;
+    lock.readLock().lock();
+    try {
+      shardId = allocateShard(data);
+      shardMap.get(shardId).storeData(data);
+    } finally {
+      lock.readLock().unlock();
+    }
+    LOGGER.info(data.toString() + " is stored in Shard " + shardId);
+    return shardId;
+  }
+
+  @Override
+  public Map<Integer, Integer> storeAll(final Collection<Data> data) {
+    lock.readLock().lock();
+    try {
+      return super.storeAll(data);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Get data by key, from its owner or, while data is being moved, from its previous owner.
+   *
+   * @param key data key
+   * @return data, or {@code null} if no shard holds the key
+   */
+  public Data getDataByKey(final int key) {
+    var hash = hash(key);
+    while (true) {
+      var version = topologyVersion;
+      // the ring is published after the previous ring, so read it first
+      var current = ring;
+      var previous = previousRing;
+      var data = previous == null ? null : getDataById(previous.lookup(hash), key);
+      if (data == null) {
+        data = getDataById(current.lookup(hash), key);
+      }
+      if (data != null || version == topologyVersion) {
+        return data;
+      }
+    }
+  }
+
+  /**
+   * Get the total number of data entries moved between shards by topology changes.
+   *
+   * @return number of moved entries
+   */
+  public long getMovedDataCount() {
+    return movedDataCount.get();
+  }
+
+  private Data getDataById(final int shardId, final int key) {
+    var shard = shardMap.get(shardId);
+    return shard == null ? null : shard.getDataById(key);
+  }
+
+  @Override
+  protected int allocateShard(Data data) {
+    return ring.lookup(hash(data.getKey()));
+  }
+
+  /**
+   * Build the ring of the current weights, publish it and move the data of the given shards
+   * whose owner has changed. Only called with the write lock held.
+   */
+  private void rebalance(final Shard[] sources) {
+    previousRing = ring == Ring.EMPTY ? null : ring;
+    var target = Ring.build(weights, virtualNodes);
+    ring = target;
+    topologyVersion++;
+    var moved = 0;
+    for (var source : sources) {
+      for (var data : source.getAllData()) {
+        var ownerId = target.lookup(hash(data.getKey()));
+        if (ownerId == source.getId()) {
+          continue;
+        }
+        // copy before removing so that readers always find the data somewhere
+        shardMap.get(ownerId).storeDataIfAbsent(data);
+        source.removeData(data);
+        moved++;
+      }
+    }
+    topologyVersion++;
+    previousRing = null;
+    movedDataCount.addAndGet(moved);
+    LOGGER.info(moved + " data moved after topology change to " + weights.size() + " shards");
+  }
+
+  private static long hash(final int key) {
+    return mix(key);
+  }
+
+  /**
+   * Finalizer of the 64-bit MurmurHash3, spreading every input bit over the whole hash.
+   */
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  /**
+   * Immutable hash ring stored as sorted arrays, so that a lookup is a binary search without
+   * any allocation or locking.
+   */
+  private static final class Ring {
+
+    static final Ring EMPTY = new Ring(new long[0], new int[0]);
+
+    private final long[] points;
+
+    private final int[] owners;
+
+    private Ring(final long[] points, final int[] owners) {
+      this.points = points;
+      this.owners = owners;
+    }
+
+    static Ring build(final Map<Integer, Integer> weights, final int virtualNodes) {
+      var sorted = new TreeMap<Long, Integer>();
+      weights.forEach((shardId, weight) -> {
+        for (var replica = 0; replica < weight * virtualNodes; replica++) {
+          // the golden ratio keeps virtual node hashes apart from key hashes
+          sorted.put(mix(((long) shardId << 32 | replica) ^ 0x9e3779b97f4a7c15L), shardId);
+        }
+      });
+      var points = new long[sorted.size()];
+      var owners = new int[sorted.size()];
+      var i = 0;
+      for (var entry : sorted.entrySet()) {
+        points[i] = entry.getKey();
+        owners[i++] = entry.getValue();
+      }
+      return new Ring(points, owners);
+    }
+
+    int lookup(final long hash) {
+      if (points.length == 0) {
+        throw new IllegalStateException("No shard available");
+      }
+      var index = Arrays.binarySearch(points, hash);
+      if (index < 0) {
+        index = -index - 1;
+      }
+      return owners[index == points.length ? 0 : index];
+    }
+  }
+}
@@ -24,9 +24,8 @@
 package com.iluwatar.sharding;
 
 import java.security.SecureRandom;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -37,27 +36,29 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class LookupShardManager extends ShardManager {
 
-  private final Map<Integer, Integer> lookupMap = new HashMap<>();
+  private final Map<Integer, Integer> lookupMap = new ConcurrentHashMap<>();
 
   @Override
   public int storeData(Data data) {
     var shardId = allocateShard(data);
-    lookupMap.put(data.getKey(), shardId);
     var shard = shardMap.get(shardId);
     shard.storeData(data);
     LOGGER.info(data.toString() + " is stored in Shard " + shardId);
     return shardId;
   }
 
+  /**
+   * Look up the shard of the data's key, and record a randomly chosen shard for keys seen for
+   * the first time. The lookup and the recording are one atomic step, so two threads storing
+   * the same new key agree on its shard.
+   *
+   * @param data new data
+   * @return id of shard that the data should be stored
+   */
   @Override
   protected int allocateShard(Data data) {
-    var key = data.getKey();
-    if (lookupMap.containsKey(key)) {
-      return lookupMap.get(key);
-    } else {
-      var shardCount = shardMap.size();
-      return new SecureRandom().nextInt(shardCount - 1) + 1;
-    }
+    return lookupMap.computeIfAbsent(data.getKey(),
+        key -> new SecureRandom().nextInt(shardMap.size() - 1) + 1);
   }
 
 }
@@ -23,36 +23,472 @@
 
 package com.iluwatar.sharding;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * ShardManager with range strategy. This strategy groups related items together in the same shard,
  * and orders them by shard key.
+ *
+ * <p>The key space is divided into contiguous ranges, kept in a table sorted by lower bound and
+ * looked up by binary search. Every range is owned by one shard. The first shard added owns the
+ * whole key space; further shards are kept as spares. When the shard of a range holds more than
+ * {@code maxRangeSize} data, or the range serves more than {@code maxRangeQps} operations per
+ * second, the range is split at its median key and the upper half is moved to a spare shard. Two
+ * adjacent ranges that both serve fewer than {@code minRangeQps} operations per second, and
+ * together hold at most half of {@code maxRangeSize} data, are merged again, which returns a shard
+ * to the spares.
+ *
+ * <p>The table is an immutable snapshot. Writes and reads through the manager hold the read lock
+ * of a read-write lock, so they run concurrently with each other; splits, merges and shard
+ * changes hold the write lock while they switch the table and move the data, so no write lands
+ * on a shard after its data was moved away, and no read misses data being moved.
  */
 @Slf4j
 public class RangeShardManager extends ShardManager {
 
+  /**
+   * Default number of data a shard holds before its range is split.
+   */
+  public static final int DEFAULT_MAX_RANGE_SIZE = 10_000;
+
+  /**
+   * Default operations per second of a range above which it is split.
+   */
+  public static final double DEFAULT_MAX_RANGE_QPS = 10_000;
+
+  /**
+   * Default operations per second of a range below which it may be merged with a neighbour.
+   */
+  public static final double DEFAULT_MIN_RANGE_QPS = 10;
+
+  private static final long DEFAULT_WINDOW_NANOS = 1_000_000_000L;
+
+  private final int maxRangeSize;
+
+  private final double maxRangeQps;
+
+  private final double minRangeQps;
+
+  private final long windowNanos;
+
+  private final LongSupplier clock;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private volatile Range[] table = new Range[0];
+
+  public RangeShardManager() {
+    this(DEFAULT_MAX_RANGE_SIZE, DEFAULT_MAX_RANGE_QPS, DEFAULT_MIN_RANGE_QPS);
+  }
+
+  /**
+   * Constructor of RangeShardManager class.
+   *
+   * @param maxRangeSize number of data a shard holds before its range is split
+   * @param maxRangeQps operations per second of a range above which it is split
+   * @param minRangeQps operations per second of a range below which it may be merged
+   */
+  public RangeShardManager(final int maxRangeSize, final double maxRangeQps,
+                           final double minRangeQps) {
+    this(maxRangeSize, maxRangeQps, minRangeQps, DEFAULT_WINDOW_NANOS, System::nanoTime);
+  }
+
+  RangeShardManager(final int maxRangeSize, final double maxRangeQps, final double minRangeQps,
+                    final long windowNanos, final LongSupplier clock) {
+    if (maxRangeSize <= 1) {
+      throw new IllegalArgumentException("Maximum range size must be greater than 1");
+    }
+    if (minRangeQps < 0 || maxRangeQps <= minRangeQps) {
+      throw new IllegalArgumentException("Range QPS thresholds must satisfy 0 <= min < max");
+    }
+    this.maxRangeSize = maxRangeSize;
+    this.maxRangeQps = maxRangeQps;
+    this.minRangeQps = minRangeQps;
+    this.windowNanos = windowNanos;
+    this.clock = clock;
+  }
+
+  @Override
+  public boolean addNewShard(final Shard shard) {
+    lock.writeLock().lock();
+    try {
+      if (!super.addNewShard(shard)) {
+        return false;
+      }
+      if (table.length == 0) {
+        table = new Range[] {new Range(Integer.MIN_VALUE, shard.getId(), clock.getAsLong())};
+      }
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove the shard. Its range is merged into a neighbouring range, or handed to a spare shard
+   * when it is the only range, and its data is moved there.
+   *
+   * @param shardId id of the shard to remove
+   * @return {@code true} if removed. {@code false} if the shardId is not existed.
+   */
+  @Override
+  public boolean removeShardById(final int shardId) {
+    lock.writeLock().lock();
+    try {
+      var shard = shardMap.get(shardId);
+      if (shard == null) {
+        return false;
+      }
+      var index = indexOfShard(shardId);
+      if (index >= 0) {
+        if (table.length > 1) {
+          if (index == 0) {
+            merge(0, table[1].shardId);
+          } else {
+            merge(index - 1, table[index - 1].shardId);
+          }
+        } else {
+          var spare = findSpareShard(shardId);
+          if (spare == null) {
+            table = new Range[0];
+          } else {
+            table = new Range[] {new Range(Integer.MIN_VALUE, spare.getId(), clock.getAsLong())};
+            moveData(shard, spare, Integer.MIN_VALUE, Integer.MAX_VALUE);
+          }
+        }
+      }
+      return super.removeShardById(shardId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
   @Override
   public int storeData(Data data) {
-    var shardId = allocateShard(data);
-    var shard = shardMap.get(shardId);
-    shard.storeData(data);
-    LOGGER.info(data.toString() + " is stored in Shard " + shardId);
-    return shardId;
+    Range range;
+    Shard shard;
+    lock.readLock().lock();
+    try {
+      range = findRange(data.getKey());
+      shard = shardMap.get(range.shardId);
+      shard.storeData(data);
+      range.operations.increment();
+    } finally {
+      lock.readLock().unlock();
+    }
+    LOGGER.info(data.toString() + " is stored in Shard " + range.shardId);
+    checkLoad(range, shard);
+    return range.shardId;
+  }
+
+  /**
+   * Store a batch of data, counting the operations of every range and splitting or merging the
+   * ranges whose load crossed a threshold afterwards.
+   *
+   * @param data new data
+   * @return number of data stored per shard id
+   */
+  @Override
+  public Map<Integer, Integer> storeAll(final Collection<Data> data) {
+    Map<Integer, Integer> counts;
+    lock.readLock().lock();
+    try {
+      counts = super.storeAll(data);
+    } finally {
+      lock.readLock().unlock();
+    }
+    for (var range : table) {
+      var shard = shardMap.get(range.shardId);
+      if (shard != null && counts.containsKey(range.shardId)) {
+        checkLoad(range, shard);
+      }
+    }
+    return counts;
+  }
+
+  /**
+   * Get data by key from the shard owning the key's range.
+   *
+   * @param key data key
+   * @return data, or {@code null} if the key is not stored
+   */
+  public Data getDataByKey(final int key) {
+    lock.readLock().lock();
+    try {
+      return shardMap.get(findRange(key).shardId).getDataById(key);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<Data> query(final Predicate<Data> predicate) {
+    lock.readLock().lock();
+    try {
+      return super.query(predicate);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  protected void storeGroup(final int shardId, final List<Data> group) {
+    super.storeGroup(shardId, group);
+    table[indexOfShard(shardId)].operations.add(group.size());
   }
 
   @Override
   protected int allocateShard(Data data) {
-    var type = data.getType();
-    switch (type) {
-      case TYPE_1:
-        return 1;
-      case TYPE_2:
-        return 2;
-      case TYPE_3:
-        return 3;
-      default:
+    return findRange(data.getKey()).shardId;
+  }
+
+  /**
+   * Check every range and split or merge ranges whose load crossed a threshold. Ranges are also
+   * checked on every write, so this is only needed to merge ranges that stopped receiving writes.
+   */
+  public void rebalance() {
+    lock.writeLock().lock();
+    try {
+      for (var i = 0; i < table.length; i++) {
+        var range = table[i];
+        var qps = range.rollWindow(clock.getAsLong(), windowNanos);
+        if (qps >= 0 && shouldSplit(range, shardMap.get(range.shardId), qps)) {
+          split(range);
+        }
+      }
+      for (var i = table.length - 2; i >= 0; i--) {
+        if (shouldMerge(i)) {
+          merge(i, table[i].shardId);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Get the lower bounds of all ranges, in ascending order. A range ends where the next begins.
+   *
+   * @return lower bounds of the ranges
+   */
+  public int[] getLowerBounds() {
+    return Arrays.stream(table).mapToInt(range -> range.lowerBound).toArray();
+  }
+
+  /**
+   * Get the number of operations served by the range holding a key since the range was created.
+   *
+   * @param key shard key
+   * @return number of operations of the range
+   */
+  public long getRangeOperations(final int key) {
+    return findRange(key).totalOperations();
+  }
+
+  private void checkLoad(final Range range, final Shard shard) {
+    if (table.length == 1 && shardMap.size() == 1) {
+      return;
+    }
+    var qps = range.rollWindow(clock.getAsLong(), windowNanos);
+    if (shouldSplit(range, shard, qps)) {
+      lock.writeLock().lock();
+      try {
+        // another thread may have split the range, or used up the spare shards, in the meantime
+        if (indexOf(range) >= 0 && shouldSplit(range, shard, qps)) {
+          split(range);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } else if (qps >= 0 && qps < minRangeQps) {
+      lock.writeLock().lock();
+      try {
+        var index = indexOf(range);
+        if (index >= 0) {
+          if (index > 0 && shouldMerge(index - 1)) {
+            merge(index - 1, table[index - 1].shardId);
+          } else if (index < table.length - 1 && shouldMerge(index)) {
+            merge(index, table[index].shardId);
+          }
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  private boolean shouldSplit(final Range range, final Shard shard, final double qps) {
+    return shardMap.size() > table.length
+        && (shard.size() > maxRangeSize || qps > maxRangeQps);
+  }
+
+  private boolean shouldMerge(final int index) {
+    var lower = table[index];
+    var upper = table[index + 1];
+    var now = clock.getAsLong();
+    return lower.currentQps(now, windowNanos) < minRangeQps
+        && upper.currentQps(now, windowNanos) < minRangeQps
+        && shardMap.get(lower.shardId).size() + shardMap.get(upper.shardId).size()
+            <= maxRangeSize / 2;
+  }
+
+  private void split(final Range range) {
+    var shard = shardMap.get(range.shardId);
+    var spare = findSpareShard(range.shardId);
+    var keys = shard.getAllData().stream().mapToInt(Data::getKey).sorted().toArray();
+    if (spare == null || keys.length < 2) {
+      return;
+    }
+    var splitKey = keys[keys.length / 2];
+    var index = indexOf(range);
+    var highKey = index + 1 < table.length ? table[index + 1].lowerBound - 1 : Integer.MAX_VALUE;
+    var now = clock.getAsLong();
+    var newTable = new Range[table.length + 1];
+    System.arraycopy(table, 0, newTable, 0, index);
+    newTable[index] = new Range(range.lowerBound, range.shardId, now);
+    newTable[index + 1] = new Range(splitKey, spare.getId(), now);
+    System.arraycopy(table, index + 1, newTable, index + 2, table.length - index - 1);
+    table = newTable;
+    moveData(shard, spare, splitKey, highKey);
+    LOGGER.info("Range from " + range.lowerBound + " is split at " + splitKey + ", Shard "
+        + spare.getId() + " takes the upper half");
+  }
+
+  /**
+   * Merge the range at an index with the next one. The merged range is owned by the given shard,
+   * which must own one of the two ranges; the other shard becomes a spare.
+   */
+  private void merge(final int index, final int targetShardId) {
+    var lower = table[index];
+    var upper = table[index + 1];
+    var sourceShardId = lower.shardId == targetShardId ? upper.shardId : lower.shardId;
+    var newTable = new Range[table.length - 1];
+    System.arraycopy(table, 0, newTable, 0, index);
+    newTable[index] = new Range(lower.lowerBound, targetShardId, clock.getAsLong());
+    System.arraycopy(table, index + 2, newTable, index + 1, table.length - index - 2);
+    table = newTable;
+    moveData(shardMap.get(sourceShardId), shardMap.get(targetShardId), Integer.MIN_VALUE,
+        Integer.MAX_VALUE);
+    LOGGER.info("Range of Shard " + sourceShardId + " is merged into Shard " + targetShardId);
+  }
+
+  private static void moveData(final Shard from, final Shard to, final int lowKey,
+                               final int highKey) {
+    for (var data : from.getAllData()) {
+      if (data.getKey() >= lowKey && data.getKey() <= highKey) {
+        to.storeDataIfAbsent(data);
+        from.removeData(data);
+      }
+    }
+  }
+
+  private Shard findSpareShard(final int excludedShardId) {
+    return shardMap.values().stream()
+        .filter(shard -> shard.getId() != excludedShardId && indexOfShard(shard.getId()) < 0)
+        .min((a, b) -> Integer.compare(a.getId(), b.getId()))
+        .orElse(null);
+  }
+
+  private Range findRange(final int key) {
+    var ranges = table;
+    if (ranges.length == 0) {
+      throw new IllegalStateException("No shard available");
+    }
+    var low = 0;
+    var high = ranges.length - 1;
+    while (low < high) {
+      var mid = (low + high + 1) >>> 1;
+      if (ranges[mid].lowerBound <= key) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return ranges[low];
+  }
+
+  private int indexOf(final Range range) {
+    for (var i = 0; i < table.length; i++) {
+      if (table[i] == range) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int indexOfShard(final int shardId) {
+    for (var i = 0; i < table.length; i++) {
+      if (table[i].shardId == shardId) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * A range of keys starting at a lower bound, with its owning shard and load counters.
+   */
+  private static final class Range {
+
+    private final int lowerBound;
+
+    private final int shardId;
+
+    private final LongAdder operations = new LongAdder();
+
+    private final AtomicLong windowStart;
+
+    private volatile long pastOperations;
+
+    private volatile double lastQps = -1;
+
+    private Range(final int lowerBound, final int shardId, final long now) {
+      this.lowerBound = lowerBound;
+      this.shardId = shardId;
+      this.windowStart = new AtomicLong(now);
+    }
+
+    /**
+     * Close the current measuring window if it has elapsed.
+     *
+     * @return operations per second of the closed window, or -1 if the window is still open
+     */
+    private double rollWindow(final long now, final long windowNanos) {
+      var start = windowStart.get();
+      var elapsed = now - start;
+      if (elapsed < windowNanos || !windowStart.compareAndSet(start, now)) {
         return -1;
+      }
+      var count = operations.sumThenReset();
+      pastOperations += count;
+      lastQps = count * 1_000_000_000.0 / elapsed;
+      return lastQps;
+    }
+
+    /**
+     * Get the operations per second of the last closed window, or of the open window if it has
+     * elapsed already, so that ranges which stopped receiving operations do not look busy.
+     */
+    private double currentQps(final long now, final long windowNanos) {
+      var elapsed = now - windowStart.get();
+      if (elapsed >= windowNanos) {
+        return operations.sum() * 1_000_000_000.0 / elapsed;
+      }
+      return lastQps < 0 ? Double.MAX_VALUE : lastQps;
+    }
+
+    private long totalOperations() {
+      return pastOperations + operations.sum();
     }
   }
 
@@ -23,11 +23,16 @@
 
 package com.iluwatar.sharding;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
- * The Shard class stored data in a HashMap.
+ * The Shard class stored data in a ConcurrentHashMap, so that it can be written and read by many
+ * threads at once.
  */
 public class Shard {
 
@@ -37,13 +42,65 @@ public class Shard {
 
   public Shard(final int id) {
     this.id = id;
-    this.dataStore = new HashMap<>();
+    this.dataStore = new ConcurrentHashMap<>();
   }
 
   public void storeData(Data data) {
     dataStore.put(data.getKey(), data);
   }
 
+  /**
+   * Store a batch of data.
+   *
+   * @param data data to store
+   */
+  public void storeAll(Collection<Data> data) {
+    data.forEach(this::storeData);
+  }
+
+  /**
+   * Store data unless the shard already holds data with the same key.
+   *
+   * @param data data to store
+   * @return {@code true} if stored, {@code false} if the key was taken
+   */
+  public boolean storeDataIfAbsent(Data data) {
+    return dataStore.putIfAbsent(data.getKey(), data) == null;
+  }
+
+  /**
+   * Remove data, unless it has been replaced in the meantime.
+   *
+   * @param data data to remove
+   * @return {@code true} if removed
+   */
+  public boolean removeData(Data data) {
+    return dataStore.remove(data.getKey(), data);
+  }
+
+  /**
+   * Get a snapshot of all data stored in the shard.
+   *
+   * @return data of the shard
+   */
+  public Collection<Data> getAllData() {
+    return List.copyOf(dataStore.values());
+  }
+
+  /**
+   * Get all data of the shard matching a predicate.
+   *
+   * @param predicate condition the data has to meet
+   * @return matching data
+   */
+  public List<Data> query(Predicate<Data> predicate) {
+    return dataStore.values().stream().filter(predicate).collect(Collectors.toList());
+  }
+
+  public int size() {
+    return dataStore.size();
+  }
+
   public void clearData() {
     dataStore.clear();
   }
@@ -23,20 +23,33 @@
 
 package com.iluwatar.sharding;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Abstract class for ShardManager.
+ * Abstract class for ShardManager. The shard map is a ConcurrentHashMap, so shards can be added
+ * and removed while other threads store and query data.
  */
 @Slf4j
 public abstract class ShardManager {
 
   protected Map<Integer, Shard> shardMap;
 
+  private volatile Executor queryExecutor = ForkJoinPool.commonPool();
+
   public ShardManager() {
-    shardMap = new HashMap<>();
+    shardMap = new ConcurrentHashMap<>();
   }
 
   /**
@@ -47,13 +60,7 @@ public abstract class ShardManager {
    *         {@code false} if the shardId is already existed.
    */
   public boolean addNewShard(final Shard shard) {
-    var shardId = shard.getId();
-    if (!shardMap.containsKey(shardId)) {
-      shardMap.put(shardId, shard);
-      return true;
-    } else {
-      return false;
-    }
+    return shardMap.putIfAbsent(shard.getId(), shard) == null;
   }
 
   /**
@@ -63,12 +70,7 @@ public abstract class ShardManager {
    * @return {@code true} if removed. {@code false} if the shardId is not existed.
    */
   public boolean removeShardById(final int shardId) {
-    if (shardMap.containsKey(shardId)) {
-      shardMap.remove(shardId);
-      return true;
-    } else {
-      return false;
-    }
+    return shardMap.remove(shardId) != null;
   }
 
   /**
@@ -89,6 +91,67 @@ public abstract class ShardManager {
    */
   public abstract int storeData(final Data data);
 
+  /**
+   * Store a batch of data. The data is grouped by shard first, and every group is stored by
+   * {@link #storeGroup(int, List)}, so every shard is written once.
+   *
+   * @param data new data
+   * @return number of data stored per shard id
+   */
+  public Map<Integer, Integer> storeAll(final Collection<Data> data) {
+    var groups = new HashMap<Integer, List<Data>>();
+    for (var item : data) {
+      groups.computeIfAbsent(allocateShard(item), id -> new ArrayList<>()).add(item);
+    }
+    var counts = new HashMap<Integer, Integer>();
+    groups.forEach((shardId, group) -> {
+      storeGroup(shardId, group);
+      counts.put(shardId, group.size());
+      LOGGER.info(group.size() + " data are stored in Shard " + shardId);
+    });
+    return counts;
+  }
+
+  /**
+   * Store a group of data allocated to the same shard by {@link #storeAll(Collection)}. Managers
+   * keeping state about every write, as {@link #storeData(Data)} does, override this method to
+   * keep that state for batches too.
+   *
+   * @param shardId id of the shard the data is allocated to
+   * @param group data to store
+   */
+  protected void storeGroup(final int shardId, final List<Data> group) {
+    shardMap.get(shardId).storeAll(group);
+  }
+
+  /**
+   * Evaluate a predicate on every shard in parallel, using the query executor, and merge the
+   * matching data of all shards.
+   *
+   * @param predicate condition the data has to meet
+   * @return matching data of all shards
+   */
+  public List<Data> query(final Predicate<Data> predicate) {
+    var executor = queryExecutor;
+    var futures = shardMap.values().stream()
+        .map(shard -> CompletableFuture.supplyAsync(() -> shard.query(predicate), executor))
+        .collect(Collectors.toList());
+    return futures.stream()
+        .map(CompletableFuture::join)
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Set the executor evaluating the per-shard parts of {@link #query(Predicate)}. Defaults to
+   * the common fork-join pool.
+   *
+   * @param executor query executor
+   */
+  public void setQueryExecutor(final Executor executor) {
+    this.queryExecutor = Objects.requireNonNull(executor);
+  }
+
   /**
    * Allocate proper shard to provided data.
    *
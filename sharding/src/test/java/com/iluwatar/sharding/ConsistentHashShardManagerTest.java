@@ -0,0 +1,258 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ConsistentHashShardManager class.
+ */
+class ConsistentHashShardManagerTest {
+
+  private static final int KEYS = 10_000;
+
+  private ConsistentHashShardManager manager;
+
+  /**
+   * Initialize manager instance with four shards and some data.
+   */
+  @BeforeEach
+  void setup() {
+    manager = new ConsistentHashShardManager();
+    for (var id = 1; id <= 4; id++) {
+      manager.addNewShard(new Shard(id));
+    }
+    for (var key = 0; key < KEYS; key++) {
+      manager.storeData(new Data(key, "data" + key, Data.DataType.TYPE_1));
+    }
+  }
+
+  @Test
+  void testStoreData() {
+    var data = new Data(KEYS, "test", Data.DataType.TYPE_1);
+    var shardId = manager.storeData(data);
+    assertEquals(data, manager.getShardById(shardId).getDataById(KEYS));
+    assertEquals(data, manager.getDataByKey(KEYS));
+  }
+
+  @Test
+  void testAddNewShardMovesOnlyAffectedData() {
+    var owners = owners();
+    manager.addNewShard(new Shard(5));
+
+    var moved = 0;
+    for (var key = 0; key < KEYS; key++) {
+      var data = manager.getDataByKey(key);
+      assertEquals(key, data.getKey());
+      var owner = manager.allocateShard(data);
+      assertEquals(data, manager.getShardById(owner).getDataById(key));
+      if (owner != owners.get(key)) {
+        assertEquals(5, owner);
+        moved++;
+      }
+    }
+    assertEquals(moved, manager.getMovedDataCount());
+    assertTrue(moved > KEYS / 10 && moved < KEYS / 3, "moved " + moved);
+  }
+
+  @Test
+  void testRemoveShardByIdMovesItsData() {
+    var size = manager.getShardById(2).size();
+    assertTrue(manager.removeShardById(2));
+    assertFalse(manager.removeShardById(2));
+    assertNull(manager.getShardById(2));
+    assertEquals(size, manager.getMovedDataCount());
+    for (var key = 0; key < KEYS; key++) {
+      assertEquals(key, manager.getDataByKey(key).getKey());
+    }
+  }
+
+  @Test
+  void testWeightedShardOwnsMoreData() {
+    manager.addNewShard(new Shard(5), 4);
+    var total = 0;
+    for (var id = 1; id <= 5; id++) {
+      total += manager.getShardById(id).size();
+    }
+    assertEquals(KEYS, total);
+    assertTrue(manager.getShardById(5).size() > manager.getShardById(1).size() * 2);
+  }
+
+  @Test
+  void testWritesDuringRebalanceAreNotStranded() throws Exception {
+    manager = new ConsistentHashShardManager();
+    for (var id = 1; id <= 4; id++) {
+      manager.addNewShard(new YieldingShard(id));
+    }
+    var writers = 4;
+    var rounds = 5;
+    var executor = Executors.newFixedThreadPool(writers + 1);
+    try {
+      var futures = new ArrayList<Future<?>>();
+      for (var w = 0; w < writers; w++) {
+        var writer = w;
+        futures.add(executor.submit(() -> {
+          for (var round = 1; round <= rounds; round++) {
+            for (var key = writer; key < KEYS; key += writers) {
+              manager.storeData(new Data(key, "version" + round, Data.DataType.TYPE_1));
+            }
+          }
+        }));
+      }
+      futures.add(executor.submit(() -> {
+        for (var id = 5; id <= 8; id++) {
+          Thread.sleep(5);
+          manager.addNewShard(new YieldingShard(id));
+          Thread.sleep(5);
+          manager.removeShardById(id - 4);
+        }
+        return null;
+      }));
+      for (var future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdown();
+    }
+    var total = 0;
+    for (var id = 1; id <= 8; id++) {
+      var shard = manager.getShardById(id);
+      total += shard == null ? 0 : shard.size();
+    }
+    assertEquals(KEYS, total);
+    for (var key = 0; key < KEYS; key++) {
+      var data = manager.getDataByKey(key);
+      assertEquals("version" + rounds, data.getValue(), "key " + key);
+      assertEquals(data, manager.getShardById(manager.allocateShard(data)).getDataById(key));
+    }
+  }
+
+  @Test
+  void testReadsDuringAddNewShardNeverMiss() throws Exception {
+    var shard = new PausingShard(5);
+    var executor = Executors.newSingleThreadExecutor();
+    try {
+      var adding = executor.submit(() -> {
+        var added = manager.addNewShard(shard);
+        shard.moved.countDown();
+        return added;
+      });
+      assertTrue(shard.moving.await(10, TimeUnit.SECONDS));
+      // every key is read while the first one is being copied to the new shard
+      var misses = new AtomicInteger();
+      for (var key = 0; key < KEYS; key++) {
+        if (manager.getDataByKey(key) == null) {
+          misses.incrementAndGet();
+        }
+      }
+      shard.read.countDown();
+      assertTrue(adding.get(10, TimeUnit.SECONDS));
+      assertEquals(0, misses.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private HashMap<Integer, Integer> owners() {
+    var owners = new HashMap<Integer, Integer>();
+    for (var key = 0; key < KEYS; key++) {
+      owners.put(key, manager.allocateShard(manager.getDataByKey(key)));
+    }
+    return owners;
+  }
+
+  /**
+   * Shard letting other threads run before every write, so that topology changes interleave with
+   * the writes.
+   */
+  private static final class YieldingShard extends Shard {
+
+    private YieldingShard(final int id) {
+      super(id);
+    }
+
+    @Override
+    public void storeData(final Data data) {
+      Thread.yield();
+      super.storeData(data);
+    }
+  }
+
+  /**
+   * Shard pausing the first copy of data into it until the keys have been read, so that the reads
+   * run in the middle of the data move. A read missing the shard meanwhile lets the move go on
+   * and returns only once it is finished.
+   */
+  private static final class PausingShard extends Shard {
+
+    private final CountDownLatch moving = new CountDownLatch(1);
+
+    private final CountDownLatch read = new CountDownLatch(1);
+
+    private final CountDownLatch moved = new CountDownLatch(1);
+
+    private PausingShard(final int id) {
+      super(id);
+    }
+
+    @Override
+    public boolean storeDataIfAbsent(final Data data) {
+      moving.countDown();
+      await(read);
+      return super.storeDataIfAbsent(data);
+    }
+
+    @Override
+    public Data getDataById(final int id) {
+      var data = super.getDataById(id);
+      if (data == null && moving.getCount() == 0 && read.getCount() > 0) {
+        // the key has not been copied yet, let the data move finish before answering
+        read.countDown();
+        await(moved);
+      }
+      return data;
+    }
+
+    private static void await(final CountDownLatch latch) {
+      try {
+        latch.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -24,7 +24,13 @@
 package com.iluwatar.sharding;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -56,4 +62,63 @@ class HashShardManagerTest {
     assertEquals(data, hashShardManager.getShardById(1).getDataById(1));
   }
 
+  @Test
+  void testStoreAll() {
+    var data = new ArrayList<Data>();
+    for (var key = 0; key < 30; key++) {
+      data.add(new Data(key, "value" + key, Data.DataType.TYPE_1));
+    }
+    var counts = hashShardManager.storeAll(data);
+    assertEquals(Map.of(1, 10, 2, 10, 3, 10), counts);
+    for (var item : data) {
+      var shardId = item.getKey() % 3 == 0 ? 3 : item.getKey() % 3;
+      assertEquals(item, hashShardManager.getShardById(shardId).getDataById(item.getKey()));
+    }
+  }
+
+  @Test
+  void testQuery() {
+    var data = new ArrayList<Data>();
+    for (var key = 0; key < 30; key++) {
+      var type = key % 2 == 0 ? Data.DataType.TYPE_1 : Data.DataType.TYPE_2;
+      data.add(new Data(key, "value" + key, type));
+    }
+    hashShardManager.storeAll(data);
+    var executor = Executors.newFixedThreadPool(3);
+    try {
+      hashShardManager.setQueryExecutor(executor);
+      var result = hashShardManager.query(d -> d.getType() == Data.DataType.TYPE_2);
+      assertEquals(15, result.size());
+      assertTrue(result.stream().allMatch(d -> d.getKey() % 2 == 1));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testConcurrentStoreData() throws Exception {
+    var threads = 4;
+    var perThread = 1000;
+    var executor = Executors.newFixedThreadPool(threads);
+    var start = new CountDownLatch(1);
+    for (var t = 0; t < threads; t++) {
+      var offset = t * perThread;
+      executor.execute(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        for (var key = offset; key < offset + perThread; key++) {
+          hashShardManager.storeData(new Data(key, "value", Data.DataType.TYPE_1));
+        }
+      });
+    }
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    assertEquals(threads * perThread, hashShardManager.query(d -> true).size());
+  }
+
 }
@@ -23,8 +23,16 @@
 
 package com.iluwatar.sharding;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -33,6 +41,10 @@ import org.junit.jupiter.api.Test;
  */
 class RangeShardManagerTest {
 
+  private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+  private final AtomicLong clock = new AtomicLong();
+
   private RangeShardManager rangeShardManager;
 
   /**
@@ -56,4 +68,118 @@ class RangeShardManagerTest {
     assertEquals(data, rangeShardManager.getShardById(1).getDataById(1));
   }
 
+  @Test
+  void testSplitOnSize() {
+    var manager = createManager(2, 1_000, 0);
+    for (var key = 1; key <= 4; key++) {
+      manager.storeData(new Data(key, "data" + key, Data.DataType.TYPE_1));
+    }
+    assertArrayEquals(new int[] {Integer.MIN_VALUE, 2, 3}, manager.getLowerBounds());
+    assertEquals(1, manager.getShardById(1).size());
+    assertEquals(1, manager.getShardById(2).size());
+    assertEquals(2, manager.getShardById(3).size());
+    assertEquals(3, manager.storeData(new Data(100, "data", Data.DataType.TYPE_1)));
+    assertEquals(1, manager.storeData(new Data(-100, "data", Data.DataType.TYPE_1)));
+  }
+
+  @Test
+  void testSplitOnQpsAndMergeColdRanges() {
+    var manager = createManager(100, 5, 1);
+    for (var key = 1; key <= 10; key++) {
+      manager.storeData(new Data(key, "data" + key, Data.DataType.TYPE_1));
+    }
+    assertArrayEquals(new int[] {Integer.MIN_VALUE}, manager.getLowerBounds());
+    assertEquals(10, manager.getRangeOperations(1));
+    clock.addAndGet(WINDOW);
+    manager.storeData(new Data(11, "data11", Data.DataType.TYPE_1));
+    assertArrayEquals(new int[] {Integer.MIN_VALUE, 6}, manager.getLowerBounds());
+    assertEquals(5, manager.getShardById(1).size());
+    assertEquals(6, manager.getShardById(2).size());
+    assertEquals(0, manager.getRangeOperations(1));
+
+    clock.addAndGet(2 * WINDOW);
+    manager.rebalance();
+    assertArrayEquals(new int[] {Integer.MIN_VALUE}, manager.getLowerBounds());
+    assertEquals(11, manager.getShardById(1).size());
+    assertEquals(0, manager.getShardById(2).size());
+  }
+
+  @Test
+  void testRemoveShardMergesRange() {
+    var manager = createManager(2, 1_000, 0);
+    for (var key = 1; key <= 4; key++) {
+      manager.storeData(new Data(key, "data" + key, Data.DataType.TYPE_1));
+    }
+    manager.removeShardById(1);
+    assertArrayEquals(new int[] {Integer.MIN_VALUE, 3}, manager.getLowerBounds());
+    assertEquals(2, manager.getShardById(2).size());
+    assertEquals(2, manager.getShardById(3).size());
+    manager.removeShardById(3);
+    manager.removeShardById(2);
+    assertArrayEquals(new int[0], manager.getLowerBounds());
+    assertThrows(IllegalStateException.class,
+        () -> manager.storeData(new Data(1, "data1", Data.DataType.TYPE_1)));
+  }
+
+  @Test
+  void testStoreAllCountsOperationsAndSplits() {
+    var data = new ArrayList<Data>();
+    for (var key = 1; key <= 4; key++) {
+      data.add(new Data(key, "data" + key, Data.DataType.TYPE_1));
+    }
+    var manager = createManager(100, 1_000, 0);
+    manager.storeAll(data);
+    assertEquals(4, manager.getRangeOperations(1));
+    var splitting = createManager(2, 1_000, 0);
+    splitting.storeAll(data);
+    assertArrayEquals(new int[] {Integer.MIN_VALUE, 3}, splitting.getLowerBounds());
+    assertEquals(2, splitting.getShardById(2).size());
+  }
+
+  @Test
+  void testConcurrentWritesDuringSplitsAndMerges() throws Exception {
+    var manager = createManager(20, 1_000_000, 0);
+    for (var id = 4; id <= 8; id++) {
+      manager.addNewShard(new Shard(id));
+    }
+    var writers = 4;
+    var keysPerWriter = 500;
+    var executor = Executors.newFixedThreadPool(writers + 1);
+    try {
+      var futures = new ArrayList<Future<?>>();
+      for (var w = 0; w < writers; w++) {
+        var writer = w;
+        futures.add(executor.submit(() -> {
+          for (var i = 0; i < keysPerWriter; i++) {
+            var key = i * writers + writer;
+            manager.storeData(new Data(key, "data" + key, Data.DataType.TYPE_1));
+          }
+        }));
+      }
+      futures.add(executor.submit(() -> {
+        for (var i = 0; i < 50; i++) {
+          manager.removeShardById(2 + i % 7);
+          manager.addNewShard(new Shard(2 + i % 7));
+        }
+      }));
+      for (var future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdown();
+    }
+    for (var key = 0; key < writers * keysPerWriter; key++) {
+      assertNotNull(manager.getDataByKey(key), "key " + key);
+    }
+    assertEquals(writers * keysPerWriter, manager.query(data -> true).size());
+  }
+
+  private RangeShardManager createManager(int maxSize, double maxQps, double minQps) {
+    var manager = new RangeShardManager(maxSize, maxQps, minQps, WINDOW, clock::get);
+    manager.addNewShard(new Shard(1));
+    manager.addNewShard(new Shard(2));
+    manager.addNewShard(new Shard(3));
+    return manager;
+  }
+
 }
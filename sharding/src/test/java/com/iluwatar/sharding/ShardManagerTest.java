@@ -27,6 +27,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -85,6 +88,33 @@ class ShardManagerTest {
     assertEquals(shard, tmpShard);
   }
 
+  @Test
+  void testStoreAllStoresGroupsThroughHook() {
+    var groups = new HashMap<Integer, List<Data>>();
+    shardManager = new TestShardManager() {
+      @Override
+      protected int allocateShard(Data data) {
+        return data.getKey() % 2 + 1;
+      }
+
+      @Override
+      protected void storeGroup(int shardId, List<Data> group) {
+        groups.put(shardId, group);
+        super.storeGroup(shardId, group);
+      }
+    };
+    shardManager.addNewShard(new Shard(1));
+    shardManager.addNewShard(new Shard(2));
+    var data = new ArrayList<Data>();
+    for (var key = 0; key < 5; key++) {
+      data.add(new Data(key, "value" + key, Data.DataType.TYPE_1));
+    }
+    assertEquals(Map.of(1, 3, 2, 2), shardManager.storeAll(data));
+    assertEquals(List.of(data.get(0), data.get(2), data.get(4)), groups.get(1));
+    assertEquals(List.of(data.get(1), data.get(3)), groups.get(2));
+    assertEquals(3, shardManager.getShardById(1).size());
+  }
+
   static class TestShardManager extends ShardManager {
 
     @Override
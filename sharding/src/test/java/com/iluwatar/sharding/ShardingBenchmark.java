@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.sharding;
+
+/**
+ * Compares {@link HashShardManager} with {@link ConsistentHashShardManager} for 10 to 1,000
+ * shards: the share of keys whose shard changes when one shard is added, and the cost of
+ * allocating a shard to a key. Run the main method with the module's test classpath.
+ */
+public final class ShardingBenchmark {
+
+  private static final int KEYS = 100_000;
+
+  private static final int LOOKUPS = 5_000_000;
+
+  private static final int[] SHARD_COUNTS = {10, 100, 1_000};
+
+  private ShardingBenchmark() {
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args unused
+   */
+  public static void main(String[] args) {
+    var data = new Data[KEYS];
+    for (var key = 0; key < KEYS; key++) {
+      data[key] = new Data(key, "data" + key, Data.DataType.TYPE_1);
+    }
+    System.out.printf("%8s %14s %14s %14s %14s%n", "shards", "hash moved", "ring moved",
+        "hash ns/op", "ring ns/op");
+    for (var shards : SHARD_COUNTS) {
+      var hash = new HashShardManager();
+      var ring = new ConsistentHashShardManager();
+      for (var id = 1; id <= shards; id++) {
+        hash.addNewShard(new Shard(id));
+        ring.addNewShard(new Shard(id));
+      }
+      var hashBefore = allocate(hash, data);
+      var ringBefore = allocate(ring, data);
+      var hashLookup = lookupNanos(hash, data);
+      var ringLookup = lookupNanos(ring, data);
+      hash.addNewShard(new Shard(shards + 1));
+      ring.addNewShard(new Shard(shards + 1));
+      System.out.printf("%8d %13.2f%% %13.2f%% %14.1f %14.1f%n", shards,
+          movedPercentage(hashBefore, allocate(hash, data)),
+          movedPercentage(ringBefore, allocate(ring, data)), hashLookup, ringLookup);
+    }
+  }
+
+  private static int[] allocate(ShardManager manager, Data[] data) {
+    var owners = new int[data.length];
+    for (var i = 0; i < data.length; i++) {
+      owners[i] = manager.allocateShard(data[i]);
+    }
+    return owners;
+  }
+
+  private static double lookupNanos(ShardManager manager, Data[] data) {
+    var sink = 0L;
+    for (var i = 0; i < LOOKUPS; i++) {
+      sink += manager.allocateShard(data[i % data.length]);
+    }
+    var start = System.nanoTime();
+    for (var i = 0; i < LOOKUPS; i++) {
+      sink += manager.allocateShard(data[i % data.length]);
+    }
+    var elapsed = System.nanoTime() - start;
+    if (sink == 42) {
+      System.out.println();
+    }
+    return (double) elapsed / LOOKUPS;
+  }
+
+  private static double movedPercentage(int[] before, int[] after) {
+    var moved = 0;
+    for (var i = 0; i < before.length; i++) {
+      if (before[i] != after[i]) {
+        moved++;
+      }
+    }
+    return 100.0 * moved / before.length;
+  }
+}
@@ -24,6 +24,7 @@
 package com.iluwatar.spatialpartition;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.HashMap;
 import lombok.extern.slf4j.Slf4j;
 
@@ -59,6 +60,7 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class App {
   private static final String BUBBLE = "Bubble ";
+  private static final int MAX_RADIUS = 2;
 
   static void noSpatialPartition(int numOfMovements, HashMap<Integer, Bubble> bubbles) {
     //all bubbles have to be checked for collision for all bubbles
@@ -102,6 +104,23 @@ public class App {
     bubbles.keySet().stream().map(key -> BUBBLE + key + " not popped").forEach(LOGGER::info);
   }
 
+  static void withSpatialHashGrid(int numOfMovements, HashMap<Integer, Bubble> bubbles) {
+    //creating grid once, with cells as large as the largest distance at which bubbles touch
+    var grid = new SpatialHashGrid<Bubble>(2 * MAX_RADIUS);
+    bubbles.values().forEach(grid::update);
+    var sp = new SpatialPartitionBubbles(bubbles, grid);
+
+    //will run numOfMovement times or till all bubbles have popped
+    while (numOfMovements > 0 && !bubbles.isEmpty()) {
+      //bubbles move, only bubbles that changed cell are relinked in the grid
+      bubbles.values().forEach(Bubble::move);
+      sp.handleCollisionsUsingGrid(new ArrayList<>(bubbles.values()));
+      numOfMovements--;
+    }
+    //bubbles not popped
+    bubbles.keySet().stream().map(key -> BUBBLE + key + " not popped").forEach(LOGGER::info);
+  }
+
   /**
    * Program entry point.
    *
@@ -111,11 +130,13 @@ public class App {
   public static void main(String[] args) {
     var bubbles1 = new HashMap<Integer, Bubble>();
     var bubbles2 = new HashMap<Integer, Bubble>();
+    var bubbles3 = new HashMap<Integer, Bubble>();
     var rand = new SecureRandom();
     for (int i = 0; i < 10000; i++) {
-      var b = new Bubble(rand.nextInt(300), rand.nextInt(300), i, rand.nextInt(2) + 1);
+      var b = new Bubble(rand.nextInt(300), rand.nextInt(300), i, rand.nextInt(MAX_RADIUS) + 1);
       bubbles1.put(i, b);
       bubbles2.put(i, b);
+      bubbles3.put(i, b);
       LOGGER.info(BUBBLE, i, " with radius ", b.radius,
           " added at (", b.coordinateX, ",", b.coordinateY + ")");
     }
@@ -126,8 +147,12 @@ public class App {
     var start2 = System.currentTimeMillis();
     App.withSpatialPartition(300, 300, 20, bubbles2);
     var end2 = System.currentTimeMillis();
+    var start3 = System.currentTimeMillis();
+    App.withSpatialHashGrid(20, bubbles3);
+    var end3 = System.currentTimeMillis();
     LOGGER.info("Without spatial partition takes ", (end1 - start1), "ms");
     LOGGER.info("With spatial partition takes ", (end2 - start2), "ms");
+    LOGGER.info("With spatial hash grid takes ", (end3 - start3), "ms");
   }
 }
 
@@ -0,0 +1,641 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A flat, array-backed variant of {@link QuadTree}. Nodes and points live in primitive arrays
+ * instead of objects. A node is four ints (first child, parent, first point, number of points in
+ * its subtree) and the four children of a node are allocated next to each other, so a block of
+ * siblings fills a single 64-byte cache line. Node bounds are not stored but derived from the
+ * boundary on the way down, and the points of a leaf form a linked list through the point arrays.
+ *
+ * <p>Besides insertion and rectangular queries the tree supports removal, moving points without a
+ * rebuild ({@link #update(Point)}), circular ({@link #queryRadius(double, double, double,
+ * Collection)}) and k-nearest-neighbour ({@link #nearest(double, double, int)}) queries, and bulk
+ * loading ({@link #bulkLoad(Rect, int, Collection)}). A leaf is split when it holds more than
+ * {@code capacity} points, and a subtree collapses back into a leaf when removals leave it with
+ * {@code capacity} points or fewer.
+ *
+ * <p>The tree indexes the coordinates a point had when it was inserted or last updated, and it is
+ * not thread safe.
+ */
+
+public class PackedQuadTree {
+  private static final int NONE = -1;
+  private static final int MAX_DEPTH = 24;
+  private static final int INITIAL_SIZE = 16;
+
+  private static final int NODE_SIZE = 4;
+  private static final int CHILD = 0;
+  private static final int PARENT = 1;
+  private static final int HEAD = 2;
+  private static final int COUNT = 3;
+
+  private final int capacity;
+  private final double rootX;
+  private final double rootY;
+  private final double rootHalfWidth;
+  private final double rootHalfHeight;
+  private final Map<Integer, Integer> slotById = new HashMap<>();
+
+  private int[] nodes = new int[INITIAL_SIZE * NODE_SIZE];
+  private int nodeTop;
+  private int[] freeBlocks = new int[INITIAL_SIZE];
+  private int freeBlockCount;
+
+  private Point[] items = new Point[INITIAL_SIZE];
+  private int[] itemX = new int[INITIAL_SIZE];
+  private int[] itemY = new int[INITIAL_SIZE];
+  private int[] itemNext = new int[INITIAL_SIZE];
+  private int[] itemNode = new int[INITIAL_SIZE];
+  private int itemTop;
+  private int freeItem = NONE;
+
+  PackedQuadTree(Rect boundary, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.rootX = boundary.coordinateX;
+    this.rootY = boundary.coordinateY;
+    this.rootHalfWidth = boundary.width / 2;
+    this.rootHalfHeight = boundary.height / 2;
+    initNode(0, NONE);
+    this.nodeTop = 1;
+  }
+
+  /**
+   * Builds a tree from a collection of points at once. The points are partitioned top-down into
+   * quadrants in place, the quadtree counterpart of sort-tile-recursive packing, so every node is
+   * split exactly once and the points of every leaf end up next to each other in the arrays, in
+   * Z-order. Points outside the boundary are skipped, and of several points with the same id the
+   * last one is kept.
+   *
+   * @param boundary area covered by the tree
+   * @param capacity maximum number of points of a leaf
+   * @param points   points to load
+   * @return the loaded tree
+   */
+  static PackedQuadTree bulkLoad(Rect boundary, int capacity, Collection<? extends Point> points) {
+    var tree = new PackedQuadTree(boundary, capacity);
+    var unique = new HashMap<Integer, Point>();
+    for (var p : points) {
+      if (tree.inBoundary(p.coordinateX, p.coordinateY)) {
+        unique.put(p.id, p);
+      }
+    }
+    var loaded = unique.values().toArray(new Point[0]);
+    var order = new int[loaded.length];
+    for (var i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    tree.ensureItemCapacity(loaded.length);
+    tree.load(0, tree.rootX, tree.rootY, tree.rootHalfWidth, tree.rootHalfHeight, 0, loaded,
+        order, new int[order.length], 0, order.length);
+    return tree;
+  }
+
+  /**
+   * Inserts a point, or moves it if a point with the same id is already in the tree.
+   *
+   * @param p point to insert
+   * @return whether the point lies within the boundary and was inserted
+   */
+  boolean insert(Point p) {
+    if (slotById.containsKey(p.id)) {
+      return update(p);
+    }
+    if (!inBoundary(p.coordinateX, p.coordinateY)) {
+      return false;
+    }
+    var slot = allocateItem(p);
+    slotById.put(p.id, slot);
+    insertSlot(slot);
+    return true;
+  }
+
+  /**
+   * Removes a point.
+   *
+   * @param p point to remove
+   * @return whether a point with the id of p was in the tree
+   */
+  boolean remove(Point p) {
+    var slot = slotById.remove(p.id);
+    if (slot == null) {
+      return false;
+    }
+    removeSlot(slot);
+    items[slot] = null;
+    itemNext[slot] = freeItem;
+    freeItem = slot;
+    return true;
+  }
+
+  /**
+   * Moves a point to its current coordinates. A point that stays in its leaf is updated in place,
+   * otherwise it is unlinked from its old leaf and linked into the new one. A point that left the
+   * boundary is removed, and a point not in the tree yet is inserted.
+   *
+   * @param p point that moved
+   * @return whether the point is in the tree afterwards
+   */
+  boolean update(Point p) {
+    var slot = slotById.get(p.id);
+    if (slot == null) {
+      return insert(p);
+    }
+    var x = p.coordinateX;
+    var y = p.coordinateY;
+    items[slot] = p;
+    if (x == itemX[slot] && y == itemY[slot]) {
+      return true;
+    }
+    if (!inBoundary(x, y)) {
+      remove(p);
+      return false;
+    }
+    if (findLeaf(x, y) == itemNode[slot]) {
+      itemX[slot] = x;
+      itemY[slot] = y;
+    } else {
+      removeSlot(slot);
+      itemX[slot] = x;
+      itemY[slot] = y;
+      insertSlot(slot);
+    }
+    return true;
+  }
+
+  int size() {
+    return slotById.size();
+  }
+
+  int getNodeCount() {
+    return nodeTop - NODE_SIZE * freeBlockCount;
+  }
+
+  Collection<Point> query(Rect r, Collection<Point> relevantPoints) {
+    queryRect(0, rootX, rootY, rootHalfWidth, rootHalfHeight, r.coordinateX - r.width / 2,
+        r.coordinateY - r.height / 2, r.coordinateX + r.width / 2, r.coordinateY + r.height / 2,
+        relevantPoints);
+    return relevantPoints;
+  }
+
+  /**
+   * Finds the points within a circle.
+   *
+   * @param x              x coordinate of the centre
+   * @param y              y coordinate of the centre
+   * @param radius         radius of the circle
+   * @param relevantPoints collection the points found are added to
+   * @return relevantPoints
+   */
+  Collection<Point> queryRadius(double x, double y, double radius,
+                                Collection<Point> relevantPoints) {
+    queryCircle(0, rootX, rootY, rootHalfWidth, rootHalfHeight, x, y, radius * radius,
+        relevantPoints);
+    return relevantPoints;
+  }
+
+  /**
+   * Finds the k points nearest to a location. Subtrees are visited nearest first and skipped as
+   * soon as they are farther away than the k-th nearest point found so far.
+   *
+   * @param x x coordinate of the location
+   * @param y y coordinate of the location
+   * @param k number of points to find
+   * @return up to k points, nearest first
+   */
+  List<Point> nearest(double x, double y, int k) {
+    if (k <= 0 || size() == 0) {
+      return Collections.emptyList();
+    }
+    var heap = new NeighbourHeap(Math.min(k, size()));
+    searchNearest(0, rootX, rootY, rootHalfWidth, rootHalfHeight, x, y, heap);
+    var result = new ArrayList<Point>(heap.size);
+    while (heap.size > 0) {
+      result.add(items[heap.pop()]);
+    }
+    Collections.reverse(result);
+    return result;
+  }
+
+  private void load(int node, double cx, double cy, double hw, double hh, int depth,
+                    Point[] loaded, int[] order, int[] buffer, int from, int to) {
+    var count = to - from;
+    nodes[node * NODE_SIZE + COUNT] = count;
+    if (count <= capacity || depth >= MAX_DEPTH) {
+      var first = itemTop;
+      itemTop += count;
+      for (var i = to - 1; i >= from; i--) {
+        var slot = first + i - from;
+        var p = loaded[order[i]];
+        items[slot] = p;
+        itemX[slot] = p.coordinateX;
+        itemY[slot] = p.coordinateY;
+        link(node, slot);
+        slotById.put(p.id, slot);
+      }
+      return;
+    }
+    var starts = new int[5];
+    for (var i = from; i < to; i++) {
+      var p = loaded[order[i]];
+      starts[quadrant(cx, cy, p.coordinateX, p.coordinateY) + 1]++;
+    }
+    starts[0] = from;
+    for (var q = 1; q < starts.length; q++) {
+      starts[q] += starts[q - 1];
+    }
+    var next = Arrays.copyOf(starts, 4);
+    for (var i = from; i < to; i++) {
+      var p = loaded[order[i]];
+      buffer[next[quadrant(cx, cy, p.coordinateX, p.coordinateY)]++] = order[i];
+    }
+    System.arraycopy(buffer, from, order, from, count);
+    var base = allocateBlock(node);
+    for (var q = 0; q < 4; q++) {
+      load(base + q, childX(cx, hw, q), childY(cy, hh, q), hw / 2, hh / 2, depth + 1, loaded,
+          order, buffer, starts[q], starts[q + 1]);
+    }
+  }
+
+  private void insertSlot(int slot) {
+    var x = itemX[slot];
+    var y = itemY[slot];
+    var node = 0;
+    var cx = rootX;
+    var cy = rootY;
+    var hw = rootHalfWidth;
+    var hh = rootHalfHeight;
+    var depth = 0;
+    nodes[COUNT]++;
+    while (nodes[node * NODE_SIZE + CHILD] != NONE) {
+      var q = quadrant(cx, cy, x, y);
+      node = nodes[node * NODE_SIZE + CHILD] + q;
+      cx = childX(cx, hw, q);
+      cy = childY(cy, hh, q);
+      hw /= 2;
+      hh /= 2;
+      depth++;
+      nodes[node * NODE_SIZE + COUNT]++;
+    }
+    link(node, slot);
+    if (nodes[node * NODE_SIZE + COUNT] > capacity && depth < MAX_DEPTH) {
+      split(node, cx, cy, hw, hh, depth);
+    }
+  }
+
+  private int findLeaf(int x, int y) {
+    var node = 0;
+    var cx = rootX;
+    var cy = rootY;
+    var hw = rootHalfWidth;
+    var hh = rootHalfHeight;
+    while (nodes[node * NODE_SIZE + CHILD] != NONE) {
+      var q = quadrant(cx, cy, x, y);
+      node = nodes[node * NODE_SIZE + CHILD] + q;
+      cx = childX(cx, hw, q);
+      cy = childY(cy, hh, q);
+      hw /= 2;
+      hh /= 2;
+    }
+    return node;
+  }
+
+  private void removeSlot(int slot) {
+    var leaf = itemNode[slot];
+    var head = leaf * NODE_SIZE + HEAD;
+    if (nodes[head] == slot) {
+      nodes[head] = itemNext[slot];
+    } else {
+      var previous = nodes[head];
+      while (itemNext[previous] != slot) {
+        previous = itemNext[previous];
+      }
+      itemNext[previous] = itemNext[slot];
+    }
+    for (var node = leaf; node != NONE; node = nodes[node * NODE_SIZE + PARENT]) {
+      nodes[node * NODE_SIZE + COUNT]--;
+    }
+    var collapseAt = NONE;
+    for (var node = nodes[leaf * NODE_SIZE + PARENT];
+         node != NONE && nodes[node * NODE_SIZE + COUNT] <= capacity;
+         node = nodes[node * NODE_SIZE + PARENT]) {
+      collapseAt = node;
+    }
+    if (collapseAt != NONE) {
+      var points = detach(collapseAt, NONE);
+      while (points != NONE) {
+        var next = itemNext[points];
+        link(collapseAt, points);
+        points = next;
+      }
+    }
+  }
+
+  private void split(int node, double cx, double cy, double hw, double hh, int depth) {
+    var base = allocateBlock(node);
+    var slot = nodes[node * NODE_SIZE + HEAD];
+    nodes[node * NODE_SIZE + HEAD] = NONE;
+    while (slot != NONE) {
+      var next = itemNext[slot];
+      var child = base + quadrant(cx, cy, itemX[slot], itemY[slot]);
+      link(child, slot);
+      nodes[child * NODE_SIZE + COUNT]++;
+      slot = next;
+    }
+    for (var q = 0; q < 4; q++) {
+      if (nodes[(base + q) * NODE_SIZE + COUNT] > capacity && depth + 1 < MAX_DEPTH) {
+        split(base + q, childX(cx, hw, q), childY(cy, hh, q), hw / 2, hh / 2, depth + 1);
+      }
+    }
+  }
+
+  /**
+   * Unlinks all points of a subtree, frees its descendants and turns it into an empty leaf.
+   *
+   * @return the unlinked points prepended to head
+   */
+  private int detach(int node, int head) {
+    var child = nodes[node * NODE_SIZE + CHILD];
+    if (child == NONE) {
+      var slot = nodes[node * NODE_SIZE + HEAD];
+      while (slot != NONE) {
+        var next = itemNext[slot];
+        itemNext[slot] = head;
+        head = slot;
+        slot = next;
+      }
+      nodes[node * NODE_SIZE + HEAD] = NONE;
+      return head;
+    }
+    for (var q = 0; q < 4; q++) {
+      head = detach(child + q, head);
+    }
+    nodes[node * NODE_SIZE + CHILD] = NONE;
+    if (freeBlockCount == freeBlocks.length) {
+      freeBlocks = Arrays.copyOf(freeBlocks, freeBlockCount * 2);
+    }
+    freeBlocks[freeBlockCount++] = child;
+    return head;
+  }
+
+  private void queryRect(int node, double cx, double cy, double hw, double hh, double minX,
+                         double minY, double maxX, double maxY, Collection<Point> relevantPoints) {
+    if (nodes[node * NODE_SIZE + COUNT] == 0
+        || cx - hw > maxX || cx + hw < minX || cy - hh > maxY || cy + hh < minY) {
+      return;
+    }
+    var child = nodes[node * NODE_SIZE + CHILD];
+    if (child == NONE) {
+      for (var s = nodes[node * NODE_SIZE + HEAD]; s != NONE; s = itemNext[s]) {
+        if (itemX[s] >= minX && itemX[s] <= maxX && itemY[s] >= minY && itemY[s] <= maxY) {
+          relevantPoints.add(items[s]);
+        }
+      }
+      return;
+    }
+    for (var q = 0; q < 4; q++) {
+      queryRect(child + q, childX(cx, hw, q), childY(cy, hh, q), hw / 2, hh / 2, minX, minY,
+          maxX, maxY, relevantPoints);
+    }
+  }
+
+  private void queryCircle(int node, double cx, double cy, double hw, double hh, double x,
+                           double y, double radiusSquared, Collection<Point> relevantPoints) {
+    if (nodes[node * NODE_SIZE + COUNT] == 0
+        || distanceSquared(cx, cy, hw, hh, x, y) > radiusSquared) {
+      return;
+    }
+    var child = nodes[node * NODE_SIZE + CHILD];
+    if (child == NONE) {
+      for (var s = nodes[node * NODE_SIZE + HEAD]; s != NONE; s = itemNext[s]) {
+        var dx = itemX[s] - x;
+        var dy = itemY[s] - y;
+        if (dx * dx + dy * dy <= radiusSquared) {
+          relevantPoints.add(items[s]);
+        }
+      }
+      return;
+    }
+    for (var q = 0; q < 4; q++) {
+      queryCircle(child + q, childX(cx, hw, q), childY(cy, hh, q), hw / 2, hh / 2, x, y,
+          radiusSquared, relevantPoints);
+    }
+  }
+
+  private void searchNearest(int node, double cx, double cy, double hw, double hh, double x,
+                             double y, NeighbourHeap heap) {
+    var child = nodes[node * NODE_SIZE + CHILD];
+    if (child == NONE) {
+      for (var s = nodes[node * NODE_SIZE + HEAD]; s != NONE; s = itemNext[s]) {
+        var dx = itemX[s] - x;
+        var dy = itemY[s] - y;
+        heap.offer(dx * dx + dy * dy, s);
+      }
+      return;
+    }
+    var quadrants = new int[4];
+    var distances = new double[4];
+    for (var q = 0; q < 4; q++) {
+      var d = distanceSquared(childX(cx, hw, q), childY(cy, hh, q), hw / 2, hh / 2, x, y);
+      var i = q;
+      while (i > 0 && distances[i - 1] > d) {
+        distances[i] = distances[i - 1];
+        quadrants[i] = quadrants[i - 1];
+        i--;
+      }
+      distances[i] = d;
+      quadrants[i] = q;
+    }
+    for (var i = 0; i < 4; i++) {
+      if (heap.isFull() && distances[i] > heap.worst()) {
+        return;
+      }
+      var q = quadrants[i];
+      if (nodes[(child + q) * NODE_SIZE + COUNT] > 0) {
+        searchNearest(child + q, childX(cx, hw, q), childY(cy, hh, q), hw / 2, hh / 2, x, y,
+            heap);
+      }
+    }
+  }
+
+  private static double distanceSquared(double cx, double cy, double hw, double hh, double x,
+                                        double y) {
+    var dx = Math.max(Math.abs(x - cx) - hw, 0);
+    var dy = Math.max(Math.abs(y - cy) - hh, 0);
+    return dx * dx + dy * dy;
+  }
+
+  private static int quadrant(double cx, double cy, int x, int y) {
+    return (y >= cy ? 2 : 0) | (x >= cx ? 1 : 0);
+  }
+
+  private static double childX(double cx, double hw, int quadrant) {
+    return (quadrant & 1) == 0 ? cx - hw / 2 : cx + hw / 2;
+  }
+
+  private static double childY(double cy, double hh, int quadrant) {
+    return (quadrant & 2) == 0 ? cy - hh / 2 : cy + hh / 2;
+  }
+
+  private boolean inBoundary(int x, int y) {
+    return Math.abs(x - rootX) <= rootHalfWidth && Math.abs(y - rootY) <= rootHalfHeight;
+  }
+
+  private void link(int node, int slot) {
+    itemNode[slot] = node;
+    itemNext[slot] = nodes[node * NODE_SIZE + HEAD];
+    nodes[node * NODE_SIZE + HEAD] = slot;
+  }
+
+  private int allocateItem(Point p) {
+    int slot;
+    if (freeItem != NONE) {
+      slot = freeItem;
+      freeItem = itemNext[slot];
+    } else {
+      ensureItemCapacity(itemTop + 1);
+      slot = itemTop++;
+    }
+    items[slot] = p;
+    itemX[slot] = p.coordinateX;
+    itemY[slot] = p.coordinateY;
+    return slot;
+  }
+
+  private int allocateBlock(int parent) {
+    int base;
+    if (freeBlockCount > 0) {
+      base = freeBlocks[--freeBlockCount];
+    } else {
+      if ((nodeTop + 4) * NODE_SIZE > nodes.length) {
+        nodes = Arrays.copyOf(nodes, Math.max((nodeTop + 4) * NODE_SIZE, nodes.length * 2));
+      }
+      base = nodeTop;
+      nodeTop += 4;
+    }
+    for (var q = 0; q < 4; q++) {
+      initNode(base + q, parent);
+    }
+    nodes[parent * NODE_SIZE + CHILD] = base;
+    return base;
+  }
+
+  private void initNode(int node, int parent) {
+    nodes[node * NODE_SIZE + CHILD] = NONE;
+    nodes[node * NODE_SIZE + PARENT] = parent;
+    nodes[node * NODE_SIZE + HEAD] = NONE;
+    nodes[node * NODE_SIZE + COUNT] = 0;
+  }
+
+  private void ensureItemCapacity(int required) {
+    if (required <= items.length) {
+      return;
+    }
+    var length = Math.max(required, items.length * 2);
+    items = Arrays.copyOf(items, length);
+    itemX = Arrays.copyOf(itemX, length);
+    itemY = Arrays.copyOf(itemY, length);
+    itemNext = Arrays.copyOf(itemNext, length);
+    itemNode = Arrays.copyOf(itemNode, length);
+  }
+
+  /**
+   * Bounded max-heap of point slots keyed by squared distance, holding the nearest points found.
+   */
+  private static final class NeighbourHeap {
+    private final double[] distances;
+    private final int[] slots;
+    private int size;
+
+    private NeighbourHeap(int k) {
+      this.distances = new double[k];
+      this.slots = new int[k];
+    }
+
+    private boolean isFull() {
+      return size == slots.length;
+    }
+
+    private double worst() {
+      return distances[0];
+    }
+
+    private void offer(double distance, int slot) {
+      if (!isFull()) {
+        var i = size++;
+        while (i > 0 && distances[(i - 1) / 2] < distance) {
+          distances[i] = distances[(i - 1) / 2];
+          slots[i] = slots[(i - 1) / 2];
+          i = (i - 1) / 2;
+        }
+        distances[i] = distance;
+        slots[i] = slot;
+      } else if (distance < distances[0]) {
+        siftDown(distance, slot);
+      }
+    }
+
+    private int pop() {
+      var top = slots[0];
+      size--;
+      if (size > 0) {
+        siftDown(distances[size], slots[size]);
+      }
+      return top;
+    }
+
+    private void siftDown(double distance, int slot) {
+      var i = 0;
+      while (true) {
+        var child = 2 * i + 1;
+        if (child >= size) {
+          break;
+        }
+        if (child + 1 < size && distances[child + 1] > distances[child]) {
+          child++;
+        }
+        if (distances[child] <= distance) {
+          break;
+        }
+        distances[i] = distances[child];
+        slots[i] = slots[child];
+        i = child;
+      }
+      distances[i] = distance;
+      slots[i] = slot;
+    }
+  }
+}
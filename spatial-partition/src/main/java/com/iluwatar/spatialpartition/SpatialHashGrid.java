@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * A uniform spatial hash grid used as an incremental broad phase. The field is divided into square
+ * cells of a fixed size and every object is kept in the cell containing its position; only cells
+ * holding objects are stored. Unlike a {@link QuadTree} the grid is not rebuilt every frame:
+ * {@link #update(Point)} is called for the objects that moved, and only those that crossed into
+ * another cell are relinked.
+ *
+ * <p>Candidate pairs are the objects in the same or in neighbouring cells. Each cell pairs its
+ * objects with each other and with four of its eight neighbours, so every pair is reported exactly
+ * once. As long as the cell size is at least the largest interaction distance, no interacting pair
+ * is missed. Cells report their pairs independently, which lets
+ * {@link #parallelForEachPair(BiConsumer)} spread the work over all cores.
+ *
+ * <p>The grid is not thread safe; it must not be modified while pairs are reported.
+ *
+ * @param <T> T will be type of object (that extends Point)
+ */
+
+public class SpatialHashGrid<T extends Point<T>> {
+  private static final int[][] FORWARD_NEIGHBOURS = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}};
+
+  private final int cellSize;
+  private final Map<Long, Cell<T>> cells = new HashMap<>();
+  private final Map<Integer, Cell<T>> cellById = new HashMap<>();
+
+  SpatialHashGrid(int cellSize) {
+    if (cellSize <= 0) {
+      throw new IllegalArgumentException("Cell size must be positive");
+    }
+    this.cellSize = cellSize;
+  }
+
+  /**
+   * Adds an object, or moves it to the cell of its current position. Objects that stay in their
+   * cell are not touched.
+   *
+   * @param obj object that was added or moved
+   */
+  void update(T obj) {
+    var cellX = Math.floorDiv(obj.coordinateX, cellSize);
+    var cellY = Math.floorDiv(obj.coordinateY, cellSize);
+    var current = cellById.get(obj.id);
+    if (current != null) {
+      if (current.cellX == cellX && current.cellY == cellY) {
+        return;
+      }
+      unlink(current, obj.id);
+    }
+    var cell = cells.computeIfAbsent(key(cellX, cellY), k -> new Cell<>(cellX, cellY));
+    cell.objects.add(obj);
+    cellById.put(obj.id, cell);
+  }
+
+  /**
+   * Removes an object.
+   *
+   * @param obj object to remove
+   * @return whether the object was in the grid
+   */
+  boolean remove(T obj) {
+    var cell = cellById.remove(obj.id);
+    if (cell == null) {
+      return false;
+    }
+    unlink(cell, obj.id);
+    return true;
+  }
+
+  int size() {
+    return cellById.size();
+  }
+
+  int getCellCount() {
+    return cells.size();
+  }
+
+  /**
+   * Reports every candidate pair once.
+   *
+   * @param consumer receives the two objects of each pair
+   */
+  void forEachPair(BiConsumer<T, T> consumer) {
+    cells.values().forEach(cell -> reportPairs(cell, consumer));
+  }
+
+  /**
+   * Reports every candidate pair once, handling the cells in parallel.
+   *
+   * @param consumer receives the two objects of each pair; it must be thread safe
+   */
+  void parallelForEachPair(BiConsumer<T, T> consumer) {
+    cells.values().parallelStream().forEach(cell -> reportPairs(cell, consumer));
+  }
+
+  private void reportPairs(Cell<T> cell, BiConsumer<T, T> consumer) {
+    var objects = cell.objects;
+    for (var i = 0; i < objects.size(); i++) {
+      for (var j = i + 1; j < objects.size(); j++) {
+        consumer.accept(objects.get(i), objects.get(j));
+      }
+    }
+    for (var offset : FORWARD_NEIGHBOURS) {
+      var neighbour = cells.get(key(cell.cellX + offset[0], cell.cellY + offset[1]));
+      if (neighbour != null) {
+        for (var a : objects) {
+          for (var b : neighbour.objects) {
+            consumer.accept(a, b);
+          }
+        }
+      }
+    }
+  }
+
+  private void unlink(Cell<T> cell, int id) {
+    cell.objects.removeIf(obj -> obj.id == id);
+    if (cell.objects.isEmpty()) {
+      cells.remove(key(cell.cellX, cell.cellY));
+    }
+  }
+
+  private static long key(int cellX, int cellY) {
+    return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+  }
+
+  private static final class Cell<T extends Point<T>> {
+    private final int cellX;
+    private final int cellY;
+    private final List<T> objects = new ArrayList<>(4);
+
+    private Cell(int cellX, int cellY) {
+      this.cellX = cellX;
+      this.cellY = cellY;
+    }
+  }
+}
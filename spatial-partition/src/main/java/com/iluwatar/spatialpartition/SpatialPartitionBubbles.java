@@ -24,7 +24,9 @@
 package com.iluwatar.spatialpartition;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class extends the generic SpatialPartition abstract class and is used in our example to keep
@@ -35,10 +37,18 @@ public class SpatialPartitionBubbles extends SpatialPartitionGeneric<Bubble> {
 
   private final HashMap<Integer, Bubble> bubbles;
   private final QuadTree quadTree;
+  private final SpatialHashGrid<Bubble> grid;
 
   SpatialPartitionBubbles(HashMap<Integer, Bubble> bubbles, QuadTree quadTree) {
     this.bubbles = bubbles;
     this.quadTree = quadTree;
+    this.grid = null;
+  }
+
+  SpatialPartitionBubbles(HashMap<Integer, Bubble> bubbles, SpatialHashGrid<Bubble> grid) {
+    this.bubbles = bubbles;
+    this.quadTree = null;
+    this.grid = grid;
   }
 
   void handleCollisionsUsingQt(Bubble b) {
@@ -50,4 +60,26 @@ public class SpatialPartitionBubbles extends SpatialPartitionGeneric<Bubble> {
     //handling these collisions
     b.handleCollision(quadTreeQueryResult, this.bubbles);
   }
+
+  /**
+   * Handles the collisions of one frame using the spatial hash grid. Only the bubbles that moved
+   * are updated in the grid; the candidate pairs are then checked in parallel, and every bubble
+   * touching another one is popped.
+   *
+   * @param moved bubbles that moved since the last frame
+   */
+  void handleCollisionsUsingGrid(Collection<Bubble> moved) {
+    moved.forEach(grid::update);
+    var touching = ConcurrentHashMap.<Integer>newKeySet();
+    grid.parallelForEachPair((a, b) -> {
+      if (a.touches(b)) {
+        touching.add(a.id);
+        touching.add(b.id);
+      }
+    });
+    touching.stream().sorted().map(bubbles::get).forEach(b -> {
+      b.pop(this.bubbles);
+      grid.remove(b);
+    });
+  }
 }
@@ -0,0 +1,133 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testing PackedQuadTree class.
+ */
+
+class PackedQuadTreeTest {
+
+  private static final Rect FIELD = new Rect(500, 500, 1000, 1000);
+
+  @Test
+  void queryTest() {
+    var points = randomPoints(2000, new Random(1));
+    var tree = new PackedQuadTree(FIELD, 4);
+    points.forEach(tree::insert);
+    var bulk = PackedQuadTree.bulkLoad(FIELD, 4, points);
+    assertEquals(points.size(), tree.size());
+    assertEquals(points.size(), bulk.size());
+
+    var range = new Rect(300, 600, 250, 150);
+    var expected = ids(points.stream().filter(range::contains).collect(Collectors.toList()));
+    assertEquals(expected, ids(tree.query(range, new ArrayList<>())));
+    assertEquals(expected, ids(bulk.query(range, new ArrayList<>())));
+  }
+
+  @Test
+  void queryRadiusTest() {
+    var points = randomPoints(2000, new Random(2));
+    var tree = PackedQuadTree.bulkLoad(FIELD, 8, points);
+    var expected = ids(points.stream()
+        .filter(p -> distanceSquared(p, 420, 580) <= 100 * 100)
+        .collect(Collectors.toList()));
+    assertEquals(expected, ids(tree.queryRadius(420, 580, 100, new ArrayList<>())));
+  }
+
+  @Test
+  void nearestTest() {
+    var points = randomPoints(2000, new Random(3));
+    var tree = PackedQuadTree.bulkLoad(FIELD, 4, points);
+    var expected = points.stream()
+        .map(p -> distanceSquared(p, 250.5, 750.5))
+        .sorted()
+        .limit(10)
+        .collect(Collectors.toList());
+    var nearest = tree.nearest(250.5, 750.5, 10);
+    assertEquals(expected,
+        nearest.stream().map(p -> distanceSquared(p, 250.5, 750.5)).collect(Collectors.toList()));
+    assertEquals(points.size(), tree.nearest(0, 0, points.size() + 5).size());
+    assertTrue(tree.nearest(0, 0, 0).isEmpty());
+  }
+
+  @Test
+  void removeAndUpdateTest() {
+    var random = new Random(4);
+    var points = randomPoints(1000, random);
+    var tree = new PackedQuadTree(FIELD, 4);
+    points.forEach(tree::insert);
+    var nodesWhenFull = tree.getNodeCount();
+
+    for (var p : points) {
+      p.coordinateX = Math.min(1000, Math.max(0, p.coordinateX + random.nextInt(41) - 20));
+      p.coordinateY = Math.min(1000, Math.max(0, p.coordinateY + random.nextInt(41) - 20));
+      assertTrue(tree.update(p));
+    }
+    var range = new Rect(500, 500, 400, 400);
+    var expected = ids(points.stream().filter(range::contains).collect(Collectors.toList()));
+    assertEquals(expected, ids(tree.query(range, new ArrayList<>())));
+
+    var removed = points.subList(0, 990);
+    removed.forEach(p -> assertTrue(tree.remove(p)));
+    assertFalse(tree.remove(points.get(0)));
+    var remaining = points.subList(990, 1000);
+    assertEquals(remaining.size(), tree.size());
+    assertEquals(ids(remaining), ids(tree.query(FIELD, new ArrayList<>())));
+    assertTrue(tree.getNodeCount() < nodesWhenFull);
+
+    var outside = remaining.get(0);
+    outside.coordinateX = 2000;
+    assertFalse(tree.update(outside));
+    assertEquals(remaining.size() - 1, tree.size());
+  }
+
+  private static List<Bubble> randomPoints(int count, Random random) {
+    var points = new ArrayList<Bubble>();
+    for (var i = 0; i < count; i++) {
+      points.add(new Bubble(random.nextInt(1001), random.nextInt(1001), i, 1));
+    }
+    return points;
+  }
+
+  private static Set<Integer> ids(Collection<? extends Point> points) {
+    return points.stream().map(p -> p.id).collect(Collectors.toSet());
+  }
+
+  private static double distanceSquared(Point p, double x, double y) {
+    return (p.coordinateX - x) * (p.coordinateX - x) + (p.coordinateY - y) * (p.coordinateY - y);
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares {@link QuadTree} with {@link PackedQuadTree}: insert throughput, bulk loading, and the
+ * throughput of small rectangular queries. Run the main method with the module's test classpath;
+ * the first argument overrides the number of points (default 1,000,000).
+ */
+public final class QuadTreeBenchmark {
+
+  private static final int FIELD_SIZE = 1_000_000;
+
+  private static final int QUERIES = 200_000;
+
+  private static final int QUERY_SIZE = 2_000;
+
+  private static final int CAPACITY = 8;
+
+  private static final int ROUNDS = 3;
+
+  private QuadTreeBenchmark() {
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args optional number of points
+   */
+  public static void main(String[] args) {
+    var count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    var random = new Random(42);
+    var points = new ArrayList<Bubble>(count);
+    for (var i = 0; i < count; i++) {
+      points.add(new Bubble(random.nextInt(FIELD_SIZE), random.nextInt(FIELD_SIZE), i, 1));
+    }
+    var queries = new ArrayList<Rect>(QUERIES);
+    for (var i = 0; i < QUERIES; i++) {
+      queries.add(new Rect(random.nextInt(FIELD_SIZE), random.nextInt(FIELD_SIZE), QUERY_SIZE,
+          QUERY_SIZE));
+    }
+    var field = new Rect(FIELD_SIZE / 2D, FIELD_SIZE / 2D, FIELD_SIZE, FIELD_SIZE);
+
+    System.out.printf("%d points, %d queries of %dx%d%n", count, QUERIES, QUERY_SIZE, QUERY_SIZE);
+    System.out.printf("%6s %16s %16s %16s %16s %16s%n", "round", "QuadTree ins/s",
+        "Packed ins/s", "bulk load pts/s", "QuadTree q/s", "Packed q/s");
+    for (var round = 1; round <= ROUNDS; round++) {
+      var start = System.nanoTime();
+      var quadTree = new QuadTree(field, CAPACITY);
+      points.forEach(quadTree::insert);
+      var quadTreeInsert = perSecond(count, System.nanoTime() - start);
+
+      start = System.nanoTime();
+      var packed = new PackedQuadTree(field, CAPACITY);
+      points.forEach(packed::insert);
+      var packedInsert = perSecond(count, System.nanoTime() - start);
+
+      start = System.nanoTime();
+      var bulk = PackedQuadTree.bulkLoad(field, CAPACITY, points);
+      var bulkLoad = perSecond(count, System.nanoTime() - start);
+
+      var result = new ArrayList<Point>();
+      start = System.nanoTime();
+      var quadTreeFound = 0L;
+      for (var query : queries) {
+        result.clear();
+        quadTreeFound += quadTree.query(query, result).size();
+      }
+      var quadTreeQuery = perSecond(QUERIES, System.nanoTime() - start);
+
+      start = System.nanoTime();
+      var packedFound = 0L;
+      for (var query : queries) {
+        result.clear();
+        packedFound += bulk.query(query, result).size();
+      }
+      var packedQuery = perSecond(QUERIES, System.nanoTime() - start);
+
+      if (quadTreeFound != packedFound || packed.size() != bulk.size()) {
+        throw new IllegalStateException("Trees disagree: " + quadTreeFound + " / " + packedFound);
+      }
+      System.out.printf("%6d %16.0f %16.0f %16.0f %16.0f %16.0f%n", round, quadTreeInsert,
+          packedInsert, bulkLoad, quadTreeQuery, packedQuery);
+    }
+    nearest(PackedQuadTree.bulkLoad(field, CAPACITY, points), random);
+  }
+
+  private static void nearest(PackedQuadTree tree, Random random) {
+    var start = System.nanoTime();
+    var found = 0L;
+    for (var i = 0; i < QUERIES; i++) {
+      List<Point> nearest = tree.nearest(random.nextInt(FIELD_SIZE), random.nextInt(FIELD_SIZE),
+          10);
+      found += nearest.size();
+    }
+    System.out.printf("Packed 10-nearest q/s: %.0f (%d found)%n",
+        perSecond(QUERIES, System.nanoTime() - start), found);
+  }
+
+  private static double perSecond(long operations, long nanos) {
+    return operations * 1e9 / nanos;
+  }
+}
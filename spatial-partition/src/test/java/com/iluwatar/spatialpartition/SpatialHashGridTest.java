@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.spatialpartition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testing SpatialHashGrid class.
+ */
+
+class SpatialHashGridTest {
+
+  @Test
+  void pairsTest() {
+    var random = new Random(5);
+    var bubbles = new ArrayList<Bubble>();
+    for (var i = 0; i < 3000; i++) {
+      bubbles.add(new Bubble(random.nextInt(400) - 200, random.nextInt(400) - 200, i,
+          random.nextInt(2) + 1));
+    }
+    var grid = new SpatialHashGrid<Bubble>(4);
+    bubbles.forEach(grid::update);
+    assertEquals(bubbles.size(), grid.size());
+    assertPairs(bubbles, grid::forEachPair);
+    assertPairs(bubbles, grid::parallelForEachPair);
+
+    var cells = grid.getCellCount();
+    for (var step = 0; step < 5; step++) {
+      bubbles.forEach(Bubble::move);
+      bubbles.forEach(grid::update);
+      assertPairs(bubbles, grid::forEachPair);
+      assertPairs(bubbles, grid::parallelForEachPair);
+    }
+    assertTrue(Math.abs(grid.getCellCount() - cells) < cells);
+
+    bubbles.subList(0, 1000).forEach(b -> assertTrue(grid.remove(b)));
+    assertFalse(grid.remove(bubbles.get(0)));
+    var remaining = bubbles.subList(1000, bubbles.size());
+    assertEquals(remaining.size(), grid.size());
+    assertPairs(remaining, grid::forEachPair);
+  }
+
+  private static void assertPairs(List<Bubble> bubbles,
+                                  Consumer<BiConsumer<Bubble, Bubble>> forEachPair) {
+    var expected = new HashSet<Long>();
+    for (var i = 0; i < bubbles.size(); i++) {
+      for (var j = i + 1; j < bubbles.size(); j++) {
+        if (bubbles.get(i).touches(bubbles.get(j))) {
+          expected.add(pair(bubbles.get(i), bubbles.get(j)));
+        }
+      }
+    }
+    var reported = Collections.synchronizedList(new ArrayList<Long>());
+    forEachPair.accept((a, b) -> reported.add(pair(a, b)));
+    assertEquals(Set.copyOf(reported).size(), reported.size());
+    var byId = bubbles.stream().collect(Collectors.toMap(b -> b.id, b -> b));
+    var touching = new HashSet<Long>();
+    reported.forEach(p -> {
+      if (byId.get((int) (p >> 32)).touches(byId.get((int) (long) p))) {
+        touching.add(p);
+      }
+    });
+    assertEquals(expected, touching);
+  }
+
+  private static long pair(Bubble a, Bubble b) {
+    return ((long) Math.min(a.id, b.id) << 32) | Math.max(a.id, b.id);
+  }
+}
@@ -23,10 +23,13 @@
 
 package com.iluwatar.spatialpartition;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.HashMap;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -60,4 +63,36 @@ class SpatialPartitionBubblesTest {
     assertNull(bubbles.get(3));
     assertNull(bubbles.get(4));
   }
+
+  @Test
+  void handleCollisionsUsingGridTest() {
+    var b1 = new Bubble(10, 10, 1, 3);
+    var b2 = new Bubble(5, 5, 2, 1);
+    var b3 = new Bubble(9, 9, 3, 1);
+    var b4 = new Bubble(8, 8, 4, 2);
+    var b5 = new Bubble(30, 30, 5, 1);
+    var bubbles = new HashMap<Integer, Bubble>();
+    bubbles.put(1, b1);
+    bubbles.put(2, b2);
+    bubbles.put(3, b3);
+    bubbles.put(4, b4);
+    bubbles.put(5, b5);
+    var grid = new SpatialHashGrid<Bubble>(6);
+    var sp = new SpatialPartitionBubbles(bubbles, grid);
+    sp.handleCollisionsUsingGrid(bubbles.values());
+    //b1, b3 and b4 touch each other, b2 and b5 touch none
+    assertNull(bubbles.get(1));
+    assertNotNull(bubbles.get(2));
+    assertNull(bubbles.get(3));
+    assertNull(bubbles.get(4));
+    assertNotNull(bubbles.get(5));
+    assertEquals(2, grid.size());
+
+    //only b5 moves, next to b2
+    b5.coordinateX = 6;
+    b5.coordinateY = 6;
+    sp.handleCollisionsUsingGrid(List.of(b5));
+    assertTrue(bubbles.isEmpty());
+    assertEquals(0, grid.size());
+  }
 }
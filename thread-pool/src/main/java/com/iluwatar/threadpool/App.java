@@ -24,8 +24,7 @@
 package com.iluwatar.threadpool;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -36,10 +35,10 @@ import lombok.extern.slf4j.Slf4j;
  * until all tasks have been completed. The thread can then terminate, or sleep until there are new
  * tasks available.
  *
- * <p>In this example we create a list of tasks presenting work to be done. Each task is then
- * wrapped into a {@link Worker} object that implements {@link Runnable}. We create an {@link
- * ExecutorService} with fixed number of threads (Thread Pool) and use them to execute the {@link
- * Worker}s.
+ * <p>In this example we create a list of tasks presenting work to be done. We create a {@link
+ * WorkStealingPool} with fixed number of threads (Thread Pool), which wraps each task into a {@link
+ * Worker} object that implements {@link Runnable} and executes it. Each thread has its own queue
+ * of tasks and steals tasks from the others when its own queue is empty.
  */
 @Slf4j
 public class App {
@@ -48,8 +47,9 @@ public class App {
    * Program entry point.
    *
    * @param args command line args
+   * @throws InterruptedException if interrupted while waiting for the tasks
    */
-  public static void main(String[] args) {
+  public static void main(String[] args) throws InterruptedException {
 
     LOGGER.info("Program started");
 
@@ -71,21 +71,21 @@ public class App {
         new PotatoPeelingTask(4),
         new PotatoPeelingTask(5));
 
-    // Creates a thread pool that reuses a fixed number of threads operating off a shared
-    // unbounded queue. At any point, at most nThreads threads will be active processing
-    // tasks. If additional tasks are submitted when all threads are active, they will wait
-    // in the queue until a thread is available.
-    var executor = Executors.newFixedThreadPool(3);
+    // Creates a thread pool of a fixed number of threads, each with its own queue of tasks. At
+    // any point, at most nThreads threads will be active processing tasks. A thread that runs
+    // out of tasks steals queued tasks from the others.
+    var pool = new WorkStealingPool(3);
 
-    // Allocate new worker for each task
-    // The worker is executed when a thread becomes
+    // Submit each task, it is wrapped into a worker
+    // that is executed when a thread becomes
     // available in the thread pool
-    tasks.stream().map(Worker::new).forEach(executor::execute);
-    // All tasks were executed, now shutdown
-    executor.shutdown();
-    while (!executor.isTerminated()) {
-      Thread.yield();
-    }
+    tasks.forEach(pool::submit);
+    // All tasks were submitted, now shutdown and wait until they are executed
+    pool.shutdown();
+    pool.awaitTermination(1, TimeUnit.MINUTES);
+    LOGGER.info("Steals: {}", pool.getStealCount());
+    pool.getLatencies().forEach((type, latency) ->
+        LOGGER.info("{} latency: {}", type.getSimpleName(), latency));
     LOGGER.info("Program finished");
   }
 }
@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.threadpool;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in microseconds. Every power of two range is split into 8
+ * buckets of equal width, so a percentile, reported as the upper bound of its bucket, is accurate
+ * within 12.5%.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+  private static final int BUCKETS = LINEAR_LIMIT + (Long.SIZE - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+
+  /**
+   * Records a latency.
+   *
+   * @param nanos the latency in nanoseconds
+   */
+  public void record(long nanos) {
+    buckets.incrementAndGet(bucket(Math.max(0, nanos / 1_000)));
+    count.increment();
+    totalNanos.add(nanos);
+  }
+
+  /**
+   * Get count.
+   *
+   * @return the number of latencies recorded
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Get mean.
+   *
+   * @return the mean latency in milliseconds
+   */
+  public double getMeanMillis() {
+    var n = count.sum();
+    return n == 0 ? 0 : totalNanos.sum() / 1e6 / n;
+  }
+
+  /**
+   * Get percentile.
+   *
+   * @param percentile the percentile, between 0 and 1
+   * @return the upper bound of the bucket holding the percentile, in milliseconds
+   */
+  public double getPercentileMillis(double percentile) {
+    var n = count.sum();
+    if (n == 0) {
+      return 0;
+    }
+    var rank = Math.max(1, (long) Math.ceil(percentile * n));
+    var seen = 0L;
+    for (var i = 0; i < BUCKETS; i++) {
+      seen += buckets.get(i);
+      if (seen >= rank) {
+        return upperBound(i) / 1e3;
+      }
+    }
+    return upperBound(BUCKETS - 1) / 1e3;
+  }
+
+  /*
+   * Values below 16 get a bucket each, above that the 3 bits after the highest one bit select one
+   * of the 8 buckets of its power of two range.
+   */
+  private static int bucket(long micros) {
+    if (micros < LINEAR_LIMIT) {
+      return (int) micros;
+    }
+    var exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros);
+    var subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+  }
+
+  private static long upperBound(int bucket) {
+    if (bucket < LINEAR_LIMIT) {
+      return bucket + 1;
+    }
+    var exponent = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+    var subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+    return (long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("count=%d mean=%.1fms p50<=%.1fms p99<=%.1fms", getCount(),
+        getMeanMillis(), getPercentileMillis(0.5), getPercentileMillis(0.99));
+  }
+}
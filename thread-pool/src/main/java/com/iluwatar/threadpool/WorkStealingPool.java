@@ -0,0 +1,357 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.threadpool;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread pool executing {@link Task}s with work stealing. Every worker thread has its own deques
+ * of queued tasks: it takes tasks from the head of its own deques, and when they are empty it
+ * steals from the tail of the deques of the other workers.
+ *
+ * <p>Scheduling uses {@link Task#getTimeMs()} as a cost hint. A task goes to the worker with the
+ * least queued cost, and tasks of at least {@code longTaskThresholdMs} are queued apart from the
+ * short ones. Workers prefer short tasks, their own or stolen ones, and at most all workers but
+ * one run long tasks at the same time, so short tasks never wait for a long one to finish. A long
+ * task that has waited for longer than its own execution time goes first, so a stream of short
+ * tasks cannot starve it.
+ *
+ * <p>The pool reports its queue depth, the number of steals and a {@link LatencyHistogram} per
+ * task type, measuring the time from submission to completion.
+ */
+public class WorkStealingPool {
+
+  /**
+   * The default execution time from which on a task is treated as a long task.
+   */
+  public static final int DEFAULT_LONG_TASK_THRESHOLD_MS = 500;
+
+  private final WorkerThread[] workers;
+  private final int longTaskThresholdMs;
+  private final int maxLongTasks;
+  private final AtomicInteger runningLongTasks = new AtomicInteger();
+  private final AtomicInteger queuedTasks = new AtomicInteger();
+  private final LongAdder steals = new LongAdder();
+  private final LongAdder completedTasks = new LongAdder();
+  private final Map<Class<? extends Task>, LatencyHistogram> latencies =
+      new ConcurrentHashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition workAvailable = lock.newCondition();
+  private final CountDownLatch terminated;
+  private volatile long signals;
+  private volatile boolean shutdown;
+
+  /**
+   * Creates a pool with the default long task threshold.
+   *
+   * @param parallelism the number of worker threads
+   */
+  public WorkStealingPool(int parallelism) {
+    this(parallelism, DEFAULT_LONG_TASK_THRESHOLD_MS);
+  }
+
+  /**
+   * Creates a pool.
+   *
+   * @param parallelism         the number of worker threads
+   * @param longTaskThresholdMs the execution time from which on a task is treated as a long task
+   */
+  public WorkStealingPool(int parallelism, int longTaskThresholdMs) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+    }
+    this.longTaskThresholdMs = longTaskThresholdMs;
+    this.maxLongTasks = Math.max(1, parallelism - 1);
+    this.terminated = new CountDownLatch(parallelism);
+    this.workers = new WorkerThread[parallelism];
+    for (var i = 0; i < parallelism; i++) {
+      workers[i] = new WorkerThread(i);
+    }
+    for (var worker : workers) {
+      worker.start();
+    }
+  }
+
+  /**
+   * Submits a task, which is executed by a {@link Worker}.
+   *
+   * @param task the task
+   * @return a future completed when the task is done
+   * @throws RejectedExecutionException if the pool is shut down
+   */
+  public CompletableFuture<Void> submit(Task task) {
+    // count the task before checking for a shutdown, so that no worker exits between the check
+    // and the enqueue while it is still on its way to a deque
+    queuedTasks.incrementAndGet();
+    if (shutdown) {
+      queuedTasks.decrementAndGet();
+      // the workers may wait for the count to drop to zero
+      signal();
+      throw new RejectedExecutionException("Pool is shut down");
+    }
+    var worker = leastLoaded();
+    var job = new Job(task, task.getTimeMs() >= longTaskThresholdMs, worker);
+    worker.queuedCost.addAndGet(task.getTimeMs());
+    (job.isLong ? worker.longTasks : worker.shortTasks).addLast(job);
+    signal();
+    return job.future;
+  }
+
+  /**
+   * Stops accepting tasks. The queued tasks are still executed.
+   */
+  public void shutdown() {
+    shutdown = true;
+    signal();
+  }
+
+  /**
+   * Blocks until all tasks are executed after a shutdown, or the timeout passes.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit    the unit of the timeout
+   * @return true if the pool terminated, false if the timeout passed
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return terminated.await(timeout, unit);
+  }
+
+  /**
+   * Is terminated.
+   *
+   * @return true if the pool is shut down and all tasks are executed
+   */
+  public boolean isTerminated() {
+    return terminated.getCount() == 0;
+  }
+
+  /**
+   * Get queue depth.
+   *
+   * @return the number of tasks waiting to be executed
+   */
+  public int getQueueDepth() {
+    return queuedTasks.get();
+  }
+
+  /**
+   * Get steal count.
+   *
+   * @return the number of tasks a worker took from the deques of another worker
+   */
+  public long getStealCount() {
+    return steals.sum();
+  }
+
+  /**
+   * Get completed task count.
+   *
+   * @return the number of tasks executed
+   */
+  public long getCompletedTaskCount() {
+    return completedTasks.sum();
+  }
+
+  /**
+   * Get latencies.
+   *
+   * @return the histograms of the time from submission to completion, per task type
+   */
+  public Map<Class<? extends Task>, LatencyHistogram> getLatencies() {
+    return Map.copyOf(latencies);
+  }
+
+  private WorkerThread leastLoaded() {
+    var leastLoaded = workers[0];
+    for (var worker : workers) {
+      if (worker.queuedCost.get() < leastLoaded.queuedCost.get()) {
+        leastLoaded = worker;
+      }
+    }
+    return leastLoaded;
+  }
+
+  private void signal() {
+    lock.lock();
+    try {
+      signals++;
+      workAvailable.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /*
+   * Takes a long task from the head or tail of a deque if fewer than the maximum number of long
+   * tasks are running.
+   */
+  private Job takeLong(ConcurrentLinkedDeque<Job> deque, boolean fromTail) {
+    if (deque.isEmpty()) {
+      return null;
+    }
+    if (runningLongTasks.incrementAndGet() <= maxLongTasks) {
+      var job = fromTail ? deque.pollLast() : deque.pollFirst();
+      if (job != null) {
+        return job;
+      }
+    }
+    runningLongTasks.decrementAndGet();
+    return null;
+  }
+
+  private void execute(Job job) {
+    queuedTasks.decrementAndGet();
+    job.owner.queuedCost.addAndGet(-job.task.getTimeMs());
+    try {
+      new Worker(job.task).run();
+      job.future.complete(null);
+    } catch (Throwable e) {
+      // an error fails only its own task, the worker keeps running the others
+      job.future.completeExceptionally(e);
+    } finally {
+      latencies.computeIfAbsent(job.task.getClass(), type -> new LatencyHistogram())
+          .record(System.nanoTime() - job.submitNanos);
+      completedTasks.increment();
+      if (job.isLong) {
+        runningLongTasks.decrementAndGet();
+        // a worker may be waiting for a long task to finish before it can start one
+        signal();
+      }
+    }
+  }
+
+  /**
+   * A queued task.
+   */
+  private static final class Job {
+
+    private final Task task;
+    private final boolean isLong;
+    private final long submitNanos = System.nanoTime();
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+    private final WorkerThread owner;
+
+    private Job(Task task, boolean isLong, WorkerThread owner) {
+      this.task = task;
+      this.isLong = isLong;
+      this.owner = owner;
+    }
+  }
+
+  /**
+   * A worker thread with its own deques of short and long tasks.
+   */
+  private final class WorkerThread extends Thread {
+
+    private final ConcurrentLinkedDeque<Job> shortTasks = new ConcurrentLinkedDeque<>();
+    private final ConcurrentLinkedDeque<Job> longTasks = new ConcurrentLinkedDeque<>();
+    private final AtomicLong queuedCost = new AtomicLong();
+
+    private WorkerThread(int index) {
+      super("work-stealing-worker-" + index);
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (true) {
+          var seen = signals;
+          var job = take();
+          if (job != null) {
+            execute(job);
+            continue;
+          }
+          if (shutdown && queuedTasks.get() == 0) {
+            return;
+          }
+          lock.lock();
+          try {
+            while (signals == seen && !(shutdown && queuedTasks.get() == 0)) {
+              workAvailable.await();
+            }
+          } finally {
+            lock.unlock();
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        terminated.countDown();
+        // the others may wait for the shutdown condition this worker just observed
+        signal();
+      }
+    }
+
+    private Job take() {
+      Job job = null;
+      var oldest = longTasks.peekFirst();
+      if (oldest != null && System.nanoTime() - oldest.submitNanos
+          >= TimeUnit.MILLISECONDS.toNanos(oldest.task.getTimeMs())) {
+        job = takeLong(longTasks, false);
+      }
+      if (job == null) {
+        job = shortTasks.pollFirst();
+      }
+      if (job == null) {
+        job = steal(false);
+      }
+      if (job == null) {
+        job = takeLong(longTasks, false);
+      }
+      if (job == null) {
+        job = steal(true);
+      }
+      return job;
+    }
+
+    private Job steal(boolean longTask) {
+      var start = ThreadLocalRandom.current().nextInt(workers.length);
+      for (var i = 0; i < workers.length; i++) {
+        var victim = workers[(start + i) % workers.length];
+        if (victim == this) {
+          continue;
+        }
+        var job = longTask ? takeLong(victim.longTasks, true) : victim.shortTasks.pollLast();
+        if (job != null) {
+          steals.increment();
+          return job;
+        }
+      }
+      return null;
+    }
+  }
+}
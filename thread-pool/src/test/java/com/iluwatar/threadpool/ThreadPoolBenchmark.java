@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.threadpool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Compares {@link WorkStealingPool} with a fixed {@link java.util.concurrent.ThreadPoolExecutor}
+ * and a {@link ForkJoinPool} of the same size on a mixed workload: long {@link PotatoPeelingTask}s
+ * submitted in between short {@link CoffeeMakingTask}s. Reports the total time and the latency
+ * from submission to completion of both task types. Run the main method with the module's test
+ * classpath; the tasks sleep, so the results do not depend on the number of processors.
+ */
+public final class ThreadPoolBenchmark {
+
+  private static final int THREADS = 4;
+
+  private static final int LONG_TASKS = 8;
+
+  private static final int SHORT_TASKS_PER_LONG_TASK = 5;
+
+  private ThreadPoolBenchmark() {
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args unused
+   * @throws Exception if the benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    System.out.printf("%-18s %10s %12s %12s %12s%n", "executor", "total ms", "short p50",
+        "short p99", "long mean");
+    run("ThreadPoolExecutor", Executors.newFixedThreadPool(THREADS));
+    run("ForkJoinPool", new ForkJoinPool(THREADS));
+    var pool = new WorkStealingPool(THREADS);
+    run("WorkStealingPool", pool::submit);
+    pool.shutdown();
+  }
+
+  private static void run(String name, ExecutorService executor) throws Exception {
+    run(name, task -> CompletableFuture.runAsync(new Worker(task), executor));
+    executor.shutdown();
+  }
+
+  private static void run(String name, Function<Task, CompletableFuture<Void>> executor)
+      throws Exception {
+    var shortLatency = new LatencyHistogram();
+    var longLatency = new LatencyHistogram();
+    var futures = new ArrayList<CompletableFuture<Void>>();
+    var start = System.nanoTime();
+    for (var task : workload()) {
+      var submitted = System.nanoTime();
+      var latency = task instanceof CoffeeMakingTask ? shortLatency : longLatency;
+      futures.add(executor.apply(task)
+          .thenRun(() -> latency.record(System.nanoTime() - submitted)));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+    var total = (System.nanoTime() - start) / 1_000_000;
+    System.out.printf("%-18s %10d %10.0fms %10.0fms %10.0fms%n", name, total,
+        shortLatency.getPercentileMillis(0.5), shortLatency.getPercentileMillis(0.99),
+        longLatency.getMeanMillis());
+  }
+
+  private static List<Task> workload() {
+    var tasks = new ArrayList<Task>();
+    for (var i = 0; i < LONG_TASKS; i++) {
+      tasks.add(new PotatoPeelingTask(5));
+      for (var j = 0; j < SHORT_TASKS_PER_LONG_TASK; j++) {
+        tasks.add(new CoffeeMakingTask(1));
+      }
+    }
+    return tasks;
+  }
+}
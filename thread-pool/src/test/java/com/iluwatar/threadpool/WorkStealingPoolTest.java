@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.iluwatar.threadpool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for WorkStealingPool.
+ */
+class WorkStealingPoolTest {
+
+  @Test
+  void testExecutesAllTasks() throws Exception {
+    var pool = new WorkStealingPool(4);
+    var futures = new ArrayList<CompletableFuture<Void>>();
+    for (var i = 0; i < 20; i++) {
+      futures.add(pool.submit(i % 2 == 0 ? new CoffeeMakingTask(0) : new PotatoPeelingTask(0)));
+    }
+    futures.add(pool.submit(new CoffeeMakingTask(1)));
+    pool.shutdown();
+
+    assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+    assertTrue(pool.isTerminated());
+    assertTrue(futures.stream().allMatch(CompletableFuture::isDone));
+    assertEquals(21, pool.getCompletedTaskCount());
+    assertEquals(0, pool.getQueueDepth());
+    var latencies = pool.getLatencies();
+    assertEquals(11, latencies.get(CoffeeMakingTask.class).getCount());
+    assertEquals(10, latencies.get(PotatoPeelingTask.class).getCount());
+    assertThrows(RejectedExecutionException.class, () -> pool.submit(new CoffeeMakingTask(1)));
+  }
+
+  @Test
+  void testShortTasksDoNotWaitForLongTasks() throws Exception {
+    var pool = new WorkStealingPool(2);
+    var longTasks = new ArrayList<CompletableFuture<Void>>();
+    for (var i = 0; i < 4; i++) {
+      longTasks.add(pool.submit(new PotatoPeelingTask(5)));
+    }
+    var shortTasks = new ArrayList<CompletableFuture<Void>>();
+    for (var i = 0; i < 3; i++) {
+      shortTasks.add(pool.submit(new CoffeeMakingTask(1)));
+    }
+
+    // one thread stays free of long tasks, so the short ones finish long before the first long one
+    CompletableFuture.allOf(shortTasks.toArray(new CompletableFuture[0])).get(800,
+        TimeUnit.MILLISECONDS);
+    assertFalse(longTasks.stream().anyMatch(CompletableFuture::isDone));
+
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    assertTrue(longTasks.stream().allMatch(CompletableFuture::isDone));
+    assertTrue(pool.getLatencies().get(CoffeeMakingTask.class).getPercentileMillis(0.99) < 800);
+  }
+
+  @Test
+  void testAwaitTerminationTimesOut() throws Exception {
+    var pool = new WorkStealingPool(1);
+    pool.submit(new CoffeeMakingTask(3));
+    pool.shutdown();
+
+    assertFalse(pool.awaitTermination(50, TimeUnit.MILLISECONDS));
+    assertFalse(pool.isTerminated());
+    assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testTasksSubmittedDuringShutdownCompleteOrAreRejected() throws Exception {
+    for (var round = 0; round < 50; round++) {
+      var pool = new WorkStealingPool(2);
+      var accepted = new ConcurrentLinkedQueue<CompletableFuture<Void>>();
+      var submitter = new Thread(() -> {
+        try {
+          while (true) {
+            accepted.add(pool.submit(new CoffeeMakingTask(0)));
+          }
+        } catch (RejectedExecutionException e) {
+          // the pool is shut down
+        }
+      });
+      submitter.start();
+      Thread.sleep(1);
+      pool.shutdown();
+      submitter.join();
+
+      assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+      assertTrue(accepted.stream().allMatch(CompletableFuture::isDone));
+      assertEquals(accepted.size(), pool.getCompletedTaskCount());
+    }
+  }
+
+  @Test
+  void testFailingTaskCompletesExceptionallyAndWorkerGoesOn() throws Exception {
+    var pool = new WorkStealingPool(1);
+    var error = new AssertionError("task failed");
+    var failing = pool.submit(new CoffeeMakingTask(0) {
+      @Override
+      public String toString() {
+        throw error;
+      }
+    });
+    var next = pool.submit(new CoffeeMakingTask(0));
+
+    var thrown = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+    assertEquals(error, thrown.getCause());
+    next.get(5, TimeUnit.SECONDS);
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(2, pool.getCompletedTaskCount());
+  }
+
+  @Test
+  void testInvalidParallelism() {
+    assertThrows(IllegalArgumentException.class, () -> new WorkStealingPool(0));
+  }
+}
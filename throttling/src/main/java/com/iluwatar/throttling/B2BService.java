@@ -35,11 +35,19 @@ import org.slf4j.LoggerFactory;
 class B2BService {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(B2BService.class);
+  private final Throttler throttler;
   private final CallsCount callsCount;
 
-  public B2BService(Throttler timer, CallsCount callsCount) {
+  /**
+   * Constructor.
+   *
+   * @param throttler decides which calls are allowed, started right away
+   * @param callsCount the counts of accepted calls
+   */
+  public B2BService(Throttler throttler, CallsCount callsCount) {
+    this.throttler = throttler;
     this.callsCount = callsCount;
-    timer.start();
+    throttler.start();
   }
 
   /**
@@ -49,13 +57,11 @@ class B2BService {
    */
   public int dummyCustomerApi(Tenant tenant) {
     var tenantName = tenant.getName();
-    var count = callsCount.getCount(tenantName);
-    LOGGER.debug("Counter for {} : {} ", tenant.getName(), count);
-    if (count >= tenant.getAllowedCallsPerSecond()) {
+    if (!throttler.tryAcquire(tenant, callsCount)) {
       LOGGER.error("API access per second limit reached for: {}", tenantName);
       return -1;
     }
-    callsCount.incrementCount(tenantName);
+    LOGGER.debug("Counter for {} : {} ", tenantName, callsCount.getCount(tenantName));
     return getRandomCustomerId();
   }
 
@@ -55,6 +55,26 @@ public final class CallsCount {
     tenantCallsCount.get(tenantName).incrementAndGet();
   }
 
+  /**
+   * Increment the count of the specified tenant unless it has reached the limit.
+   *
+   * @param tenantName name of the tenant.
+   * @param limit maximum count.
+   * @return true if the count was incremented.
+   */
+  public boolean tryIncrement(String tenantName, long limit) {
+    var count = tenantCallsCount.get(tenantName);
+    while (true) {
+      var current = count.get();
+      if (current >= limit) {
+        return false;
+      }
+      if (count.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
   /**
    * Get count of tenant based on tenant name.
    *
@@ -70,6 +90,6 @@ public final class CallsCount {
    */
   public void reset() {
     LOGGER.debug("Resetting the map.");
-    tenantCallsCount.replaceAll((k, v) -> new AtomicLong(0));
+    tenantCallsCount.values().forEach(count -> count.set(0));
   }
 }
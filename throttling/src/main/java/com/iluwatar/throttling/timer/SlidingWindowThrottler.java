@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.throttling.timer;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Throttler that limits the calls of every tenant in a period that slides with the current time,
+ * so there is no reset boundary around which a tenant could make twice its limit.
+ *
+ * <p>Instead of logging the time of every call, the throttler keeps the number of calls in the
+ * current and the previous fixed window and weights the previous count by how much of the previous
+ * window still overlaps the sliding one. That assumes the previous calls were spread evenly, so a
+ * burst at the start of a window can let a tenant exceed its limit somewhat in the next one, but
+ * memory per tenant stays constant whatever the limit. The two counts of a tenant are swapped in
+ * with one CAS, and windows roll over lazily on the first call after a window ends instead of by a
+ * timer thread.
+ * Accepted calls are added to the {@link CallsCount}, which is never reset.
+ */
+public class SlidingWindowThrottler implements Throttler {
+
+  private final long periodNanos;
+  private final LongSupplier clock;
+  private final Map<String, AtomicReference<Window>> windows = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param throttlePeriod the period in milliseconds that the limit of a tenant applies to
+   */
+  public SlidingWindowThrottler(int throttlePeriod) {
+    this(throttlePeriod, System::nanoTime);
+  }
+
+  SlidingWindowThrottler(int throttlePeriod, LongSupplier clock) {
+    if (throttlePeriod <= 0) {
+      throw new IllegalArgumentException("Throttle period must be positive");
+    }
+    this.periodNanos = TimeUnit.MILLISECONDS.toNanos(throttlePeriod);
+    this.clock = clock;
+  }
+
+  /**
+   * Nothing to start, windows roll over when calls arrive.
+   */
+  @Override
+  public void start() {
+    // no timer needed
+  }
+
+  @Override
+  public boolean tryAcquire(Tenant tenant, CallsCount callsCount) {
+    var limit = tenant.getAllowedCallsPerSecond();
+    var now = clock.getAsLong();
+    var index = Math.floorDiv(now, periodNanos);
+    var remaining = 1 - (double) Math.floorMod(now, periodNanos) / periodNanos;
+    var state = windows.computeIfAbsent(tenant.getName(),
+        name -> new AtomicReference<>(new Window(index, 0, 0)));
+    while (true) {
+      var window = state.get();
+      long previous;
+      long current;
+      // another caller may have read the clock later and rolled the window over already
+      if (window.index >= index) {
+        previous = window.previous;
+        current = window.current;
+      } else if (window.index == index - 1) {
+        previous = window.current;
+        current = 0;
+      } else {
+        previous = 0;
+        current = 0;
+      }
+      if (previous * remaining + current + 1 > limit) {
+        return false;
+      }
+      var next = new Window(Math.max(index, window.index), previous, current + 1);
+      if (state.compareAndSet(window, next)) {
+        callsCount.incrementCount(tenant.getName());
+        return true;
+      }
+    }
+  }
+
+  private static final class Window {
+
+    private final long index;
+    private final long previous;
+    private final long current;
+
+    private Window(long index, long previous, long current) {
+      this.index = index;
+      this.previous = previous;
+      this.current = current;
+    }
+  }
+}
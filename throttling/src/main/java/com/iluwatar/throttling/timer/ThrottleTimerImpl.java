@@ -29,6 +29,10 @@ import java.util.TimerTask;
 
 /**
  * Implementation of throttler interface. This class resets the counter every second.
+ *
+ * <p>All tenants are reset at once, so a tenant can make up to twice its limit in a burst around
+ * a reset. {@link TokenBucketThrottler} and {@link SlidingWindowThrottler} avoid that and need no
+ * timer thread.
  * @author drastogi
  *
  */
@@ -23,6 +23,9 @@
 
 package com.iluwatar.throttling.timer;
 
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+
 /**
  * An interface for defining the structure of different types of throttling ways.
  * @author drastogi
@@ -31,4 +34,17 @@ package com.iluwatar.throttling.timer;
 public interface Throttler {
 
   void start();
+
+  /**
+   * Checks the limit of the tenant and counts the call in one atomic step, so concurrent callers
+   * cannot exceed the limit. By default the calls in the current period are counted in the given
+   * {@link CallsCount}, which a timer resets at the start of every period.
+   *
+   * @param tenant the calling tenant
+   * @param callsCount the counts of accepted calls
+   * @return true if the call is allowed
+   */
+  default boolean tryAcquire(Tenant tenant, CallsCount callsCount) {
+    return callsCount.tryIncrement(tenant.getName(), tenant.getAllowedCallsPerSecond());
+  }
 }
@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.throttling.timer;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Throttler that gives every tenant a bucket of as many tokens as it is allowed calls per period,
+ * refilled at a steady rate. A call takes one token, so a tenant can burst up to its limit but
+ * never make more than its limit plus the tokens refilled in the meantime.
+ *
+ * <p>The bucket of a tenant is a single timestamp: the time at which it will be full again. Every
+ * accepted call moves that time forward by one refill interval, so the check and the acquire are
+ * one CAS, and tokens are refilled lazily from the elapsed time instead of by a timer thread.
+ * Accepted calls are added to the {@link CallsCount}, which is never reset.
+ */
+public class TokenBucketThrottler implements Throttler {
+
+  private final long periodNanos;
+  private final LongSupplier clock;
+  private final Map<String, AtomicLong> fullAt = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param throttlePeriod the period in milliseconds that the limit of a tenant applies to
+   */
+  public TokenBucketThrottler(int throttlePeriod) {
+    this(throttlePeriod, System::nanoTime);
+  }
+
+  TokenBucketThrottler(int throttlePeriod, LongSupplier clock) {
+    if (throttlePeriod <= 0) {
+      throw new IllegalArgumentException("Throttle period must be positive");
+    }
+    this.periodNanos = TimeUnit.MILLISECONDS.toNanos(throttlePeriod);
+    this.clock = clock;
+  }
+
+  /**
+   * Nothing to start, tokens are refilled when they are acquired.
+   */
+  @Override
+  public void start() {
+    // no timer needed
+  }
+
+  @Override
+  public boolean tryAcquire(Tenant tenant, CallsCount callsCount) {
+    var limit = tenant.getAllowedCallsPerSecond();
+    if (limit == 0) {
+      return false;
+    }
+    var interval = Math.max(1, periodNanos / limit);
+    var capacity = interval * limit;
+    var now = clock.getAsLong();
+    var bucket = fullAt.computeIfAbsent(tenant.getName(), name -> new AtomicLong(now));
+    while (true) {
+      var full = bucket.get();
+      var next = Math.max(full, now) + interval;
+      if (next - now > capacity) {
+        return false;
+      }
+      if (bucket.compareAndSet(full, next)) {
+        callsCount.incrementCount(tenant.getName());
+        return true;
+      }
+    }
+  }
+}
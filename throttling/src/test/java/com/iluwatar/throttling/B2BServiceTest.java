@@ -26,6 +26,9 @@ package com.iluwatar.throttling;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import com.iluwatar.throttling.timer.Throttler;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 
@@ -48,4 +51,22 @@ public class B2BServiceTest {
     var counter = callsCount.getCount(tenant.getName());
     assertEquals(2, counter, "Counter limit must be reached");
   }
+
+  @Test
+  void concurrentCallsDoNotExceedLimit() throws Exception {
+    var tenant = new Tenant("concurrentTenant", 100, callsCount);
+    var service = new B2BService(() -> {
+    }, callsCount);
+    var accepted = new AtomicInteger();
+    var executor = Executors.newFixedThreadPool(8);
+    for (var i = 0; i < 8; i++) {
+      executor.execute(() -> IntStream.range(0, 1000)
+          .filter(j -> service.dummyCustomerApi(tenant) != -1)
+          .forEach(j -> accepted.incrementAndGet()));
+    }
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+    assertEquals(100, accepted.get());
+    assertEquals(100, callsCount.getCount(tenant.getName()));
+  }
 }
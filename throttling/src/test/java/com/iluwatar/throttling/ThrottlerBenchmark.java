@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.throttling;
+
+import com.iluwatar.throttling.timer.SlidingWindowThrottler;
+import com.iluwatar.throttling.timer.ThrottleTimerImpl;
+import com.iluwatar.throttling.timer.Throttler;
+import com.iluwatar.throttling.timer.TokenBucketThrottler;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Lets several threads call {@link B2BService} for one tenant as fast as they can and compares the
+ * throttlers. Accuracy is the highest number of calls accepted in any interval of one throttle
+ * period, which should not exceed the limit of the tenant. Throughput is the number of calls,
+ * accepted or not, per second. Run the main method with the module's test classpath.
+ */
+public final class ThrottlerBenchmark {
+
+  private static final int THREADS = 8;
+
+  private static final int PERIOD_MILLIS = 100;
+
+  private static final int LIMIT = 1000;
+
+  private static final long DURATION_MILLIS = 2000;
+
+  private ThrottlerBenchmark() {
+  }
+
+  /**
+   * Benchmark entry point.
+   *
+   * @param args unused
+   * @throws Exception if the benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    System.out.printf("%-24s %10s %14s %16s%n", "throttler", "accepted", "max per period",
+        "calls/s");
+    run("ThrottleTimerImpl", callsCount -> new ThrottleTimerImpl(PERIOD_MILLIS, callsCount));
+    run("TokenBucketThrottler", callsCount -> new TokenBucketThrottler(PERIOD_MILLIS));
+    run("SlidingWindowThrottler", callsCount -> new SlidingWindowThrottler(PERIOD_MILLIS));
+  }
+
+  private static void run(String name, Function<CallsCount, Throttler> throttlers)
+      throws Exception {
+    var callsCount = new CallsCount();
+    var tenant = new Tenant("tenant", LIMIT, callsCount);
+    var service = new B2BService(throttlers.apply(callsCount), callsCount);
+    var accepted = new ArrayList<long[]>();
+    var calls = new long[THREADS];
+    var done = new CountDownLatch(THREADS);
+    var end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+    for (var i = 0; i < THREADS; i++) {
+      var times = new long[(int) (DURATION_MILLIS / PERIOD_MILLIS + 2) * LIMIT * 2];
+      accepted.add(times);
+      var thread = i;
+      new Thread(() -> {
+        var count = 0;
+        var n = 0L;
+        for (var now = System.nanoTime(); now < end; now = System.nanoTime()) {
+          n++;
+          if (service.dummyCustomerApi(tenant) != -1 && count < times.length) {
+            times[count++] = now;
+          }
+        }
+        calls[thread] = n;
+        times[times.length - 1] = count;
+        done.countDown();
+      }).start();
+    }
+    done.await();
+    var all = merge(accepted);
+    System.out.printf("%-24s %10d %14d %16.0f%n", name, all.length, maxPerPeriod(all),
+        Arrays.stream(calls).sum() * 1000.0 / DURATION_MILLIS);
+  }
+
+  private static long[] merge(List<long[]> accepted) {
+    var size = accepted.stream().mapToLong(times -> times[times.length - 1]).sum();
+    var all = new long[(int) size];
+    var offset = 0;
+    for (var times : accepted) {
+      var count = (int) times[times.length - 1];
+      System.arraycopy(times, 0, all, offset, count);
+      offset += count;
+    }
+    Arrays.sort(all);
+    return all;
+  }
+
+  private static int maxPerPeriod(long[] times) {
+    var period = TimeUnit.MILLISECONDS.toNanos(PERIOD_MILLIS);
+    var max = 0;
+    for (int first = 0, last = 0; last < times.length; last++) {
+      while (times[last] - times[first] >= period) {
+        first++;
+      }
+      max = Math.max(max, last - first + 1);
+    }
+    return max;
+  }
+}
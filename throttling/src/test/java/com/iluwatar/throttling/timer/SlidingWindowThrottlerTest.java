@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.throttling.timer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SlidingWindowThrottlerTest to test that the limit holds across window boundaries.
+ */
+class SlidingWindowThrottlerTest {
+
+  private final AtomicLong now = new AtomicLong();
+  private final CallsCount callsCount = new CallsCount();
+  private final Tenant tenant = new Tenant("tenant", 10, callsCount);
+  private final SlidingWindowThrottler throttler = new SlidingWindowThrottler(1000, now::get);
+
+  @Test
+  void allowsLimitPerWindow() {
+    assertEquals(10, acquire(20));
+    assertEquals(10, callsCount.getCount("tenant"));
+  }
+
+  @Test
+  void noDoubleBurstAroundWindowBoundary() {
+    now.set(TimeUnit.MILLISECONDS.toNanos(900));
+    assertEquals(10, acquire(20));
+    // just after the boundary 90% of the previous window still overlaps the sliding one
+    now.set(TimeUnit.MILLISECONDS.toNanos(1000));
+    assertEquals(0, acquire(20));
+    now.set(TimeUnit.MILLISECONDS.toNanos(1500));
+    assertEquals(5, acquire(20));
+  }
+
+  @Test
+  void previousWindowIsForgottenAfterTwoPeriods() {
+    assertEquals(10, acquire(10));
+    now.set(TimeUnit.MILLISECONDS.toNanos(2100));
+    assertEquals(10, acquire(20));
+  }
+
+  @Test
+  void stalePreviousClockReadDoesNotRollWindowBack() {
+    now.set(TimeUnit.MILLISECONDS.toNanos(1500));
+    assertTrue(throttler.tryAcquire(tenant, callsCount));
+    now.set(TimeUnit.MILLISECONDS.toNanos(900));
+    assertEquals(9, acquire(20));
+    assertFalse(throttler.tryAcquire(tenant, callsCount));
+  }
+
+  private int acquire(int calls) {
+    var accepted = 0;
+    for (var i = 0; i < calls; i++) {
+      if (throttler.tryAcquire(tenant, callsCount)) {
+        accepted++;
+      }
+    }
+    return accepted;
+  }
+}
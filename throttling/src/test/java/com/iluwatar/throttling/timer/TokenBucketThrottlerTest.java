@@ -0,0 +1,88 @@
+/*
+ * The MIT License
+ * Copyright © 2014-2021 Ilkka Seppälä
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.iluwatar.throttling.timer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.iluwatar.throttling.CallsCount;
+import com.iluwatar.throttling.Tenant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * TokenBucketThrottlerTest to test bursts and lazy refill of the token bucket.
+ */
+class TokenBucketThrottlerTest {
+
+  private final AtomicLong now = new AtomicLong();
+  private final CallsCount callsCount = new CallsCount();
+  private final Tenant tenant = new Tenant("tenant", 4, callsCount);
+  private final TokenBucketThrottler throttler = new TokenBucketThrottler(1000, now::get);
+
+  @Test
+  void allowsBurstUpToLimit() {
+    for (var i = 0; i < 4; i++) {
+      assertTrue(throttler.tryAcquire(tenant, callsCount));
+    }
+    assertFalse(throttler.tryAcquire(tenant, callsCount));
+    assertEquals(4, callsCount.getCount("tenant"));
+  }
+
+  @Test
+  void refillsOneTokenPerInterval() {
+    for (var i = 0; i < 4; i++) {
+      throttler.tryAcquire(tenant, callsCount);
+    }
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(249));
+    assertFalse(throttler.tryAcquire(tenant, callsCount));
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+    assertTrue(throttler.tryAcquire(tenant, callsCount));
+    assertFalse(throttler.tryAcquire(tenant, callsCount));
+  }
+
+  @Test
+  void neverHoldsMoreThanLimitAfterIdling() {
+    now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+    var accepted = 0;
+    for (var i = 0; i < 10; i++) {
+      if (throttler.tryAcquire(tenant, callsCount)) {
+        accepted++;
+      }
+    }
+    assertEquals(4, accepted);
+  }
+
+  @Test
+  void tenantsHaveSeparateBuckets() {
+    var other = new Tenant("other", 1, callsCount);
+    assertTrue(throttler.tryAcquire(other, callsCount));
+    assertFalse(throttler.tryAcquire(other, callsCount));
+    assertTrue(throttler.tryAcquire(tenant, callsCount));
+    assertFalse(throttler.tryAcquire(new Tenant("none", 0, callsCount), callsCount));
+  }
+}